@@ -8,6 +8,9 @@
 #   http://developer.android.com/guide/developing/tools/proguard.html
 
 # Add any project specific keep options here:
+# rules for @Keep elements are generated by module processor into
+# build/intermediates/classes/release/META-INF/proguard/co.infinum.supportannotations.app.pro
+# and listed after this file in build.gradle, so they are not written here by hand
 
 # If your project uses WebView with JS, uncomment the following
 # and specify the fully qualified class name to the JavaScript interface
@@ -0,0 +1,82 @@
+package co.infinum.supportannotations;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import android.support.annotation.MainThread;
+import android.util.Log;
+
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.timing.FrameBudget;
+
+/**
+ * Logs every {@code @MainThread} and {@code @UiThread} call which took longer than a frame,
+ * together with the name of the method, and a report of all timed methods whenever an
+ * activity stops. Methods are timed only in builds with {@code -PmeasureFrameBudget}.
+ */
+public final class AppFrameBudget implements FrameBudget.Listener, Application.ActivityLifecycleCallbacks {
+
+    private static final String TAG = "FrameBudget";
+
+    private static boolean installed;
+
+    private AppFrameBudget() {
+    }
+
+    /**
+     * Installs the listener and registers for activity lifecycle callbacks on the application, once.
+     */
+    @MainThread
+    public static void install(Context context) {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        AppFrameBudget budget = new AppFrameBudget();
+        FrameBudget.setListener(budget);
+        ((Application) context.getApplicationContext()).registerActivityLifecycleCallbacks(budget);
+    }
+
+    @Override
+    public void onOverBudget(String method, long nanos) {
+        Log.w(TAG, method + " took " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms, frame budget is "
+                + TimeUnit.NANOSECONDS.toMillis(FrameBudget.budgetNanos()) + "ms");
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+        Log.i(TAG, FrameBudget.report());
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        // no op
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+        // no op
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+        // no op
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+        // no op
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        // no op
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        // no op
+    }
+}
@@ -0,0 +1,126 @@
+package co.infinum.supportannotations;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.support.v4.content.ContextCompat;
+
+import co.infinum.supportannotations.runtime.permissions.PermissionBackend;
+import co.infinum.supportannotations.runtime.permissions.PermissionCache;
+import co.infinum.supportannotations.runtime.permissions.PermissionRequirement;
+
+/**
+ * Answers permission checks for {@code @RequiresPermission} methods of {@link Utility}
+ * from a {@link PermissionCache}, instead of asking the package manager on every call.
+ * Snapshot is dropped when the app comes to the foreground, that is when its first activity
+ * starts, since permissions can be revoked only while the app is in the background.
+ * Activities which request permissions should call {@link #onRequestPermissionsResult()} as well.
+ */
+public final class AppPermissions implements Application.ActivityLifecycleCallbacks {
+
+    private static volatile AppPermissions instance;
+
+    private final PermissionCache cache;
+
+    /**
+     * Number of started activities. Lifecycle callbacks run on the main thread, so it needs no lock.
+     */
+    private int startedActivities;
+
+    private AppPermissions(final Context context) {
+        this.cache = new PermissionCache(new PermissionBackend() {
+            @Override
+            public boolean isGranted(String permission) {
+                return ContextCompat.checkSelfPermission(context, permission) == PackageManager.PERMISSION_GRANTED;
+            }
+        }, UtilityPermissions.all());
+    }
+
+    /**
+     * Returns the single instance, registered for activity lifecycle
+     * callbacks on the application.
+     */
+    public static AppPermissions get(Context context) {
+        AppPermissions permissions = instance;
+        if (permissions == null) {
+            synchronized (AppPermissions.class) {
+                permissions = instance;
+                if (permissions == null) {
+                    Application application = (Application) context.getApplicationContext();
+                    permissions = new AppPermissions(application);
+                    application.registerActivityLifecycleCallbacks(permissions);
+                    instance = permissions;
+                }
+            }
+        }
+        return permissions;
+    }
+
+    public boolean isGranted(PermissionRequirement requirement) {
+        return cache.isGranted(requirement);
+    }
+
+    /**
+     * Runs {@code action} only if {@code requirement} is satisfied.
+     *
+     * @return {@code true} if action was run
+     */
+    public boolean runIfGranted(PermissionRequirement requirement, Runnable action) {
+        return cache.runIfGranted(requirement, action);
+    }
+
+    /**
+     * Call from {@code Activity.onRequestPermissionsResult}, after the user granted or denied permissions.
+     */
+    public void onRequestPermissionsResult() {
+        cache.invalidate();
+    }
+
+    /**
+     * Returns cache with its refresh and invalidation counters.
+     */
+    public PermissionCache cache() {
+        return cache;
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+        if (startedActivities++ == 0) {
+            cache.invalidate(); // back from the background
+        }
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        // permissions do not change while the app is in the foreground
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+        // no op
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+        // no op
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+        if (startedActivities > 0) { // an activity may have started before this was registered
+            startedActivities--;
+        }
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        // no op
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        // no op
+    }
+}
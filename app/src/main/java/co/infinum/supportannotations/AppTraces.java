@@ -0,0 +1,58 @@
+package co.infinum.supportannotations;
+
+import android.content.Context;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import co.infinum.supportannotations.runtime.timing.TraceRecorder;
+
+/**
+ * Writes calls of methods with thread annotations, recorded by {@link TraceRecorder}, into
+ * a Chrome trace file in the app files directory. Pull it with
+ * {@code adb shell run-as co.infinum.supportannotations cat files/trace.json > trace.json}
+ * and open it in {@code chrome://tracing}. Calls are recorded only in builds with {@code -PrecordTraces}.
+ */
+public final class AppTraces {
+
+    private static final String TAG = "AppTraces";
+
+    private static final String FILE_NAME = "trace.json";
+
+    private AppTraces() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Writes the trace off the main thread, replacing the previous one.
+     */
+    public static Future<File> writeInBackground(Context context) {
+        final File file = new File(context.getFilesDir(), FILE_NAME);
+        return AppWorkers.dispatcher().submit(new Callable<File>() {
+            @Override
+            public File call() throws IOException {
+                write(file);
+                return file;
+            }
+        });
+    }
+
+    @WorkerThread
+    public static void write(File file) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try {
+            TraceRecorder.writeChromeTrace(writer);
+        } finally {
+            writer.close();
+        }
+        Log.i(TAG, "Trace written to " + file);
+    }
+}
@@ -0,0 +1,36 @@
+package co.infinum.supportannotations;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+import co.infinum.supportannotations.runtime.threading.WorkerDispatcher;
+
+/**
+ * Holds the {@link WorkerDispatcher} used to call {@code @WorkerThread} methods through
+ * generated classes, such as {@code UtilityWorkers}. Callbacks of work submitted from
+ * the main thread are posted back to the main looper.
+ */
+public final class AppWorkers {
+
+    private static final WorkerDispatcher DISPATCHER = new WorkerDispatcher(new MainThreadExecutor());
+
+    private AppWorkers() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    public static WorkerDispatcher dispatcher() {
+        return DISPATCHER;
+    }
+
+    private static final class MainThreadExecutor implements Executor {
+
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable runnable) {
+            handler.post(runnable);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package co.infinum.supportannotations;
+
+import android.support.annotation.MainThread;
+import android.view.Choreographer;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs every runnable on the main thread at the start of the next frame, together with
+ * input handling and animations and before the frame is drawn. Together with a
+ * {@code ConflatingChannel}, this delivers at most one update per frame.
+ * <br /><br />
+ * Executor can be used from any thread, but it has to be created on the main thread,
+ * because {@link Choreographer} belongs to the looper of the thread which asks for it.
+ */
+public final class FrameExecutor implements Executor {
+
+    private final Choreographer choreographer;
+
+    @MainThread
+    public FrameExecutor() {
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    @Override
+    public void execute(final Runnable runnable) {
+        choreographer.postFrameCallback(new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                runnable.run();
+            }
+        });
+    }
+}
@@ -7,12 +7,17 @@ import android.os.AsyncTask;
 import android.os.Binder;
 import android.os.Bundle;
 import android.os.UserManager;
+import android.support.annotation.NonNull;
 import android.support.v4.app.ActivityCompat;
 import android.support.v4.content.ContextCompat;
 import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
 
 import co.infinum.supportannotations.Utility.ExampleUIThreadClass;
 import co.infinum.supportannotations.Utility.ExampleWorkerThreadClass;
+import co.infinum.supportannotations.runtime.threading.ConflatingChannel;
+import co.infinum.supportannotations.runtime.validation.ContractSampler;
+import co.infinum.supportannotations.runtime.validation.ViolationReporter;
 
 import static co.infinum.supportannotations.Utility.acceptRGBColor;
 import static co.infinum.supportannotations.Utility.accepts0to255;
@@ -55,6 +60,23 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        if (BuildConfig.MEASURE_FRAME_BUDGET) {
+            AppFrameBudget.install(this); // logs main thread methods which take longer than a frame
+        }
+        if (BuildConfig.SAMPLE_CONTRACTS) {
+            ContractSampler.setSampling(true); // hot methods check only some calls
+        }
+        if (BuildConfig.REPORT_VIOLATIONS) {
+            ViolationReporter.setListener(new ViolationReporter.Listener() {
+                @Override
+                public void onViolation(String method, String value, String thread, long suppressed) {
+                    Log.w("ViolationReporter", method + " violated with " + value + " on " + thread
+                            + ", " + suppressed + " more since last reported");
+                }
+            });
+            ViolationReporter.setReporting(true);
+        }
+
         //region NonNull and Nullable returns
         /* When receiving a return value from method that has @Nullable annotation,
          * Android Studio will be cautious and warn about possible null value. */
@@ -88,6 +110,8 @@ public class MainActivity extends AppCompatActivity {
          * ResourceDef annotation should be used, specifically the resource which is needed. */
         acceptsStringResource(R.string.app_name); // requires string resource
 
+        sizeAtLeast1(ResolvedStrings.get(this).getString(R.string.app_name)); // resolves once, then comes from cache
+
         acceptsStringResource(125000); // it is an int, but not string resource
 
         acceptsStringResource(R.id.tv_hello_world); // string resource expected, not ID
@@ -117,6 +141,8 @@ public class MainActivity extends AppCompatActivity {
 
         onWorkerThread(); // should not run on main thread
 
+        UtilityWorkers.onWorkerThread(AppWorkers.dispatcher()); // generated, moves the call to a worker thread
+
         onBinderThread(); // should not run on main thread
 
         /* Worker thread method does not work in above example because it is called from the main/ui thread.
@@ -136,6 +162,28 @@ public class MainActivity extends AppCompatActivity {
             }
         };
 
+        /* AsyncTask.publishProgress posts a message for every update, and most of them are stale
+         * by the time onProgressUpdate runs. A conflating channel keeps only the latest update
+         * and delivers it on the main thread, at most once per frame. */
+        final ConflatingChannel<Integer> progress = ConflatingChannel.latestWins(new FrameExecutor(),
+                new ConflatingChannel.Receiver<Integer>() {
+                    @Override
+                    public void onReceive(Integer percent) {
+                        onMainThread(); // works, delivered on the main thread
+                    }
+                });
+        new AsyncTask<Void, Void, Void>() {
+            @Override
+            protected Void doInBackground(Void... params) {
+                for (int percent = 0; percent <= 100; percent++) {
+                    onWorkerThread();
+
+                    progress.send(percent); // never blocks, from any number of threads
+                }
+                return null;
+            }
+        };
+
         /*todo NOTE binder class example at the bottom */
 
         //endregion
@@ -149,6 +197,15 @@ public class MainActivity extends AppCompatActivity {
         final ExampleWorkerThreadClass workerThreadObject = new ExampleWorkerThreadClass(); // annotated with WorkerThread
         workerThreadObject.doesNotHaveWorkerThreadAnnotation(); // does not work on UiThread, even though method is not annotated
 
+        Utility_ExampleWorkerThreadClassWorkers.doesNotHaveWorkerThreadAnnotation(AppWorkers.dispatcher(),
+                workerThreadObject); // generated for every method of the class, moves the call to a worker thread
+
+        /* Worker thread classes are not thread safe by themselves. A confined instance lives on its own serial lane,
+         * so its methods run on worker threads, but never two at a time, and its state needs no locks. */
+        Utility_ExampleWorkerThreadClassConfined confinedObject = new Utility_ExampleWorkerThreadClassConfined(
+                AppWorkers.dispatcher(), new ExampleWorkerThreadClass()); // generated for every worker thread class
+        confinedObject.doesNotHaveWorkerThreadAnnotation(); // runs on the lane, after every earlier call
+
         /* To prove this in the same way as for methods, calling the same methods from async task yields
          * different results than when called from the main thread. */
         new AsyncTask<Void, Void, Void>() {
@@ -184,6 +241,8 @@ public class MainActivity extends AppCompatActivity {
 
         acceptRGBColor(ContextCompat.getColor(this, R.color.colorPrimary)); // resolves into a color
 
+        acceptRGBColor(ResolvedColors.get(this).getColor(R.color.colorPrimary)); // resolves once, then comes from cache
+
         /* Same as before, method can also return RGB color. Tools are smart enough to implicitly
          * check the value when provided to another method later on. */
         int color = returnsRGBColor(); // returns an RGB color
@@ -264,6 +323,15 @@ public class MainActivity extends AppCompatActivity {
 //        }
         requiresDangerousPermission(); // Requires a permission which is set to manifest, but is considered dangerous.
                                        // Must be checked, or caller risks SecurityException.
+
+        /* Checking every time is an IPC call into the package manager. Generated UtilityPermissions lists
+         * permissions of every annotated method, so all of them can be checked once and answered from a cache. */
+        AppPermissions.get(this).runIfGranted(UtilityPermissions.REQUIRES_DANGEROUS_PERMISSION, new Runnable() {
+            @Override
+            public void run() {
+                requiresDangerousPermission(); // runs only with the permission granted
+            }
+        });
         //endregion
 
         //region Call super
@@ -304,6 +372,27 @@ public class MainActivity extends AppCompatActivity {
 
     }
 
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions,
+            @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        AppPermissions.get(this).onRequestPermissionsResult(); // granted permissions are checked again
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (BuildConfig.RECORD_TRACES) {
+            AppTraces.writeInBackground(this); // timeline of which thread ran which annotated method
+        }
+        if (BuildConfig.SAMPLE_CONTRACTS) {
+            Log.i("ContractSampler", ContractSampler.report()); // checked share of calls and violations per method
+        }
+        if (BuildConfig.REPORT_VIOLATIONS) {
+            Log.i("ViolationReporter", ViolationReporter.report()); // recorded violations per method
+        }
+    }
+
     /**
      * Prints the String value of provided {@code object}.
      */
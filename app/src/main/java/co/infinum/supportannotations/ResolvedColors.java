@@ -0,0 +1,78 @@
+package co.infinum.supportannotations;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.support.annotation.ColorInt;
+import android.support.annotation.ColorRes;
+import android.support.annotation.MainThread;
+import android.support.v4.content.ContextCompat;
+
+import co.infinum.supportannotations.runtime.resources.ColorCache;
+import co.infinum.supportannotations.runtime.resources.ColorResolver;
+
+/**
+ * Resolves {@code @ColorRes} ids into {@code @ColorInt} values once and keeps them
+ * in a {@link ColorCache}. Colors are resolved against the application context and
+ * forgotten whenever configuration changes. Call {@link #invalidate()} after
+ * the application theme is changed.
+ */
+@MainThread
+public final class ResolvedColors implements ComponentCallbacks {
+
+    private static ResolvedColors instance;
+
+    private final ColorCache cache;
+
+    private ResolvedColors(final Context context) {
+        this.cache = new ColorCache(new ColorResolver() {
+            @Override
+            public int resolveColor(int colorRes) {
+                return ContextCompat.getColor(context, colorRes);
+            }
+        });
+    }
+
+    /**
+     * Returns the single instance, registered for configuration changes
+     * on the application context.
+     */
+    public static ResolvedColors get(Context context) {
+        if (instance == null) {
+            Context applicationContext = context.getApplicationContext();
+            instance = new ResolvedColors(applicationContext);
+            applicationContext.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns resolved color for {@code colorRes}. Only the first call for each
+     * color after a configuration change goes through {@code Resources}.
+     */
+    @ColorInt
+    public int getColor(@ColorRes int colorRes) {
+        return cache.getColor(colorRes);
+    }
+
+    public void invalidate() {
+        cache.invalidate();
+    }
+
+    /**
+     * Returns cache with its hit and miss counters.
+     */
+    public ColorCache cache() {
+        return cache;
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        cache.invalidate();
+    }
+
+    @Override
+    public void onLowMemory() {
+        // cached colors take only a few bytes, nothing worth releasing
+    }
+}
@@ -0,0 +1,84 @@
+package co.infinum.supportannotations;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.support.annotation.MainThread;
+import android.support.annotation.StringRes;
+
+import co.infinum.supportannotations.runtime.resources.StringCache;
+import co.infinum.supportannotations.runtime.resources.StringResolver;
+
+/**
+ * Resolves {@code @StringRes} ids into strings once and keeps the most recently
+ * used ones in a {@link StringCache}. Strings are resolved against the application
+ * context and forgotten whenever configuration changes.
+ */
+@MainThread
+public final class ResolvedStrings implements ComponentCallbacks {
+
+    private static final int MAX_SIZE = 128;
+
+    private static ResolvedStrings instance;
+
+    private final StringCache cache;
+
+    private ResolvedStrings(final Context context) {
+        this.cache = new StringCache(new StringResolver() {
+            @Override
+            public String resolveString(int stringRes) {
+                return context.getString(stringRes);
+            }
+        }, MAX_SIZE, context.getResources().getConfiguration().locale);
+    }
+
+    /**
+     * Returns the single instance, registered for configuration changes
+     * on the application context.
+     */
+    public static ResolvedStrings get(Context context) {
+        if (instance == null) {
+            Context applicationContext = context.getApplicationContext();
+            instance = new ResolvedStrings(applicationContext);
+            applicationContext.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns string for {@code stringRes}. Only the first call for each
+     * string after a configuration change goes through {@code Resources}.
+     */
+    public String getString(@StringRes int stringRes) {
+        return cache.getString(stringRes);
+    }
+
+    /**
+     * Returns string for {@code stringRes} formatted with {@code args}, the same
+     * as {@code Context.getString(stringRes, args)}.
+     */
+    public String getString(@StringRes int stringRes, Object... args) {
+        return cache.getString(stringRes, args);
+    }
+
+    public void invalidate() {
+        cache.invalidate();
+    }
+
+    /**
+     * Returns cache with its hit, miss and eviction counters.
+     */
+    public StringCache cache() {
+        return cache;
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        cache.invalidate(newConfig.locale);
+    }
+
+    @Override
+    public void onLowMemory() {
+        cache.invalidate();
+    }
+}
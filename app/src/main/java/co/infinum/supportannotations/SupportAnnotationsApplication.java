@@ -0,0 +1,72 @@
+package co.infinum.supportannotations;
+
+import android.app.Application;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+import co.infinum.supportannotations.runtime.index.AnnotationIndex;
+
+/**
+ * Loads the annotation index of the app off the main thread when the app starts, so support
+ * annotations can be looked up by method key, see {@link AnnotationIndex}. Index is packaged
+ * in the APK with other Java resources, see {@code app/build.gradle}, where it is compressed,
+ * so it is read into memory rather than mapped.
+ */
+public class SupportAnnotationsApplication extends Application {
+
+    /**
+     * Same as apt argument {@code supportannotations.module} in {@code app/build.gradle}.
+     */
+    static final String MODULE = "app";
+
+    private static final String TAG = "AnnotationIndex";
+
+    private static volatile AnnotationIndex annotationIndex;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        AppWorkers.dispatcher().submit(new Callable<AnnotationIndex>() {
+            @Override
+            public AnnotationIndex call() {
+                // nobody waits for the future, so errors are logged here rather than left in it
+                try {
+                    annotationIndex = loadAnnotationIndex();
+                } catch (IOException | RuntimeException e) {
+                    Log.e(TAG, "Cannot load annotation index", e);
+                }
+                return annotationIndex;
+            }
+        });
+    }
+
+    /**
+     * Returns the annotation index of the app, or {@code null} while it is loading, or if it is not packaged.
+     */
+    @Nullable
+    public static AnnotationIndex annotationIndex() {
+        return annotationIndex;
+    }
+
+    @WorkerThread
+    static AnnotationIndex loadAnnotationIndex() throws IOException {
+        String resource = AnnotationIndex.resource(MODULE);
+        InputStream input = SupportAnnotationsApplication.class.getClassLoader().getResourceAsStream(resource);
+        if (input == null) {
+            Log.w(TAG, resource + " is not packaged");
+            return null;
+        }
+        try {
+            AnnotationIndex index = AnnotationIndex.read(input);
+            Log.i(TAG, "Loaded " + index.elementCount() + " annotated elements");
+            return index;
+        } finally {
+            input.close();
+        }
+    }
+}
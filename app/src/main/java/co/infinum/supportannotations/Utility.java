@@ -25,7 +25,9 @@ import android.support.annotation.VisibleForTesting;
 import android.support.annotation.WorkerThread;
 import android.support.v4.content.ContextCompat;
 
-import java.util.Random;
+import co.infinum.supportannotations.runtime.random.RandomSource;
+import co.infinum.supportannotations.runtime.random.Randomness;
+import co.infinum.supportannotations.runtime.validation.ContractSampler;
 
 /**
  * Holds all examples of how to use {@code support-annotations}.
@@ -33,12 +35,19 @@ import java.util.Random;
  */
 public final class Utility {
 
-    private static Random random = new Random();
-
     private Utility() {
         throw new AssertionError("cannot instantiate");
     }
 
+    /**
+     * Returns {@link RandomSource} for examples which need random values.
+     * Each thread gets its own generator, so examples called from many threads
+     * do not contend on a single shared {@code Random}.
+     */
+    private static RandomSource random() {
+        return Randomness.source();
+    }
+
     //region Nullable and NonNull
 
     /**
@@ -49,7 +58,7 @@ public final class Utility {
      */
     @Nullable
     public static String mayReturnNull() {
-        return random.nextBoolean() ? "not null" : null;
+        return random().nextBoolean() ? "not null" : null;
     }
 
     /**
@@ -95,7 +104,9 @@ public final class Utility {
      * is used instead.
      */
     public static void acceptsStringResource(@StringRes int stringRes) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.ACCEPTS_STRING_RESOURCE)) {
+            UtilityValidators.acceptsStringResource(stringRes);
+        }
     }
 
     /**
@@ -107,7 +118,9 @@ public final class Utility {
      * values, but only resource references, and specifically @
      */
     public static void acceptsColorRes(@ColorRes int colorRes) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.ACCEPTS_COLOR_RES)) {
+            UtilityValidators.acceptsColorRes(colorRes);
+        }
     }
 
     /**
@@ -119,7 +132,11 @@ public final class Utility {
      */
     @IdRes
     public static int returnsIdRes() {
-        return R.id.tv_hello_world;
+        int id = R.id.tv_hello_world;
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.RETURNS_ID_RES)) {
+            UtilityValidators.returnsIdResResult(id);
+        }
+        return id;
     }
 
     /**
@@ -130,7 +147,9 @@ public final class Utility {
      * is hinted with decorated annotations.
      */
     public static void acceptsIdRes(@IdRes int id) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.ACCEPTS_ID_RES)) {
+            UtilityValidators.acceptsIdRes(id);
+        }
     }
 
     /**
@@ -147,7 +166,11 @@ public final class Utility {
      */
     @AnimRes
     public static int returnsAnimRes() {
-        return R.anim.no_op;
+        int anim = R.anim.no_op;
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.RETURNS_ANIM_RES)) {
+            UtilityValidators.returnsAnimResResult(anim);
+        }
+        return anim;
     }
     //endregion
 
@@ -161,7 +184,12 @@ public final class Utility {
      */
     @MainThread
     public static void onMainThread() {
-        // no op
+        long start = UtilityGuards.enterOnMainThread();
+        try {
+            // work which has to run on the main thread
+        } finally {
+            UtilityGuards.exitOnMainThread(start);
+        }
     }
 
     /**
@@ -175,7 +203,12 @@ public final class Utility {
      */
     @UiThread
     public static void onUIThread() {
-        // no op
+        long start = UtilityGuards.enterOnUIThread();
+        try {
+            // work which has to run on the UI thread
+        } finally {
+            UtilityGuards.exitOnUIThread(start);
+        }
     }
 
     /**
@@ -186,7 +219,12 @@ public final class Utility {
      */
     @WorkerThread
     public static void onWorkerThread() {
-        // no op
+        long start = UtilityGuards.enterOnWorkerThread();
+        try {
+            // work which blocks, such as disk or network access
+        } finally {
+            UtilityGuards.exitOnWorkerThread(start);
+        }
     }
 
     /**
@@ -200,7 +238,12 @@ public final class Utility {
      */
     @BinderThread
     public static void onBinderThread() {
-        // no op
+        long start = UtilityGuards.enterOnBinderThread();
+        try {
+            // work of a binder call
+        } finally {
+            UtilityGuards.exitOnBinderThread(start);
+        }
     }
     //endregion
 
@@ -243,7 +286,9 @@ public final class Utility {
      * gives an error.
      */
     public static void accepts0to255(@IntRange(from = 0, to = 255) int value) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.ACCEPTS0TO255)) {
+            UtilityValidators.accepts0to255(value);
+        }
     }
 
     /**
@@ -255,7 +300,9 @@ public final class Utility {
      * range, tooling gives an error.
      */
     public static void acceptsFloat0To3(@FloatRange(from = 0, to = 3) float value) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.ACCEPTS_FLOAT0_TO3)) {
+            UtilityValidators.acceptsFloat0To3(value);
+        }
     }
 
     /**
@@ -267,7 +314,10 @@ public final class Utility {
      */
     public static void acceptsFloatNegative1to1Exclusive(
             @FloatRange(from = -1f, fromInclusive = false, to = 1f, toInclusive = false) int value) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS
+                && ContractSampler.sample(UtilitySampleSites.ACCEPTS_FLOAT_NEGATIVE1TO1_EXCLUSIVE)) {
+            UtilityValidators.acceptsFloatNegative1to1Exclusive(value);
+        }
     }
 
     /**
@@ -277,7 +327,9 @@ public final class Utility {
      * less than 1 is provided, tooling gives an error.
      */
     public static void sizeAtLeast1(@Size(min = 1) String text) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.SIZE_AT_LEAST1)) {
+            UtilityValidators.sizeAtLeast1(text);
+        }
     }
 
     /**
@@ -287,7 +339,9 @@ public final class Utility {
      * more than 5 is provided, tooling gives an error.
      */
     public static void sizeAtMost5(@Size(max = 5) String text) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.SIZE_AT_MOST5)) {
+            UtilityValidators.sizeAtMost5(text);
+        }
     }
 
     /**
@@ -297,7 +351,9 @@ public final class Utility {
      * length different than 10 is provided, tooling gives an error.
      */
     public static void sizeExactly10(@Size(10) String text) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.SIZE_EXACTLY10)) {
+            UtilityValidators.sizeExactly10(text);
+        }
     }
 
     /**
@@ -308,7 +364,9 @@ public final class Utility {
      * tooling gives an error.
      */
     public static void sizeMultipleOf2(@Size(multiple = 2) String text) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.SIZE_MULTIPLE_OF2)) {
+            UtilityValidators.sizeMultipleOf2(text);
+        }
     }
 
     /**
@@ -319,7 +377,9 @@ public final class Utility {
      * and {@code multiple} is set to 3.
      */
     public static void sizeCombo(@Size(min = 6, max = 12, multiple = 3) String text) {
-        // no op
+        if (BuildConfig.VALIDATE_CONTRACTS && ContractSampler.sample(UtilitySampleSites.SIZE_COMBO)) {
+            UtilityValidators.sizeCombo(text);
+        }
     }
     //endregion
 
@@ -391,7 +451,7 @@ public final class Utility {
      */
     @CheckResult(suggest = "#thisDoesSomething")
     public static int thisDoesSomething() {
-        return random.nextInt();
+        return random().nextInt();
     }
 
     /**
@@ -415,7 +475,7 @@ public final class Utility {
      */
     @VisibleForTesting // also applicable to classes and fields
     public static int returnValueOnlyForTests() {
-        return random.nextInt();
+        return random().nextInt();
     }
     //endregion
 
@@ -434,17 +494,38 @@ public final class Utility {
 
 
     //region helper classes
+
+    /**
+     * Every method of this class is expected to run on the UI thread because
+     * the class itself is decorated with {@code @UiThread}. Runtime checks
+     * follow the same rule, so each method checks for the UI thread even though
+     * it is not annotated on its own, and each method is timed against the frame budget.
+     */
     @UiThread
     public static class ExampleUIThreadClass {
         public void doesNotHaveUIThreadAnnotation() {
-            // no op
+            long start = Utility_ExampleUIThreadClassGuards.enterDoesNotHaveUIThreadAnnotation();
+            try {
+                // work which has to run on the UI thread
+            } finally {
+                Utility_ExampleUIThreadClassGuards.exitDoesNotHaveUIThreadAnnotation(start);
+            }
         }
     }
 
+    /**
+     * Every method of this class is expected to run on a worker thread because
+     * the class itself is decorated with {@code @WorkerThread}.
+     */
     @WorkerThread
     public static class ExampleWorkerThreadClass {
         public void doesNotHaveWorkerThreadAnnotation() {
-            // no op
+            long start = Utility_ExampleWorkerThreadClassGuards.enterDoesNotHaveWorkerThreadAnnotation();
+            try {
+                // work which blocks, such as disk or network access
+            } finally {
+                Utility_ExampleWorkerThreadClassGuards.exitDoesNotHaveWorkerThreadAnnotation(start);
+            }
         }
     }
 
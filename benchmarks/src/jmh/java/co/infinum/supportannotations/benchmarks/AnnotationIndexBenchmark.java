@@ -0,0 +1,168 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.index.AnnotationIndex;
+
+/**
+ * Compares the annotation index written by {@code ValidatorProcessor} for {@code Utility}
+ * with reflection over {@link ReflectedUtility}, which has the same annotations, but retained
+ * at runtime.
+ * <br /><br />
+ * Startup benchmarks load annotations until the range of {@code accepts0to255} can be read:
+ * the index is read from the classpath or mapped from its file, while reflection reads every
+ * annotation of a class which was just loaded by a new class loader, as it would on the
+ * first use in a new process. Lookup benchmarks then read that range, either with the element
+ * found by its key or kept from an earlier lookup, and with the method found by its name or kept.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AnnotationIndexBenchmark {
+
+    private static final String INT_RANGE = "android.support.annotation.IntRange";
+
+    private static final String KEY = AnnotationIndex.methodKey("co.infinum.supportannotations.Utility",
+            "accepts0to255", "int");
+
+    @State(Scope.Thread)
+    public static class Startup {
+
+        URL indexUrl;
+
+        URL reflectedLocation;
+
+        URLClassLoader loader;
+
+        @Setup
+        public void setUp() {
+            indexUrl = AnnotationIndexBenchmark.class.getClassLoader().getResource(AnnotationIndex.resource("app"));
+            if (indexUrl == null || !"file".equals(indexUrl.getProtocol())) {
+                throw new IllegalStateException("compile the app first, index is not in a directory: " + indexUrl);
+            }
+            reflectedLocation = ReflectedUtility.class.getProtectionDomain().getCodeSource().getLocation();
+        }
+
+        @Setup(Level.Invocation)
+        public void newLoader() {
+            // parent is the bootstrap loader, so ReflectedUtility is loaded again and its annotations are not cached
+            loader = new URLClassLoader(new URL[] { reflectedLocation }, null);
+        }
+
+        @TearDown(Level.Invocation)
+        public void closeLoader() throws IOException {
+            loader.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lookup {
+
+        AnnotationIndex index;
+
+        int element;
+
+        Method method;
+
+        @Setup
+        public void setUp() throws IOException, NoSuchMethodException {
+            index = readIndex();
+            element = index.find(KEY);
+            method = ReflectedUtility.class.getDeclaredMethod("accepts0to255", int.class);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long startupReadIndex() throws IOException {
+        AnnotationIndex index = readIndex();
+        return index.longValue(index.findAnnotation(index.find(KEY), INT_RANGE, 0), "to");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long startupMapIndex(Startup startup) throws Exception {
+        AnnotationIndex index = AnnotationIndex.map(new File(startup.indexUrl.toURI()));
+        return index.longValue(index.findAnnotation(index.find(KEY), INT_RANGE, 0), "to");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long startupReflection(Startup startup) throws Exception {
+        Class<?> type = startup.loader.loadClass(ReflectedUtility.class.getName());
+        long to = 0;
+        for (Method method : type.getDeclaredMethods()) {
+            method.getAnnotations();
+            for (Annotation[] parameterAnnotations : method.getParameterAnnotations()) {
+                for (Annotation annotation : parameterAnnotations) {
+                    if (method.getName().equals("accepts0to255")) {
+                        to = (Long) annotation.annotationType().getMethod("to").invoke(annotation);
+                    }
+                }
+            }
+        }
+        return to;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long lookupIndexByKey(Lookup lookup) {
+        AnnotationIndex index = lookup.index;
+        return index.longValue(index.findAnnotation(index.find(KEY), INT_RANGE, 0), "to");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long lookupIndexByElement(Lookup lookup) {
+        AnnotationIndex index = lookup.index;
+        return index.longValue(index.findAnnotation(lookup.element, INT_RANGE, 0), "to");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long lookupReflectionByName() throws NoSuchMethodException {
+        Method method = ReflectedUtility.class.getDeclaredMethod("accepts0to255", int.class);
+        return ((ReflectedUtility.IntRange) method.getParameterAnnotations()[0][0]).to();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long lookupReflectionByMethod(Lookup lookup) {
+        return ((ReflectedUtility.IntRange) lookup.method.getParameterAnnotations()[0][0]).to();
+    }
+
+    private static AnnotationIndex readIndex() throws IOException {
+        InputStream input = AnnotationIndexBenchmark.class.getClassLoader()
+                .getResourceAsStream(AnnotationIndex.resource("app"));
+        if (input == null) {
+            throw new IllegalStateException(
+                    "compile the app first, " + AnnotationIndex.resource("app") + " is missing");
+        }
+        try {
+            return AnnotationIndex.read(input);
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.color.ArgbOps;
+import co.infinum.supportannotations.runtime.color.ParallelArgbOps;
+
+/**
+ * Compares {@link ArgbOps} against the usual per pixel code written with
+ * {@code android.graphics.Color} helpers, copied into {@link Color} so they run on the JVM.
+ * Pixel arrays are sized as bitmaps of 256x256 and 2048x2048 pixels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ArgbOpsBenchmark {
+
+    private static final int TINT = 0xFF3F51B5;
+
+    @Param({ "65536", "4194304" })
+    public int pixelCount;
+
+    private int[] pixels;
+
+    private int[] overlay;
+
+    private int[] luminance;
+
+    private ExecutorService executor;
+
+    private ParallelArgbOps parallel;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        pixels = new int[pixelCount];
+        overlay = new int[pixelCount];
+        luminance = new int[pixelCount];
+        for (int i = 0; i < pixelCount; i++) {
+            pixels[i] = random.nextInt() | 0xFF000000;
+            overlay[i] = random.nextInt() & 0x7F7F7F7F;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(cores);
+        parallel = new ParallelArgbOps(executor, cores, 16384);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    //region tint
+
+    @Benchmark
+    public int[] tintPerPixel() {
+        int ta = Color.alpha(TINT);
+        int tr = Color.red(TINT);
+        int tg = Color.green(TINT);
+        int tb = Color.blue(TINT);
+        for (int i = 0; i < pixels.length; i++) {
+            int color = pixels[i];
+            pixels[i] = Color.argb(Color.alpha(color) * ta / 255, Color.red(color) * tr / 255,
+                    Color.green(color) * tg / 255, Color.blue(color) * tb / 255);
+        }
+        return pixels;
+    }
+
+    @Benchmark
+    public int[] tintBatch() {
+        ArgbOps.tint(pixels, 0, pixels.length, TINT);
+        return pixels;
+    }
+
+    @Benchmark
+    public int[] tintParallel() {
+        parallel.tint(pixels, TINT);
+        return pixels;
+    }
+    //endregion
+
+    //region premultiply
+
+    @Benchmark
+    public int[] premultiplyPerPixel() {
+        for (int i = 0; i < pixels.length; i++) {
+            int color = pixels[i];
+            int alpha = Color.alpha(color);
+            pixels[i] = Color.argb(alpha, Color.red(color) * alpha / 255, Color.green(color) * alpha / 255,
+                    Color.blue(color) * alpha / 255);
+        }
+        return pixels;
+    }
+
+    @Benchmark
+    public int[] premultiplyBatch() {
+        ArgbOps.premultiply(pixels, 0, pixels.length);
+        return pixels;
+    }
+
+    @Benchmark
+    public int[] premultiplyParallel() {
+        parallel.premultiply(pixels);
+        return pixels;
+    }
+    //endregion
+
+    //region blend
+
+    @Benchmark
+    public int[] blendPerPixel() {
+        for (int i = 0; i < pixels.length; i++) {
+            int src = overlay[i];
+            int dst = pixels[i];
+            int inverse = 255 - Color.alpha(src);
+            pixels[i] = Color.argb(Color.alpha(src) + Color.alpha(dst) * inverse / 255,
+                    Color.red(src) + Color.red(dst) * inverse / 255,
+                    Color.green(src) + Color.green(dst) * inverse / 255,
+                    Color.blue(src) + Color.blue(dst) * inverse / 255);
+        }
+        return pixels;
+    }
+
+    @Benchmark
+    public int[] blendBatch() {
+        ArgbOps.blend(overlay, 0, pixels, 0, pixels.length);
+        return pixels;
+    }
+
+    @Benchmark
+    public int[] blendParallel() {
+        parallel.blend(overlay, pixels);
+        return pixels;
+    }
+    //endregion
+
+    //region luminance
+
+    @Benchmark
+    public int[] luminancePerPixel() {
+        for (int i = 0; i < pixels.length; i++) {
+            int color = pixels[i];
+            luminance[i] = (int) (0.2126f * Color.red(color) + 0.7152f * Color.green(color)
+                    + 0.0722f * Color.blue(color));
+        }
+        return luminance;
+    }
+
+    @Benchmark
+    public int[] luminanceBatch() {
+        ArgbOps.luminance(pixels, 0, pixels.length, luminance, 0);
+        return luminance;
+    }
+
+    @Benchmark
+    public int[] luminanceParallel() {
+        parallel.luminance(pixels, luminance);
+        return luminance;
+    }
+    //endregion
+
+    /**
+     * Same implementation as helpers in {@code android.graphics.Color}.
+     */
+    static final class Color {
+
+        static int alpha(int color) {
+            return color >>> 24;
+        }
+
+        static int red(int color) {
+            return (color >> 16) & 0xFF;
+        }
+
+        static int green(int color) {
+            return (color >> 8) & 0xFF;
+        }
+
+        static int blue(int color) {
+            return color & 0xFF;
+        }
+
+        static int argb(int alpha, int red, int green, int blue) {
+            return (alpha << 24) | (red << 16) | (green << 8) | blue;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.color.ArgbTileProcessor;
+import co.infinum.supportannotations.runtime.color.ArgbTransforms;
+
+/**
+ * Runs {@link ArgbTileProcessor} over synthetic images of 1 GB and 4 GB, far larger
+ * than a typical app heap. Files are created sparse, so setup does not have to write them,
+ * but every run writes the whole output and needs as much free disk space.
+ * <br /><br />
+ * GC profiler should report allocation that does not grow with the file size.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArgbTileProcessorBenchmark {
+
+    private static final long MEGABYTE = 1024 * 1024;
+
+    @Param({ "1024", "4096" })
+    public long sizeMb;
+
+    @Param({ "65536" })
+    public int tilePixels;
+
+    private File input;
+
+    private File output;
+
+    private ArgbTileProcessor processor;
+
+    @Setup
+    public void setUp() throws IOException {
+        input = File.createTempFile("argb-input", ".argb");
+        output = File.createTempFile("argb-output", ".argb");
+        RandomAccessFile file = new RandomAccessFile(input, "rw");
+        try {
+            file.setLength(sizeMb * MEGABYTE);
+        } finally {
+            file.close();
+        }
+        processor = new ArgbTileProcessor(tilePixels, ArgbTransforms.premultiply(), ArgbTransforms.tint(0xFF3F51B5));
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public void processInPlace() throws IOException {
+        processor.processInPlace(input);
+    }
+
+    @Benchmark
+    public void processIntoOutput() throws IOException {
+        processor.process(input, output);
+    }
+}
@@ -0,0 +1,106 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.UtilityValidators;
+import co.infinum.supportannotations.runtime.validation.BulkRanges;
+import co.infinum.supportannotations.runtime.validation.FloatRangeSpec;
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+import co.infinum.supportannotations.runtime.validation.ParallelRangeValidator;
+
+/**
+ * Validates a whole frame of values which are all in range, either one call
+ * per element through generated validators, in bulk, or in bulk on all cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BulkRangesBenchmark {
+
+    private static final IntRangeSpec INT_RANGE = IntRangeSpec.of(0, 255);
+
+    private static final FloatRangeSpec FLOAT_RANGE = FloatRangeSpec.of(0, 3);
+
+    @Param({ "1024", "65536", "4194304" })
+    public int size;
+
+    private int[] ints;
+
+    private float[] floats;
+
+    private ExecutorService executor;
+
+    private ParallelRangeValidator parallel;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ints = new int[size];
+        floats = new float[size];
+        for (int i = 0; i < size; i++) {
+            ints[i] = random.nextInt(256);
+            floats[i] = random.nextFloat() * 3;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(cores);
+        parallel = new ParallelRangeValidator(executor, cores, 16384);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void scalarInts() {
+        for (int value : ints) {
+            UtilityValidators.accepts0to255(value);
+        }
+    }
+
+    @Benchmark
+    public int bulkInts() {
+        return BulkRanges.firstOutOfRange(ints, INT_RANGE);
+    }
+
+    @Benchmark
+    public int parallelInts() {
+        return parallel.firstOutOfRange(ints, INT_RANGE);
+    }
+
+    @Benchmark
+    public void scalarFloats() {
+        for (float value : floats) {
+            UtilityValidators.acceptsFloat0To3(value);
+        }
+    }
+
+    @Benchmark
+    public int bulkFloats() {
+        return BulkRanges.firstOutOfRange(floats, FLOAT_RANGE);
+    }
+
+    @Benchmark
+    public int parallelFloats() {
+        return parallel.firstOutOfRange(floats, FLOAT_RANGE);
+    }
+}
@@ -0,0 +1,195 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import co.infinum.supportannotations.runtime.threading.ConflatingChannel;
+
+/**
+ * Compares progress updates sent from many producer threads to a single thread playing
+ * the main looper, through a {@link ConflatingChannel} and by posting a message for every
+ * update, as {@code AsyncTask.publishProgress} does. Every invocation sends
+ * {@code updates} values from each producer and waits until the looper delivered them.
+ * <br /><br />
+ * Delivery does a little work, like binding a progress bar would. Besides the time of
+ * an invocation, JMH reports counters of {@link Counts}: looper messages and deliveries,
+ * summed over all measured invocations, and the average and maximum latency from sending
+ * a value to its delivery, each averaged over measured invocations.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 20, batchSize = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConflatingChannelBenchmark {
+
+    private static final long DELIVERY_WORK = 100;
+
+    @Param({ "1", "4", "16" })
+    private int producers;
+
+    @Param({ "10000" })
+    private int updates;
+
+    @Param({ "conflating", "perUpdate" })
+    private String delivery;
+
+    private ExecutorService looper;
+
+    private ExecutorService producerPool;
+
+    private final AtomicLong messages = new AtomicLong();
+
+    private ConflatingChannel<Long> channel;
+
+    private final Executor mainLooper = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            messages.incrementAndGet();
+            looper.execute(runnable);
+        }
+    };
+
+    private final Runnable nothing = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    // written only on the looper thread, and read and reset by the benchmark thread while the looper is idle
+    private long deliveries;
+
+    private long totalLatencyNanos;
+
+    private long maxLatencyNanos;
+
+    /**
+     * Counters of an iteration, which has a single invocation. JMH sums counters of measured
+     * iterations, so latencies are divided by their number, and their sums are averages.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counts {
+
+        public long messages;
+
+        public long deliveries;
+
+        public long latencyAverageMicros;
+
+        public long latencyMaxMicros;
+
+        int iterations;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params) {
+            iterations = params.getMeasurement().getCount();
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0;
+            deliveries = 0;
+            latencyAverageMicros = 0;
+            latencyMaxMicros = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        looper = Executors.newSingleThreadExecutor();
+        producerPool = Executors.newFixedThreadPool(producers);
+        channel = ConflatingChannel.latestWins(mainLooper, new ConflatingChannel.Receiver<Long>() {
+            @Override
+            public void onReceive(Long sentAt) {
+                receive(sentAt);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        looper.shutdown();
+        producerPool.shutdown();
+    }
+
+    @Benchmark
+    public void send(Counts counts) throws Exception {
+        messages.set(0);
+        deliveries = 0;
+        totalLatencyNanos = 0;
+        maxLatencyNanos = 0;
+        final boolean conflating = "conflating".equals(delivery);
+        Future<?>[] sent = new Future<?>[producers];
+        for (int p = 0; p < producers; p++) {
+            sent[p] = producerPool.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = 0; i < updates; i++) {
+                        if (conflating) {
+                            channel.send(System.nanoTime());
+                        } else {
+                            mainLooper.execute(new Delivery(System.nanoTime()));
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        for (Future<?> future : sent) {
+            future.get();
+        }
+        // every delivery was scheduled before the producers finished, so it runs before this
+        looper.submit(nothing).get();
+        counts.messages += messages.get();
+        counts.deliveries += deliveries;
+        counts.latencyAverageMicros = TimeUnit.NANOSECONDS.toMicros(totalLatencyNanos / Math.max(1, deliveries))
+                / counts.iterations;
+        counts.latencyMaxMicros = TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos) / counts.iterations;
+    }
+
+    private void receive(long sentAt) {
+        long latency = System.nanoTime() - sentAt;
+        deliveries++;
+        totalLatencyNanos += latency;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        Blackhole.consumeCPU(DELIVERY_WORK);
+    }
+
+    private final class Delivery implements Runnable {
+
+        private final long sentAt;
+
+        Delivery(long sentAt) {
+            this.sentAt = sentAt;
+        }
+
+        @Override
+        public void run() {
+            receive(sentAt);
+        }
+    }
+}
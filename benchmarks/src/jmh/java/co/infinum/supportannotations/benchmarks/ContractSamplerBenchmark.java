@@ -0,0 +1,146 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import co.infinum.supportannotations.UtilityValidators;
+import co.infinum.supportannotations.runtime.validation.ContractSampler;
+
+/**
+ * Measures a checked call of {@code accepts0to255} with every call checked, with adaptive
+ * sampling, and with sampling by a single counter shared by all threads, which sampling
+ * avoids by counting in stripes. Runs on 1 thread, and on 4 and 16 threads in
+ * {@link FourThreads} and {@link SixteenThreads}. Checked calls are counted with
+ * {@link Counts}, so JMH reports how many of all calls were checked next to the time of a call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(1)
+public class ContractSamplerBenchmark {
+
+    private static final int SITE = ContractSampler.register("ContractSamplerBenchmark.accepts0to255");
+
+    private static final int SHARED_PERIOD = 64;
+
+    @State(Scope.Benchmark)
+    public static class Full {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ContractSampler.setSampling(false);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sampled {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ContractSampler.reset();
+            ContractSampler.setSampling(true);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            ContractSampler.setSampling(false);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        final AtomicLong calls = new AtomicLong();
+    }
+
+    /**
+     * Calls and checked calls of a thread in an iteration, summed over threads and measured iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counts {
+
+        public long calls;
+
+        public long checked;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            calls = 0;
+            checked = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Values {
+
+        int value;
+
+        int next() {
+            return value = (value + 1) & 0xFF;
+        }
+    }
+
+    @Benchmark
+    public int unchecked(Values values) {
+        return values.next();
+    }
+
+    @Benchmark
+    public int everyCall(Full full, Values values, Counts counts) {
+        int value = values.next();
+        counts.calls++;
+        if (ContractSampler.sample(SITE)) {
+            counts.checked++;
+            UtilityValidators.accepts0to255(value);
+        }
+        return value;
+    }
+
+    @Benchmark
+    public int sampled(Sampled sampled, Values values, Counts counts) {
+        int value = values.next();
+        counts.calls++;
+        if (ContractSampler.sample(SITE)) {
+            counts.checked++;
+            UtilityValidators.accepts0to255(value);
+        }
+        return value;
+    }
+
+    @Benchmark
+    public int sharedCounter(Shared shared, Values values, Counts counts) {
+        int value = values.next();
+        counts.calls++;
+        if (shared.calls.incrementAndGet() % SHARED_PERIOD == 0) {
+            counts.checked++;
+            UtilityValidators.accepts0to255(value);
+        }
+        return value;
+    }
+
+    @Threads(4)
+    public static class FourThreads extends ContractSamplerBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends ContractSamplerBenchmark {
+    }
+}
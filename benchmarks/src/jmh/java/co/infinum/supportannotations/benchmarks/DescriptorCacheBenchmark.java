@@ -0,0 +1,95 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.Utility;
+import co.infinum.supportannotations.runtime.index.AnnotationIndex;
+import co.infinum.supportannotations.runtime.index.DescriptorCache;
+
+/**
+ * Measures the per-call cost of reading the range of {@code accepts0to255} for a {@link Method},
+ * on all available threads at once, as a reflection-based check would on every call. The
+ * cache is shared by all threads. {@link #reflection()} reads the same range from
+ * {@link ReflectedUtility}, and {@link #indexByKey()} reads it from the index without the cache,
+ * building the key of the method on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class DescriptorCacheBenchmark {
+
+    private AnnotationIndex index;
+
+    private DescriptorCache cache;
+
+    private Method method;
+
+    private Method overloadedMethod;
+
+    private Method reflectedMethod;
+
+    @Setup
+    public void setUp() throws IOException, NoSuchMethodException {
+        InputStream input = DescriptorCacheBenchmark.class.getClassLoader()
+                .getResourceAsStream(AnnotationIndex.resource("app"));
+        if (input == null) {
+            throw new IllegalStateException(
+                    "compile the app first, " + AnnotationIndex.resource("app") + " is missing");
+        }
+        try {
+            index = AnnotationIndex.read(input);
+        } finally {
+            input.close();
+        }
+        cache = new DescriptorCache(index);
+        method = Utility.class.getDeclaredMethod("accepts0to255", int.class);
+        overloadedMethod = Utility.class.getDeclaredMethod("thisDoesSomething", int.class);
+        reflectedMethod = ReflectedUtility.class.getDeclaredMethod("accepts0to255", int.class);
+    }
+
+    @Benchmark
+    public long cached() {
+        return cache.descriptor(method).parameter(0).intRange.to;
+    }
+
+    @Benchmark
+    public boolean cachedOverload() {
+        return cache.descriptor(overloadedMethod).isAnnotated();
+    }
+
+    @Benchmark
+    public long reflection() {
+        return ((ReflectedUtility.IntRange) reflectedMethod.getParameterAnnotations()[0][0]).to();
+    }
+
+    @Benchmark
+    public long indexByKey() {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        String[] parameterNames = new String[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterNames[i] = parameterTypes[i].getName();
+        }
+        String key = AnnotationIndex.methodKey(method.getDeclaringClass().getName(), method.getName(), parameterNames);
+        int annotation = index.findAnnotation(index.find(key), "android.support.annotation.IntRange", 0);
+        return index.longValue(annotation, "to");
+    }
+}
@@ -0,0 +1,36 @@
+package co.infinum.supportannotations.benchmarks;
+
+import co.infinum.supportannotations.runtime.threading.ThreadOracle;
+
+/**
+ * {@link ThreadOracle} which pretends that every benchmark thread is
+ * a particular kind of thread, so thread checks can be measured on
+ * their passing path.
+ */
+final class FixedThreadOracle implements ThreadOracle {
+
+    static final FixedThreadOracle MAIN = new FixedThreadOracle(true, false);
+
+    static final FixedThreadOracle WORKER = new FixedThreadOracle(false, false);
+
+    static final FixedThreadOracle BINDER = new FixedThreadOracle(false, true);
+
+    private final boolean main;
+
+    private final boolean binder;
+
+    private FixedThreadOracle(boolean main, boolean binder) {
+        this.main = main;
+        this.binder = binder;
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return main;
+    }
+
+    @Override
+    public boolean isBinderThread() {
+        return binder;
+    }
+}
@@ -0,0 +1,74 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.timing.FrameBudget;
+
+/**
+ * Measures the cost of timing a method against the frame budget. Disabled timing is
+ * expected to cost the same as no timing at all. Enabled timing costs two clock reads,
+ * measured on their own by {@link #clockOnly()}, plus recording into the histogram,
+ * which is the difference between {@link #enabledTiming()} and {@link #clockOnly()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FrameBudgetBenchmark {
+
+    private static final boolean CONSTANT_DISABLED = false;
+
+    private static final boolean CONSTANT_ENABLED = true;
+
+    private static final int SITE = FrameBudget.register("FrameBudgetBenchmark.enabledTiming");
+
+    private int counter;
+
+    @Benchmark
+    public int noTiming() {
+        return work();
+    }
+
+    @Benchmark
+    public int disabledTiming() {
+        long start = CONSTANT_DISABLED ? FrameBudget.start() : 0;
+        int result = work();
+        if (CONSTANT_DISABLED) {
+            FrameBudget.end(SITE, start);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long clockOnly() {
+        long start = System.nanoTime();
+        int result = work();
+        return System.nanoTime() - start + result;
+    }
+
+    @Benchmark
+    public int enabledTiming() {
+        long start = CONSTANT_ENABLED ? FrameBudget.start() : 0;
+        int result = work();
+        if (CONSTANT_ENABLED) {
+            FrameBudget.end(SITE, start);
+        }
+        return result;
+    }
+
+    private int work() {
+        return ++counter;
+    }
+}
@@ -0,0 +1,183 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.collections.PackedStrings;
+
+/**
+ * Compares {@code @Size(10)} strings, same as {@code Utility.sizeExactly10} takes, in a {@code String[]}
+ * and in {@link PackedStrings}. {@code build*} benchmarks fill either from the same characters, sized up
+ * front, so with {@code -prof gc}, {@code gc.alloc.rate.norm} of each is the footprint of the strings.
+ * {@code equals*} compare every stored string with a probe, {@code hash*} hash every stored string,
+ * which {@code String} caches after the first time, and {@code read*} read a character of every string.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PackedStringsBenchmark {
+
+    private static final int LENGTH = 10;
+
+    @State(Scope.Thread)
+    public static class Values {
+
+        @Param("100000")
+        int size;
+
+        char[] chars;
+
+        Window window;
+
+        String[] strings;
+
+        PackedStrings packed;
+
+        String probe;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(7);
+            chars = new char[size * LENGTH];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) ('a' + random.nextInt(4));
+            }
+            window = new Window(chars);
+            strings = new String[size];
+            packed = PackedStrings.exactly(LENGTH, size);
+            for (int i = 0; i < size; i++) {
+                strings[i] = new String(chars, i * LENGTH, LENGTH);
+                packed.add(strings[i]);
+            }
+            probe = strings[size / 2];
+        }
+    }
+
+    /**
+     * Characters of one string of the pool at a time, so a store is filled without a {@code String} per value.
+     */
+    static final class Window implements CharSequence {
+
+        private final char[] chars;
+
+        int start;
+
+        Window(char[] chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int length() {
+            return LENGTH;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, this.start + start, end - start);
+        }
+    }
+
+    @Benchmark
+    public String[] buildStringArray(Values values) {
+        String[] strings = new String[values.size];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = new String(values.chars, i * LENGTH, LENGTH);
+        }
+        return strings;
+    }
+
+    @Benchmark
+    public PackedStrings buildPacked(Values values) {
+        PackedStrings packed = PackedStrings.exactly(LENGTH, values.size);
+        Window window = values.window;
+        for (int i = 0; i < values.size; i++) {
+            window.start = i * LENGTH;
+            packed.add(window);
+        }
+        return packed;
+    }
+
+    @Benchmark
+    public int equalsStringArray(Values values) {
+        String[] strings = values.strings;
+        String probe = values.probe;
+        int matches = 0;
+        for (String string : strings) {
+            if (string.equals(probe)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int equalsPacked(Values values) {
+        PackedStrings packed = values.packed;
+        String probe = values.probe;
+        int matches = 0;
+        for (int i = 0, size = packed.size(); i < size; i++) {
+            if (packed.equals(i, probe)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int hashStringArray(Values values) {
+        int hash = 0;
+        for (String string : values.strings) {
+            hash += string.hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int hashPacked(Values values) {
+        PackedStrings packed = values.packed;
+        int hash = 0;
+        for (int i = 0, size = packed.size(); i < size; i++) {
+            hash += packed.hashCode(i);
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int readStringArray(Values values) {
+        int sum = 0;
+        for (String string : values.strings) {
+            sum += string.charAt(LENGTH / 2);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int readPacked(Values values) {
+        PackedStrings packed = values.packed;
+        int sum = 0;
+        for (int i = 0, size = packed.size(); i < size; i++) {
+            sum += packed.get(i).charAt(LENGTH / 2);
+        }
+        return sum;
+    }
+}
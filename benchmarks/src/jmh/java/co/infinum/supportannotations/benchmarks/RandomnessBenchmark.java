@@ -0,0 +1,72 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.random.PerThreadRandomSource;
+import co.infinum.supportannotations.runtime.random.RandomSource;
+
+/**
+ * Throughput of a single shared {@link Random} against {@link PerThreadRandomSource}
+ * as the number of threads grows. Shared generator is expected to scale negatively,
+ * while per thread source should scale with the number of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RandomnessBenchmark {
+
+    private final Random shared = new Random();
+
+    private final RandomSource perThread = PerThreadRandomSource.unseeded();
+
+    @Benchmark
+    @Threads(1)
+    public int sharedRandom1Thread() {
+        return shared.nextInt();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int sharedRandom4Threads() {
+        return shared.nextInt();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int sharedRandomAllThreads() {
+        return shared.nextInt();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int perThreadSource1Thread() {
+        return perThread.nextInt();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int perThreadSource4Threads() {
+        return perThread.nextInt();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int perThreadSourceAllThreads() {
+        return perThread.nextInt();
+    }
+}
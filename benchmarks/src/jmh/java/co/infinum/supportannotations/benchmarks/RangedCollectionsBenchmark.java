@@ -0,0 +1,158 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.collections.RangedIntList;
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+
+/**
+ * Compares a million values of {@code @IntRange(from = 0, to = 255)}, same as {@code Utility.accepts0to255}
+ * takes, in an {@code int[]}, an {@code ArrayList<Integer>} and a {@link RangedIntList}, which stores
+ * them in a byte each. {@code build*} benchmarks fill a collection sized up front, so with
+ * {@code -prof gc}, {@code gc.alloc.rate.norm} of each is the footprint of the collection.
+ * {@code sum*} read every value and {@code overwrite*} write every value, checked against
+ * the range only in {@link RangedIntList}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RangedCollectionsBenchmark {
+
+    private static final IntRangeSpec RANGE = IntRangeSpec.of(0, 255);
+
+    @State(Scope.Thread)
+    public static class Values {
+
+        @Param("1000000")
+        int size;
+
+        int[] source;
+
+        int[] array;
+
+        List<Integer> boxed;
+
+        RangedIntList ranged;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(7);
+            source = new int[size];
+            for (int i = 0; i < size; i++) {
+                source[i] = random.nextInt(256);
+            }
+            array = source.clone();
+            boxed = new ArrayList<>(size);
+            ranged = new RangedIntList(RANGE, size);
+            for (int value : source) {
+                boxed.add(value);
+                ranged.add(value);
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] buildArray(Values values) {
+        int[] source = values.source;
+        int[] array = new int[source.length];
+        for (int i = 0; i < source.length; i++) {
+            array[i] = source[i];
+        }
+        return array;
+    }
+
+    @Benchmark
+    public List<Integer> buildArrayList(Values values) {
+        int[] source = values.source;
+        List<Integer> list = new ArrayList<>(source.length);
+        for (int value : source) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public RangedIntList buildRanged(Values values) {
+        int[] source = values.source;
+        RangedIntList list = new RangedIntList(RANGE, source.length);
+        for (int value : source) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public long sumArray(Values values) {
+        int[] array = values.array;
+        long sum = 0;
+        for (int i = 0; i < array.length; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumArrayList(Values values) {
+        List<Integer> list = values.boxed;
+        long sum = 0;
+        for (int i = 0, size = list.size(); i < size; i++) {
+            sum += list.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumRanged(Values values) {
+        RangedIntList list = values.ranged;
+        long sum = 0;
+        for (int i = 0, size = list.size(); i < size; i++) {
+            sum += list.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] overwriteArray(Values values) {
+        int[] array = values.array;
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (array[i] + 1) & 0xFF;
+        }
+        return array;
+    }
+
+    @Benchmark
+    public List<Integer> overwriteArrayList(Values values) {
+        List<Integer> list = values.boxed;
+        for (int i = 0, size = list.size(); i < size; i++) {
+            list.set(i, (list.get(i) + 1) & 0xFF);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public RangedIntList overwriteRanged(Values values) {
+        RangedIntList list = values.ranged;
+        for (int i = 0, size = list.size(); i < size; i++) {
+            list.set(i, (list.get(i) + 1) & 0xFF);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,118 @@
+package co.infinum.supportannotations.benchmarks;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Methods of {@code Utility} with value annotations, annotated with lookalikes of support
+ * annotations which are retained at runtime, so they can be read with reflection.
+ * Support annotations themselves are retained only in class files. Every benchmark with
+ * a reflection baseline reads these, so there is a single set of lookalikes.
+ */
+public final class ReflectedUtility {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.METHOD, ElementType.PARAMETER, ElementType.FIELD })
+    public @interface IntRange {
+
+        long from() default Long.MIN_VALUE;
+
+        long to() default Long.MAX_VALUE;
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.METHOD, ElementType.PARAMETER, ElementType.FIELD })
+    public @interface FloatRange {
+
+        double from() default Double.NEGATIVE_INFINITY;
+
+        double to() default Double.POSITIVE_INFINITY;
+
+        boolean fromInclusive() default true;
+
+        boolean toInclusive() default true;
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.METHOD, ElementType.PARAMETER, ElementType.FIELD })
+    public @interface Size {
+
+        long value() default -1;
+
+        long min() default Long.MIN_VALUE;
+
+        long max() default Long.MAX_VALUE;
+
+        long multiple() default 1;
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.METHOD, ElementType.CONSTRUCTOR, ElementType.FIELD })
+    public @interface RequiresPermission {
+
+        String value() default "";
+
+        String[] allOf() default {};
+
+        String[] anyOf() default {};
+    }
+
+    private ReflectedUtility() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    public static void accepts0to255(@IntRange(from = 0, to = 255) int value) {
+        // no op
+    }
+
+    public static void acceptsFloat0To3(@FloatRange(from = 0, to = 3) float value) {
+        // no op
+    }
+
+    public static void acceptsFloatNegative1to1Exclusive(
+            @FloatRange(from = -1f, fromInclusive = false, to = 1f, toInclusive = false) int value) {
+        // no op
+    }
+
+    public static void sizeAtLeast1(@Size(min = 1) String text) {
+        // no op
+    }
+
+    public static void sizeAtMost5(@Size(max = 5) String text) {
+        // no op
+    }
+
+    public static void sizeExactly10(@Size(10) String text) {
+        // no op
+    }
+
+    public static void sizeMultipleOf2(@Size(multiple = 2) String text) {
+        // no op
+    }
+
+    public static void sizeCombo(@Size(min = 6, max = 12, multiple = 3) String text) {
+        // no op
+    }
+
+    @RequiresPermission("android.permission.CAMERA")
+    public static void requiresNonGrantedPermission() {
+        // no op
+    }
+
+    @RequiresPermission("android.permission.ACCESS_WIFI_STATE")
+    public static void requiresGrantedPermission() {
+        // no op
+    }
+
+    @RequiresPermission(allOf = { "android.permission.CAMERA", "android.permission.WRITE_EXTERNAL_STORAGE" })
+    public static void requiresMultiplePermissions() {
+        // no op
+    }
+
+    @RequiresPermission("android.permission.ACCESS_FINE_LOCATION")
+    public static void requiresDangerousPermission() {
+        // no op
+    }
+}
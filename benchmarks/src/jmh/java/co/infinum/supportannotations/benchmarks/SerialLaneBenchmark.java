@@ -0,0 +1,185 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.threading.SerialLane;
+import co.infinum.supportannotations.runtime.threading.WorkerDispatcher;
+
+/**
+ * Compares ways to keep tens of thousands of objects which are not thread safe consistent,
+ * while several producer threads call them: confining every object to its own
+ * {@link SerialLane}, calling {@code synchronized} methods right on the producer threads,
+ * and posting every call to a plain thread pool, which calls the {@code synchronized}
+ * method. Every invocation calls every object {@code rounds} times from each producer
+ * and waits until all calls are done.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = 1)
+@Measurement(iterations = 20, batchSize = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerialLaneBenchmark {
+
+    private static final int PRODUCERS = 4;
+
+    private static final int ROUNDS = 4;
+
+    // producers are never the main thread, so nothing is posted
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @Param({ "1000", "50000" })
+    private int instances;
+
+    private WorkerDispatcher dispatcher;
+
+    private ExecutorService pool;
+
+    private ExecutorService producers;
+
+    private Counter[] counters;
+
+    private SerialLane[] lanes;
+
+    private CountDownLatch done;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        dispatcher = new WorkerDispatcher(FixedThreadOracle.WORKER, DIRECT, threads);
+        pool = Executors.newFixedThreadPool(threads);
+        producers = Executors.newFixedThreadPool(PRODUCERS);
+        counters = new Counter[instances];
+        lanes = new SerialLane[instances];
+        for (int i = 0; i < instances; i++) {
+            counters[i] = new Counter();
+            lanes[i] = dispatcher.newLane();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        for (Counter counter : counters) {
+            counter.value = 0;
+        }
+        done = new CountDownLatch(instances);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.shutdown();
+        pool.shutdown();
+        producers.shutdown();
+    }
+
+    @Benchmark
+    public void confined() throws Exception {
+        produce(new Producer() {
+            @Override
+            public void call(int i) {
+                lanes[i].execute(counters[i].increment);
+            }
+        });
+    }
+
+    @Benchmark
+    public void synchronizedOnProducers() throws Exception {
+        produce(new Producer() {
+            @Override
+            public void call(int i) {
+                counters[i].synchronizedIncrement();
+            }
+        });
+    }
+
+    @Benchmark
+    public void synchronizedOnPool() throws Exception {
+        produce(new Producer() {
+            @Override
+            public void call(int i) {
+                pool.execute(counters[i].synchronizedIncrement);
+            }
+        });
+    }
+
+    private void produce(final Producer producer) throws Exception {
+        Future<?>[] produced = new Future<?>[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int offset = p * instances / PRODUCERS; // producers start on different objects
+            produced[p] = producers.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (int i = 0; i < instances; i++) {
+                            producer.call((offset + i) % instances);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        for (Future<?> future : produced) {
+            future.get();
+        }
+        done.await();
+    }
+
+    private interface Producer {
+
+        void call(int instance);
+    }
+
+    private final class Counter {
+
+        int value;
+
+        final Runnable increment = new Runnable() {
+            @Override
+            public void run() {
+                increment();
+            }
+        };
+
+        final Runnable synchronizedIncrement = new Runnable() {
+            @Override
+            public void run() {
+                synchronizedIncrement();
+            }
+        };
+
+        void increment() {
+            if (++value == PRODUCERS * ROUNDS) {
+                done.countDown();
+            }
+        }
+
+        synchronized void synchronizedIncrement() {
+            increment();
+        }
+    }
+}
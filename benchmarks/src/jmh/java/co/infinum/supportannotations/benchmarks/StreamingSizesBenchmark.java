@@ -0,0 +1,104 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.validation.SizeSpec;
+import co.infinum.supportannotations.runtime.validation.StreamingSizes;
+
+/**
+ * Compares checking {@code @Size} of UTF-8 text by decoding it into a {@code String} first against
+ * {@link StreamingSizes}, over the same bytes in a heap and in a direct {@link ByteBuffer}.
+ * {@code *FullScan} check {@code @Size(multiple = 2)}, which needs the whole text counted,
+ * {@code *EarlyExit} check a {@code max} of half the byte count, which is too large to reject the text
+ * from its byte count alone, but which the text exceeds around its middle.
+ * Text is mostly ASCII with some two, three and four byte characters. With {@code -prof gc},
+ * {@code gc.alloc.rate.norm} shows the decoded copy of every check done by decoding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StreamingSizesBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final SizeSpec FULL_SCAN = SizeSpec.of(-1, Long.MIN_VALUE, Long.MAX_VALUE, 2);
+
+    private static final String[] CHARACTERS = { "\u00e9", "\u20ac", "\ud83d\ude00" };
+
+    @State(Scope.Thread)
+    public static class Text {
+
+        @Param("1048576")
+        int bytes;
+
+        byte[] utf8;
+
+        ByteBuffer heap;
+
+        ByteBuffer direct;
+
+        SizeSpec earlyExit;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(7);
+            StringBuilder text = new StringBuilder();
+            while (text.length() < bytes * 9 / 10) {
+                if (random.nextInt(10) == 0) {
+                    text.append(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+                } else {
+                    text.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+            utf8 = text.toString().getBytes(UTF_8);
+            heap = ByteBuffer.wrap(utf8);
+            direct = ByteBuffer.allocateDirect(utf8.length);
+            direct.put(utf8);
+            direct.flip();
+            earlyExit = SizeSpec.between(Long.MIN_VALUE, utf8.length / 2);
+        }
+    }
+
+    @Benchmark
+    public boolean decodeThenCheckFullScan(Text text) {
+        return FULL_SCAN.contains(new String(text.utf8, 0, text.utf8.length, UTF_8).length());
+    }
+
+    @Benchmark
+    public boolean streamingHeapFullScan(Text text) {
+        return StreamingSizes.matchesUtf8(text.heap, FULL_SCAN);
+    }
+
+    @Benchmark
+    public boolean streamingDirectFullScan(Text text) {
+        return StreamingSizes.matchesUtf8(text.direct, FULL_SCAN);
+    }
+
+    @Benchmark
+    public boolean decodeThenCheckEarlyExit(Text text) {
+        return text.earlyExit.contains(new String(text.utf8, 0, text.utf8.length, UTF_8).length());
+    }
+
+    @Benchmark
+    public boolean streamingHeapEarlyExit(Text text) {
+        return StreamingSizes.matchesUtf8(text.heap, text.earlyExit);
+    }
+}
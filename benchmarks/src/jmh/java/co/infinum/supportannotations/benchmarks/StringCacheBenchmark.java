@@ -0,0 +1,96 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.resources.StringCache;
+import co.infinum.supportannotations.runtime.resources.StringResolver;
+
+/**
+ * Compares resolving strings on every call against {@link StringCache}, for plain and
+ * formatted strings. There are no {@code Resources} on the JVM, so uncached resolving
+ * decodes a new string from a pool of characters, as {@code getString} does for
+ * a string it has not decoded before. Run with the GC profiler to compare allocation
+ * per resolve.
+ * <br /><br />
+ * Each call asks for the next of {@code workingSet} ids. Cache keeps 128 strings, so
+ * the larger working set measures the cost of eviction on every miss.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class StringCacheBenchmark {
+
+    private static final int FIRST_ID = 0x7f060000;
+
+    private static final int MAX_SIZE = 128;
+
+    @Param({ "16", "256" })
+    public int workingSet;
+
+    private StringResolver resolver;
+
+    private StringCache cache;
+
+    private int next;
+
+    private String name = "Coffee";
+
+    private double price = 1234.5;
+
+    @Setup
+    public void setUp() {
+        final char[][] pool = new char[workingSet][];
+        for (int i = 0; i < workingSet; i++) {
+            pool[i] = ("Item %s costs %.2f, string number " + i).toCharArray();
+        }
+        resolver = new StringResolver() {
+            @Override
+            public String resolveString(int stringRes) {
+                return new String(pool[stringRes - FIRST_ID]);
+            }
+        };
+        cache = new StringCache(resolver, MAX_SIZE, Locale.US);
+    }
+
+    private int nextId() {
+        int id = FIRST_ID + next;
+        next = next + 1 == workingSet ? 0 : next + 1;
+        return id;
+    }
+
+    @Benchmark
+    public String getStringUncached() {
+        return resolver.resolveString(nextId());
+    }
+
+    @Benchmark
+    public String getStringCached() {
+        return cache.getString(nextId());
+    }
+
+    @Benchmark
+    public String formatUncached() {
+        return String.format(Locale.US, resolver.resolveString(nextId()), name, price);
+    }
+
+    @Benchmark
+    public String formatCached() {
+        return cache.getString(nextId(), name, price);
+    }
+}
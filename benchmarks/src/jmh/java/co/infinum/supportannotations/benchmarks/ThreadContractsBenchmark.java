@@ -0,0 +1,77 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.threading.ThreadContracts;
+import co.infinum.supportannotations.runtime.validation.ContractSampler;
+
+/**
+ * Compares a method without any thread check against the same method guarded
+ * by {@link ThreadContracts}. Disabled guard is expected to cost the same as
+ * no guard at all, both when flag is a compile time constant (as {@code BuildConfig}
+ * fields are) and when it is a {@code static final} field read once from a system property.
+ * <br /><br />
+ * JMH worker threads are never named {@code main}, so the enabled guard
+ * measures the passing path of {@code @WorkerThread} check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ThreadContractsBenchmark {
+
+    private static final int SITE = ContractSampler.register("ThreadContractsBenchmark.work");
+
+    private static final boolean CONSTANT_DISABLED = false;
+
+    private static final boolean CONSTANT_ENABLED = true;
+
+    private static final boolean PROPERTY_DISABLED = Boolean.getBoolean("supportannotations.threadContracts");
+
+    private int counter;
+
+    @Benchmark
+    public int noGuard() {
+        return work();
+    }
+
+    @Benchmark
+    public int disabledConstantGuard() {
+        if (CONSTANT_DISABLED) {
+            ThreadContracts.checkWorkerThread(SITE);
+        }
+        return work();
+    }
+
+    @Benchmark
+    public int disabledPropertyGuard() {
+        if (PROPERTY_DISABLED) {
+            ThreadContracts.checkWorkerThread(SITE);
+        }
+        return work();
+    }
+
+    @Benchmark
+    public int enabledGuard() {
+        if (CONSTANT_ENABLED) {
+            ThreadContracts.checkWorkerThread(SITE);
+        }
+        return work();
+    }
+
+    private int work() {
+        return ++counter;
+    }
+}
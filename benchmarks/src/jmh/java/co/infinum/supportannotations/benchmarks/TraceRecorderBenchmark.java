@@ -0,0 +1,54 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.runtime.timing.TraceRecorder;
+
+/**
+ * Measures how many traced calls per microsecond {@link TraceRecorder} sustains, on one
+ * thread and on eight threads recording at the same time. Every operation is a traced
+ * call, so it records two events, entry and exit. Threads record into their own buffers,
+ * so throughput should grow with the number of cores, limited only by the clock reads,
+ * which {@link #clockOnly()} measures on their own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TraceRecorderBenchmark {
+
+    private static final int SITE = TraceRecorder.register("TraceRecorderBenchmark.traced", "WorkerThread");
+
+    @Benchmark
+    @Threads(1)
+    public long clockOnly() {
+        return System.nanoTime() + System.nanoTime();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void tracedOneThread() {
+        TraceRecorder.enter(SITE);
+        TraceRecorder.exit(SITE);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void tracedEightThreads() {
+        TraceRecorder.enter(SITE);
+        TraceRecorder.exit(SITE);
+    }
+}
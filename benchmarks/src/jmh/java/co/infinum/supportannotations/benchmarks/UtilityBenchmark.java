@@ -0,0 +1,480 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.R;
+import co.infinum.supportannotations.Utility;
+import co.infinum.supportannotations.UtilityPermissions;
+import co.infinum.supportannotations.UtilitySampleSites;
+import co.infinum.supportannotations.UtilityValidators;
+import co.infinum.supportannotations.Utility_ExampleUIThreadClassSampleSites;
+import co.infinum.supportannotations.Utility_ExampleWorkerThreadClassSampleSites;
+import co.infinum.supportannotations.runtime.permissions.FakePermissionBackend;
+import co.infinum.supportannotations.runtime.permissions.PermissionCache;
+import co.infinum.supportannotations.runtime.permissions.PermissionRequirement;
+import co.infinum.supportannotations.runtime.threading.ThreadContracts;
+
+/**
+ * Measures every public method of {@link Utility}. Methods which have a runtime
+ * check are measured twice, unchecked as compiled into the release build and
+ * checked, with the same check which {@code -PvalidateContracts} or
+ * {@code -PenforceThreadContracts} enables. Methods which require permissions
+ * are checked with a {@link PermissionCache}, as {@code AppPermissions} does.
+ * <br /><br />
+ * {@link UtilityConcurrentBenchmark} runs the same benchmarks on all available threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class UtilityBenchmark {
+
+    private static final Utility.CallSuperExample CALL_SUPER_EXAMPLE = new Utility.CallSuperExample();
+
+    private static final Utility.ExampleUIThreadClass UI_THREAD_OBJECT = new Utility.ExampleUIThreadClass();
+
+    private static final Utility.ExampleWorkerThreadClass WORKER_THREAD_OBJECT = new Utility.ExampleWorkerThreadClass();
+
+    private String text = "ElCapitan";
+
+    private String shortText = "Hello";
+
+    private String exactText = "HelloWorld";
+
+    private int stringRes = R.string.app_name;
+
+    private int colorRes = R.color.colorPrimary;
+
+    private int idRes = R.id.tv_hello_world;
+
+    private int color = 0xFF00FF00;
+
+    private int value = 120;
+
+    private float floatValue = 2.5f;
+
+    /**
+     * Pretends benchmark threads are main threads, for checked {@code @MainThread} methods.
+     */
+    @State(Scope.Benchmark)
+    public static class MainThread {
+
+        @Setup
+        public void setUp() {
+            ThreadContracts.install(FixedThreadOracle.MAIN);
+        }
+    }
+
+    /**
+     * Pretends benchmark threads are worker threads, for checked {@code @WorkerThread} methods.
+     */
+    @State(Scope.Benchmark)
+    public static class WorkerThread {
+
+        @Setup
+        public void setUp() {
+            ThreadContracts.install(FixedThreadOracle.WORKER);
+        }
+    }
+
+    /**
+     * Pretends benchmark threads are binder threads, for checked {@code @BinderThread} methods.
+     */
+    @State(Scope.Benchmark)
+    public static class BinderThread {
+
+        @Setup
+        public void setUp() {
+            ThreadContracts.install(FixedThreadOracle.BINDER);
+        }
+    }
+
+    /**
+     * Permission cache with every permission granted, for checked {@code @RequiresPermission} methods.
+     * Fake backend stands in for the package manager, so a refresh is much cheaper than on a device.
+     */
+    @State(Scope.Benchmark)
+    public static class Permissions {
+
+        PermissionCache cache;
+
+        @Setup
+        public void setUp() {
+            FakePermissionBackend backend = new FakePermissionBackend();
+            for (PermissionRequirement requirement : UtilityPermissions.all()) {
+                for (int i = 0; i < requirement.size(); i++) {
+                    backend.grant(requirement.permission(i));
+                }
+            }
+            cache = new PermissionCache(backend, UtilityPermissions.all());
+        }
+    }
+
+    //region Nullable and NonNull
+
+    @Benchmark
+    public String mayReturnNull() {
+        return Utility.mayReturnNull();
+    }
+
+    @Benchmark
+    public int mayReturnNullChecked() {
+        String result = Utility.mayReturnNull();
+        return result != null ? result.length() : 0;
+    }
+
+    @Benchmark
+    public String neverReturnsNull() {
+        return Utility.neverReturnsNull();
+    }
+
+    @Benchmark
+    public void mayAcceptNull() {
+        Utility.mayAcceptNull(text);
+    }
+
+    @Benchmark
+    public void doesNotAcceptNull() {
+        Utility.doesNotAcceptNull(text);
+    }
+
+    @Benchmark
+    public void doesNotAcceptNullChecked() {
+        if (text == null) {
+            throw new NullPointerException("nonNullParam == null");
+        }
+        Utility.doesNotAcceptNull(text);
+    }
+    //endregion
+
+    //region resources
+
+    @Benchmark
+    public void acceptsStringResource() {
+        Utility.acceptsStringResource(stringRes);
+    }
+
+    @Benchmark
+    public void acceptsStringResourceChecked() {
+        UtilityValidators.acceptsStringResource(stringRes);
+        Utility.acceptsStringResource(stringRes);
+    }
+
+    @Benchmark
+    public void acceptsColorRes() {
+        Utility.acceptsColorRes(colorRes);
+    }
+
+    @Benchmark
+    public void acceptsColorResChecked() {
+        UtilityValidators.acceptsColorRes(colorRes);
+        Utility.acceptsColorRes(colorRes);
+    }
+
+    @Benchmark
+    public int returnsIdRes() {
+        return Utility.returnsIdRes();
+    }
+
+    @Benchmark
+    public int returnsIdResChecked() {
+        int id = Utility.returnsIdRes();
+        UtilityValidators.returnsIdResResult(id);
+        return id;
+    }
+
+    @Benchmark
+    public void acceptsIdRes() {
+        Utility.acceptsIdRes(idRes);
+    }
+
+    @Benchmark
+    public void acceptsIdResChecked() {
+        UtilityValidators.acceptsIdRes(idRes);
+        Utility.acceptsIdRes(idRes);
+    }
+
+    @Benchmark
+    public int returnsAnimRes() {
+        return Utility.returnsAnimRes();
+    }
+
+    @Benchmark
+    public int returnsAnimResChecked() {
+        int anim = Utility.returnsAnimRes();
+        UtilityValidators.returnsAnimResResult(anim);
+        return anim;
+    }
+    //endregion
+
+    //region threading
+
+    @Benchmark
+    public void onMainThread() {
+        Utility.onMainThread();
+    }
+
+    @Benchmark
+    public void onMainThreadChecked(MainThread thread) {
+        ThreadContracts.checkMainThread(UtilitySampleSites.ON_MAIN_THREAD);
+        Utility.onMainThread();
+    }
+
+    @Benchmark
+    public void onUIThread() {
+        Utility.onUIThread();
+    }
+
+    @Benchmark
+    public void onUIThreadChecked(MainThread thread) {
+        ThreadContracts.checkUiThread(UtilitySampleSites.ON_UITHREAD);
+        Utility.onUIThread();
+    }
+
+    @Benchmark
+    public void onWorkerThread() {
+        Utility.onWorkerThread();
+    }
+
+    @Benchmark
+    public void onWorkerThreadChecked(WorkerThread thread) {
+        ThreadContracts.checkWorkerThread(UtilitySampleSites.ON_WORKER_THREAD);
+        Utility.onWorkerThread();
+    }
+
+    @Benchmark
+    public void onBinderThread() {
+        Utility.onBinderThread();
+    }
+
+    @Benchmark
+    public void onBinderThreadChecked(BinderThread thread) {
+        ThreadContracts.checkBinderThread(UtilitySampleSites.ON_BINDER_THREAD);
+        Utility.onBinderThread();
+    }
+
+    @Benchmark
+    public void uiThreadClass() {
+        UI_THREAD_OBJECT.doesNotHaveUIThreadAnnotation();
+    }
+
+    @Benchmark
+    public void uiThreadClassChecked(MainThread thread) {
+        ThreadContracts.checkUiThread(Utility_ExampleUIThreadClassSampleSites.DOES_NOT_HAVE_UITHREAD_ANNOTATION);
+        UI_THREAD_OBJECT.doesNotHaveUIThreadAnnotation();
+    }
+
+    @Benchmark
+    public void workerThreadClass() {
+        WORKER_THREAD_OBJECT.doesNotHaveWorkerThreadAnnotation();
+    }
+
+    @Benchmark
+    public void workerThreadClassChecked(WorkerThread thread) {
+        ThreadContracts.checkWorkerThread(
+                Utility_ExampleWorkerThreadClassSampleSites.DOES_NOT_HAVE_WORKER_THREAD_ANNOTATION);
+        WORKER_THREAD_OBJECT.doesNotHaveWorkerThreadAnnotation();
+    }
+    //endregion
+
+    //region RGB colors
+
+    @Benchmark
+    public void acceptRGBColor() {
+        Utility.acceptRGBColor(color);
+    }
+
+    @Benchmark
+    public int returnsRGBColor() {
+        return Utility.returnsRGBColor();
+    }
+    //endregion
+
+    //region value constraints
+
+    @Benchmark
+    public void accepts0to255() {
+        Utility.accepts0to255(value);
+    }
+
+    @Benchmark
+    public void accepts0to255Checked() {
+        UtilityValidators.accepts0to255(value);
+        Utility.accepts0to255(value);
+    }
+
+    @Benchmark
+    public void acceptsFloat0To3() {
+        Utility.acceptsFloat0To3(floatValue);
+    }
+
+    @Benchmark
+    public void acceptsFloat0To3Checked() {
+        UtilityValidators.acceptsFloat0To3(floatValue);
+        Utility.acceptsFloat0To3(floatValue);
+    }
+
+    @Benchmark
+    public void acceptsFloatNegative1to1Exclusive() {
+        Utility.acceptsFloatNegative1to1Exclusive(0);
+    }
+
+    @Benchmark
+    public void acceptsFloatNegative1to1ExclusiveChecked() {
+        UtilityValidators.acceptsFloatNegative1to1Exclusive(0);
+        Utility.acceptsFloatNegative1to1Exclusive(0);
+    }
+
+    @Benchmark
+    public void sizeAtLeast1() {
+        Utility.sizeAtLeast1(text);
+    }
+
+    @Benchmark
+    public void sizeAtLeast1Checked() {
+        UtilityValidators.sizeAtLeast1(text);
+        Utility.sizeAtLeast1(text);
+    }
+
+    @Benchmark
+    public void sizeAtMost5() {
+        Utility.sizeAtMost5(shortText);
+    }
+
+    @Benchmark
+    public void sizeAtMost5Checked() {
+        UtilityValidators.sizeAtMost5(shortText);
+        Utility.sizeAtMost5(shortText);
+    }
+
+    @Benchmark
+    public void sizeExactly10() {
+        Utility.sizeExactly10(exactText);
+    }
+
+    @Benchmark
+    public void sizeExactly10Checked() {
+        UtilityValidators.sizeExactly10(exactText);
+        Utility.sizeExactly10(exactText);
+    }
+
+    @Benchmark
+    public void sizeMultipleOf2() {
+        Utility.sizeMultipleOf2(exactText);
+    }
+
+    @Benchmark
+    public void sizeMultipleOf2Checked() {
+        UtilityValidators.sizeMultipleOf2(exactText);
+        Utility.sizeMultipleOf2(exactText);
+    }
+
+    @Benchmark
+    public void sizeCombo() {
+        Utility.sizeCombo(text);
+    }
+
+    @Benchmark
+    public void sizeComboChecked() {
+        UtilityValidators.sizeCombo(text);
+        Utility.sizeCombo(text);
+    }
+    //endregion
+
+    //region permissions
+
+    @Benchmark
+    public void requiresNonGrantedPermission() {
+        Utility.requiresNonGrantedPermission();
+    }
+
+    @Benchmark
+    public void requiresNonGrantedPermissionChecked(Permissions permissions) {
+        if (permissions.cache.isGranted(UtilityPermissions.REQUIRES_NON_GRANTED_PERMISSION)) {
+            Utility.requiresNonGrantedPermission();
+        }
+    }
+
+    @Benchmark
+    public void requiresGrantedPermission() {
+        Utility.requiresGrantedPermission();
+    }
+
+    @Benchmark
+    public void requiresGrantedPermissionChecked(Permissions permissions) {
+        if (permissions.cache.isGranted(UtilityPermissions.REQUIRES_GRANTED_PERMISSION)) {
+            Utility.requiresGrantedPermission();
+        }
+    }
+
+    @Benchmark
+    public void requiresMultiplePermissions() {
+        Utility.requiresMultiplePermissions();
+    }
+
+    @Benchmark
+    public void requiresMultiplePermissionsChecked(Permissions permissions) {
+        if (permissions.cache.isGranted(UtilityPermissions.REQUIRES_MULTIPLE_PERMISSIONS)) {
+            Utility.requiresMultiplePermissions();
+        }
+    }
+
+    @Benchmark
+    public void requiresDangerousPermission() {
+        Utility.requiresDangerousPermission();
+    }
+
+    @Benchmark
+    public void requiresDangerousPermissionChecked(Permissions permissions) {
+        if (permissions.cache.isGranted(UtilityPermissions.REQUIRES_DANGEROUS_PERMISSION)) {
+            Utility.requiresDangerousPermission();
+        }
+    }
+    //endregion
+
+    //region check result, visible for testing, keep and call super
+
+    @Benchmark
+    public int thisDoesSomething() {
+        return Utility.thisDoesSomething();
+    }
+
+    @Benchmark
+    public void thisDoesSomethingWithValue() {
+        Utility.thisDoesSomething(value);
+    }
+
+    @Benchmark
+    public int returnValueOnlyForTests() {
+        return Utility.returnValueOnlyForTests();
+    }
+
+    @Benchmark
+    public void keepThisMethodWhenMinimizing() {
+        Utility.keepThisMethodWhenMinimizing();
+    }
+
+    @Benchmark
+    public void mustCallSuper() {
+        CALL_SUPER_EXAMPLE.mustCallSuper();
+    }
+
+    @Benchmark
+    public void doesNotNeedToCallSuper() {
+        CALL_SUPER_EXAMPLE.doesNotNeedToCallSuper();
+    }
+    //endregion
+}
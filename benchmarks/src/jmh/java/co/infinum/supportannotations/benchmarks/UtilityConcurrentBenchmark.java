@@ -0,0 +1,11 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Runs every {@link UtilityBenchmark} on all available threads at once,
+ * to reveal contention in shared state, such as random value sources.
+ */
+@Threads(Threads.MAX)
+public class UtilityConcurrentBenchmark extends UtilityBenchmark {
+}
@@ -0,0 +1,106 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.UtilityValidators;
+
+/**
+ * Compares validators generated from support annotations against a reflection
+ * based validator. Support annotations are not retained at runtime, so the
+ * reflection baseline reads runtime retained copies of them from {@link ReflectedUtility}.
+ * Run with {@code -prof gc} to compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ValidatorsBenchmark {
+
+    private Method accepts0to255;
+
+    private Method sizeCombo;
+
+    private int value = 120;
+
+    private String text = "ElCapitan";
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        accepts0to255 = ReflectedUtility.class.getMethod("accepts0to255", int.class);
+        sizeCombo = ReflectedUtility.class.getMethod("sizeCombo", String.class);
+    }
+
+    @Benchmark
+    public void generatedIntRange() {
+        UtilityValidators.accepts0to255(value);
+    }
+
+    @Benchmark
+    public void reflectiveIntRange() {
+        ReflectiveValidator.validate(accepts0to255, value);
+    }
+
+    @Benchmark
+    public void generatedSizeString() {
+        UtilityValidators.sizeCombo(text);
+    }
+
+    @Benchmark
+    public void reflectiveSizeString() {
+        ReflectiveValidator.validate(sizeCombo, text);
+    }
+
+    /**
+     * Typical hand written validator which reads parameter annotations on every call.
+     */
+    static final class ReflectiveValidator {
+
+        static void validate(Method method, Object... args) {
+            Annotation[][] annotations = method.getParameterAnnotations();
+            for (int i = 0; i < annotations.length; i++) {
+                for (Annotation annotation : annotations[i]) {
+                    if (annotation instanceof ReflectedUtility.IntRange) {
+                        ReflectedUtility.IntRange range = (ReflectedUtility.IntRange) annotation;
+                        long value = ((Number) args[i]).longValue();
+                        if (value < range.from() || value > range.to()) {
+                            throw new IllegalArgumentException(method.getName() + ": " + value);
+                        }
+                    } else if (annotation instanceof ReflectedUtility.Size) {
+                        ReflectedUtility.Size size = (ReflectedUtility.Size) annotation;
+                        int length = sizeOf(args[i]);
+                        if (size.value() != -1 && length != size.value()
+                                || length < size.min() || length > size.max() || length % size.multiple() != 0) {
+                            throw new IllegalArgumentException(method.getName() + ": " + length);
+                        }
+                    }
+                }
+            }
+        }
+
+        private static int sizeOf(Object value) {
+            if (value instanceof CharSequence) {
+                return ((CharSequence) value).length();
+            } else if (value instanceof Collection) {
+                return ((Collection<?>) value).size();
+            }
+            return Array.getLength(value);
+        }
+    }
+}
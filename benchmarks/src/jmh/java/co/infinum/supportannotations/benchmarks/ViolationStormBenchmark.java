@@ -0,0 +1,161 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.UtilityValidators;
+import co.infinum.supportannotations.runtime.validation.ViolationReporter;
+
+/**
+ * Measures throughput of {@code accepts0to255} and {@code sizeExactly10} when every call breaks
+ * the contract, once with every violation thrown, with a message and a stack trace, and once
+ * recorded by {@link ViolationReporter}, with a listener which hears about each method at most
+ * once per second. Runs on 1 thread, and on 4 threads in {@link FourThreads}. Thrown and recorded
+ * violations, and how many of them the listener heard about, are counted with {@link Counts}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(1)
+public class ViolationStormBenchmark {
+
+    private static final String TEN = "0123456789";
+
+    @State(Scope.Benchmark)
+    public static class Thrown {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ViolationReporter.setReporting(false);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Reported {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ViolationReporter.reset();
+            ViolationReporter.setListener(new ViolationReporter.Listener() {
+                @Override
+                public void onViolation(String method, String value, String thread, long suppressed) {
+                    Counts counts = Counts.CURRENT.get(); // listener runs on the violating thread
+                    if (counts != null) {
+                        counts.heard++;
+                    }
+                }
+            });
+            ViolationReporter.setReporting(true);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            ViolationReporter.setReporting(false);
+            ViolationReporter.setListener(null);
+        }
+    }
+
+    /**
+     * Violations of a thread in an iteration, summed over threads and measured iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counts {
+
+        static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+        public long thrown;
+
+        public long recorded;
+
+        public long heard;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            thrown = 0;
+            recorded = 0;
+            heard = 0;
+            CURRENT.set(this);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Values {
+
+        int value = 256;
+
+        int next() {
+            return value = (value + 1) | 0x100; // never in [0, 255]
+        }
+
+        String text() {
+            return TEN.substring(0, value & 7); // never 10 characters
+        }
+    }
+
+    @Benchmark
+    public Object thrownRange(Thrown thrown, Values values, Counts counts) {
+        try {
+            UtilityValidators.accepts0to255(values.next());
+            return null;
+        } catch (IllegalArgumentException e) {
+            counts.thrown++;
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object reportedRange(Reported reported, Values values, Counts counts) {
+        try {
+            UtilityValidators.accepts0to255(values.next());
+            counts.recorded++;
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object thrownSize(Thrown thrown, Values values, Counts counts) {
+        values.next();
+        try {
+            UtilityValidators.sizeExactly10(values.text());
+            return null;
+        } catch (IllegalArgumentException e) {
+            counts.thrown++;
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object reportedSize(Reported reported, Values values, Counts counts) {
+        values.next();
+        try {
+            UtilityValidators.sizeExactly10(values.text());
+            counts.recorded++;
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Threads(4)
+    public static class FourThreads extends ViolationStormBenchmark {
+    }
+}
@@ -0,0 +1,93 @@
+package co.infinum.supportannotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.supportannotations.Utility;
+import co.infinum.supportannotations.UtilityWorkers;
+import co.infinum.supportannotations.runtime.threading.WorkerDispatcher;
+
+/**
+ * Measures calls of {@code @WorkerThread} methods through generated {@link UtilityWorkers}.
+ * Calls from a worker run inline and should cost little more than a direct call. Calls
+ * from the main thread make a round trip through the queue, compared against the same
+ * round trip through a plain fixed thread pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class WorkerDispatcherBenchmark {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private static final Runnable WORK = new Runnable() {
+        @Override
+        public void run() {
+            Utility.onWorkerThread();
+        }
+    };
+
+    private WorkerDispatcher fromWorker;
+
+    private WorkerDispatcher fromMain;
+
+    private ExecutorService pool;
+
+    @Setup
+    public void setUp() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        fromWorker = new WorkerDispatcher(FixedThreadOracle.WORKER, DIRECT, threads);
+        fromMain = new WorkerDispatcher(FixedThreadOracle.MAIN, DIRECT, threads);
+        pool = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fromWorker.shutdown();
+        fromMain.shutdown();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void direct() {
+        Utility.onWorkerThread();
+    }
+
+    @Benchmark
+    public Future<Void> inlineFromWorker() {
+        return UtilityWorkers.onWorkerThread(fromWorker);
+    }
+
+    @Benchmark
+    public Void roundTripFromMain() throws Exception {
+        return UtilityWorkers.onWorkerThread(fromMain).get();
+    }
+
+    @Benchmark
+    public Object roundTripThroughPlainPool() throws Exception {
+        return pool.submit(WORK).get();
+    }
+}
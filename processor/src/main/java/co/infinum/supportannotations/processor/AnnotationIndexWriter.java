@@ -0,0 +1,267 @@
+package co.infinum.supportannotations.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Collects support annotations of every annotated element over all rounds, and writes
+ * them into a binary index, read at runtime by {@code AnnotationIndex}, which also
+ * describes the format. Elements are keyed like {@code AnnotationIndex.methodKey}:
+ * types by binary name, methods by binary name of their type, name and erased parameter
+ * types, such as {@code co.infinum.supportannotations.Utility#accepts0to255(int)}.
+ */
+final class AnnotationIndexWriter {
+
+    private static final int MAGIC = 0x53414958;
+
+    private static final int VERSION = 1;
+
+    private static final int ELEMENT = -1;
+
+    private final ProcessingEnvironment env;
+
+    private final Map<String, List<Annotation>> annotationsByKey = new LinkedHashMap<>();
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    private final Set<Element> originatingElements = new LinkedHashSet<>();
+
+    AnnotationIndexWriter(ProcessingEnvironment env) {
+        this.env = env;
+    }
+
+    /**
+     * Returns path of the index of {@code module}, same as {@code AnnotationIndex.resource}.
+     */
+    static String resource(String module) {
+        return "META-INF/co.infinum.supportannotations/" + module + "/annotations.idx";
+    }
+
+    boolean isEmpty() {
+        return annotationsByKey.isEmpty();
+    }
+
+    /**
+     * Returns top level types of every indexed element, so the index is written again when one changes.
+     */
+    Element[] originatingElements() {
+        return originatingElements.toArray(new Element[originatingElements.size()]);
+    }
+
+    /**
+     * Adds {@code annotation} of {@code element}. Annotations of parameters are added to their method.
+     */
+    void add(Element element, AnnotationMirror annotation) {
+        int target = ELEMENT;
+        Element owner = element;
+        if (element.getKind() == ElementKind.PARAMETER) {
+            owner = element.getEnclosingElement();
+            target = ((ExecutableElement) owner).getParameters().indexOf(element);
+        }
+        String key = key(owner);
+        if (key == null) {
+            return; // local variables and type parameters are not indexed
+        }
+        Element topLevel = owner;
+        while (topLevel.getEnclosingElement() != null
+                && topLevel.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            topLevel = topLevel.getEnclosingElement();
+        }
+        originatingElements.add(topLevel);
+        List<Annotation> annotations = annotationsByKey.get(key);
+        if (annotations == null) {
+            annotations = new ArrayList<>();
+            annotationsByKey.put(key, annotations);
+        }
+        annotations.add(new Annotation(annotation.getAnnotationType().toString(), target,
+                env.getElementUtils().getElementValuesWithDefaults(annotation)));
+    }
+
+    byte[] write() throws IOException {
+        List<String> keys = new ArrayList<>(annotationsByKey.keySet());
+        List<int[]> annotationRecords = new ArrayList<>();
+        List<long[]> valueRecords = new ArrayList<>();
+        int[][] elementRecords = new int[keys.size()][];
+        for (int element = 0; element < keys.size(); element++) {
+            String key = keys.get(element);
+            List<Annotation> annotations = annotationsByKey.get(key);
+            elementRecords[element] = new int[] { string(key), key.hashCode(), annotationRecords.size(),
+                    annotations.size() };
+            for (Annotation annotation : annotations) {
+                int firstValue = valueRecords.size();
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                        : annotation.values.entrySet()) {
+                    addValue(valueRecords, string(entry.getKey().getSimpleName().toString()),
+                            entry.getValue().getValue());
+                }
+                annotationRecords.add(new int[] { string(annotation.type), annotation.target, firstValue,
+                        valueRecords.size() - firstValue });
+            }
+        }
+
+        int hashSize = Integer.highestOneBit(Math.max(1, keys.size() * 2 - 1)) << 1;
+        int[] hash = new int[hashSize];
+        for (int element = 0; element < keys.size(); element++) {
+            int slot = mix(keys.get(element).hashCode()) & (hashSize - 1);
+            while (hash[slot] != 0) {
+                slot = (slot + 1) & (hashSize - 1);
+            }
+            hash[slot] = element + 1;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int headerSize = 7 * 4;
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(strings.size());
+        out.writeInt(keys.size());
+        out.writeInt(annotationRecords.size());
+        out.writeInt(valueRecords.size());
+        out.writeInt(hashSize);
+
+        int offset = headerSize + strings.size() * 4 + keys.size() * 16 + annotationRecords.size() * 16
+                + valueRecords.size() * 16 + hashSize * 4;
+        for (String string : strings.keySet()) {
+            out.writeInt(offset);
+            offset += 4 + string.length() * 2;
+        }
+        for (int[] record : elementRecords) {
+            for (int field : record) {
+                out.writeInt(field);
+            }
+        }
+        for (int[] record : annotationRecords) {
+            for (int field : record) {
+                out.writeInt(field);
+            }
+        }
+        for (long[] record : valueRecords) {
+            out.writeInt((int) record[0]);
+            out.writeInt((int) record[1]);
+            out.writeLong(record[2]);
+        }
+        for (int slot : hash) {
+            out.writeInt(slot);
+        }
+        for (String string : strings.keySet()) {
+            out.writeInt(string.length());
+            out.writeChars(string);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void addValue(List<long[]> records, int name, Object value) {
+        if (value instanceof Boolean) {
+            records.add(new long[] { name, 'Z', (Boolean) value ? 1 : 0 });
+        } else if (value instanceof Float || value instanceof Double) {
+            records.add(new long[] { name, 'D', Double.doubleToRawLongBits(((Number) value).doubleValue()) });
+        } else if (value instanceof Number) {
+            records.add(new long[] { name, 'J', ((Number) value).longValue() });
+        } else if (value instanceof Character) {
+            records.add(new long[] { name, 'J', (Character) value });
+        } else if (value instanceof String) {
+            records.add(new long[] { name, 'S', string((String) value) });
+        } else if (value instanceof VariableElement) { // enum constant
+            records.add(new long[] { name, 'S', string(((VariableElement) value).getSimpleName().toString()) });
+        } else if (value instanceof TypeMirror) {
+            records.add(new long[] { name, 'S', string(binaryName((TypeMirror) value)) });
+        } else if (value instanceof List) {
+            List<?> elements = (List<?>) value;
+            records.add(new long[] { name, '[', elements.size() });
+            for (Object element : elements) {
+                addValue(records, -1, ((AnnotationValue) element).getValue());
+            }
+        }
+        // nested annotations are left out, support annotations have none
+    }
+
+    private int string(String value) {
+        Integer index = strings.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.put(value, index);
+        }
+        return index;
+    }
+
+    private String key(Element element) {
+        switch (element.getKind()) {
+            case CLASS:
+            case INTERFACE:
+            case ENUM:
+            case ANNOTATION_TYPE:
+                return env.getElementUtils().getBinaryName((TypeElement) element).toString();
+            case FIELD:
+            case ENUM_CONSTANT:
+                return key(element.getEnclosingElement()) + "#" + element.getSimpleName();
+            case METHOD:
+            case CONSTRUCTOR:
+                StringBuilder key = new StringBuilder(key(element.getEnclosingElement())).append('#')
+                        .append(element.getSimpleName()).append('(');
+                List<? extends VariableElement> parameters = ((ExecutableElement) element).getParameters();
+                for (int i = 0; i < parameters.size(); i++) {
+                    if (i > 0) {
+                        key.append(',');
+                    }
+                    key.append(binaryName(env.getTypeUtils().erasure(parameters.get(i).asType())));
+                }
+                return key.append(')').toString();
+            default:
+                return null;
+        }
+    }
+
+    private String binaryName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return binaryName(((ArrayType) type).getComponentType()) + "[]";
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            return env.getElementUtils().getBinaryName(element).toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * Same as {@code AnnotationIndex.mix}.
+     */
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Annotation {
+
+        final String type;
+
+        final int target;
+
+        final Map<? extends ExecutableElement, ? extends AnnotationValue> values;
+
+        Annotation(String type, int target, Map<? extends ExecutableElement, ? extends AnnotationValue> values) {
+            this.type = type;
+            this.target = target;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package co.infinum.supportannotations.processor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Writes source of a class which registers methods as call sites of a runtime registry.
+ * Methods are registered with {@code FrameBudget} if they have {@code @MainThread} or
+ * {@code @UiThread}, and with {@code TraceRecorder} if they have any thread annotation,
+ * in both cases also when their type has it. Methods with a validator or a thread annotation
+ * are registered with {@code ContractSampler}. For {@code Utility}, {@code UtilityCallSites},
+ * {@code UtilityTraceSites} and {@code UtilitySampleSites} are generated, with constants named after methods,
+ * and after parameter types for overloads, see {@link PermissionsWriter#constantNames}:
+ * <pre>
+ * public static final int ON_MAIN_THREAD = FrameBudget.register("Utility.onMainThread");
+ * public static final int ON_MAIN_THREAD = TraceRecorder.register("Utility.onMainThread", "MainThread");
+ * </pre>
+ * Sites are registered when the class is initialized, so only once the first timed, traced
+ * or checked call is made. With timing, tracing and checks disabled, the class is never loaded.
+ */
+final class CallSitesWriter {
+
+    enum Registry {
+        FRAME_BUDGET("CallSites", "co.infinum.supportannotations.runtime.timing.FrameBudget",
+                "main thread methods"),
+        TRACE_RECORDER("TraceSites", "co.infinum.supportannotations.runtime.timing.TraceRecorder",
+                "methods with thread annotations"),
+        CONTRACT_SAMPLER("SampleSites", "co.infinum.supportannotations.runtime.validation.ContractSampler",
+                "methods with runtime contract checks");
+
+        final String suffix;
+
+        final String className;
+
+        final String description;
+
+        Registry(String suffix, String className, String description) {
+            this.suffix = suffix;
+            this.className = className;
+            this.description = description;
+        }
+
+        String simpleClassName() {
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+    }
+
+    private final Registry registry;
+
+    private final TypeElement type;
+
+    private final Map<ExecutableElement, String> constants = new LinkedHashMap<>();
+
+    private final String packageName;
+
+    private final String simpleName;
+
+    private final String typeName;
+
+    CallSitesWriter(ProcessingEnvironment env, Registry registry, TypeElement type, Set<ExecutableElement> methods) {
+        this.registry = registry;
+        this.type = type;
+
+        TypeNames names = new TypeNames(env, type);
+        this.packageName = names.packageName;
+        this.typeName = names.nestedName;
+        this.simpleName = names.flatName + registry.suffix;
+
+        constants.putAll(PermissionsWriter.constantNames(env, methods));
+    }
+
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * Returns the constant holding the site id of {@code method}, qualified with the simple name
+     * of the generated class, such as {@code UtilitySampleSites.ACCEPTS0TO255}.
+     */
+    String siteOf(ExecutableElement method) {
+        return simpleName + "." + constants.get(method);
+    }
+
+    boolean has(ExecutableElement method) {
+        return constants.containsKey(method);
+    }
+
+    Element[] originatingElements() {
+        return new Element[] { type };
+    }
+
+    String write() {
+        String registryName = registry.simpleClassName();
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ValidatorProcessor, do not modify.\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import ").append(registry.className).append(";\n\n");
+        out.append("/**\n")
+                .append(" * {@link ").append(registryName).append("} call sites of ").append(registry.description)
+                .append(" of {@link ").append(typeName).append("}.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" {\n");
+
+        for (Map.Entry<ExecutableElement, String> entry : constants.entrySet()) {
+            ExecutableElement method = entry.getKey();
+            out.append("\n    public static final int ").append(entry.getValue())
+                    .append(" = ").append(registryName).append(".register(\"")
+                    .append(typeName).append(".").append(method.getSimpleName()).append("\"");
+            if (registry == Registry.TRACE_RECORDER) {
+                out.append(", \"").append(threadCategory(method)).append("\"");
+            }
+            out.append(");\n");
+        }
+
+        out.append("\n    private ").append(simpleName).append("() {\n")
+                .append("        throw new AssertionError(\"cannot instantiate\");\n")
+                .append("    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * Returns simple name of the thread annotation of {@code method}, or of the closest type enclosing it.
+     */
+    static String threadCategory(ExecutableElement method) {
+        for (Element element = method; element != null; element = element.getEnclosingElement()) {
+            for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+                String name = annotation.getAnnotationType().toString();
+                if (ValidatorProcessor.THREAD_ANNOTATIONS.contains(name)) {
+                    return name.substring(name.lastIndexOf('.') + 1);
+                }
+            }
+        }
+        return "AnyThread";
+    }
+}
@@ -0,0 +1,155 @@
+package co.infinum.supportannotations.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Writes source of a class which confines an instance of a {@code @WorkerThread} type to
+ * its own {@code SerialLane}, so its methods run one at a time, in call order, and its
+ * state needs no locks. For {@code Utility.ExampleWorkerThreadClass},
+ * {@code Utility_ExampleWorkerThreadClassConfined} is generated, created with a
+ * {@code WorkerDispatcher} and the confined instance, with two methods per instance method:
+ * <pre>
+ * Future&lt;Void&gt; doesNotHaveWorkerThreadAnnotation()
+ * Future&lt;Void&gt; doesNotHaveWorkerThreadAnnotation(Callback&lt;? super Void&gt; callback)
+ * </pre>
+ * The instance must not be used other than through the generated class. The generated class
+ * of a generic type has the same type parameters, such as {@code Lanes_BoxConfined<T>}.
+ */
+final class ConfinedWriter {
+
+    private static final String SERIAL_LANE = "co.infinum.supportannotations.runtime.threading.SerialLane";
+
+    private static final String WORKER_DISPATCHER = "co.infinum.supportannotations.runtime.threading.WorkerDispatcher";
+
+    private final ProcessingEnvironment env;
+
+    private final TypeElement type;
+
+    private final Set<ExecutableElement> methods;
+
+    private final String packageName;
+
+    private final String simpleName;
+
+    private final String typeName;
+
+    ConfinedWriter(ProcessingEnvironment env, TypeElement type, Set<ExecutableElement> methods) {
+        this.env = env;
+        this.type = type;
+        this.methods = methods;
+
+        TypeNames names = new TypeNames(env, type);
+        this.packageName = names.packageName;
+        this.typeName = names.nestedName;
+        this.simpleName = names.flatName + "Confined";
+    }
+
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    Element[] originatingElements() {
+        return new Element[] { type };
+    }
+
+    String write() {
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ValidatorProcessor, do not modify.\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import ").append(SERIAL_LANE).append(";\n")
+                .append("import ").append(WORKER_DISPATCHER).append(";\n\n")
+                .append("import java.util.concurrent.Callable;\n")
+                .append("import java.util.concurrent.Future;\n\n");
+        String target = typeName + WorkersWriter.typeArguments(type);
+        out.append("/**\n")
+                .append(" * Confines a {@link ").append(typeName).append("} to a {@link SerialLane}, so its methods\n")
+                .append(" * run one at a time, in call order, on worker threads.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(WorkersWriter.typeParameters(type).trim())
+                .append(" {\n\n")
+                .append("    private final ").append(target).append(" target;\n\n")
+                .append("    private final SerialLane lane;\n\n")
+                .append("    public ").append(simpleName).append("(WorkerDispatcher dispatcher, ").append(target)
+                .append(" target) {\n")
+                .append("        if (target == null) {\n")
+                .append("            throw new NullPointerException(\"target == null\");\n")
+                .append("        }\n")
+                .append("        this.target = target;\n")
+                .append("        this.lane = dispatcher.newLane();\n")
+                .append("    }\n\n")
+                .append("    /**\n")
+                .append("     * Returns the lane, to run other work which touches the confined instance.\n")
+                .append("     */\n")
+                .append("    public SerialLane lane() {\n")
+                .append("        return lane;\n")
+                .append("    }\n");
+
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.STATIC)) {
+                continue; // not confined to an instance
+            } else if (!method.getTypeParameters().isEmpty()) {
+                env.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Generic @WorkerThread methods are not generated", method);
+                continue;
+            }
+            writeMethod(out, method);
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void writeMethod(StringBuilder out, ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        String result = WorkersWriter.resultType(env, method.getReturnType());
+
+        List<String> parameters = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        List<String> erasedParameters = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            TypeMirror parameterType = parameter.asType();
+            parameters.add("final " + parameterType + " " + parameter.getSimpleName());
+            arguments.add(parameter.getSimpleName().toString());
+            erasedParameters.add(env.getTypeUtils().erasure(parameterType).toString());
+        }
+        String link = "{@link " + typeName + "#" + name + "(" + WorkersWriter.join(erasedParameters) + ")}";
+
+        out.append("\n    /**\n")
+                .append("     * Calls ").append(link).append(" on the lane.\n")
+                .append("     */\n")
+                .append("    public Future<").append(result).append("> ").append(name)
+                .append("(").append(WorkersWriter.join(parameters)).append(") {\n")
+                .append("        return ").append(name).append("(")
+                .append(WorkersWriter.join(WorkersWriter.prepend("null", arguments))).append(");\n")
+                .append("    }\n");
+
+        out.append("\n    /**\n")
+                .append("     * Calls ").append(link).append(" on the lane,\n")
+                .append("     * and passes its result to {@code callback}.\n")
+                .append("     *\n")
+                .append("     * @see SerialLane#submit(Callable, WorkerDispatcher.Callback)\n")
+                .append("     */\n")
+                .append("    public Future<").append(result).append("> ").append(name)
+                .append("(").append(WorkersWriter.join(WorkersWriter.prepend("WorkerDispatcher.Callback<? super "
+                        + result + "> callback", parameters))).append(") {\n")
+                .append("        return lane.submit(new Callable<").append(result).append(">() {\n")
+                .append("            @Override\n")
+                .append("            public ").append(result).append(" call() throws Exception {\n");
+        WorkersWriter.appendCall(out, method, "target." + name + "(" + WorkersWriter.join(arguments) + ")");
+        out.append("            }\n")
+                .append("        }, callback);\n")
+                .append("    }\n");
+    }
+}
@@ -0,0 +1,287 @@
+package co.infinum.supportannotations.processor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Writes source of a class with a pair of static methods per method with a thread annotation, which run
+ * every runtime check and measurement of the method that {@code BuildConfig} enables around its body.
+ * For {@code Utility}, {@code UtilityGuards} is generated, with:
+ * <pre>
+ * public static long enterOnMainThread() {
+ *     long start = BuildConfig.MEASURE_FRAME_BUDGET ? FrameBudget.start() : 0;
+ *     if (BuildConfig.RECORD_TRACES) {
+ *         TraceRecorder.enter(UtilityTraceSites.ON_MAIN_THREAD);
+ *     }
+ *     if (BuildConfig.ENFORCE_THREAD_CONTRACTS &amp;&amp; ContractSampler.sample(UtilitySampleSites.ON_MAIN_THREAD)) {
+ *         try {
+ *             ThreadContracts.checkMainThread(UtilitySampleSites.ON_MAIN_THREAD);
+ *         } catch (RuntimeException e) {
+ *             exitOnMainThread(start);
+ *             throw e;
+ *         }
+ *     }
+ *     return start;
+ * }
+ *
+ * public static void exitOnMainThread(long start) {
+ *     if (BuildConfig.RECORD_TRACES) {
+ *         TraceRecorder.exit(UtilityTraceSites.ON_MAIN_THREAD);
+ *     }
+ *     if (BuildConfig.MEASURE_FRAME_BUDGET) {
+ *         FrameBudget.end(UtilityCallSites.ON_MAIN_THREAD, start);
+ *     }
+ * }
+ * </pre>
+ * and the method calls them around its body, so the whole call is timed against the frame budget
+ * and spans the body in the trace. A failed check exits before it throws, so the trace stays balanced:
+ * <pre>
+ * long start = UtilityGuards.enterOnMainThread();
+ * try {
+ *     ...
+ * } finally {
+ *     UtilityGuards.exitOnMainThread(start);
+ * }
+ * </pre>
+ * Flags are read from the {@code BuildConfig} closest to the type, and a part whose flag
+ * {@code BuildConfig} does not have is left out. With every flag {@code false}, guards are empty
+ * and the shrinker removes their calls. Overloads are named after their parameter types,
+ * such as {@code enterDrawIntArray()}.
+ */
+final class GuardsWriter {
+
+    private static final String FRAME_BUDGET_FLAG = "MEASURE_FRAME_BUDGET";
+
+    private static final String TRACES_FLAG = "RECORD_TRACES";
+
+    private static final String THREAD_CONTRACTS_FLAG = "ENFORCE_THREAD_CONTRACTS";
+
+    private final ProcessingEnvironment env;
+
+    private final TypeElement type;
+
+    private final Set<ExecutableElement> methods;
+
+    private final TypeElement buildConfig;
+
+    private final Set<String> flags = new HashSet<>();
+
+    private final CallSitesWriter frameSites;
+
+    private final CallSitesWriter traceSites;
+
+    private final CallSitesWriter sampleSites;
+
+    private final Map<ExecutableElement, String> names;
+
+    private final String packageName;
+
+    private final String simpleName;
+
+    private final String typeName;
+
+    /**
+     * @param frameSites {@code FrameBudget} sites of the type, or {@code null} if it has no main thread method
+     */
+    GuardsWriter(ProcessingEnvironment env, TypeElement type, Set<ExecutableElement> methods, TypeElement buildConfig,
+            CallSitesWriter frameSites, CallSitesWriter traceSites, CallSitesWriter sampleSites) {
+        this.env = env;
+        this.type = type;
+        this.methods = methods;
+        this.buildConfig = buildConfig;
+        this.frameSites = frameSites;
+        this.traceSites = traceSites;
+        this.sampleSites = sampleSites;
+        for (Element member : buildConfig.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.FIELD) {
+                flags.add(member.getSimpleName().toString());
+            }
+        }
+
+        TypeNames typeNames = new TypeNames(env, type);
+        this.packageName = typeNames.packageName;
+        this.typeName = typeNames.nestedName;
+        this.simpleName = typeNames.flatName + "Guards";
+        this.names = guardNames(env, methods);
+    }
+
+    /**
+     * Returns the {@code BuildConfig} class closest to {@code type}, or {@code null} if there is none.
+     */
+    static TypeElement findBuildConfig(ProcessingEnvironment env, TypeElement type) {
+        String packageName = env.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        while (!packageName.isEmpty()) {
+            TypeElement buildConfig = env.getElementUtils().getTypeElement(packageName + ".BuildConfig");
+            if (buildConfig != null) {
+                return buildConfig;
+            }
+            int dot = packageName.lastIndexOf('.');
+            packageName = dot < 0 ? "" : packageName.substring(0, dot);
+        }
+        return null;
+    }
+
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    Element[] originatingElements() {
+        return new Element[] { type, buildConfig };
+    }
+
+    String write() {
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ValidatorProcessor, do not modify.\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        String buildConfigPackage = buildConfig.getQualifiedName().toString();
+        buildConfigPackage = buildConfigPackage.substring(0, buildConfigPackage.lastIndexOf('.'));
+        if (!buildConfigPackage.equals(packageName)) {
+            out.append("import ").append(buildConfig.getQualifiedName()).append(";\n");
+        }
+        out.append("import co.infinum.supportannotations.runtime.threading.ThreadContracts;\n")
+                .append("import co.infinum.supportannotations.runtime.timing.FrameBudget;\n")
+                .append("import co.infinum.supportannotations.runtime.timing.TraceRecorder;\n")
+                .append("import co.infinum.supportannotations.runtime.validation.ContractSampler;\n\n");
+        out.append("/**\n")
+                .append(" * Runtime checks and measurements of {@link ").append(typeName)
+                .append("} methods with thread annotations, enabled with {@code BuildConfig}.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" {\n\n")
+                .append("    private ").append(simpleName).append("() {\n")
+                .append("        throw new AssertionError(\"cannot instantiate\");\n")
+                .append("    }\n");
+
+        for (ExecutableElement method : methods) {
+            boolean timed = frameSites != null && frameSites.has(method) && flags.contains(FRAME_BUDGET_FLAG);
+            boolean traced = flags.contains(TRACES_FLAG);
+            String link = "{@link " + typeName + "#" + method.getSimpleName() + "(" + erasedParameters(method) + ")}";
+            String name = names.get(method);
+            out.append("\n    /**\n")
+                    .append("     * Runs when ").append(link).append(" is entered, and returns\n")
+                    .append("     * the start time to pass to {@link #exit").append(name).append("(long)}.\n")
+                    .append("     */\n")
+                    .append("    public static long enter").append(name).append("() {\n");
+            if (timed) {
+                out.append("        long start = BuildConfig.").append(FRAME_BUDGET_FLAG)
+                        .append(" ? FrameBudget.start() : 0;\n");
+            }
+            if (traced) {
+                out.append("        if (BuildConfig.").append(TRACES_FLAG).append(") {\n")
+                        .append("            TraceRecorder.enter(").append(traceSites.siteOf(method)).append(");\n")
+                        .append("        }\n");
+            }
+            if (flags.contains(THREAD_CONTRACTS_FLAG)) {
+                String site = sampleSites.siteOf(method);
+                String check = "ThreadContracts.check" + CallSitesWriter.threadCategory(method) + "(" + site + ");\n";
+                out.append("        if (BuildConfig.").append(THREAD_CONTRACTS_FLAG)
+                        .append(" && ContractSampler.sample(").append(site).append(")) {\n");
+                if (traced || timed) {
+                    out.append("            try {\n")
+                            .append("                ").append(check)
+                            .append("            } catch (RuntimeException e) {\n")
+                            .append("                exit").append(name).append("(").append(timed ? "start" : "0")
+                            .append(");\n")
+                            .append("                throw e;\n")
+                            .append("            }\n");
+                } else {
+                    out.append("            ").append(check);
+                }
+                out.append("        }\n");
+            }
+            out.append("        return ").append(timed ? "start" : "0").append(";\n")
+                    .append("    }\n");
+
+            out.append("\n    /**\n")
+                    .append("     * Runs when ").append(link).append(" returns or throws.\n")
+                    .append("     */\n")
+                    .append("    public static void exit").append(name).append("(long start) {\n");
+            if (traced) {
+                out.append("        if (BuildConfig.").append(TRACES_FLAG).append(") {\n")
+                        .append("            TraceRecorder.exit(").append(traceSites.siteOf(method)).append(");\n")
+                        .append("        }\n");
+            }
+            if (timed) {
+                out.append("        if (BuildConfig.").append(FRAME_BUDGET_FLAG).append(") {\n")
+                        .append("            FrameBudget.end(").append(frameSites.siteOf(method)).append(", start);\n")
+                        .append("        }\n");
+            }
+            out.append("    }\n");
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private String erasedParameters(ExecutableElement method) {
+        StringBuilder parameters = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            if (parameters.length() > 0) {
+                parameters.append(", ");
+            }
+            parameters.append(env.getTypeUtils().erasure(parameter.asType()));
+        }
+        return parameters.toString();
+    }
+
+    /**
+     * Names guards after methods, such as {@code OnMainThread}, which follows {@code enter} and {@code exit}.
+     */
+    private static Map<ExecutableElement, String> guardNames(ProcessingEnvironment env,
+            Set<ExecutableElement> methods) {
+        Map<ExecutableElement, String> names = overloadNames(env, methods);
+        for (Map.Entry<ExecutableElement, String> entry : names.entrySet()) {
+            String name = entry.getValue();
+            entry.setValue(Character.toUpperCase(name.charAt(0)) + name.substring(1));
+        }
+        return names;
+    }
+
+    /**
+     * Returns unique names of {@code methods}, which are their simple names, and for overloads
+     * also their erased parameter types, such as {@code drawIntArray} for {@code draw(int[])}.
+     */
+    static Map<ExecutableElement, String> overloadNames(ProcessingEnvironment env, Set<ExecutableElement> methods) {
+        Map<String, Integer> overloads = new HashMap<>();
+        for (ExecutableElement method : methods) {
+            String name = method.getSimpleName().toString();
+            Integer count = overloads.get(name);
+            overloads.put(name, count == null ? 1 : count + 1);
+        }
+        Map<ExecutableElement, String> names = new HashMap<>();
+        for (ExecutableElement method : methods) {
+            String simpleName = method.getSimpleName().toString();
+            StringBuilder name = new StringBuilder(simpleName);
+            if (overloads.get(simpleName) > 1) {
+                for (VariableElement parameter : method.getParameters()) {
+                    name.append(typeName(env.getTypeUtils().erasure(parameter.asType())));
+                }
+            }
+            names.put(method, name.toString());
+        }
+        return names;
+    }
+
+    private static String typeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) type).getComponentType()) + "Array";
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            return ((DeclaredType) type).asElement().getSimpleName().toString();
+        }
+        String primitive = type.toString();
+        return Character.toUpperCase(primitive.charAt(0)) + primitive.substring(1);
+    }
+}
@@ -0,0 +1,215 @@
+package co.infinum.supportannotations.processor;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Collects elements which the shrinker must not remove or rename over all rounds, and writes
+ * ProGuard rules for exactly those elements, so a release build can be minified without
+ * keeping whole packages. For {@code Utility}, {@code @Keep} on a method gives:
+ * <pre>
+ * -keep class co.infinum.supportannotations.Utility {
+ *     void keepThisMethodWhenMinimizing();
+ * }
+ * </pre>
+ * and {@code @Keep} on a type keeps the type with all of its members. Packages are left out.
+ * <br /><br />
+ * Elements of the annotation index are found by the names they had when compiled, see
+ * {@link AnnotationIndexWriter}, so when the index is looked up from reflected classes and
+ * methods, such as with {@code DescriptorCache}, their names must survive obfuscation too.
+ * With {@link #KEEP_INDEXED_NAMES_OPTION}, every indexed element and every class in its
+ * parameter types is kept with {@code -keepnames}, which still removes it if it is unused.
+ * <br /><br />
+ * Rules are sorted, so they only change when the annotated elements do.
+ */
+final class KeepRulesWriter {
+
+    /**
+     * Processor option which also keeps names of every indexed element, if {@code true}.
+     */
+    static final String KEEP_INDEXED_NAMES_OPTION = "supportannotations.keepIndexedNames";
+
+    static final String KEEP = "android.support.annotation.Keep";
+
+    private final ProcessingEnvironment env;
+
+    private final boolean keepIndexedNames;
+
+    private final Set<String> keptTypes = new TreeSet<>();
+
+    private final Map<String, Set<String>> keptMembersByType = new TreeMap<>();
+
+    private final Map<String, Set<String>> namedMembersByType = new TreeMap<>();
+
+    private final Set<Element> originatingElements = new LinkedHashSet<>();
+
+    KeepRulesWriter(ProcessingEnvironment env) {
+        this.env = env;
+        this.keepIndexedNames = Boolean.parseBoolean(env.getOptions().get(KEEP_INDEXED_NAMES_OPTION));
+    }
+
+    /**
+     * Returns path of the rules of {@code module}, or of an unnamed module if it is {@code null}, such as
+     * {@code META-INF/proguard/co.infinum.supportannotations.app.pro}. Rules are written next to compiled
+     * classes, where shrinkers find rules packaged in a library, and where an app lists them with
+     * {@code proguardFiles}, as rules of its own classes are not picked up.
+     */
+    static String resource(String module) {
+        return "META-INF/proguard/co.infinum.supportannotations" + (module != null ? "." + module : "") + ".pro";
+    }
+
+    /**
+     * Returns every element with a rule, so rules are written again when one changes.
+     */
+    Element[] originatingElements() {
+        return originatingElements.toArray(new Element[originatingElements.size()]);
+    }
+
+    /**
+     * Adds {@code element} if {@code annotation} is {@code @Keep}, or if it is indexed and names of
+     * indexed elements are kept. Annotations of parameters name their method.
+     */
+    void add(Element element, AnnotationMirror annotation) {
+        boolean keep = KEEP.equals(annotation.getAnnotationType().toString());
+        if (!keep && !keepIndexedNames) {
+            return;
+        }
+        Element owner = element.getKind() == ElementKind.PARAMETER ? element.getEnclosingElement() : element;
+        if (owner.getKind().isClass() || owner.getKind().isInterface()) {
+            String type = binaryName(owner.asType());
+            if (keep) {
+                keptTypes.add(type);
+            } else {
+                members(namedMembersByType, type);
+            }
+        } else if (owner.getKind().isField() || owner.getKind() == ElementKind.METHOD
+                || owner.getKind() == ElementKind.CONSTRUCTOR) {
+            String type = binaryName(owner.getEnclosingElement().asType());
+            members(keep ? keptMembersByType : namedMembersByType, type).add(member(owner));
+            if (!keep && owner.getKind() != ElementKind.FIELD) {
+                for (VariableElement parameter : ((ExecutableElement) owner).getParameters()) {
+                    addParameterType(parameter.asType());
+                }
+            }
+        } else {
+            return; // packages, local variables and type parameters have no rule
+        }
+        originatingElements.add(owner);
+    }
+
+    String write() {
+        StringBuilder out = new StringBuilder();
+        out.append("# Generated by ValidatorProcessor from @Keep");
+        out.append(keepIndexedNames ? " and the annotation index" : "").append(", do not edit\n");
+        for (String type : keptTypes) {
+            out.append("-keep class ").append(type).append(" { *; }\n");
+        }
+        for (Map.Entry<String, Set<String>> entry : keptMembersByType.entrySet()) {
+            if (!keptTypes.contains(entry.getKey())) {
+                writeRule(out, "-keep", entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : namedMembersByType.entrySet()) {
+            if (!keptTypes.contains(entry.getKey())) {
+                writeRule(out, "-keepnames", entry.getKey(), entry.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private static void writeRule(StringBuilder out, String option, String type, Set<String> members) {
+        out.append(option).append(" class ").append(type);
+        if (members.isEmpty()) {
+            out.append('\n');
+            return;
+        }
+        out.append(" {\n");
+        for (String member : members) {
+            out.append("    ").append(member).append(";\n");
+        }
+        out.append("}\n");
+    }
+
+    private static Set<String> members(Map<String, Set<String>> membersByType, String type) {
+        Set<String> members = membersByType.get(type);
+        if (members == null) {
+            members = new TreeSet<>();
+            membersByType.put(type, members);
+        }
+        return members;
+    }
+
+    /**
+     * Keeps the name of a class in a parameter type, since it is a part of the index key of its method.
+     * Platform classes are never renamed, unlike support library classes packaged with the app.
+     */
+    private void addParameterType(TypeMirror type) {
+        TypeMirror erased = env.getTypeUtils().erasure(type);
+        while (erased.getKind() == TypeKind.ARRAY) {
+            erased = ((ArrayType) erased).getComponentType();
+        }
+        if (erased.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        String name = binaryName(erased);
+        boolean platform = name.startsWith("java.") || name.startsWith("javax.")
+                || name.startsWith("android.") && !name.startsWith("android.support.");
+        if (!platform) {
+            members(namedMembersByType, name);
+        }
+    }
+
+    /**
+     * Returns ProGuard specification of a field, method or constructor, such as {@code void accepts0to255(int)}.
+     */
+    private String member(Element element) {
+        if (element.getKind().isField()) {
+            return binaryName(element.asType()) + " " + element.getSimpleName();
+        }
+        ExecutableElement method = (ExecutableElement) element;
+        StringBuilder member = new StringBuilder();
+        if (method.getKind() == ElementKind.CONSTRUCTOR) {
+            member.append("<init>(");
+        } else {
+            member.append(binaryName(method.getReturnType())).append(' ').append(method.getSimpleName()).append('(');
+        }
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                member.append(',');
+            }
+            member.append(binaryName(parameters.get(i).asType()));
+        }
+        return member.append(')').toString();
+    }
+
+    /**
+     * Returns erased name of {@code type} as ProGuard expects it, with {@code $} between nested types.
+     */
+    private String binaryName(TypeMirror type) {
+        TypeMirror erased = env.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return binaryName(((ArrayType) erased).getComponentType()) + "[]";
+        } else if (erased.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            return env.getElementUtils().getBinaryName(element).toString();
+        }
+        return erased.toString();
+    }
+}
@@ -0,0 +1,228 @@
+package co.infinum.supportannotations.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Writes source of a class with a {@code PermissionRequirement} constant for every
+ * method annotated with {@code @RequiresPermission}. For {@code Utility},
+ * {@code UtilityPermissions} is generated, with constants named after methods:
+ * <pre>
+ * public static final PermissionRequirement REQUIRES_MULTIPLE_PERMISSIONS = PermissionRequirement.allOf(
+ *         "android.permission.CAMERA", "android.permission.WRITE_EXTERNAL_STORAGE");
+ * </pre>
+ * and {@code all()}, which returns every requirement, to create a {@code PermissionCache} with.
+ */
+final class PermissionsWriter {
+
+    private static final String PERMISSION_REQUIREMENT =
+            "co.infinum.supportannotations.runtime.permissions.PermissionRequirement";
+
+    private final ProcessingEnvironment env;
+
+    private final TypeElement type;
+
+    private final Set<ExecutableElement> methods;
+
+    private final String packageName;
+
+    private final String simpleName;
+
+    private final String typeName;
+
+    PermissionsWriter(ProcessingEnvironment env, TypeElement type, Set<ExecutableElement> methods) {
+        this.env = env;
+        this.type = type;
+        this.methods = methods;
+
+        TypeNames names = new TypeNames(env, type);
+        this.packageName = names.packageName;
+        this.typeName = names.nestedName;
+        this.simpleName = names.flatName + "Permissions";
+    }
+
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    Element[] originatingElements() {
+        return new Element[] { type };
+    }
+
+    String write() {
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ValidatorProcessor, do not modify.\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import ").append(PERMISSION_REQUIREMENT).append(";\n\n");
+        out.append("/**\n")
+                .append(" * Permissions required by {@link ").append(typeName).append("} methods.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" {\n");
+
+        List<String> constants = new ArrayList<>();
+        Map<ExecutableElement, String> names = constantNames(env, methods);
+        for (ExecutableElement method : methods) {
+            String requirement = requirementOf(method);
+            if (requirement == null) {
+                continue;
+            }
+            String constant = names.get(method);
+            constants.add(constant);
+            out.append("\n    /**\n")
+                    .append("     * Required by {@link ").append(typeName).append("#")
+                    .append(method.getSimpleName()).append("(").append(erasedParameters(method)).append(")}.\n")
+                    .append("     */\n")
+                    .append("    public static final PermissionRequirement ").append(constant)
+                    .append(" = ").append(requirement).append(";\n");
+        }
+
+        out.append("\n    private ").append(simpleName).append("() {\n")
+                .append("        throw new AssertionError(\"cannot instantiate\");\n")
+                .append("    }\n\n")
+                .append("    /**\n")
+                .append("     * Returns every requirement of {@link ").append(typeName).append("} methods.\n")
+                .append("     */\n")
+                .append("    public static PermissionRequirement[] all() {\n")
+                .append("        return new PermissionRequirement[] {");
+        for (int i = 0; i < constants.size(); i++) {
+            out.append(i > 0 ? ", " : " ").append(constants.get(i));
+        }
+        out.append(constants.isEmpty() ? "};\n" : " };\n")
+                .append("    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    private String requirementOf(ExecutableElement method) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            if (!ValidatorProcessor.REQUIRES_PERMISSION.equals(annotation.getAnnotationType().toString())) {
+                continue;
+            }
+            String value = null;
+            List<String> allOf = new ArrayList<>();
+            List<String> anyOf = new ArrayList<>();
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : env.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+                String name = entry.getKey().getSimpleName().toString();
+                Object entryValue = entry.getValue().getValue();
+                if ("value".equals(name)) {
+                    value = (String) entryValue;
+                } else if ("allOf".equals(name)) {
+                    addStrings(allOf, entryValue);
+                } else if ("anyOf".equals(name)) {
+                    addStrings(anyOf, entryValue);
+                }
+            }
+            if (value != null && !value.isEmpty()) {
+                return "PermissionRequirement.of(" + literal(value) + ")";
+            } else if (!allOf.isEmpty()) {
+                return "PermissionRequirement.allOf(" + literals(allOf) + ")";
+            } else if (!anyOf.isEmpty()) {
+                return "PermissionRequirement.anyOf(" + literals(anyOf) + ")";
+            }
+            env.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "@RequiresPermission without permissions is not generated", method);
+        }
+        return null;
+    }
+
+    private static void addStrings(List<String> strings, Object values) {
+        for (Object value : (List<?>) values) {
+            strings.add((String) ((AnnotationValue) value).getValue());
+        }
+    }
+
+    private String erasedParameters(ExecutableElement method) {
+        StringBuilder parameters = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            if (parameters.length() > 0) {
+                parameters.append(", ");
+            }
+            parameters.append(env.getTypeUtils().erasure(parameter.asType()));
+        }
+        return parameters.toString();
+    }
+
+    static String constantName(String methodName) {
+        return methodName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.US);
+    }
+
+    /**
+     * Names a constant after each of {@code methods}, such as {@code ACCEPTS0TO255}. Overloads are also
+     * named after their erased parameter types, such as {@code ACCEPTS_SIZE_INT_ARRAY}, so a constant keeps
+     * its name when an overload is added or removed. Names which still collide, such as of overloads taking
+     * classes with the same simple name, are reported as errors on the method.
+     */
+    static Map<ExecutableElement, String> constantNames(ProcessingEnvironment env,
+            Collection<ExecutableElement> methods) {
+        Map<String, Integer> overloads = new HashMap<>();
+        for (ExecutableElement method : methods) {
+            String name = method.getSimpleName().toString();
+            Integer count = overloads.get(name);
+            overloads.put(name, count == null ? 1 : count + 1);
+        }
+        Map<ExecutableElement, String> constants = new LinkedHashMap<>();
+        Map<String, ExecutableElement> methodsByConstant = new HashMap<>();
+        for (ExecutableElement method : methods) {
+            String name = method.getSimpleName().toString();
+            StringBuilder constant = new StringBuilder(constantName(name));
+            if (overloads.get(name) > 1) {
+                for (VariableElement parameter : method.getParameters()) {
+                    constant.append('_').append(typeConstantName(env.getTypeUtils().erasure(parameter.asType())));
+                }
+            }
+            ExecutableElement other = methodsByConstant.put(constant.toString(), method);
+            if (other != null) {
+                env.getMessager().printMessage(Diagnostic.Kind.ERROR, "Generated constant " + constant
+                        + " is ambiguous, it names both " + other + " and " + method + ", rename one of them", method);
+            }
+            constants.put(method, constant.toString());
+        }
+        return constants;
+    }
+
+    private static String typeConstantName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return typeConstantName(((ArrayType) type).getComponentType()) + "_ARRAY";
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            return constantName(((DeclaredType) type).asElement().getSimpleName().toString());
+        }
+        return type.toString().toUpperCase(Locale.US);
+    }
+
+    private static String literals(List<String> values) {
+        StringBuilder literals = new StringBuilder();
+        for (String value : values) {
+            if (literals.length() > 0) {
+                literals.append(", ");
+            }
+            literals.append(literal(value));
+        }
+        return literals.toString();
+    }
+
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
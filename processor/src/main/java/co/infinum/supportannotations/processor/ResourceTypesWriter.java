@@ -0,0 +1,139 @@
+package co.infinum.supportannotations.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+
+/**
+ * Writes source of {@code ResourceTypes}, which holds a {@code ResourceTypeTable}
+ * filled with type ids read from constants of an {@code R} class and of
+ * {@code android.R}. It is written next to the {@code R} class, once per build.
+ * <br /><br />
+ * All resources of the same type within a package share the type id,
+ * so a single constant of every nested class of {@code R} is enough.
+ */
+final class ResourceTypesWriter {
+
+    static final String SIMPLE_NAME = "ResourceTypes";
+
+    static final String RESOURCE_TYPE_TABLE = "co.infinum.supportannotations.runtime.resources.ResourceTypeTable";
+
+    /**
+     * Nested classes of {@code R} with a type known to {@code ResourceTypeTable}. Styleables
+     * are left out, their constants are indices into attribute arrays, not resource ids.
+     */
+    static final Set<String> TYPES = new HashSet<>(Arrays.asList("anim", "animator", "array", "attr", "bool",
+            "color", "dimen", "drawable", "fraction", "id", "integer", "interpolator", "layout", "menu", "mipmap",
+            "plurals", "raw", "string", "style", "transition", "xml"));
+
+    private final TypeElement r;
+
+    private final TypeElement androidR;
+
+    private final String packageName;
+
+    /**
+     * @param androidR {@code android.R}, or {@code null} if it is not on the classpath
+     */
+    ResourceTypesWriter(ProcessingEnvironment env, TypeElement r, TypeElement androidR) {
+        this.r = r;
+        this.androidR = androidR;
+        PackageElement pkg = env.getElementUtils().getPackageOf(r);
+        this.packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    }
+
+    /**
+     * Returns {@code R} class which is closest to {@code type}, looking in the package of
+     * {@code type} and then in each parent package, or {@code null} if there is none.
+     */
+    static TypeElement findR(ProcessingEnvironment env, TypeElement type) {
+        String packageName = env.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        while (!packageName.isEmpty()) {
+            TypeElement r = env.getElementUtils().getTypeElement(packageName + ".R");
+            if (r != null) {
+                return r;
+            }
+            int dot = packageName.lastIndexOf('.');
+            packageName = dot < 0 ? "" : packageName.substring(0, dot);
+        }
+        return null;
+    }
+
+    static String constantOf(String type) {
+        return "ResourceTypeTable." + type.toUpperCase(Locale.US);
+    }
+
+    String qualifiedName() {
+        return packageName.isEmpty() ? SIMPLE_NAME : packageName + "." + SIMPLE_NAME;
+    }
+
+    Element[] originatingElements() {
+        return new Element[] { r };
+    }
+
+    String write() {
+        List<String> puts = new ArrayList<>();
+        collect(r, puts);
+        if (androidR != null) {
+            collect(androidR, puts);
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ValidatorProcessor, do not modify.\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import ").append(RESOURCE_TYPE_TABLE).append(";\n\n");
+        out.append("/**\n")
+                .append(" * Resource type ids of {@link ").append(r.getQualifiedName()).append("}")
+                .append(androidR != null ? " and {@link android.R}" : "").append(".\n")
+                .append(" */\n")
+                .append("public final class ").append(SIMPLE_NAME).append(" {\n\n")
+                .append("    public static final ResourceTypeTable TABLE = new ResourceTypeTable()");
+        for (String put : puts) {
+            out.append("\n            ").append(put);
+        }
+        out.append(";\n\n")
+                .append("    private ").append(SIMPLE_NAME).append("() {\n")
+                .append("        throw new AssertionError(\"cannot instantiate\");\n")
+                .append("    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    private static void collect(TypeElement r, List<String> puts) {
+        for (Element nested : r.getEnclosedElements()) {
+            String type = nested.getSimpleName().toString();
+            if (nested.getKind() != ElementKind.CLASS || !TYPES.contains(type)) {
+                continue;
+            }
+            Integer id = firstId((TypeElement) nested);
+            if (id != null) {
+                puts.add(String.format(Locale.US, ".put(0x%02x, 0x%02x, %s)", id >>> 24, (id >>> 16) & 0xFF,
+                        constantOf(type)));
+            }
+        }
+    }
+
+    private static Integer firstId(TypeElement type) {
+        for (Element field : type.getEnclosedElements()) {
+            if (field.getKind() == ElementKind.FIELD) {
+                Object value = ((VariableElement) field).getConstantValue();
+                if (value instanceof Integer) {
+                    return (Integer) value;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package co.infinum.supportannotations.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Names of a type as used by generated classes. For {@code Utility.ExampleWorkerThreadClass},
+ * nested name is {@code Utility.ExampleWorkerThreadClass}, which generated code uses to refer
+ * to the type, and flat name is {@code Utility_ExampleWorkerThreadClass}, which generated
+ * class names start with.
+ */
+final class TypeNames {
+
+    final String packageName;
+
+    final String nestedName;
+
+    final String flatName;
+
+    TypeNames(ProcessingEnvironment env, TypeElement type) {
+        PackageElement pkg = env.getElementUtils().getPackageOf(type);
+        this.packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+
+        StringBuilder flatName = new StringBuilder(type.getSimpleName());
+        StringBuilder nestedName = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing.getKind() != ElementKind.PACKAGE) {
+            flatName.insert(0, enclosing.getSimpleName() + "_");
+            nestedName.insert(0, enclosing.getSimpleName() + ".");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        this.nestedName = nestedName.toString();
+        this.flatName = flatName.toString();
+    }
+
+    String qualify(String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+}
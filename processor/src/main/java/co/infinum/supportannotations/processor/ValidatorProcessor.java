@@ -0,0 +1,493 @@
+package co.infinum.supportannotations.processor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a validator class for each class which has methods with
+ * {@code @IntRange}, {@code @FloatRange}, {@code @Size} or resource type
+ * parameters, such as {@code @StringRes}.
+ * For {@code Utility}, {@code UtilityValidators} is generated with one static
+ * method per annotated method, taking the same parameters:
+ * <pre>
+ * public static void accepts0to255(@IntRange(from = 0, to = 255) int value) {
+ *     if (BuildConfig.VALIDATE_CONTRACTS) {
+ *         UtilityValidators.accepts0to255(value);
+ *     }
+ * }
+ * </pre>
+ * Support annotations are retained only in class files and cannot be read
+ * with reflection, so bounds are written into generated code as constants.
+ * <br /><br />
+ * Resource type ids are assigned by aapt, so they are read from the {@code R} class
+ * closest to the validated class, and written into {@code ResourceTypes} next to it.
+ * Resource type annotations on methods also get a validator for the return value,
+ * such as {@code UtilityValidators.returnsAnimResResult(int)}.
+ * <br /><br />
+ * Methods with {@code @RequiresPermission} are collected into a separate class,
+ * see {@link PermissionsWriter}, and so are {@code @WorkerThread} methods and
+ * methods of {@code @WorkerThread} types, see {@link WorkersWriter}. Instances of
+ * {@code @WorkerThread} types can also be confined to a serial lane, see {@link ConfinedWriter}.
+ * {@code @MainThread} and {@code @UiThread} methods are registered as call sites timed
+ * against the frame budget, and methods with any thread annotation as call sites
+ * of the trace recorder, see {@link CallSitesWriter}, and each gets a guard which checks, times and
+ * traces it as {@code BuildConfig} enables, see {@link GuardsWriter}. Methods with a validator or a thread
+ * annotation are also registered with the contract sampler, which decides which calls are checked,
+ * and validators pass the id of the site to the violation reporter, which may record a failed check
+ * instead of throwing it.
+ * <br /><br />
+ * Classes are generated only for types listed with {@link #INSTRUMENT_OPTION}, and for types nested
+ * in them, so helpers which have support annotations only for tooling do not get classes nobody calls.
+ * <br /><br />
+ * Every support annotation, whether it has generated code or not, is also written into
+ * a binary index, so it can be looked up at runtime without reflection, see
+ * {@link AnnotationIndexWriter}. Index is named after the module, given with {@link #MODULE_OPTION},
+ * and is not written without it. Index is written once, after the last round, and so are
+ * shrinker rules which keep {@code @Keep} elements, see {@link KeepRulesWriter}.
+ */
+public class ValidatorProcessor extends AbstractProcessor {
+
+    /**
+     * Processor option with a comma separated list of types, or packages, to generate classes for,
+     * such as {@code co.infinum.supportannotations.Utility}. Types nested in a listed type and types
+     * in a listed package are included, subpackages are not. Without it, no class is generated.
+     */
+    static final String INSTRUMENT_OPTION = "supportannotations.instrument";
+
+    /**
+     * Processor option with the name of the module, such as {@code app}, which names its index and
+     * keep rules, so those of modules packaged together do not overwrite each other. Letters, digits, {@code .},
+     * {@code -} and {@code _} only, as it is a directory name.
+     */
+    static final String MODULE_OPTION = "supportannotations.module";
+
+    static final String SUPPORT_ANNOTATIONS = "android.support.annotation.";
+
+    static final String INT_RANGE = "android.support.annotation.IntRange";
+
+    static final String FLOAT_RANGE = "android.support.annotation.FloatRange";
+
+    static final String SIZE = "android.support.annotation.Size";
+
+    static final String REQUIRES_PERMISSION = "android.support.annotation.RequiresPermission";
+
+    static final String WORKER_THREAD = "android.support.annotation.WorkerThread";
+
+    static final String MAIN_THREAD = "android.support.annotation.MainThread";
+
+    static final String UI_THREAD = "android.support.annotation.UiThread";
+
+    static final String BINDER_THREAD = "android.support.annotation.BinderThread";
+
+    static final Set<String> THREAD_ANNOTATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            MAIN_THREAD, UI_THREAD, WORKER_THREAD, BINDER_THREAD)));
+
+    /**
+     * Resource type annotations, with names of {@code R} classes whose resources they accept.
+     * {@code @AnyRes} and {@code @StyleableRes} have nothing to check on a resource type.
+     */
+    static final Map<String, List<String>> RESOURCE_TYPES = new HashMap<>();
+
+    static {
+        resourceType("AnimatorRes", "animator");
+        resourceType("AnimRes", "anim");
+        resourceType("ArrayRes", "array");
+        resourceType("AttrRes", "attr");
+        resourceType("BoolRes", "bool");
+        resourceType("ColorRes", "color");
+        resourceType("DimenRes", "dimen");
+        resourceType("DrawableRes", "drawable", "mipmap"); // lint accepts mipmaps where drawables are expected
+        resourceType("FractionRes", "fraction");
+        resourceType("IdRes", "id");
+        resourceType("IntegerRes", "integer");
+        resourceType("InterpolatorRes", "interpolator", "anim"); // framework interpolators are in anim
+        resourceType("LayoutRes", "layout");
+        resourceType("MenuRes", "menu");
+        resourceType("PluralsRes", "plurals");
+        resourceType("RawRes", "raw");
+        resourceType("StringRes", "string");
+        resourceType("StyleRes", "style");
+        resourceType("TransitionRes", "transition");
+        resourceType("XmlRes", "xml");
+    }
+
+    private final Set<String> writtenResourceTypes = new HashSet<>();
+
+    private Set<String> instrumented;
+
+    private AnnotationIndexWriter index;
+
+    private KeepRulesWriter keepRules;
+
+    private static void resourceType(String annotation, String... types) {
+        RESOURCE_TYPES.put("android.support.annotation." + annotation,
+                Collections.unmodifiableList(Arrays.asList(types)));
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new HashSet<>(Arrays.asList(INT_RANGE, FLOAT_RANGE, SIZE));
+        types.add(REQUIRES_PERMISSION);
+        types.addAll(THREAD_ANNOTATIONS);
+        types.addAll(RESOURCE_TYPES.keySet());
+        types.add(SUPPORT_ANNOTATIONS + "*"); // every other one is only indexed
+        return types;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return new HashSet<>(Arrays.asList(INSTRUMENT_OPTION, MODULE_OPTION,
+                KeepRulesWriter.KEEP_INDEXED_NAMES_OPTION));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (index == null) {
+            index = new AnnotationIndexWriter(processingEnv);
+            keepRules = new KeepRulesWriter(processingEnv);
+            instrumented = new HashSet<>();
+            String option = processingEnv.getOptions().get(INSTRUMENT_OPTION);
+            for (String name : option != null ? option.split(",") : new String[0]) {
+                if (!name.trim().isEmpty()) {
+                    instrumented.add(name.trim());
+                }
+            }
+        }
+        addToIndex(annotations, roundEnv);
+        if (roundEnv.processingOver()) {
+            String module = processingEnv.getOptions().get(MODULE_OPTION);
+            if (module != null && !module.matches("[A-Za-z0-9._-]+")) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        MODULE_OPTION + " must have only letters, digits, '.', '-' and '_', but was '" + module + "'");
+                return false;
+            }
+            writeIndex(module);
+            writeKeepRules(module);
+            return false;
+        }
+
+        Map<TypeElement, Set<ExecutableElement>> methodsByType = new LinkedHashMap<>();
+        Map<TypeElement, Set<ExecutableElement>> permissionMethodsByType = new LinkedHashMap<>();
+        Map<TypeElement, Set<ExecutableElement>> workerMethodsByType = new LinkedHashMap<>();
+        Set<TypeElement> workerTypes = new LinkedHashSet<>();
+        Map<TypeElement, Set<ExecutableElement>> mainThreadMethodsByType = new LinkedHashMap<>();
+        Map<TypeElement, Set<ExecutableElement>> threadMethodsByType = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            if (THREAD_ANNOTATIONS.contains(annotation.getQualifiedName().toString())) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    addThreadMethods(threadMethodsByType, element);
+                }
+                if (BINDER_THREAD.equals(annotation.getQualifiedName().toString())) {
+                    continue; // traced only
+                }
+            }
+            if (WORKER_THREAD.equals(annotation.getQualifiedName().toString())) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    addThreadMethods(workerMethodsByType, element);
+                    if (element.getKind().isClass() || element.getKind().isInterface()) {
+                        workerTypes.add((TypeElement) element);
+                    }
+                }
+                continue;
+            }
+            if (MAIN_THREAD.equals(annotation.getQualifiedName().toString())
+                    || UI_THREAD.equals(annotation.getQualifiedName().toString())) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    addThreadMethods(mainThreadMethodsByType, element);
+                }
+                continue;
+            }
+            if (REQUIRES_PERMISSION.equals(annotation.getQualifiedName().toString())) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    if (element.getKind() == ElementKind.METHOD) { // intent actions and uris are left out
+                        add(permissionMethodsByType, (ExecutableElement) element);
+                    }
+                }
+                continue;
+            }
+            boolean isResourceType = RESOURCE_TYPES.containsKey(annotation.getQualifiedName().toString());
+            if (!isResourceType && !INT_RANGE.equals(annotation.getQualifiedName().toString())
+                    && !FLOAT_RANGE.equals(annotation.getQualifiedName().toString())
+                    && !SIZE.equals(annotation.getQualifiedName().toString())) {
+                continue; // indexed only
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                ExecutableElement method;
+                if (element.getKind() == ElementKind.PARAMETER) {
+                    method = (ExecutableElement) element.getEnclosingElement();
+                } else if (element.getKind() == ElementKind.METHOD && isResourceType) {
+                    method = (ExecutableElement) element; // return value
+                } else {
+                    continue; // fields have nothing to validate on method entry
+                }
+                add(methodsByType, method);
+            }
+        }
+
+        retainInstrumented(methodsByType.keySet());
+        retainInstrumented(permissionMethodsByType.keySet());
+        retainInstrumented(workerMethodsByType.keySet());
+        retainInstrumented(workerTypes);
+        retainInstrumented(mainThreadMethodsByType.keySet());
+        retainInstrumented(threadMethodsByType.keySet());
+
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : permissionMethodsByType.entrySet()) {
+            PermissionsWriter permissions = new PermissionsWriter(processingEnv, entry.getKey(), entry.getValue());
+            write(permissions.qualifiedName(), permissions.originatingElements(), permissions.write());
+        }
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : workerMethodsByType.entrySet()) {
+            WorkersWriter workers = new WorkersWriter(processingEnv, entry.getKey(), entry.getValue());
+            write(workers.qualifiedName(), workers.originatingElements(), workers.write());
+        }
+        Map<TypeElement, CallSitesWriter> frameSitesByType = new LinkedHashMap<>();
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : mainThreadMethodsByType.entrySet()) {
+            CallSitesWriter callSites = new CallSitesWriter(processingEnv, CallSitesWriter.Registry.FRAME_BUDGET,
+                    entry.getKey(), entry.getValue());
+            write(callSites.qualifiedName(), callSites.originatingElements(), callSites.write());
+            frameSitesByType.put(entry.getKey(), callSites);
+        }
+        Map<TypeElement, CallSitesWriter> traceSitesByType = new LinkedHashMap<>();
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : threadMethodsByType.entrySet()) {
+            CallSitesWriter traceSites = new CallSitesWriter(processingEnv, CallSitesWriter.Registry.TRACE_RECORDER,
+                    entry.getKey(), entry.getValue());
+            write(traceSites.qualifiedName(), traceSites.originatingElements(), traceSites.write());
+            traceSitesByType.put(entry.getKey(), traceSites);
+        }
+        Map<TypeElement, Set<ExecutableElement>> checkedMethodsByType = new LinkedHashMap<>();
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : methodsByType.entrySet()) {
+            for (ExecutableElement method : entry.getValue()) {
+                add(checkedMethodsByType, method);
+            }
+        }
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : threadMethodsByType.entrySet()) {
+            for (ExecutableElement method : entry.getValue()) {
+                add(checkedMethodsByType, method);
+            }
+        }
+        Map<TypeElement, CallSitesWriter> sampleSitesByType = new LinkedHashMap<>();
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : checkedMethodsByType.entrySet()) {
+            CallSitesWriter sampleSites = new CallSitesWriter(processingEnv,
+                    CallSitesWriter.Registry.CONTRACT_SAMPLER, entry.getKey(), entry.getValue());
+            write(sampleSites.qualifiedName(), sampleSites.originatingElements(), sampleSites.write());
+            sampleSitesByType.put(entry.getKey(), sampleSites);
+        }
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : threadMethodsByType.entrySet()) {
+            TypeElement type = entry.getKey();
+            TypeElement buildConfig = GuardsWriter.findBuildConfig(processingEnv, type);
+            if (buildConfig == null) {
+                continue; // guards have no flags to read
+            }
+            GuardsWriter guards = new GuardsWriter(processingEnv, type, entry.getValue(), buildConfig,
+                    frameSitesByType.get(type), traceSitesByType.get(type), sampleSitesByType.get(type));
+            write(guards.qualifiedName(), guards.originatingElements(), guards.write());
+        }
+        for (Map.Entry<TypeElement, Set<ExecutableElement>> entry : methodsByType.entrySet()) {
+            TypeElement type = entry.getKey();
+            String resourceTypes = hasResourceTypes(entry.getValue()) ? writeResourceTypes(type) : null;
+            ValidatorWriter validator = new ValidatorWriter(processingEnv, type, entry.getValue(), resourceTypes,
+                    sampleSitesByType.get(type));
+            write(validator.qualifiedName(), validator.originatingElements(), validator.write());
+        }
+        for (TypeElement type : workerTypes) {
+            if (!workerMethodsByType.containsKey(type)) {
+                continue;
+            }
+            ConfinedWriter confined = new ConfinedWriter(processingEnv, type, workerMethodsByType.get(type));
+            write(confined.qualifiedName(), confined.originatingElements(), confined.write());
+        }
+        return false;
+    }
+
+    private void addToIndex(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            if (!annotation.getQualifiedName().toString().startsWith(SUPPORT_ANNOTATIONS)) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+                    if (mirror.getAnnotationType().asElement().equals(annotation)) {
+                        index.add(element, mirror);
+                        keepRules.add(element, mirror);
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeIndex(String module) {
+        if (index.isEmpty()) {
+            return;
+        }
+        if (module == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Annotation index is not written, name the module with -A" + MODULE_OPTION + "=<name>");
+            return;
+        }
+        String resource = AnnotationIndexWriter.resource(module);
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    resource, index.originatingElements());
+            OutputStream output = file.openOutputStream();
+            try {
+                output.write(index.write());
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write " + resource + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes shrinker rules next to compiled classes, even if nothing is kept, since the build may list them
+     * with other rules, see {@link KeepRulesWriter#resource(String)}.
+     */
+    private void writeKeepRules(String module) {
+        String resource = KeepRulesWriter.resource(module);
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    resource, keepRules.originatingElements());
+            OutputStream output = file.openOutputStream();
+            try {
+                output.write(keepRules.write().getBytes("UTF-8"));
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write " + resource + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes types which are not listed with {@link #INSTRUMENT_OPTION}, nor nested in a listed type or package.
+     */
+    private void retainInstrumented(Set<TypeElement> types) {
+        for (Iterator<TypeElement> iterator = types.iterator(); iterator.hasNext(); ) {
+            Element element = iterator.next();
+            while (element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+                element = element.getEnclosingElement();
+            }
+            String typeName = ((TypeElement) element).getQualifiedName().toString();
+            String packageName = ((PackageElement) element.getEnclosingElement()).getQualifiedName().toString();
+            if (!instrumented.contains(typeName) && !instrumented.contains(packageName)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Adds {@code element} if it is a method, or all of its methods which can be called if it is a type.
+     */
+    private static void addThreadMethods(Map<TypeElement, Set<ExecutableElement>> methodsByType, Element element) {
+        if (element.getKind() == ElementKind.METHOD) {
+            add(methodsByType, (ExecutableElement) element);
+            return;
+        } else if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+            return;
+        }
+        for (Element member : element.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.METHOD && !member.getModifiers().contains(Modifier.PRIVATE)) {
+                add(methodsByType, (ExecutableElement) member);
+            }
+        }
+    }
+
+    private static void add(Map<TypeElement, Set<ExecutableElement>> methodsByType, ExecutableElement method) {
+        TypeElement type = (TypeElement) method.getEnclosingElement();
+        Set<ExecutableElement> methods = methodsByType.get(type);
+        if (methods == null) {
+            methods = new LinkedHashSet<>();
+            methodsByType.put(type, methods);
+        }
+        methods.add(method);
+    }
+
+    private static boolean hasResourceTypes(Set<ExecutableElement> methods) {
+        for (ExecutableElement method : methods) {
+            if (hasResourceType(method)) {
+                return true;
+            }
+            for (VariableElement parameter : method.getParameters()) {
+                if (hasResourceType(parameter)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasResourceType(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (RESOURCE_TYPES.containsKey(annotation.getAnnotationType().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes {@code ResourceTypes} for the {@code R} class of {@code type}, unless it
+     * was already written, and returns its name or {@code null} if there is no {@code R}.
+     */
+    private String writeResourceTypes(TypeElement type) {
+        TypeElement r = ResourceTypesWriter.findR(processingEnv, type);
+        if (r == null) {
+            return null;
+        }
+        TypeElement androidR = processingEnv.getElementUtils().getTypeElement("android.R");
+        ResourceTypesWriter resourceTypes = new ResourceTypesWriter(processingEnv, r, androidR);
+        if (writtenResourceTypes.add(resourceTypes.qualifiedName())) {
+            write(resourceTypes.qualifiedName(), resourceTypes.originatingElements(), resourceTypes.write());
+        }
+        return resourceTypes.qualifiedName();
+    }
+
+    private void write(String qualifiedName, Element[] originatingElements, String source) {
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+}
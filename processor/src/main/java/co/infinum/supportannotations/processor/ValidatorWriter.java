@@ -0,0 +1,484 @@
+package co.infinum.supportannotations.processor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Writes source of a single validator class. Every check is fused into one
+ * condition evaluated with non short-circuit operators, so a valid argument
+ * passes through a single branch and allocates nothing. A failed check is
+ * first offered to {@code ViolationReporter}, with the id of the method from
+ * the {@code ContractSampler} call sites, and thrown only if it was not recorded.
+ */
+final class ValidatorWriter {
+
+    private static final String VIOLATIONS = "co.infinum.supportannotations.runtime.validation.Violations";
+
+    private static final String VIOLATION_REPORTER =
+            "co.infinum.supportannotations.runtime.validation.ViolationReporter";
+
+    private final ProcessingEnvironment env;
+
+    private final TypeElement type;
+
+    private final Set<ExecutableElement> methods;
+
+    private final String packageName;
+
+    private final String simpleName;
+
+    private final String typeName;
+
+    private final String resourceTypes;
+
+    private final CallSitesWriter sampleSites;
+
+    private boolean usesResourceTypes;
+
+    /**
+     * @param resourceTypes qualified name of generated {@code ResourceTypes}, or {@code null}
+     * if there is no {@code R} class to validate resource types with
+     * @param sampleSites {@code ContractSampler} call sites of the same type, which include all of {@code methods}
+     */
+    ValidatorWriter(ProcessingEnvironment env, TypeElement type, Set<ExecutableElement> methods,
+            String resourceTypes, CallSitesWriter sampleSites) {
+        this.env = env;
+        this.type = type;
+        this.methods = methods;
+        this.resourceTypes = resourceTypes;
+        this.sampleSites = sampleSites;
+
+        TypeNames names = new TypeNames(env, type);
+        this.packageName = names.packageName;
+        this.typeName = names.nestedName;
+        this.simpleName = names.flatName + "Validators";
+    }
+
+    String qualifiedName() {
+        return qualifiedName(packageName, simpleName);
+    }
+
+    private static String qualifiedName(String packageName, String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    Element[] originatingElements() {
+        return new Element[] { type };
+    }
+
+    String write() {
+        Set<ExecutableElement> resultMethods = new LinkedHashSet<>();
+        for (ExecutableElement method : methods) {
+            if (resourceTypesOf(method) != null) {
+                resultMethods.add(method);
+            }
+        }
+        Map<ExecutableElement, String> resultNames = GuardsWriter.overloadNames(env, resultMethods);
+
+        StringBuilder body = new StringBuilder();
+        for (ExecutableElement method : methods) {
+            writeMethod(body, method);
+            if (resultMethods.contains(method)) {
+                writeResult(body, method, resultNames.get(method));
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ValidatorProcessor, do not modify.\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        if (usesResourceTypes) {
+            out.append("import ").append(ResourceTypesWriter.RESOURCE_TYPE_TABLE).append(";\n");
+        }
+        out.append("import ").append(VIOLATION_REPORTER).append(";\n");
+        out.append("import ").append(VIOLATIONS).append(";\n");
+        if (usesResourceTypes && !resourceTypes.equals(qualifiedName(packageName, ResourceTypesWriter.SIMPLE_NAME))) {
+            out.append("import ").append(resourceTypes).append(";\n");
+        }
+        out.append("\n/**\n")
+                .append(" * Validates arguments of {@link ").append(typeName).append("} methods at runtime.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" {\n\n")
+                .append("    private ").append(simpleName).append("() {\n")
+                .append("        throw new AssertionError(\"cannot instantiate\");\n")
+                .append("    }\n")
+                .append(body)
+                .append("}\n");
+        return out.toString();
+    }
+
+    private void writeMethod(StringBuilder out, ExecutableElement method) {
+        if (!hasValidatedParameter(method)) {
+            return; // only its return value is validated
+        }
+        List<String> parameters = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            parameters.add(typeOf(parameter) + " " + parameter.getSimpleName());
+        }
+
+        out.append("\n    /**\n")
+                .append("     * Validates arguments of {@link ").append(typeName).append("#")
+                .append(method.getSimpleName()).append("(").append(join(erasedParameters(method))).append(")}.\n")
+                .append("     */\n")
+                .append("    public static void ").append(method.getSimpleName())
+                .append("(").append(join(parameters)).append(") {\n");
+
+        for (VariableElement parameter : method.getParameters()) {
+            for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
+                String annotationName = annotation.getAnnotationType().toString();
+                Map<String, Object> values = valuesOf(annotation);
+                if (ValidatorProcessor.INT_RANGE.equals(annotationName)) {
+                    writeIntRange(out, method, parameter, values);
+                } else if (ValidatorProcessor.FLOAT_RANGE.equals(annotationName)) {
+                    writeFloatRange(out, method, parameter, values);
+                } else if (ValidatorProcessor.SIZE.equals(annotationName)) {
+                    writeSize(out, method, parameter, values);
+                } else if (ValidatorProcessor.RESOURCE_TYPES.containsKey(annotationName)) {
+                    writeResourceType(out, method, parameter, parameter.getSimpleName().toString(),
+                            ValidatorProcessor.RESOURCE_TYPES.get(annotationName));
+                }
+            }
+        }
+        out.append("    }\n");
+    }
+
+    /**
+     * Writes {@code <name>Result} which validates the return value of a method annotated
+     * with a resource type annotation. Overloads are named after their parameter types,
+     * such as {@code layoutIntResult}.
+     */
+    private void writeResult(StringBuilder out, ExecutableElement method, String name) {
+        if (method.getReturnType().getKind() != TypeKind.INT) {
+            warn(method, "Resource type is validated only on int return values");
+            return;
+        }
+        out.append("\n    /**\n")
+                .append("     * Validates return value of {@link ").append(typeName).append("#")
+                .append(method.getSimpleName()).append("(").append(join(erasedParameters(method))).append(")}.\n")
+                .append("     */\n")
+                .append("    public static void ").append(name).append("Result(int result) {\n");
+        writeResourceType(out, method, method, "result", resourceTypesOf(method));
+        out.append("    }\n");
+    }
+
+    /**
+     * Returns resource types of the return value of {@code method},
+     * or {@code null} if it has no resource type annotation.
+     */
+    private static List<String> resourceTypesOf(ExecutableElement method) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            List<String> types = ValidatorProcessor.RESOURCE_TYPES.get(annotation.getAnnotationType().toString());
+            if (types != null) {
+                return types;
+            }
+        }
+        return null;
+    }
+
+    private void writeResourceType(StringBuilder out, ExecutableElement method, Element element, String name,
+            List<String> types) {
+        if (element.getKind() == ElementKind.PARAMETER && element.asType().getKind() != TypeKind.INT) {
+            warn(element, "Resource type is validated only on int parameters");
+            return;
+        }
+        if (resourceTypes == null) {
+            warn(element, "Resource type is not validated, there is no R class in this or any parent package");
+            return;
+        }
+        usesResourceTypes = true;
+        List<String> constants = new ArrayList<>();
+        for (String type : types) {
+            constants.add(ResourceTypesWriter.constantOf(type));
+        }
+        out.append("        if (!").append(ResourceTypesWriter.SIMPLE_NAME).append(".TABLE.isOfType(").append(name)
+                .append(", ").append(join(constants, " | ")).append(")) {\n");
+        writeRecord(out, "        ", method, name)
+                .append("Violations.wrongResourceType(\"").append(methodName(method))
+                .append("\", \"").append(name).append("\", ").append(name).append(", \"")
+                .append(join(types, " or ")).append("\");\n")
+                .append("            }\n")
+                .append("        }\n");
+    }
+
+    private static boolean hasValidatedParameter(ExecutableElement method) {
+        for (VariableElement parameter : method.getParameters()) {
+            for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
+                String annotationName = annotation.getAnnotationType().toString();
+                if (ValidatorProcessor.INT_RANGE.equals(annotationName)
+                        || ValidatorProcessor.FLOAT_RANGE.equals(annotationName)
+                        || ValidatorProcessor.SIZE.equals(annotationName)
+                        || ValidatorProcessor.RESOURCE_TYPES.containsKey(annotationName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<String> erasedParameters(ExecutableElement method) {
+        List<String> erasedParameters = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            erasedParameters.add(env.getTypeUtils().erasure(parameter.asType()).toString());
+        }
+        return erasedParameters;
+    }
+
+    private void writeIntRange(StringBuilder out, ExecutableElement method, VariableElement parameter,
+            Map<String, Object> values) {
+        TypeKind kind = parameter.asType().getKind();
+        if (!isIntegral(kind)) {
+            warn(parameter, "@IntRange is validated only on primitive integral parameters");
+            return;
+        }
+        long from = (Long) values.get("from");
+        long to = (Long) values.get("to");
+        String name = parameter.getSimpleName().toString();
+
+        String condition = rangeCondition(name, from, to, kind != TypeKind.LONG);
+        if (condition == null) {
+            return;
+        }
+        out.append("        if (").append(condition).append(") {\n");
+        writeRecord(out, "        ", method, name)
+                .append("Violations.outOfRange(\"").append(methodName(method))
+                .append("\", \"").append(name).append("\", ").append(name).append(", ")
+                .append(longLiteral(from)).append(", ").append(longLiteral(to)).append(");\n")
+                .append("            }\n")
+                .append("        }\n");
+    }
+
+    private void writeFloatRange(StringBuilder out, ExecutableElement method, VariableElement parameter,
+            Map<String, Object> values) {
+        TypeKind kind = parameter.asType().getKind();
+        if (!isIntegral(kind) && kind != TypeKind.FLOAT && kind != TypeKind.DOUBLE) {
+            warn(parameter, "@FloatRange is validated only on primitive numeric parameters");
+            return;
+        }
+        double from = (Double) values.get("from");
+        double to = (Double) values.get("to");
+        boolean fromInclusive = (Boolean) values.get("fromInclusive");
+        boolean toInclusive = (Boolean) values.get("toInclusive");
+        String name = parameter.getSimpleName().toString();
+
+        // written as negation of the valid range, so NaN fails as well
+        List<String> valid = new ArrayList<>();
+        if (!Double.isInfinite(from)) {
+            valid.add(name + (fromInclusive ? " >= " : " > ") + from);
+        }
+        if (!Double.isInfinite(to)) {
+            valid.add(name + (toInclusive ? " <= " : " < ") + to);
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        out.append("        if (!(").append(join(valid, " & ")).append(")) {\n");
+        writeRecord(out, "        ", method, isIntegral(kind) ? "(double) " + name : name)
+                .append("Violations.outOfRange(\"").append(methodName(method))
+                .append("\", \"").append(name).append("\", ").append(name).append(", ")
+                .append(doubleLiteral(from)).append(", ").append(fromInclusive).append(", ")
+                .append(doubleLiteral(to)).append(", ").append(toInclusive).append(");\n")
+                .append("            }\n")
+                .append("        }\n");
+    }
+
+    private void writeSize(StringBuilder out, ExecutableElement method, VariableElement parameter,
+            Map<String, Object> values) {
+        String name = parameter.getSimpleName().toString();
+        String size = sizeExpression(parameter);
+        if (size == null) {
+            warn(parameter, "@Size is validated only on CharSequence, array, Collection and Map parameters");
+            return;
+        }
+        long exact = (Long) values.get("value");
+        long min = (Long) values.get("min");
+        long max = (Long) values.get("max");
+        long multiple = (Long) values.get("multiple");
+
+        List<String> conditions = new ArrayList<>();
+        String sizeName = name + "Size";
+        if (exact >= 0) {
+            conditions.add(sizeName + " != " + sizeLiteral(exact));
+        }
+        // size is never negative, so a minimum of 0 or less is always satisfied
+        if (min > 0 && max != Long.MAX_VALUE) {
+            conditions.add(rangeCondition(sizeName, min, max, true));
+        } else if (min > 0) {
+            conditions.add(sizeName + " < " + sizeLiteral(min));
+        } else if (max != Long.MAX_VALUE) {
+            conditions.add(sizeName + " > " + sizeLiteral(max));
+        }
+        if (multiple > 1) {
+            if ((multiple & (multiple - 1)) == 0) {
+                conditions.add("(" + sizeName + " & " + (multiple - 1) + ") != 0");
+            } else {
+                conditions.add(sizeName + " % " + multiple + " != 0");
+            }
+        }
+        if (conditions.isEmpty()) {
+            return;
+        }
+        out.append("        if (").append(name).append(" != null) {\n")
+                .append("            int ").append(sizeName).append(" = ").append(size).append(";\n")
+                .append("            if (").append(join(wrap(conditions), " | ")).append(") {\n");
+        writeRecord(out, "            ", method, sizeName)
+                .append("Violations.wrongSize(\"").append(methodName(method))
+                .append("\", \"").append(name).append("\", ").append(sizeName).append(", ")
+                .append(longLiteral(exact)).append(", ").append(longLiteral(min)).append(", ")
+                .append(longLiteral(max)).append(", ").append(longLiteral(multiple)).append(");\n")
+                .append("                }\n")
+                .append("            }\n")
+                .append("        }\n");
+    }
+
+    /**
+     * Opens the branch which throws only if {@code ViolationReporter} did not record the violation,
+     * up to the exception to throw, and returns {@code out} to append it to.
+     */
+    private StringBuilder writeRecord(StringBuilder out, String indent, ExecutableElement method, String value) {
+        return out.append(indent).append("    if (!ViolationReporter.record(").append(sampleSites.siteOf(method))
+                .append(", ").append(value).append(")) {\n")
+                .append(indent).append("        throw ");
+    }
+
+    private String methodName(ExecutableElement method) {
+        return typeName + "." + method.getSimpleName();
+    }
+
+    /**
+     * Returns condition which is {@code true} when {@code name} is out of
+     * {@code [from, to]}, or {@code null} if range is not bounded at all.
+     * For {@code int} values bounded on both sides, range is checked with
+     * a single unsigned comparison instead of two signed ones.
+     */
+    private static String rangeCondition(String name, long from, long to, boolean isInt) {
+        boolean hasFrom = from != Long.MIN_VALUE;
+        boolean hasTo = to != Long.MAX_VALUE;
+        if (hasFrom && hasTo && isInt && from >= Integer.MIN_VALUE && to <= Integer.MAX_VALUE && from <= to) {
+            String offset = from == 0 ? name : "(" + name + " - (" + from + "))";
+            return "(" + offset + " & 0xFFFFFFFFL) > " + (to - from) + "L";
+        } else if (hasFrom && hasTo) {
+            return "(" + name + " < " + longLiteral(from) + ") | (" + name + " > " + longLiteral(to) + ")";
+        } else if (hasFrom) {
+            return name + " < " + longLiteral(from);
+        } else if (hasTo) {
+            return name + " > " + longLiteral(to);
+        }
+        return null;
+    }
+
+    private String sizeExpression(VariableElement parameter) {
+        Types types = env.getTypeUtils();
+        TypeMirror type = parameter.asType();
+        String name = parameter.getSimpleName().toString();
+        if (type.getKind() == TypeKind.ARRAY) {
+            return name + ".length";
+        } else if (type.getKind() != TypeKind.DECLARED && type.getKind() != TypeKind.TYPEVAR) {
+            return null;
+        }
+        TypeMirror erased = types.erasure(type);
+        if (isSubtype(erased, "java.lang.CharSequence")) {
+            return name + ".length()";
+        } else if (isSubtype(erased, "java.util.Collection") || isSubtype(erased, "java.util.Map")) {
+            return name + ".size()";
+        }
+        return null;
+    }
+
+    private boolean isSubtype(TypeMirror type, String superType) {
+        TypeElement element = env.getElementUtils().getTypeElement(superType);
+        Types types = env.getTypeUtils();
+        return element != null && types.isAssignable(type, types.erasure(element.asType()));
+    }
+
+    private String typeOf(VariableElement parameter) {
+        TypeMirror type = parameter.asType();
+        if (type.getKind() == TypeKind.TYPEVAR) {
+            return env.getTypeUtils().erasure(type).toString();
+        }
+        return type.toString();
+    }
+
+    private Map<String, Object> valuesOf(AnnotationMirror annotation) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : env.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+        }
+        return values;
+    }
+
+    private void warn(Element element, String message) {
+        env.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private static boolean isIntegral(TypeKind kind) {
+        return kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.SHORT
+                || kind == TypeKind.BYTE || kind == TypeKind.CHAR;
+    }
+
+    private static String longLiteral(long value) {
+        if (value == Long.MIN_VALUE) {
+            return "Long.MIN_VALUE";
+        } else if (value == Long.MAX_VALUE) {
+            return "Long.MAX_VALUE";
+        }
+        return value + "L";
+    }
+
+    private static String sizeLiteral(long value) {
+        return value <= Integer.MAX_VALUE ? String.valueOf(value) : value + "L";
+    }
+
+    private static String doubleLiteral(double value) {
+        if (value == Double.NEGATIVE_INFINITY) {
+            return "Double.NEGATIVE_INFINITY";
+        } else if (value == Double.POSITIVE_INFINITY) {
+            return "Double.POSITIVE_INFINITY";
+        }
+        return String.valueOf(value);
+    }
+
+    private static List<String> wrap(List<String> conditions) {
+        if (conditions.size() == 1) {
+            return conditions;
+        }
+        List<String> wrapped = new ArrayList<>();
+        for (String condition : conditions) {
+            wrapped.add("(" + condition + ")");
+        }
+        return wrapped;
+    }
+
+    private static String join(List<String> parts) {
+        return join(parts, ", ");
+    }
+
+    private static String join(List<String> parts, String separator) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < parts.size(); i++) {
+            if (i > 0) {
+                joined.append(separator);
+            }
+            joined.append(parts.get(i));
+        }
+        return joined.toString();
+    }
+}
@@ -0,0 +1,224 @@
+package co.infinum.supportannotations.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Writes source of a class which calls {@code @WorkerThread} methods through a
+ * {@code WorkerDispatcher}, so a call made from the main thread runs on a worker
+ * and a call made from a worker runs inline. For {@code Utility},
+ * {@code UtilityWorkers} is generated with two methods per worker thread method:
+ * <pre>
+ * Future&lt;Void&gt; onWorkerThread(WorkerDispatcher dispatcher)
+ * Future&lt;Void&gt; onWorkerThread(WorkerDispatcher dispatcher, Callback&lt;? super Void&gt; callback)
+ * </pre>
+ * Instance methods take the object to call the method on after the dispatcher and callback.
+ * Those of a generic type are generic in the same type parameters, so results keep their type.
+ * Every method of a type annotated with {@code @WorkerThread} is a worker thread method.
+ */
+final class WorkersWriter {
+
+    private static final String WORKER_DISPATCHER = "co.infinum.supportannotations.runtime.threading.WorkerDispatcher";
+
+    private final ProcessingEnvironment env;
+
+    private final TypeElement type;
+
+    private final Set<ExecutableElement> methods;
+
+    private final String packageName;
+
+    private final String simpleName;
+
+    private final String typeName;
+
+    WorkersWriter(ProcessingEnvironment env, TypeElement type, Set<ExecutableElement> methods) {
+        this.env = env;
+        this.type = type;
+        this.methods = methods;
+
+        TypeNames names = new TypeNames(env, type);
+        this.packageName = names.packageName;
+        this.typeName = names.nestedName;
+        this.simpleName = names.flatName + "Workers";
+    }
+
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    Element[] originatingElements() {
+        return new Element[] { type };
+    }
+
+    String write() {
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ValidatorProcessor, do not modify.\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import ").append(WORKER_DISPATCHER).append(";\n\n")
+                .append("import java.util.concurrent.Callable;\n")
+                .append("import java.util.concurrent.Future;\n\n");
+        out.append("/**\n")
+                .append(" * Calls {@code @WorkerThread} methods of {@link ").append(typeName)
+                .append("} through a {@link WorkerDispatcher}.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" {\n\n")
+                .append("    private ").append(simpleName).append("() {\n")
+                .append("        throw new AssertionError(\"cannot instantiate\");\n")
+                .append("    }\n");
+
+        for (ExecutableElement method : methods) {
+            if (!method.getTypeParameters().isEmpty()) {
+                env.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Generic @WorkerThread methods are not generated", method);
+                continue;
+            }
+            writeMethod(out, method);
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void writeMethod(StringBuilder out, ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+        String result = resultType(env, method.getReturnType());
+
+        String typeParameters = isStatic ? "" : typeParameters(type);
+        List<String> parameters = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        List<String> erasedParameters = new ArrayList<>();
+        if (!isStatic) {
+            parameters.add("final " + typeName + typeArguments(type) + " target");
+            arguments.add("target");
+        }
+        for (VariableElement parameter : method.getParameters()) {
+            TypeMirror parameterType = parameter.asType();
+            parameters.add("final " + parameterType + " " + parameter.getSimpleName());
+            arguments.add(parameter.getSimpleName().toString());
+            erasedParameters.add(env.getTypeUtils().erasure(parameterType).toString());
+        }
+        String link = "{@link " + typeName + "#" + name + "(" + join(erasedParameters) + ")}";
+        String call = (isStatic ? typeName : "target") + "." + name
+                + "(" + join(arguments.subList(isStatic ? 0 : 1, arguments.size())) + ")";
+
+        out.append("\n    /**\n")
+                .append("     * Calls ").append(link).append(" off the main thread.\n")
+                .append("     */\n")
+                .append("    public static ").append(typeParameters).append("Future<").append(result).append("> ")
+                .append(name).append("(").append(join(prepend("WorkerDispatcher dispatcher", parameters)))
+                .append(") {\n")
+                .append("        return ").append(name).append("(").append(join(prepend("dispatcher, null", arguments)))
+                .append(");\n")
+                .append("    }\n");
+
+        out.append("\n    /**\n")
+                .append("     * Calls ").append(link).append(" off the main thread, and passes\n")
+                .append("     * its result to {@code callback} on the calling thread.\n")
+                .append("     */\n")
+                .append("    public static ").append(typeParameters).append("Future<").append(result).append("> ")
+                .append(name).append("(").append(join(prepend("WorkerDispatcher dispatcher, "
+                        + "WorkerDispatcher.Callback<? super " + result + "> callback", parameters))).append(") {\n")
+                .append("        return dispatcher.submit(WorkerDispatcher.NORM_PRIORITY, new Callable<")
+                .append(result).append(">() {\n")
+                .append("            @Override\n")
+                .append("            public ").append(result).append(" call() throws Exception {\n");
+        appendCall(out, method, call);
+        out.append("            }\n")
+                .append("        }, callback);\n")
+                .append("    }\n");
+    }
+
+    /**
+     * Appends body of {@code Callable.call()} which makes {@code call} and returns its result.
+     */
+    static void appendCall(StringBuilder out, ExecutableElement method, String call) {
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            out.append("                ").append(call).append(";\n")
+                    .append("                return null;\n");
+        } else {
+            out.append("                return ").append(call).append(";\n");
+        }
+    }
+
+    /**
+     * Returns type parameters of {@code type} with their bounds, such as {@code <T extends Number> }, or an
+     * empty string if it is not generic.
+     */
+    static String typeParameters(TypeElement type) {
+        if (type.getTypeParameters().isEmpty()) {
+            return "";
+        }
+        List<String> parameters = new ArrayList<>();
+        for (TypeParameterElement parameter : type.getTypeParameters()) {
+            List<String> bounds = new ArrayList<>();
+            for (TypeMirror bound : parameter.getBounds()) {
+                if (!"java.lang.Object".equals(bound.toString())) {
+                    bounds.add(bound.toString());
+                }
+            }
+            parameters.add(parameter.getSimpleName() + (bounds.isEmpty() ? "" : " extends " + join(bounds, " & ")));
+        }
+        return "<" + join(parameters) + "> ";
+    }
+
+    /**
+     * Returns type parameters of {@code type} as type arguments, such as {@code <T>}, or an empty string.
+     */
+    static String typeArguments(TypeElement type) {
+        if (type.getTypeParameters().isEmpty()) {
+            return "";
+        }
+        List<String> arguments = new ArrayList<>();
+        for (TypeParameterElement parameter : type.getTypeParameters()) {
+            arguments.add(parameter.getSimpleName().toString());
+        }
+        return "<" + join(arguments) + ">";
+    }
+
+    static String resultType(ProcessingEnvironment env, TypeMirror returnType) {
+        if (returnType.getKind() == TypeKind.VOID) {
+            return "Void";
+        } else if (returnType.getKind().isPrimitive()) {
+            return env.getTypeUtils().boxedClass(env.getTypeUtils().getPrimitiveType(returnType.getKind()))
+                    .getSimpleName().toString();
+        }
+        return returnType.toString();
+    }
+
+    static List<String> prepend(String first, List<String> rest) {
+        List<String> all = new ArrayList<>();
+        all.add(first);
+        all.addAll(rest);
+        return all;
+    }
+
+    static String join(List<String> parts) {
+        return join(parts, ", ");
+    }
+
+    static String join(List<String> parts, String separator) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < parts.size(); i++) {
+            if (i > 0) {
+                joined.append(separator);
+            }
+            joined.append(parts.get(i));
+        }
+        return joined.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+
+import javax.tools.Diagnostic;
+
+import co.infinum.supportannotations.runtime.index.AnnotationIndex;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads the index written for a fixture with {@link AnnotationIndex}, so writer and reader are tested
+ * against each other.
+ */
+public class AnnotationIndexWriterTest {
+
+    private static final String INDEXED = "fixtures.Indexed";
+
+    private static final String INT_RANGE = "android.support.annotation.IntRange";
+
+    private static final String FLOAT_RANGE = "android.support.annotation.FloatRange";
+
+    private static final String REQUIRES_PERMISSION = "android.support.annotation.RequiresPermission";
+
+    private static final String WORKER_THREAD = "android.support.annotation.WorkerThread";
+
+    private byte[] bytes;
+
+    private AnnotationIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        bytes = Compilation.compile("Indexed.java").resource(AnnotationIndex.resource("fixtures"));
+        index = AnnotationIndex.wrap(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void writesIndexOfModuleWhereRuntimeLooksForIt() {
+        assertEquals(AnnotationIndex.resource("fixtures"), AnnotationIndexWriter.resource("fixtures"));
+        assertEquals("META-INF/co.infinum.supportannotations/fixtures/annotations.idx",
+                AnnotationIndexWriter.resource("fixtures"));
+    }
+
+    @Test
+    public void findsElementsByKey() {
+        assertEquals(5, index.elementCount());
+        for (int element = 0; element < index.elementCount(); element++) {
+            assertEquals(element, index.find(index.key(element)));
+        }
+        assertTrue(index.find(AnnotationIndex.methodKey(INDEXED, "accepts0to255", "int")) >= 0);
+        assertTrue(index.find(AnnotationIndex.methodKey(INDEXED, "overloaded", "double", "int[]")) >= 0);
+        assertEquals(-1, index.find(AnnotationIndex.methodKey(INDEXED, "accepts0to255", "long")));
+        assertEquals(-1, index.find(AnnotationIndex.methodKey(INDEXED, "overloaded", "int")));
+        assertEquals(-1, index.find(INDEXED));
+    }
+
+    @Test
+    public void readsValuesOfAnnotationsWithDefaults() {
+        int method = index.find(INDEXED + "#accepts0to255(int)");
+        int intRange = index.findAnnotation(method, INT_RANGE, 0);
+        assertEquals(INT_RANGE, index.annotationType(intRange));
+        assertEquals(0, index.target(intRange));
+        assertEquals(0, index.longValue(intRange, "from"));
+        assertEquals(255, index.longValue(intRange, "to"));
+        assertFalse(index.hasAnnotation(method, INT_RANGE, AnnotationIndex.ELEMENT));
+
+        int floatRange = index.findAnnotation(index.find(INDEXED + "#acceptsFloat0To3(float)"), FLOAT_RANGE, 0);
+        assertEquals(3.0, index.doubleValue(floatRange, "to"), 0);
+        assertTrue(index.booleanValue(floatRange, "fromInclusive"));
+        assertFalse(index.booleanValue(floatRange, "toInclusive"));
+
+        int type = index.find(INDEXED + "$Loader");
+        assertTrue(index.hasAnnotation(type, WORKER_THREAD, AnnotationIndex.ELEMENT));
+        assertEquals(1, index.annotationCount(type));
+    }
+
+    @Test
+    public void readsArraysAndSkipsThemWhenLookingForOtherValues() {
+        int permission = index.annotation(index.find(INDEXED + "#requiresMultiplePermissions()"), 0);
+
+        assertEquals(REQUIRES_PERMISSION, index.annotationType(permission));
+        assertArrayEquals(new String[] { "android.permission.CAMERA", "android.permission.INTERNET" },
+                index.stringValues(permission, "allOf"));
+        assertArrayEquals(new String[0], index.stringValues(permission, "anyOf"));
+        assertEquals("", index.stringValue(permission, "value"));
+        assertFalse(index.booleanValue(permission, "conditional"));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void throwsForMissingValue() {
+        index.longValue(index.annotation(index.find(INDEXED + "#accepts0to255(int)"), 0), "step");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void throwsForValueOfOtherType() {
+        index.doubleValue(index.annotation(index.find(INDEXED + "#accepts0to255(int)"), 0), "from");
+    }
+
+    @Test
+    public void mapsAndReadsSameIndex() throws IOException {
+        File file = File.createTempFile("annotations", ".idx");
+        try {
+            FileOutputStream output = new FileOutputStream(file);
+            try {
+                output.write(bytes);
+            } finally {
+                output.close();
+            }
+            AnnotationIndex mapped = AnnotationIndex.map(file);
+            AnnotationIndex read = AnnotationIndex.read(new ByteArrayInputStream(bytes));
+
+            String key = INDEXED + "#accepts0to255(int)";
+            assertEquals(255, mapped.longValue(mapped.annotation(mapped.find(key), 0), "to"));
+            assertEquals(255, read.longValue(read.annotation(read.find(key), 0), "to"));
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void writesNoIndexWithoutModule() throws Exception {
+        Compilation compilation = Compilation.compile(Collections.<String>emptyList(), "Indexed.java");
+
+        assertNull(compilation.resource(AnnotationIndex.resource("fixtures")));
+        assertTrue(compilation.messages(Diagnostic.Kind.NOTE).toString(),
+                compilation.messages(Diagnostic.Kind.NOTE).contains(
+                        "Annotation index is not written, name the module with -Asupportannotations.module=<name>"));
+    }
+
+    @Test
+    public void rejectsModuleWhichIsNotADirectoryName() throws Exception {
+        Compilation compilation = Compilation.tryCompile(
+                Arrays.asList(ValidatorProcessor.MODULE_OPTION + "=../app"), "Indexed.java");
+
+        assertFalse(compilation.succeeded());
+        assertEquals(Collections.singletonList(
+                "supportannotations.module must have only letters, digits, '.', '-' and '_', but was '../app'"),
+                compilation.messages(Diagnostic.Kind.ERROR));
+    }
+}
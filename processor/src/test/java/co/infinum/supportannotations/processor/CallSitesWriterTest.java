@@ -0,0 +1,159 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.Diagnostic;
+
+import co.infinum.supportannotations.runtime.timing.FrameBudget;
+import co.infinum.supportannotations.runtime.validation.ContractSampler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CallSitesWriterTest {
+
+    @Test
+    public void namesOverloadsAfterParameterTypes() throws Exception {
+        Compilation compilation = Compilation.compile("Overloads.java");
+
+        String callSites = compilation.source("fixtures.OverloadsCallSites");
+        assertTrue(callSites, callSites.contains(" DRAW = FrameBudget.register(\"Overloads.draw\");"));
+        assertTrue(callSites, callSites.contains(" DRAW_INT = FrameBudget.register(\"Overloads.draw\");"));
+        assertTrue(callSites, callSites.contains(" DRAW_INT_ARRAY = FrameBudget.register(\"Overloads.draw\");"));
+        assertTrue(callSites,
+                callSites.contains(" DRAW_LIST_CHAR_SEQUENCE = FrameBudget.register(\"Overloads.draw\");"));
+        assertTrue(callSites, callSites.contains(" INVALIDATE = FrameBudget.register(\"Overloads.invalidate\");"));
+
+        String permissions = compilation.source("fixtures.OverloadsPermissions");
+        assertTrue(permissions, permissions.contains(" CAPTURE = PermissionRequirement.of("));
+        assertTrue(permissions, permissions.contains(" CAPTURE_STRING = PermissionRequirement.of("));
+    }
+
+    @Test
+    public void registersMainThreadMethodsWithFrameBudget() throws Exception {
+        Compilation compilation = compileTimed();
+
+        String callSites = compilation.source("fixtures.timed.TimedCallSites");
+        assertFalse(callSites, callSites.contains("HELPER"));
+        assertFalse(compilation.generated("fixtures.timed.Timed_LoaderCallSites"));
+        Class<?> sites = compilation.load("fixtures.timed.TimedCallSites");
+        assertEquals("Timed.draw", FrameBudget.method(site(sites, "DRAW")));
+        assertEquals("Timed.layout", FrameBudget.method(site(sites, "LAYOUT")));
+    }
+
+    @Test
+    public void guardsTimeEveryCallOfTheirSite() throws Exception {
+        Compilation compilation = compileTimed();
+        Class<?> timed = compilation.load("fixtures.timed.Timed");
+        Class<?> sites = compilation.load("fixtures.timed.TimedCallSites");
+
+        for (int i = 0; i < 3; i++) {
+            timed.getMethod("draw").invoke(null);
+        }
+        timed.getMethod("layout", int.class).invoke(null, 0);
+
+        assertEquals(3, FrameBudget.histogram(site(sites, "DRAW")).count());
+        assertEquals(1, FrameBudget.histogram(site(sites, "LAYOUT")).count());
+    }
+
+    @Test
+    public void guardsTimeBodyOfTheirMethod() throws Exception {
+        Compilation compilation = compileTimed();
+        Class<?> timed = compilation.load("fixtures.timed.Timed");
+        int layout = site(compilation.load("fixtures.timed.TimedCallSites"), "LAYOUT");
+
+        FrameBudget.setBudget(5, TimeUnit.MILLISECONDS);
+        try {
+            timed.getMethod("layout", int.class).invoke(null, 20);
+        } finally {
+            FrameBudget.setBudget(FrameBudget.DEFAULT_BUDGET_NANOS, TimeUnit.NANOSECONDS);
+        }
+
+        assertEquals(1, FrameBudget.overBudgetCount(layout));
+        assertTrue(FrameBudget.histogram(layout).maxNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void registersThreadMethodsWithTraceRecorderUnderTheirAnnotation() throws Exception {
+        Compilation compilation = Compilation.compile("Helpers.java");
+
+        String traceSites = compilation.source("fixtures.HelpersTraceSites");
+        assertTrue(traceSites, traceSites.contains(
+                " INSTALL = TraceRecorder.register(\"Helpers.install\", \"MainThread\");"));
+        assertTrue(traceSites, traceSites.contains(
+                " WRITE = TraceRecorder.register(\"Helpers.write\", \"WorkerThread\");"));
+        String loaderSites = compilation.source("fixtures.Helpers_LoaderTraceSites");
+        assertTrue(loaderSites, loaderSites.contains(
+                " LOAD = TraceRecorder.register(\"Helpers.Loader.load\", \"WorkerThread\");"));
+    }
+
+    @Test
+    public void registersCheckedMethodsWithContractSampler() throws Exception {
+        Compilation compilation = Compilation.compile("Helpers.java", "BuildConfig.java");
+        Class<?> sites = compilation.load("fixtures.HelpersSampleSites");
+        Class<?> guards = compilation.load("fixtures.HelpersGuards");
+        Class<?> validators = compilation.load("fixtures.HelpersValidators");
+        int install = site(sites, "INSTALL");
+        int write = site(sites, "WRITE");
+        assertEquals("Helpers.install", ContractSampler.method(install));
+        assertEquals("Helpers.write", ContractSampler.method(write));
+
+        ContractSampler.setSampling(true);
+        try {
+            for (int i = 0; i < 5; i++) {
+                guards.getMethod("exitInstall", long.class).invoke(null,
+                        guards.getMethod("enterInstall").invoke(null));
+            }
+        } finally {
+            ContractSampler.setSampling(false);
+        }
+        try {
+            validators.getMethod("write", int.class).invoke(null, -1);
+            fail("size of write not validated");
+        } catch (InvocationTargetException e) {
+            assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+        }
+
+        assertEquals(5, ContractSampler.callCount(install));
+        assertEquals(5, ContractSampler.checkedCount(install)); // a cold site checks every call
+        assertEquals(1, ContractSampler.violationCount(write));
+        assertEquals(0, ContractSampler.violationCount(install));
+    }
+
+    @Test
+    public void validatorsPassSiteOfTheirOverload() throws Exception {
+        String validators = Compilation.compile("Overloads.java").source("fixtures.OverloadsValidators");
+
+        assertTrue(validators, validators.contains("ViolationReporter.record(OverloadsSampleSites.DRAW_INT_ARRAY, "));
+    }
+
+    @Test
+    public void failsOnAmbiguousConstant() throws Exception {
+        Compilation compilation = Compilation.tryCompile(
+                Collections.singletonList(ValidatorProcessor.INSTRUMENT_OPTION + "=fixtures"),
+                "AmbiguousOverloads.java");
+
+        assertFalse(compilation.succeeded());
+        List<String> errors = compilation.messages(Diagnostic.Kind.ERROR);
+        assertEquals("Generated constant SET_INT is ambiguous, it names both set(int) and setInt(), rename one of them",
+                errors.get(0));
+    }
+
+    /**
+     * Compiles a type which is timed, but not traced nor checked, as its {@code BuildConfig} enables only timing.
+     */
+    private static Compilation compileTimed() throws Exception {
+        return Compilation.compileInstrumenting("fixtures.timed", "timed/Timed.java", "timed/BuildConfig.java");
+    }
+
+    private static int site(Class<?> sites, String constant) throws ReflectiveOperationException {
+        return sites.getField(constant).getInt(null);
+    }
+}
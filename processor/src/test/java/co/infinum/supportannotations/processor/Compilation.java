@@ -0,0 +1,307 @@
+package co.infinum.supportannotations.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Compiles fixtures from {@code src/test/resources/fixtures} with {@link ValidatorProcessor},
+ * the same way {@code apt} compiles the app, against the test classpath, which holds support
+ * annotations and the runtime. Generated sources, compiled classes and resources are kept
+ * in a temporary directory, and classes are loaded from it, so generated code can be called.
+ * Temporary directories are deleted when the test JVM exits, once no class is loaded from them anymore.
+ */
+final class Compilation {
+
+    private static final List<File> ROOTS = new ArrayList<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread("delete-fixtures") {
+            @Override
+            public void run() {
+                synchronized (ROOTS) {
+                    for (File root : ROOTS) {
+                        delete(root);
+                    }
+                }
+            }
+        });
+    }
+
+    private final File sources;
+
+    private final File classes;
+
+    private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+    private final boolean success;
+
+    private ClassLoader loader;
+
+    private Compilation(File sources, File classes, List<Diagnostic<? extends JavaFileObject>> diagnostics,
+            boolean success) {
+        this.sources = sources;
+        this.classes = classes;
+        this.diagnostics = diagnostics;
+        this.success = success;
+    }
+
+    /**
+     * Compiles {@code fixtures}, names of files in {@code fixtures/}, with processor {@code options},
+     * each written as {@code key=value}, and fails if it does not compile.
+     */
+    static Compilation compile(List<String> options, String... fixtures) throws IOException {
+        Compilation compilation = tryCompile(options, fixtures);
+        if (!compilation.success) {
+            throw new AssertionError("fixtures did not compile:\n" + compilation.errors());
+        }
+        return compilation;
+    }
+
+    /**
+     * Compiles {@code fixtures} with classes generated for every type in package {@code fixtures},
+     * and the index of module {@code fixtures}.
+     */
+    static Compilation compile(String... fixtures) throws IOException {
+        return compileInstrumenting("fixtures", fixtures);
+    }
+
+    /**
+     * Compiles {@code fixtures} with classes generated for every type in {@code instrumented}, a comma
+     * separated list of packages and types, and the index of module {@code fixtures}.
+     */
+    static Compilation compileInstrumenting(String instrumented, String... fixtures) throws IOException {
+        return compile(Arrays.asList(ValidatorProcessor.INSTRUMENT_OPTION + "=" + instrumented,
+                ValidatorProcessor.MODULE_OPTION + "=fixtures"), fixtures);
+    }
+
+    /**
+     * Compiles {@code fixtures} like {@link #compile(List, String...)}, but returns even if they do not compile.
+     */
+    static Compilation tryCompile(List<String> options, String... fixtures) throws IOException {
+        File root = Files.createTempDirectory("fixtures").toFile();
+        synchronized (ROOTS) {
+            ROOTS.add(root);
+        }
+        File sources = new File(root, "generated");
+        File classes = new File(root, "classes");
+        File sourcePath = new File(root, "sourcepath"); // empty, or javac finds other fixtures on the classpath
+        if (!sources.mkdir() || !classes.mkdir() || !sourcePath.mkdir()) {
+            throw new IOException("cannot create directories in " + root);
+        }
+
+        List<JavaFileObject> units = new ArrayList<>();
+        for (String fixture : fixtures) {
+            units.add(new Fixture(fixture, read("fixtures/" + fixture)));
+        }
+        List<String> arguments = new ArrayList<>(Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                "-sourcepath", sourcePath.getPath(), "-s", sources.getPath(), "-d", classes.getPath()));
+        for (String option : options) {
+            arguments.add("-A" + option);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        StandardJavaFileManager files = compiler.getStandardFileManager(collector, Locale.ROOT, null);
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, collector, arguments, null, units);
+            task.setProcessors(Collections.singletonList(new ValidatorProcessor()));
+            boolean success = task.call();
+            return new Compilation(sources, classes, collector.getDiagnostics(), success);
+        } finally {
+            files.close();
+        }
+    }
+
+    boolean succeeded() {
+        return success;
+    }
+
+    /**
+     * Returns messages of diagnostics of {@code kind}, such as warnings of the processor.
+     */
+    List<String> messages(Diagnostic.Kind kind) {
+        List<String> messages = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            if (diagnostic.getKind() == kind) {
+                messages.add(diagnostic.getMessage(Locale.ROOT));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Returns {@code true} if the processor generated source of {@code qualifiedName}.
+     */
+    boolean generated(String qualifiedName) {
+        return sourceFile(qualifiedName).isFile();
+    }
+
+    /**
+     * Returns generated source of {@code qualifiedName}.
+     */
+    String source(String qualifiedName) throws IOException {
+        return new String(Files.readAllBytes(sourceFile(qualifiedName).toPath()), "UTF-8");
+    }
+
+    /**
+     * Returns names of every generated source, qualified, sorted.
+     */
+    List<String> generatedSources() {
+        List<String> names = new ArrayList<>();
+        collectSources(sources, "", names);
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Returns a resource written next to compiled classes, or {@code null} if there is none.
+     */
+    byte[] resource(String path) throws IOException {
+        File file = new File(classes, path);
+        return file.isFile() ? Files.readAllBytes(file.toPath()) : null;
+    }
+
+    Class<?> load(String qualifiedName) throws ClassNotFoundException {
+        if (loader == null) {
+            loader = new URLClassLoader(new URL[] { toUrl(classes) }, Compilation.class.getClassLoader());
+        }
+        return Class.forName(qualifiedName, true, loader);
+    }
+
+    /**
+     * Returns a new loader of compiled classes which shares no class with other loaders, so it can be collected.
+     */
+    URLClassLoader isolatedLoader() {
+        return new URLClassLoader(new URL[] { toUrl(classes) }, null);
+    }
+
+    /**
+     * Asserts that static {@code method} of generated code returns for {@code arguments}.
+     */
+    static void assertAccepts(Method method, Object... arguments) throws IllegalAccessException {
+        try {
+            method.invoke(null, arguments);
+        } catch (InvocationTargetException e) {
+            throw new AssertionError(method.getName() + Arrays.deepToString(arguments) + " threw " + e.getCause());
+        }
+    }
+
+    /**
+     * Asserts that static {@code method} of generated code throws {@link IllegalArgumentException} for arguments,
+     * all but the last of {@code argumentsAndPrefix}, with a message starting with the last one.
+     */
+    static void assertRejects(Method method, Object... argumentsAndPrefix) throws IllegalAccessException {
+        Object[] arguments = Arrays.copyOf(argumentsAndPrefix, argumentsAndPrefix.length - 1);
+        String prefix = (String) argumentsAndPrefix[argumentsAndPrefix.length - 1];
+        try {
+            method.invoke(null, arguments);
+            fail(method.getName() + Arrays.deepToString(arguments) + " passed");
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            assertEquals(IllegalArgumentException.class, cause.getClass());
+            assertTrue(cause.getMessage(), cause.getMessage().startsWith(prefix));
+        }
+    }
+
+    private File sourceFile(String qualifiedName) {
+        return new File(sources, qualifiedName.replace('.', File.separatorChar) + ".java");
+    }
+
+    private String errors() {
+        StringBuilder errors = new StringBuilder();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            errors.append(diagnostic).append('\n');
+        }
+        return errors.toString();
+    }
+
+    private static void collectSources(File directory, String packageName, List<String> names) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            String name = child.getName();
+            if (child.isDirectory()) {
+                collectSources(child, packageName + name + ".", names);
+            } else if (name.endsWith(".java")) {
+                names.add(packageName + name.substring(0, name.length() - ".java".length()));
+            }
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static URL toUrl(File directory) {
+        try {
+            return directory.toURI().toURL();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String read(String resource) throws IOException {
+        InputStream input = Compilation.class.getClassLoader().getResourceAsStream(resource);
+        if (input == null) {
+            throw new IOException("no fixture " + resource);
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            for (int read; (read = input.read(chunk)) != -1; ) {
+                bytes.write(chunk, 0, read);
+            }
+            return bytes.toString("UTF-8");
+        } finally {
+            input.close();
+        }
+    }
+
+    private static final class Fixture extends SimpleJavaFileObject {
+
+        private final String source;
+
+        Fixture(String name, String source) {
+            super(URI.create("string:///fixtures/" + name), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.Diagnostic;
+
+import co.infinum.supportannotations.runtime.threading.NamedThreadOracle;
+import co.infinum.supportannotations.runtime.threading.WorkerDispatcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Calls methods of {@code fixtures/Lanes.java} through the generated {@code Lanes_CounterConfined},
+ * on a dispatcher with several workers, so only the lane keeps calls from overlapping.
+ */
+public class ConfinedWriterTest {
+
+    private static Compilation compilation;
+
+    private static Class<?> counter;
+
+    private static Class<?> confined;
+
+    private WorkerDispatcher dispatcher;
+
+    @BeforeClass
+    public static void compileFixture() throws Exception {
+        compilation = Compilation.compile("Lanes.java");
+        counter = compilation.load("fixtures.Lanes$Counter");
+        confined = compilation.load("fixtures.Lanes_CounterConfined");
+    }
+
+    @Before
+    public void setUp() {
+        Executor inline = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        dispatcher = new WorkerDispatcher(new NamedThreadOracle(), inline, 4);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void keepsTypeParametersOfGenericType() throws Exception {
+        String source = compilation.source("fixtures.Lanes_BoxConfined");
+        assertTrue(source, source.contains(
+                "public final class Lanes_BoxConfined<T extends java.lang.CharSequence> {\n"));
+        assertTrue(source, source.contains(
+                "    public Lanes_BoxConfined(WorkerDispatcher dispatcher, Lanes.Box<T> target) {\n"));
+
+        Class<?> box = compilation.load("fixtures.Lanes$Box");
+        Class<?> boxConfined = compilation.load("fixtures.Lanes_BoxConfined");
+        Object lane = boxConfined.getConstructor(WorkerDispatcher.class, box)
+                .newInstance(dispatcher, box.getConstructor().newInstance());
+        boxConfined.getMethod("set", CharSequence.class).invoke(lane, "boxed");
+        Future<?> value = (Future<?>) boxConfined.getMethod("get").invoke(lane);
+
+        assertEquals("boxed", value.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runsCallsOneAtATimeInCallOrder() throws Exception {
+        Object target = counter.getConstructor().newInstance();
+        Object lane = newConfined(target);
+        Method increment = confined.getMethod("increment");
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add((Future<?>) increment.invoke(lane));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i + 1, futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertFalse((Boolean) counter.getField("overlapped").get(null));
+    }
+
+    @Test
+    public void completesFutureWithError() throws Exception {
+        Object lane = newConfined(counter.getConstructor().newInstance());
+        Future<?> future = (Future<?>) confined.getMethod("fail", String.class).invoke(lane, "no disk");
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(IOException.class, e.getCause().getClass());
+            assertEquals("no disk", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void skipsStaticAndGenericMethods() throws Exception {
+        List<String> methods = new ArrayList<>();
+        for (Method method : confined.getDeclaredMethods()) {
+            methods.add(method.getName());
+        }
+
+        assertFalse(methods.toString(), methods.contains("create"));
+        assertFalse(methods.toString(), methods.contains("identity"));
+        assertEquals(Arrays.asList("Generic @WorkerThread methods are not generated",
+                "Generic @WorkerThread methods are not generated"), compilation.messages(Diagnostic.Kind.WARNING));
+    }
+
+    @Test
+    public void rejectsNullTarget() throws Exception {
+        try {
+            newConfined(null);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertEquals("target == null", e.getCause().getMessage());
+        }
+    }
+
+    private Object newConfined(Object target) throws Exception {
+        Constructor<?> constructor = confined.getConstructor(WorkerDispatcher.class, counter);
+        return constructor.newInstance(dispatcher, target);
+    }
+}
@@ -0,0 +1,125 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import co.infinum.supportannotations.runtime.index.AnnotationIndex;
+import co.infinum.supportannotations.runtime.index.DescriptorCache;
+import co.infinum.supportannotations.runtime.index.MethodDescriptor;
+import co.infinum.supportannotations.runtime.index.ParameterDescriptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads descriptors of methods of a fixture, compiled with the processor, from its index.
+ */
+public class DescriptorCacheTest {
+
+    private static final String INDEXED = "fixtures.Indexed";
+
+    private Compilation compilation;
+
+    private Class<?> indexed;
+
+    private DescriptorCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        compilation = Compilation.compile("Indexed.java");
+        indexed = compilation.load(INDEXED);
+        byte[] index = compilation.resource(AnnotationIndex.resource("fixtures"));
+        cache = new DescriptorCache(AnnotationIndex.wrap(ByteBuffer.wrap(index)));
+    }
+
+    @Test
+    public void readsParametersOfMethods() throws Exception {
+        MethodDescriptor descriptor = cache.descriptor(indexed.getDeclaredMethod("accepts0to255", int.class));
+
+        assertTrue(descriptor.isAnnotated());
+        assertEquals("accepts0to255", descriptor.name());
+        assertEquals(1, descriptor.parameterCount());
+        assertEquals(0, descriptor.parameter(0).intRange.from);
+        assertEquals(255, descriptor.parameter(0).intRange.to);
+        assertNull(descriptor.parameter(0).floatRange);
+        assertNull(descriptor.parameter(0).size);
+    }
+
+    @Test
+    public void tellsOverloadsApart() throws Exception {
+        MethodDescriptor none = cache.descriptor(indexed.getDeclaredMethod("overloaded"));
+        MethodDescriptor annotated = cache.descriptor(
+                indexed.getDeclaredMethod("overloaded", double.class, int[].class));
+
+        assertFalse(none.isAnnotated());
+        assertEquals(0, none.parameterCount());
+        assertTrue(annotated.isAnnotated());
+        assertTrue(annotated.parameter(1).sizeMatches(4));
+        assertFalse(annotated.parameter(1).sizeMatches(3));
+        assertFalse(annotated.parameter(1).sizeMatches(8));
+        assertTrue(annotated.parameter(0).floatRange.contains(1));
+        assertFalse(annotated.parameter(0).floatRange.contains(1.5));
+        assertSame(ParameterDescriptor.NONE, cache.descriptor(
+                indexed.getDeclaredMethod("overloaded", int.class)).parameter(0));
+    }
+
+    @Test
+    public void readsClassOnce() throws Exception {
+        Method method = indexed.getDeclaredMethod("accepts0to255", int.class);
+
+        MethodDescriptor first = cache.descriptor(method);
+        MethodDescriptor second = cache.descriptor(indexed.getDeclaredMethod("accepts0to255", int.class));
+
+        assertSame(first, second);
+        assertEquals(1, cache.classCount());
+    }
+
+    @Test
+    public void returnsSameDescriptorOnEveryThread() throws Exception {
+        final Method method = indexed.getDeclaredMethod("accepts0to255", int.class);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<MethodDescriptor> other = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                other.set(cache.descriptor(method));
+            }
+        });
+        thread.start();
+        start.countDown();
+        MethodDescriptor descriptor = cache.descriptor(method);
+        thread.join();
+
+        assertSame(descriptor, other.get());
+    }
+
+    @Test
+    public void doesNotKeepClassesLoaded() throws Exception {
+        URLClassLoader loader = compilation.isolatedLoader();
+        cache.descriptor(loader.loadClass(INDEXED).getDeclaredMethod("accepts0to255", int.class));
+        assertEquals(1, cache.classCount());
+
+        loader.close();
+        loader = null;
+        for (int i = 0; i < 20 && cache.classCount() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, cache.classCount());
+    }
+}
@@ -0,0 +1,113 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+import co.infinum.supportannotations.runtime.timing.TraceRecorder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GuardsWriterTest {
+
+    @Test
+    public void writesOneGuardPerThreadMethod() throws Exception {
+        Compilation compilation = Compilation.compile("Helpers.java", "BuildConfig.java");
+
+        String guards = compilation.source("fixtures.HelpersGuards");
+        assertTrue(guards, guards.contains("    public static long enterInstall() {\n"
+                + "        if (BuildConfig.RECORD_TRACES) {\n"
+                + "            TraceRecorder.enter(HelpersTraceSites.INSTALL);\n"
+                + "        }\n"
+                + "        if (BuildConfig.ENFORCE_THREAD_CONTRACTS"
+                + " && ContractSampler.sample(HelpersSampleSites.INSTALL)) {\n"
+                + "            try {\n"
+                + "                ThreadContracts.checkMainThread(HelpersSampleSites.INSTALL);\n"
+                + "            } catch (RuntimeException e) {\n"
+                + "                exitInstall(0);\n"
+                + "                throw e;\n"
+                + "            }\n"
+                + "        }\n"
+                + "        return 0;\n"
+                + "    }\n"));
+        assertTrue(guards, guards.contains("    public static void exitInstall(long start) {\n"
+                + "        if (BuildConfig.RECORD_TRACES) {\n"
+                + "            TraceRecorder.exit(HelpersTraceSites.INSTALL);\n"
+                + "        }\n"
+                + "    }\n"));
+        assertTrue(guards, guards.contains("ThreadContracts.checkWorkerThread(HelpersSampleSites.WRITE);"));
+        assertTrue(compilation.generated("fixtures.Helpers_LoaderGuards"));
+    }
+
+    @Test
+    public void leavesOutPartsWithoutFlag() throws Exception {
+        String guards = Compilation.compile("Helpers.java", "BuildConfig.java").source("fixtures.HelpersGuards");
+
+        assertFalse(guards, guards.contains("MEASURE_FRAME_BUDGET"));
+        assertFalse(guards, guards.contains("FrameBudget.end"));
+    }
+
+    @Test
+    public void writesNoGuardsWithoutBuildConfig() throws Exception {
+        assertFalse(Compilation.compile("Helpers.java").generated("fixtures.HelpersGuards"));
+    }
+
+    @Test
+    public void tracesGuardedMethodOnCallingThread() throws Exception {
+        Class<?> guards = Compilation.compile("Helpers.java", "BuildConfig.java").load("fixtures.HelpersGuards");
+        TraceRecorder.clear();
+
+        Object start = guards.getMethod("enterInstall").invoke(null);
+        String entered = trace();
+        guards.getMethod("exitInstall", long.class).invoke(null, start);
+        String exited = trace();
+
+        String thread = "\"pid\":1,\"tid\":" + Thread.currentThread().getId() + ",";
+        String begin = "{\"name\":\"Helpers.install\",\"cat\":\"MainThread\",\"ph\":\"B\"," + thread;
+        String end = "{\"name\":\"Helpers.install\",\"cat\":\"MainThread\",\"ph\":\"E\"," + thread;
+        assertTrue(entered, entered.contains(begin));
+        assertFalse(entered, entered.contains(end));
+        assertTrue(exited, exited.contains(end));
+    }
+
+    @Test
+    public void exitsTraceWhenCheckFails() throws Exception {
+        Class<?> guards = Compilation.compile("Helpers.java", "BuildConfig.java").load("fixtures.HelpersGuards");
+        TraceRecorder.clear();
+
+        try {
+            guards.getMethod("enterWrite").invoke(null);
+            fail("worker thread contract not enforced on main thread");
+        } catch (InvocationTargetException e) {
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+        }
+
+        String trace = trace();
+        assertTrue(trace, trace.contains("{\"name\":\"Helpers.write\",\"cat\":\"WorkerThread\",\"ph\":\"B\","));
+        assertTrue(trace, trace.contains("{\"name\":\"Helpers.write\",\"cat\":\"WorkerThread\",\"ph\":\"E\","));
+    }
+
+    @Test
+    public void checksThreadOfGuardedMethod() throws Exception {
+        Class<?> guards = Compilation.compile("Helpers.java", "BuildConfig.java").load("fixtures.HelpersGuards");
+        assertEquals("main", Thread.currentThread().getName());
+
+        guards.getMethod("enterInstall").invoke(null);
+        try {
+            guards.getMethod("enterWrite").invoke(null);
+            fail("worker thread contract not enforced on main thread");
+        } catch (InvocationTargetException e) {
+            assertEquals("Helpers.write must not be called from the main thread, but was called from main",
+                    e.getCause().getMessage());
+        }
+    }
+
+    private static String trace() throws Exception {
+        StringBuilder trace = new StringBuilder();
+        TraceRecorder.writeChromeTrace(trace);
+        return trace.toString();
+    }
+}
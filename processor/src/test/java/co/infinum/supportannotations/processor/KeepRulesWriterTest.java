@@ -0,0 +1,56 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class KeepRulesWriterTest {
+
+    @Test
+    public void writesRulesOfModuleNextToCompiledClasses() throws Exception {
+        Compilation compilation = Compilation.compile("Kept.java");
+
+        assertEquals("# Generated by ValidatorProcessor from @Keep, do not edit\n"
+                + "-keep class fixtures.Kept$Nested { *; }\n"
+                + "-keep class fixtures.Kept {\n"
+                + "    <init>(java.lang.String);\n"
+                + "    int[] keepThisMethodWhenMinimizing(java.util.List,fixtures.Kept$Nested);\n"
+                + "    java.lang.String NAME;\n"
+                + "}\n", rules(compilation, "fixtures"));
+    }
+
+    @Test
+    public void keepsNamesOfIndexedElementsAndTheirParameterTypes() throws Exception {
+        Compilation compilation = Compilation.compile(Arrays.asList(ValidatorProcessor.MODULE_OPTION + "=fixtures",
+                KeepRulesWriter.KEEP_INDEXED_NAMES_OPTION + "=true"), "Kept.java");
+
+        String rules = rules(compilation, "fixtures");
+        assertEquals("# Generated by ValidatorProcessor from @Keep and the annotation index, do not edit\n"
+                + "-keep class fixtures.Kept$Nested { *; }\n"
+                + "-keep class fixtures.Kept {\n"
+                + "    <init>(java.lang.String);\n"
+                + "    int[] keepThisMethodWhenMinimizing(java.util.List,fixtures.Kept$Nested);\n"
+                + "    java.lang.String NAME;\n"
+                + "}\n"
+                + "-keepnames class fixtures.Kept {\n"
+                + "    void indexed(int,fixtures.Kept$Nested);\n"
+                + "}\n", rules);
+    }
+
+    @Test
+    public void writesEmptyRulesOfUnnamedModule() throws Exception {
+        Compilation compilation = Compilation.compile(Collections.<String>emptyList(), "Ranges.java");
+
+        assertEquals("# Generated by ValidatorProcessor from @Keep, do not edit\n", rules(compilation, null));
+    }
+
+    private static String rules(Compilation compilation, String module) throws Exception {
+        byte[] rules = compilation.resource(KeepRulesWriter.resource(module));
+        assertNotNull(KeepRulesWriter.resource(module) + " is not written", rules);
+        return new String(rules, "UTF-8");
+    }
+}
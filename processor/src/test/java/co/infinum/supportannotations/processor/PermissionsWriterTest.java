@@ -0,0 +1,81 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import javax.tools.Diagnostic;
+
+import co.infinum.supportannotations.runtime.permissions.FakePermissionBackend;
+import co.infinum.supportannotations.runtime.permissions.PermissionCache;
+import co.infinum.supportannotations.runtime.permissions.PermissionRequirement;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads requirements generated for {@code fixtures/Permitted.java} and checks them with a {@link PermissionCache}.
+ */
+public class PermissionsWriterTest {
+
+    private static final String CAMERA = "android.permission.CAMERA";
+
+    private static final String RECORD_AUDIO = "android.permission.RECORD_AUDIO";
+
+    private static final String COARSE_LOCATION = "android.permission.ACCESS_COARSE_LOCATION";
+
+    private static final String FINE_LOCATION = "android.permission.ACCESS_FINE_LOCATION";
+
+    private static Compilation compilation;
+
+    private static Class<?> permissions;
+
+    @BeforeClass
+    public static void compileFixture() throws Exception {
+        compilation = Compilation.compile("Permitted.java");
+        permissions = compilation.load("fixtures.PermittedPermissions");
+    }
+
+    @Test
+    public void generatesRequirementOfEveryKind() throws Exception {
+        assertEquals(PermissionRequirement.of(CAMERA), requirement("TAKE_PICTURE"));
+        assertEquals(PermissionRequirement.allOf(CAMERA, RECORD_AUDIO), requirement("RECORD_VIDEO"));
+        assertEquals(PermissionRequirement.anyOf(COARSE_LOCATION, FINE_LOCATION), requirement("LOCATE"));
+        assertEquals(PermissionRequirement.of("fixtures.permission.READ_\"NOTES\""), requirement("READ_NOTES"));
+    }
+
+    @Test
+    public void listsEveryRequirementInOrder() throws Exception {
+        PermissionRequirement[] all = (PermissionRequirement[]) permissions.getMethod("all").invoke(null);
+
+        assertArrayEquals(new PermissionRequirement[] { requirement("TAKE_PICTURE"), requirement("RECORD_VIDEO"),
+                requirement("LOCATE"), requirement("READ_NOTES") }, all);
+    }
+
+    @Test
+    public void skipsAnnotationWithoutPermissions() throws Exception {
+        assertFalse(compilation.source("fixtures.PermittedPermissions").contains("NOTHING_REQUIRED"));
+        assertEquals(Collections.singletonList("@RequiresPermission without permissions is not generated"),
+                compilation.messages(Diagnostic.Kind.WARNING));
+    }
+
+    @Test
+    public void cachesEveryPermissionOfGeneratedRequirements() throws Exception {
+        FakePermissionBackend backend = new FakePermissionBackend(CAMERA, FINE_LOCATION);
+        PermissionCache cache = new PermissionCache(backend,
+                (PermissionRequirement[]) permissions.getMethod("all").invoke(null));
+
+        assertTrue(cache.isGranted(requirement("TAKE_PICTURE")));
+        assertFalse(cache.isGranted(requirement("RECORD_VIDEO")));
+        assertTrue(cache.isGranted(requirement("LOCATE")));
+        assertFalse(cache.isGranted(requirement("READ_NOTES")));
+        assertEquals(5, backend.checkCount()); // every permission checked once, in the first snapshot
+    }
+
+    private static PermissionRequirement requirement(String constant) throws Exception {
+        return (PermissionRequirement) permissions.getField(constant).get(null);
+    }
+}
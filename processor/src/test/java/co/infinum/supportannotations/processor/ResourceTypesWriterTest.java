@@ -0,0 +1,106 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static co.infinum.supportannotations.processor.Compilation.assertAccepts;
+import static co.infinum.supportannotations.processor.Compilation.assertRejects;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compiles {@code fixtures/R.java} with classes which take resource ids, and calls their validators
+ * with ids of every type in it. Fixtures have no {@code android.R}, so ids of other packages are not checked.
+ */
+public class ResourceTypesWriterTest {
+
+    private static Compilation compilation;
+
+    @BeforeClass
+    public static void compileFixtures() throws Exception {
+        compilation = Compilation.compileInstrumenting("fixtures,fixtures.nested",
+                "R.java", "Resourced.java", "nested/NestedResourced.java");
+    }
+
+    @Test
+    public void writesOneTableNextToClosestR() {
+        assertEquals(Arrays.asList("fixtures.ResourceTypes", "fixtures.ResourcedSampleSites",
+                "fixtures.ResourcedValidators", "fixtures.nested.NestedResourcedSampleSites",
+                "fixtures.nested.NestedResourcedValidators"), compilation.generatedSources());
+    }
+
+    @Test
+    public void putsTypeIdOfEveryNestedClassButStyleable() throws Exception {
+        String resourceTypes = compilation.source("fixtures.ResourceTypes");
+
+        assertTrue(resourceTypes, resourceTypes.contains("    public static final ResourceTypeTable TABLE = "
+                + "new ResourceTypeTable()\n"
+                + "            .put(0x7f, 0x01, ResourceTypeTable.ATTR)\n"
+                + "            .put(0x7f, 0x02, ResourceTypeTable.DRAWABLE)\n"
+                + "            .put(0x7f, 0x03, ResourceTypeTable.LAYOUT)\n"
+                + "            .put(0x7f, 0x04, ResourceTypeTable.MIPMAP)\n"
+                + "            .put(0x7f, 0x05, ResourceTypeTable.STRING);\n"));
+        assertFalse(resourceTypes, resourceTypes.contains("android.R"));
+    }
+
+    @Test
+    public void checksTypeOfParameter() throws Exception {
+        Method method = validator("fixtures.ResourcedValidators", "setTitle");
+
+        assertAccepts(method, 0x7f050000);
+        assertAccepts(method, 0x7f050001);
+        assertRejects(method, 0x7f030000, "Resourced.setTitle(title): 0x7f030000 is not a resource of type string");
+        assertRejects(method, 0x7f060000, "Resourced.setTitle(title): 0x7f060000 is not a resource of type string");
+        assertRejects(method, 0, "Resourced.setTitle(title): 0x0 is not a resource of type string");
+        assertRejects(method, 0xff000000, "Resourced.setTitle(title): 0xff000000 is not a resource of type string");
+        assertAccepts(method, 0x01040000); // no android.R, so framework ids are of any type
+    }
+
+    @Test
+    public void acceptsMipmapAsDrawable() throws Exception {
+        Method method = validator("fixtures.ResourcedValidators", "setIcon");
+
+        assertAccepts(method, 0x7f020000);
+        assertAccepts(method, 0x7f040000);
+        assertRejects(method, 0x7f050000, "Resourced.setIcon(icon): 0x7f050000 is not a resource of type "
+                + "drawable or mipmap");
+    }
+
+    @Test
+    public void checksTypeOfReturnValue() throws Exception {
+        Method method = validator("fixtures.ResourcedValidators", "layoutResult");
+
+        assertAccepts(method, 0x7f030000);
+        assertRejects(method, 0x7f020000, "Resourced.layout(result): 0x7f020000 is not a resource of type layout");
+    }
+
+    @Test
+    public void namesReturnValueValidatorsOfOverloadsAfterParameterTypes() throws Exception {
+        String validators = compilation.source("fixtures.ResourcedValidators");
+        assertTrue(validators, validators.contains("    public static void layoutResult(int result) {\n"));
+        assertTrue(validators, validators.contains("    public static void layoutIntResult(int result) {\n"));
+
+        Method method = validator("fixtures.ResourcedValidators", "layoutIntResult");
+        assertAccepts(method, 0x7f030000);
+        assertRejects(method, 0x7f050000, "Resourced.layout(result): 0x7f050000 is not a resource of type layout");
+    }
+
+    @Test
+    public void usesTableOfParentPackage() throws Exception {
+        String validators = compilation.source("fixtures.nested.NestedResourcedValidators");
+        assertTrue(validators, validators.contains("import fixtures.ResourceTypes;\n"));
+
+        Method method = validator("fixtures.nested.NestedResourcedValidators", "setTitle");
+        assertAccepts(method, 0x7f050000);
+        assertRejects(method, 0x7f010000,
+                "NestedResourced.setTitle(title): 0x7f010000 is not a resource of type string");
+    }
+
+    private static Method validator(String validators, String name) throws Exception {
+        return compilation.load(validators).getMethod(name, int.class);
+    }
+}
@@ -0,0 +1,58 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ValidatorProcessorTest {
+
+    @Test
+    public void generatesNothingWithoutInstrumentedTypes() throws Exception {
+        Compilation compilation = Compilation.compile(
+                Collections.singletonList(ValidatorProcessor.MODULE_OPTION + "=fixtures"),
+                "Helpers.java", "Ranges.java");
+
+        assertEquals(Collections.<String>emptyList(), compilation.generatedSources());
+        assertNotNull(compilation.resource(AnnotationIndexWriter.resource("fixtures")));
+    }
+
+    @Test
+    public void generatesOnlyForListedTypesAndTypesNestedInThem() throws Exception {
+        Compilation compilation = Compilation.compile(
+                Collections.singletonList(ValidatorProcessor.INSTRUMENT_OPTION + "=fixtures.Helpers, other.Type"),
+                "Helpers.java", "Ranges.java");
+
+        assertEquals(Arrays.asList(
+                "fixtures.HelpersCallSites",
+                "fixtures.HelpersSampleSites",
+                "fixtures.HelpersTraceSites",
+                "fixtures.HelpersValidators",
+                "fixtures.HelpersWorkers",
+                "fixtures.Helpers_LoaderConfined",
+                "fixtures.Helpers_LoaderSampleSites",
+                "fixtures.Helpers_LoaderTraceSites",
+                "fixtures.Helpers_LoaderWorkers"), compilation.generatedSources());
+    }
+
+    @Test
+    public void generatesForEveryTypeOfListedPackage() throws Exception {
+        Compilation compilation = Compilation.compile("Helpers.java", "Ranges.java");
+
+        assertEquals(Arrays.asList(
+                "fixtures.HelpersCallSites",
+                "fixtures.HelpersSampleSites",
+                "fixtures.HelpersTraceSites",
+                "fixtures.HelpersValidators",
+                "fixtures.HelpersWorkers",
+                "fixtures.Helpers_LoaderConfined",
+                "fixtures.Helpers_LoaderSampleSites",
+                "fixtures.Helpers_LoaderTraceSites",
+                "fixtures.Helpers_LoaderWorkers",
+                "fixtures.RangesSampleSites",
+                "fixtures.RangesValidators"), compilation.generatedSources());
+    }
+}
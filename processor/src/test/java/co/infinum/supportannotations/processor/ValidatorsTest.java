@@ -0,0 +1,239 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static co.infinum.supportannotations.processor.Compilation.assertAccepts;
+import static co.infinum.supportannotations.processor.Compilation.assertRejects;
+
+/**
+ * Calls validators generated for {@code fixtures/Ranges.java} on both sides of every bound.
+ */
+public class ValidatorsTest {
+
+    private static Class<?> validators;
+
+    @BeforeClass
+    public static void compileFixture() throws Exception {
+        validators = Compilation.compile("Ranges.java").load("fixtures.RangesValidators");
+    }
+
+    @Test
+    public void checksIntRangeFromZeroAsUnsigned() throws Exception {
+        Method method = validator("unsignedFromZero", int.class);
+
+        assertRejects(method, -1, "Ranges.unsignedFromZero(value)");
+        assertAccepts(method, 0);
+        assertAccepts(method, 255);
+        assertRejects(method, 256, "Ranges.unsignedFromZero(value)");
+        assertRejects(method, Integer.MIN_VALUE, "Ranges.unsignedFromZero(value)");
+        assertRejects(method, Integer.MAX_VALUE, "Ranges.unsignedFromZero(value)");
+    }
+
+    @Test
+    public void checksNegativeIntRangeAsUnsignedDistance() throws Exception {
+        Method method = validator("unsignedNegative", int.class);
+
+        assertRejects(method, -11, "Ranges.unsignedNegative(value)");
+        assertAccepts(method, -10);
+        assertAccepts(method, 0);
+        assertAccepts(method, 10);
+        assertRejects(method, 11, "Ranges.unsignedNegative(value)");
+        assertRejects(method, Integer.MIN_VALUE, "Ranges.unsignedNegative(value)");
+        assertRejects(method, Integer.MAX_VALUE, "Ranges.unsignedNegative(value)");
+    }
+
+    @Test
+    public void acceptsEveryIntForWholeRange() throws Exception {
+        Method method = validator("unsignedWholeInt", int.class);
+
+        assertAccepts(method, Integer.MIN_VALUE);
+        assertAccepts(method, -1);
+        assertAccepts(method, 0);
+        assertAccepts(method, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void checksShortAsUnsignedDistance() throws Exception {
+        Method method = validator("unsignedShort", short.class);
+
+        assertRejects(method, (short) -6, "Ranges.unsignedShort(value)");
+        assertAccepts(method, (short) -5);
+        assertAccepts(method, (short) 5);
+        assertRejects(method, (short) 6, "Ranges.unsignedShort(value)");
+        assertRejects(method, Short.MIN_VALUE, "Ranges.unsignedShort(value)");
+        assertRejects(method, Short.MAX_VALUE, "Ranges.unsignedShort(value)");
+    }
+
+    @Test
+    public void checksOpenIntRanges() throws Exception {
+        Method onlyFrom = validator("onlyFrom", int.class);
+        Method onlyTo = validator("onlyTo", int.class);
+
+        assertRejects(onlyFrom, Integer.MIN_VALUE, "Ranges.onlyFrom(value)");
+        assertRejects(onlyFrom, 4, "Ranges.onlyFrom(value)");
+        assertAccepts(onlyFrom, 5);
+        assertAccepts(onlyFrom, Integer.MAX_VALUE);
+
+        assertAccepts(onlyTo, Integer.MIN_VALUE);
+        assertAccepts(onlyTo, 5);
+        assertRejects(onlyTo, 6, "Ranges.onlyTo(value)");
+        assertRejects(onlyTo, Integer.MAX_VALUE, "Ranges.onlyTo(value)");
+    }
+
+    @Test
+    public void checksLongRangeWiderThanInt() throws Exception {
+        Method method = validator("longRange", long.class);
+
+        assertRejects(method, Long.MIN_VALUE, "Ranges.longRange(value)");
+        assertRejects(method, -5000000001L, "Ranges.longRange(value)");
+        assertAccepts(method, -5000000000L);
+        assertAccepts(method, (long) Integer.MIN_VALUE);
+        assertAccepts(method, (long) Integer.MAX_VALUE);
+        assertAccepts(method, 5000000000L);
+        assertRejects(method, 5000000001L, "Ranges.longRange(value)");
+        assertRejects(method, Long.MAX_VALUE, "Ranges.longRange(value)");
+    }
+
+    @Test
+    public void checksInclusiveFloatRange() throws Exception {
+        Method method = validator("floatInclusive", float.class);
+
+        assertRejects(method, Math.nextAfter(0f, -1), "Ranges.floatInclusive(value)");
+        assertAccepts(method, 0f);
+        assertAccepts(method, 3f);
+        assertRejects(method, Math.nextUp(3f), "Ranges.floatInclusive(value)");
+        assertRejects(method, Float.NaN, "Ranges.floatInclusive(value)");
+        assertRejects(method, Float.NEGATIVE_INFINITY, "Ranges.floatInclusive(value)");
+        assertRejects(method, Float.POSITIVE_INFINITY, "Ranges.floatInclusive(value)");
+    }
+
+    @Test
+    public void checksExclusiveDoubleRange() throws Exception {
+        Method method = validator("doubleExclusive", double.class);
+
+        assertRejects(method, -1.0, "Ranges.doubleExclusive(value)");
+        assertAccepts(method, Math.nextUp(-1.0));
+        assertAccepts(method, Math.nextAfter(1.0, 0));
+        assertRejects(method, 1.0, "Ranges.doubleExclusive(value)");
+        assertRejects(method, Double.NaN, "Ranges.doubleExclusive(value)");
+    }
+
+    @Test
+    public void checksExclusiveFloatRangeOfInt() throws Exception {
+        Method method = validator("floatOnInt", int.class);
+
+        assertRejects(method, Integer.MIN_VALUE, "Ranges.floatOnInt(value)");
+        assertRejects(method, -1, "Ranges.floatOnInt(value)");
+        assertAccepts(method, 0);
+        assertRejects(method, 1, "Ranges.floatOnInt(value)");
+        assertRejects(method, Integer.MAX_VALUE, "Ranges.floatOnInt(value)");
+    }
+
+    @Test
+    public void rejectsNanForOpenFloatRange() throws Exception {
+        Method method = validator("floatOnlyFrom", double.class);
+
+        assertRejects(method, -Double.MIN_VALUE, "Ranges.floatOnlyFrom(value)");
+        assertAccepts(method, 0.0);
+        assertAccepts(method, Double.POSITIVE_INFINITY);
+        assertRejects(method, Double.NaN, "Ranges.floatOnlyFrom(value)");
+    }
+
+    @Test
+    public void checksExactSize() throws Exception {
+        Method method = validator("sizeExactly", String.class);
+
+        assertRejects(method, "123456789", "Ranges.sizeExactly(text)");
+        assertAccepts(method, "1234567890");
+        assertRejects(method, "12345678901", "Ranges.sizeExactly(text)");
+        assertAccepts(method, (Object) null);
+    }
+
+    @Test
+    public void checksMinAndMaxSize() throws Exception {
+        Method atLeast = validator("sizeAtLeast", CharSequence.class);
+        Method atMost = validator("sizeAtMost", int[].class);
+
+        assertRejects(atLeast, new StringBuilder(), "Ranges.sizeAtLeast(text)");
+        assertAccepts(atLeast, new StringBuilder("a"));
+
+        assertAccepts(atMost, (Object) new int[0]);
+        assertAccepts(atMost, (Object) new int[5]);
+        assertRejects(atMost, new int[6], "Ranges.sizeAtMost(values)");
+    }
+
+    @Test
+    public void checksMultipleOfPowerOfTwoWithMask() throws Exception {
+        Method method = validator("sizeMultipleOfPowerOfTwo", java.util.List.class);
+
+        assertAccepts(method, Collections.emptyList());
+        assertRejects(method, Arrays.asList("a", "b", "c"), "Ranges.sizeMultipleOfPowerOfTwo(values)");
+        assertAccepts(method, Arrays.asList("a", "b", "c", "d"));
+        assertRejects(method, Arrays.asList("a", "b", "c", "d", "e"), "Ranges.sizeMultipleOfPowerOfTwo(values)");
+    }
+
+    @Test
+    public void checksMultipleWithRemainder() throws Exception {
+        Method method = validator("sizeMultiple", String.class);
+
+        assertAccepts(method, "");
+        assertRejects(method, "ab", "Ranges.sizeMultiple(text)");
+        assertAccepts(method, "abc");
+        assertRejects(method, "abcd", "Ranges.sizeMultiple(text)");
+    }
+
+    @Test
+    public void checksMinMaxAndMultipleTogether() throws Exception {
+        Method method = validator("sizeCombo", String.class);
+
+        assertRejects(method, "", "Ranges.sizeCombo(text)");
+        assertRejects(method, "abc", "Ranges.sizeCombo(text)");
+        assertRejects(method, "abcde", "Ranges.sizeCombo(text)");
+        assertAccepts(method, "abcdef");
+        assertRejects(method, "abcdefg", "Ranges.sizeCombo(text)");
+        assertAccepts(method, "abcdefghi");
+        assertAccepts(method, "abcdefghijkl");
+        assertRejects(method, "abcdefghijklm", "Ranges.sizeCombo(text)");
+        assertRejects(method, "abcdefghijklmno", "Ranges.sizeCombo(text)");
+    }
+
+    @Test
+    public void checksExactAndMaxSizeTogether() throws Exception {
+        Method method = validator("sizeExactAndMax", Map.class);
+
+        assertRejects(method, map(2), "Ranges.sizeExactAndMax(values)");
+        assertAccepts(method, map(3));
+        assertRejects(method, map(4), "Ranges.sizeExactAndMax(values)");
+        assertRejects(method, map(6), "Ranges.sizeExactAndMax(values)");
+    }
+
+    @Test
+    public void checksEveryParameter() throws Exception {
+        Method method = validator("twoParameters", int.class, String.class);
+
+        assertAccepts(method, 1, "ab");
+        assertAccepts(method, 2, "ab");
+        assertRejects(method, 0, "ab", "Ranges.twoParameters(first)");
+        assertRejects(method, 3, "ab", "Ranges.twoParameters(first)");
+        assertRejects(method, 1, "abc", "Ranges.twoParameters(second)");
+    }
+
+    private static Method validator(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return validators.getMethod(name, parameterTypes);
+    }
+
+    private static Map<String, String> map(int size) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put("key" + i, "value" + i);
+        }
+        return map;
+    }
+}
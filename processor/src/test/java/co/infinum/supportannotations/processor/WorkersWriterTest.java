@@ -0,0 +1,184 @@
+package co.infinum.supportannotations.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.tools.Diagnostic;
+
+import co.infinum.supportannotations.runtime.threading.ThreadOracle;
+import co.infinum.supportannotations.runtime.threading.WorkerDispatcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Calls {@code @WorkerThread} methods of {@code fixtures/Worked.java} through the generated
+ * {@code WorkedWorkers}, with the test thread playing the main thread.
+ */
+public class WorkersWriterTest {
+
+    private static Compilation compilation;
+
+    private static Class<?> worked;
+
+    private static Class<?> workers;
+
+    private final Thread mainThread = Thread.currentThread();
+
+    private final BlockingQueue<Runnable> mainQueue = new LinkedBlockingQueue<>();
+
+    private WorkerDispatcher dispatcher;
+
+    @BeforeClass
+    public static void compileFixture() throws Exception {
+        compilation = Compilation.compile("Worked.java");
+        worked = compilation.load("fixtures.Worked");
+        workers = compilation.load("fixtures.WorkedWorkers");
+    }
+
+    @Before
+    public void setUp() {
+        ThreadOracle oracle = new ThreadOracle() {
+            @Override
+            public boolean isMainThread() {
+                return Thread.currentThread() == mainThread;
+            }
+
+            @Override
+            public boolean isBinderThread() {
+                return false;
+            }
+        };
+        Executor mainExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                mainQueue.add(command);
+            }
+        };
+        dispatcher = new WorkerDispatcher(oracle, mainExecutor, 1);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void movesCallFromMainThreadToWorker() throws Exception {
+        Method count = workers.getMethod("count", WorkerDispatcher.class, List.class);
+
+        Future<?> future = (Future<?>) count.invoke(null, dispatcher, Arrays.asList("a", "b"));
+
+        assertEquals(2, future.get(5, TimeUnit.SECONDS));
+        assertNotSame(mainThread, lastThread());
+        assertEquals(1, dispatcher.queuedCount());
+    }
+
+    @Test
+    public void runsCallInlineOffMainThread() throws Exception {
+        final Method count = workers.getMethod("count", WorkerDispatcher.class, List.class);
+        final AtomicReference<Future<?>> future = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.set((Future<?>) count.invoke(null, dispatcher, Collections.singletonList("a")));
+                } catch (ReflectiveOperationException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertTrue(future.get().isDone());
+        assertEquals(1, future.get().get());
+        assertSame(thread, lastThread());
+        assertEquals(1, dispatcher.inlineCount());
+    }
+
+    @Test
+    public void passesErrorToCallbackOnMainThread() throws Exception {
+        Method fail = workers.getMethod("fail", WorkerDispatcher.class, WorkerDispatcher.Callback.class, String.class);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        WorkerDispatcher.Callback<Object> callback = new WorkerDispatcher.Callback<Object>() {
+            @Override
+            public void onResult(Object result) {
+                fail("passed " + result);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                assertSame(mainThread, Thread.currentThread());
+                error.set(e);
+            }
+        };
+
+        Future<?> future = (Future<?>) fail.invoke(null, dispatcher, callback, "no disk");
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(IOException.class, e.getCause().getClass());
+        }
+        assertNull(error.get());
+        mainQueue.poll(5, TimeUnit.SECONDS).run(); // posted once the future is done
+
+        assertEquals("no disk", error.get().getMessage());
+    }
+
+    @Test
+    public void callsInstanceMethodOnTarget() throws Exception {
+        Method describe = workers.getMethod("describe", WorkerDispatcher.class, worked, int.class);
+        Object target = worked.getConstructor(String.class).newInstance("worked");
+
+        Future<?> future = (Future<?>) describe.invoke(null, dispatcher, target, 7);
+
+        assertEquals("worked 7", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void keepsTypeParametersOfGenericType() throws Exception {
+        String holderWorkers = compilation.source("fixtures.Worked_HolderWorkers");
+        assertTrue(holderWorkers, holderWorkers.contains("    public static <T extends java.lang.CharSequence> "
+                + "Future<T> get(WorkerDispatcher dispatcher, final Worked.Holder<T> target) {\n"));
+
+        Class<?> holder = compilation.load("fixtures.Worked$Holder");
+        Method get = compilation.load("fixtures.Worked_HolderWorkers").getMethod("get", WorkerDispatcher.class, holder);
+        Object target = holder.getConstructor(CharSequence.class).newInstance("held");
+
+        assertEquals("held", ((Future<?>) get.invoke(null, dispatcher, target)).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void skipsGenericMethods() throws Exception {
+        assertFalse(compilation.source("fixtures.WorkedWorkers").contains("identity("));
+        assertEquals(Collections.singletonList("Generic @WorkerThread methods are not generated"),
+                compilation.messages(Diagnostic.Kind.WARNING));
+    }
+
+    private static Thread lastThread() throws ReflectiveOperationException {
+        return (Thread) worked.getField("lastThread").get(null);
+    }
+}
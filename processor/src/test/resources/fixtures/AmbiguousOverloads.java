@@ -0,0 +1,18 @@
+package fixtures;
+
+import android.support.annotation.MainThread;
+
+public final class AmbiguousOverloads {
+
+    @MainThread
+    public static void set(int value) {
+    }
+
+    @MainThread
+    public static void set(String value) {
+    }
+
+    @MainThread
+    public static void setInt() {
+    }
+}
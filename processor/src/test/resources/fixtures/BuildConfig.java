@@ -0,0 +1,8 @@
+package fixtures;
+
+public final class BuildConfig {
+
+    public static final boolean ENFORCE_THREAD_CONTRACTS = true;
+
+    public static final boolean RECORD_TRACES = true;
+}
@@ -0,0 +1,23 @@
+package fixtures;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.MainThread;
+import android.support.annotation.WorkerThread;
+
+public final class Helpers {
+
+    @MainThread
+    public static void install() {
+    }
+
+    @WorkerThread
+    public static void write(@IntRange(from = 0) int size) {
+    }
+
+    @WorkerThread
+    public static final class Loader {
+
+        public void load() {
+        }
+    }
+}
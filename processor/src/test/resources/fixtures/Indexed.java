@@ -0,0 +1,34 @@
+package fixtures;
+
+import android.support.annotation.FloatRange;
+import android.support.annotation.IntRange;
+import android.support.annotation.RequiresPermission;
+import android.support.annotation.Size;
+import android.support.annotation.WorkerThread;
+
+public final class Indexed {
+
+    public static void accepts0to255(@IntRange(from = 0, to = 255) int value) {
+    }
+
+    public static void acceptsFloat0To3(@FloatRange(from = 0, to = 3, toInclusive = false) float value) {
+    }
+
+    @RequiresPermission(allOf = { "android.permission.CAMERA", "android.permission.INTERNET" })
+    public static void requiresMultiplePermissions() {
+    }
+
+    public static void overloaded() {
+    }
+
+    public static void overloaded(int value) {
+    }
+
+    public static void overloaded(@FloatRange(from = 0, to = 1) double weight,
+            @Size(min = 2, max = 6, multiple = 2) int[] values) {
+    }
+
+    @WorkerThread
+    public static final class Loader {
+    }
+}
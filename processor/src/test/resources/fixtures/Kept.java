@@ -0,0 +1,28 @@
+package fixtures;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.Keep;
+
+import java.util.List;
+
+public final class Kept {
+
+    @Keep
+    public static final String NAME = "kept";
+
+    @Keep
+    public Kept(String name) {
+    }
+
+    @Keep
+    public static int[] keepThisMethodWhenMinimizing(List<String> values, Nested nested) {
+        return new int[0];
+    }
+
+    public static void indexed(@IntRange(from = 0) int value, Nested nested) {
+    }
+
+    @Keep
+    public static final class Nested {
+    }
+}
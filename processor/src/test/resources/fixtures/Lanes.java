@@ -0,0 +1,54 @@
+package fixtures;
+
+import android.support.annotation.WorkerThread;
+
+import java.io.IOException;
+
+public final class Lanes {
+
+    @WorkerThread
+    public static final class Counter {
+
+        public static volatile boolean overlapped;
+
+        private int running;
+
+        private int count;
+
+        public int increment() {
+            if (running++ != 0) {
+                overlapped = true;
+            }
+            Thread.yield();
+            count++;
+            running--;
+            return count;
+        }
+
+        public void fail(String message) throws IOException {
+            throw new IOException(message);
+        }
+
+        public <T> T identity(T value) {
+            return value;
+        }
+
+        public static Counter create() {
+            return new Counter();
+        }
+    }
+
+    @WorkerThread
+    public static final class Box<T extends CharSequence> {
+
+        private T value;
+
+        public T get() {
+            return value;
+        }
+
+        public void set(T value) {
+            this.value = value;
+        }
+    }
+}
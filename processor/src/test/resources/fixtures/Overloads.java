@@ -0,0 +1,38 @@
+package fixtures;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.RequiresPermission;
+import android.support.annotation.Size;
+
+import java.util.List;
+
+public final class Overloads {
+
+    @MainThread
+    public static void draw() {
+    }
+
+    @MainThread
+    public static void draw(int color) {
+    }
+
+    @MainThread
+    public static void draw(@Size(4) int[] colors) {
+    }
+
+    @MainThread
+    public static void draw(List<String> names, CharSequence label) {
+    }
+
+    @MainThread
+    public static void invalidate() {
+    }
+
+    @RequiresPermission("android.permission.CAMERA")
+    public static void capture() {
+    }
+
+    @RequiresPermission("android.permission.CAMERA")
+    public static void capture(String path) {
+    }
+}
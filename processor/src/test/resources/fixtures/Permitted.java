@@ -0,0 +1,30 @@
+package fixtures;
+
+import android.support.annotation.RequiresPermission;
+
+public final class Permitted {
+
+    public static final String READ_NOTES = "fixtures.permission.READ_\"NOTES\"";
+
+    @RequiresPermission("android.permission.CAMERA")
+    public static void takePicture() {
+    }
+
+    @RequiresPermission(allOf = { "android.permission.CAMERA", "android.permission.RECORD_AUDIO" })
+    public static void recordVideo(String name) {
+    }
+
+    @RequiresPermission(anyOf = { "android.permission.ACCESS_COARSE_LOCATION",
+            "android.permission.ACCESS_FINE_LOCATION" })
+    public static void locate() {
+    }
+
+    @RequiresPermission(READ_NOTES)
+    public static String readNotes() {
+        return "";
+    }
+
+    @RequiresPermission
+    public static void nothingRequired() {
+    }
+}
@@ -0,0 +1,30 @@
+package fixtures;
+
+public final class R {
+
+    public static final class attr {
+        public static final int color = 0x7f010000;
+    }
+
+    public static final class drawable {
+        public static final int icon = 0x7f020000;
+    }
+
+    public static final class layout {
+        public static final int main = 0x7f030000;
+    }
+
+    public static final class mipmap {
+        public static final int launcher = 0x7f040000;
+    }
+
+    public static final class string {
+        public static final int name = 0x7f050000;
+        public static final int title = 0x7f050001;
+    }
+
+    public static final class styleable {
+        public static final int[] View = { 0x7f010000 };
+        public static final int View_color = 0;
+    }
+}
@@ -0,0 +1,69 @@
+package fixtures;
+
+import android.support.annotation.FloatRange;
+import android.support.annotation.IntRange;
+import android.support.annotation.Size;
+
+import java.util.List;
+import java.util.Map;
+
+public final class Ranges {
+
+    public static void unsignedFromZero(@IntRange(from = 0, to = 255) int value) {
+    }
+
+    public static void unsignedNegative(@IntRange(from = -10, to = 10) int value) {
+    }
+
+    public static void unsignedWholeInt(@IntRange(from = Integer.MIN_VALUE, to = Integer.MAX_VALUE) int value) {
+    }
+
+    public static void unsignedShort(@IntRange(from = -5, to = 5) short value) {
+    }
+
+    public static void onlyFrom(@IntRange(from = 5) int value) {
+    }
+
+    public static void onlyTo(@IntRange(to = 5) int value) {
+    }
+
+    public static void longRange(@IntRange(from = -5000000000L, to = 5000000000L) long value) {
+    }
+
+    public static void floatInclusive(@FloatRange(from = 0, to = 3) float value) {
+    }
+
+    public static void doubleExclusive(
+            @FloatRange(from = -1, fromInclusive = false, to = 1, toInclusive = false) double value) {
+    }
+
+    public static void floatOnInt(@FloatRange(from = -1, fromInclusive = false, to = 1, toInclusive = false) int value) {
+    }
+
+    public static void floatOnlyFrom(@FloatRange(from = 0) double value) {
+    }
+
+    public static void sizeExactly(@Size(10) String text) {
+    }
+
+    public static void sizeAtLeast(@Size(min = 1) CharSequence text) {
+    }
+
+    public static void sizeAtMost(@Size(max = 5) int[] values) {
+    }
+
+    public static void sizeMultipleOfPowerOfTwo(@Size(multiple = 4) List<String> values) {
+    }
+
+    public static void sizeMultiple(@Size(multiple = 3) String text) {
+    }
+
+    public static void sizeCombo(@Size(min = 6, max = 12, multiple = 3) String text) {
+    }
+
+    public static void sizeExactAndMax(@Size(value = 3, max = 5) Map<String, String> values) {
+    }
+
+    public static void twoParameters(@IntRange(from = 1, to = 2) int first, @Size(2) String second) {
+    }
+}
@@ -0,0 +1,24 @@
+package fixtures;
+
+import android.support.annotation.DrawableRes;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.StringRes;
+
+public final class Resourced {
+
+    public static void setTitle(@StringRes int title) {
+    }
+
+    public static void setIcon(@DrawableRes int icon) {
+    }
+
+    @LayoutRes
+    public static int layout() {
+        return R.layout.main;
+    }
+
+    @LayoutRes
+    public static int layout(int variant) {
+        return R.layout.main;
+    }
+}
@@ -0,0 +1,54 @@
+package fixtures;
+
+import android.support.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.util.List;
+
+public final class Worked {
+
+    public static volatile Thread lastThread;
+
+    private final String name;
+
+    public Worked(String name) {
+        this.name = name;
+    }
+
+    @WorkerThread
+    public static int count(List<String> values) {
+        lastThread = Thread.currentThread();
+        return values.size();
+    }
+
+    @WorkerThread
+    public static void fail(String message) throws IOException {
+        lastThread = Thread.currentThread();
+        throw new IOException(message);
+    }
+
+    @WorkerThread
+    public static <T> T identity(T value) {
+        return value;
+    }
+
+    @WorkerThread
+    public String describe(int id) {
+        lastThread = Thread.currentThread();
+        return name + " " + id;
+    }
+
+    @WorkerThread
+    public static final class Holder<T extends CharSequence> {
+
+        private final T value;
+
+        public Holder(T value) {
+            this.value = value;
+        }
+
+        public T get() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package fixtures.nested;
+
+import android.support.annotation.StringRes;
+
+public final class NestedResourced {
+
+    public static void setTitle(@StringRes int title) {
+    }
+}
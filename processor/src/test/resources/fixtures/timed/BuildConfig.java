@@ -0,0 +1,6 @@
+package fixtures.timed;
+
+public final class BuildConfig {
+
+    public static final boolean MEASURE_FRAME_BUDGET = true;
+}
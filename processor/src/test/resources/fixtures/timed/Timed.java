@@ -0,0 +1,38 @@
+package fixtures.timed;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.UiThread;
+import android.support.annotation.WorkerThread;
+
+@UiThread
+public final class Timed {
+
+    public static void draw() {
+        long start = TimedGuards.enterDraw();
+        try {
+            helper();
+        } finally {
+            TimedGuards.exitDraw(start);
+        }
+    }
+
+    @MainThread
+    public static void layout(int millis) throws InterruptedException {
+        long start = TimedGuards.enterLayout();
+        try {
+            Thread.sleep(millis);
+        } finally {
+            TimedGuards.exitLayout(start);
+        }
+    }
+
+    private static void helper() {
+    }
+
+    public static final class Loader {
+
+        @WorkerThread
+        public static void load() {
+        }
+    }
+}
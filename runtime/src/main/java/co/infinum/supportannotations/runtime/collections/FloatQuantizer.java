@@ -0,0 +1,241 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import co.infinum.supportannotations.runtime.validation.BulkRanges;
+import co.infinum.supportannotations.runtime.validation.FloatRangeSpec;
+import co.infinum.supportannotations.runtime.validation.Violations;
+
+/**
+ * Fixed-point encoding of {@code float} values of a {@code @FloatRange} into 8 or 16 bit codes,
+ * so values such as {@code @FloatRange(from = 0, to = 3)} can be stored in a byte or a short
+ * instead of a whole {@code float}. Codes are evenly spaced over the range, {@link #step()} apart.
+ * An inclusive bound is decoded exactly, from the lowest or highest code, while an exclusive bound
+ * is kept half a step away. Where half a step is less than a {@code float} ulp, such as in
+ * {@code (1000, 1001)} at 16 bits, decoded values are clamped to the closest {@code float} in range,
+ * so no code decodes to a value out of range:
+ * <pre>
+ * [0, 3] in 8 bits:   0 -&gt; 0.0, 1 -&gt; 0.0118, ..., 255 -&gt; 3.0
+ * (-1, 1) in 8 bits:  0 -&gt; -0.9961, 1 -&gt; -0.9883, ..., 255 -&gt; 0.9961
+ * </pre>
+ * Every value in range is encoded to the closest code, so it decodes with an error of at most
+ * {@link #maxError()}, which is half a step, plus rounding of {@code float} arithmetic, which is a few ulps
+ * of the larger bound. Values out of range and {@code NaN} throw {@link IllegalArgumentException} on encoding,
+ * same as a generated validator would. Bounds must be finite.
+ * <br /><br />
+ * Bulk methods validate the whole array with {@link BulkRanges} first, and then encode or
+ * decode it in a loop without branches, which JIT can unroll and vectorize.
+ */
+public final class FloatQuantizer {
+
+    private final FloatRangeSpec range;
+
+    private final int bits;
+
+    private final int maxCode;
+
+    /**
+     * Value of code {@code 0}.
+     */
+    private final float base;
+
+    private final float step;
+
+    /**
+     * The lowest and the highest {@code float} in range, which decoded values are clamped to.
+     */
+    private final float low;
+
+    private final float high;
+
+    private final float inverseStep;
+
+    private final double maxError;
+
+    private FloatQuantizer(FloatRangeSpec range, int bits) {
+        if (Double.isInfinite(range.from) || Double.isInfinite(range.to)) {
+            throw new IllegalArgumentException(range + " is not bounded");
+        }
+        this.range = range;
+        this.bits = bits;
+        this.maxCode = (1 << bits) - 1;
+        // an exclusive bound takes half a step
+        double steps = maxCode + (range.fromInclusive ? 0 : 0.5) + (range.toInclusive ? 0 : 0.5);
+        double exactStep = (range.to - range.from) / steps;
+        this.base = (float) (range.from + (range.fromInclusive ? 0 : exactStep / 2));
+        this.step = (float) exactStep;
+        this.inverseStep = exactStep == 0 ? 0 : (float) (1 / exactStep);
+        this.maxError = exactStep / 2;
+        float low = (float) range.from;
+        this.low = range.contains(low) ? low : Math.nextUp(low);
+        float high = (float) range.to;
+        this.high = range.contains(high) ? high : Math.nextAfter(high, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Returns quantizer of {@code range} with {@code bits} per value, {@code 8} or {@code 16}.
+     */
+    public static FloatQuantizer of(FloatRangeSpec range, int bits) {
+        if (range == null) {
+            throw new NullPointerException("range == null");
+        }
+        if (bits != 8 && bits != 16) {
+            throw new IllegalArgumentException("bits must be 8 or 16: " + bits);
+        }
+        return new FloatQuantizer(range, bits);
+    }
+
+    /**
+     * Returns 8 bit quantizer of {@code range} if its {@link #maxError()} is at most {@code maxError},
+     * or else 16 bit one. Throws if neither is precise enough.
+     */
+    public static FloatQuantizer withMaxError(FloatRangeSpec range, double maxError) {
+        FloatQuantizer bytes = of(range, 8);
+        if (bytes.maxError <= maxError) {
+            return bytes;
+        }
+        FloatQuantizer shorts = of(range, 16);
+        if (shorts.maxError <= maxError) {
+            return shorts;
+        }
+        throw new IllegalArgumentException("16 bits quantize " + range + " with error up to "
+                + shorts.maxError + ", more than " + maxError);
+    }
+
+    public FloatRangeSpec range() {
+        return range;
+    }
+
+    /**
+     * Returns {@code 8} or {@code 16}.
+     */
+    public int bits() {
+        return bits;
+    }
+
+    /**
+     * Returns the difference between values of two adjacent codes.
+     */
+    public float step() {
+        return step;
+    }
+
+    /**
+     * Returns the largest difference between a value in range and its decoded code, without {@code float} rounding.
+     */
+    public double maxError() {
+        return maxError;
+    }
+
+    /**
+     * Returns code of {@code value}, from {@code 0} to {@code 255} or {@code 65535}.
+     */
+    public int encode(float value) {
+        if (!range.contains(value)) {
+            throw Violations.outOfRange("FloatQuantizer.encode", "value", value,
+                    range.from, range.fromInclusive, range.to, range.toInclusive);
+        }
+        return quantize(value);
+    }
+
+    public float decode(int code) {
+        if (code < 0 || code > maxCode) {
+            throw new IllegalArgumentException("code not in [0, " + maxCode + "]: " + code);
+        }
+        return clamp(base + code * step);
+    }
+
+    /**
+     * Encodes {@code values[offset, offset + length)} into {@code codes} from {@code codesOffset},
+     * with an 8 bit quantizer. Nothing is encoded if any value is out of range.
+     */
+    public void encode(float[] values, int offset, int length, byte[] codes, int codesOffset) {
+        checkBits(8);
+        checkEncoded(values, offset, length);
+        checkBounds(codes.length, codesOffset, length);
+        for (int i = 0; i < length; i++) {
+            codes[codesOffset + i] = (byte) quantize(values[offset + i]);
+        }
+    }
+
+    /**
+     * Encodes {@code values[offset, offset + length)} into {@code codes} from {@code codesOffset},
+     * with a 16 bit quantizer. Nothing is encoded if any value is out of range.
+     */
+    public void encode(float[] values, int offset, int length, short[] codes, int codesOffset) {
+        checkBits(16);
+        checkEncoded(values, offset, length);
+        checkBounds(codes.length, codesOffset, length);
+        for (int i = 0; i < length; i++) {
+            codes[codesOffset + i] = (short) quantize(values[offset + i]);
+        }
+    }
+
+    /**
+     * Decodes {@code codes[codesOffset, codesOffset + length)} of an 8 bit quantizer into {@code values}.
+     */
+    public void decode(byte[] codes, int codesOffset, int length, float[] values, int offset) {
+        checkBits(8);
+        checkBounds(codes.length, codesOffset, length);
+        checkBounds(values.length, offset, length);
+        float base = this.base;
+        float step = this.step;
+        float low = this.low;
+        float high = this.high;
+        for (int i = 0; i < length; i++) {
+            values[offset + i] = Math.min(Math.max(base + (codes[codesOffset + i] & 0xFF) * step, low), high);
+        }
+    }
+
+    /**
+     * Decodes {@code codes[codesOffset, codesOffset + length)} of a 16 bit quantizer into {@code values}.
+     */
+    public void decode(short[] codes, int codesOffset, int length, float[] values, int offset) {
+        checkBits(16);
+        checkBounds(codes.length, codesOffset, length);
+        checkBounds(values.length, offset, length);
+        float base = this.base;
+        float step = this.step;
+        float low = this.low;
+        float high = this.high;
+        for (int i = 0; i < length; i++) {
+            values[offset + i] = Math.min(Math.max(base + (codes[codesOffset + i] & 0xFFFF) * step, low), high);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return bits + " bit quantizer of " + range + ", max error " + maxError;
+    }
+
+    /**
+     * Returns the closest code of a value in range. A value in the half step next to an exclusive
+     * bound rounds to the code of the bound, and {@code float} rounding is clamped.
+     */
+    private int quantize(float value) {
+        return Math.min((int) ((value - base) * inverseStep + 0.5f), maxCode);
+    }
+
+    private float clamp(float value) {
+        return Math.min(Math.max(value, low), high);
+    }
+
+    private void checkEncoded(float[] values, int offset, int length) {
+        int index = BulkRanges.firstOutOfRange(values, offset, length, range);
+        if (index != BulkRanges.NOT_FOUND) {
+            throw Violations.outOfRange("FloatQuantizer.encode", "values[" + index + "]", values[index],
+                    range.from, range.fromInclusive, range.to, range.toInclusive);
+        }
+    }
+
+    private void checkBits(int codeBits) {
+        if (bits != codeBits) {
+            throw new IllegalStateException(bits + " bit codes do not fit a " + codeBits + " bit array");
+        }
+    }
+
+    private static void checkBounds(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length
+                    + ", array length " + arrayLength);
+        }
+    }
+}
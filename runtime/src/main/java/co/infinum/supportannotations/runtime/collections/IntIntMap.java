@@ -0,0 +1,171 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import java.util.Arrays;
+
+/**
+ * Map of primitive {@code int} keys to primitive {@code int} values, so neither
+ * keys nor values are boxed. Uses open addressing with linear probing in
+ * parallel {@code int} arrays. Unlike {@code SparseIntArray}, lookups are
+ * constant time and the class does not depend on Android.
+ * <br /><br />
+ * Since any {@code int} is a valid value, lookup is split in two steps:
+ * {@link #indexOf(int)} finds the slot of a key and {@link #valueAt(int)} reads it.
+ * This class is not thread safe.
+ */
+public final class IntIntMap {
+
+    private static final int FREE = 0;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+
+    private int[] values;
+
+    private int mask;
+
+    private int size;
+
+    private boolean hasFreeKey;
+
+    private int freeKeyValue;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns slot index of {@code key}, or a negative value if key is not mapped.
+     * Index is valid only until the map is modified.
+     */
+    public int indexOf(int key) {
+        if (key == FREE) {
+            return hasFreeKey ? keys.length : -1;
+        }
+        int index = mix(key) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == key) {
+                return index;
+            } else if (current == FREE) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns value at slot returned from {@link #indexOf(int)}.
+     */
+    public int valueAt(int index) {
+        return index == keys.length ? freeKeyValue : values[index];
+    }
+
+    /**
+     * Returns value mapped to {@code key}, or {@code missing} if key is not mapped.
+     */
+    public int get(int key, int missing) {
+        int index = indexOf(key);
+        return index < 0 ? missing : valueAt(index);
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return;
+        }
+        int index = mix(key) & mask;
+        while (keys[index] != FREE && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == FREE) {
+            keys[index] = key;
+            if (++size > keys.length * LOAD_FACTOR) {
+                values[index] = value;
+                rehash(keys.length << 1);
+                return;
+            }
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Removes mapping for {@code key}. Returns {@code true} if it was mapped.
+     */
+    public boolean remove(int key) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        // shift following entries back, so no probe sequence is broken by the hole
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = FREE;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        size = hasFreeKey ? 1 : 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Resource ids differ mostly in low bits, spread them over the whole table.
+     */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,178 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import java.util.Arrays;
+
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+
+/**
+ * Map of primitive {@code int} keys to {@code int} values of an {@code @IntRange}, such as
+ * alpha of a view by its id. Works like {@link IntIntMap}, but values are stored in as few bytes
+ * as the range needs, see {@link RangedIntList}, and values out of range throw
+ * {@link IllegalArgumentException}.
+ * <br /><br />
+ * This class is not thread safe.
+ */
+public final class IntRangedMap {
+
+    private static final int FREE = 0;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final IntRangeSpec range;
+
+    private int[] keys;
+
+    private PackedInts values;
+
+    private int mask;
+
+    private int size;
+
+    private boolean hasFreeKey;
+
+    private int freeKeyValue;
+
+    public IntRangedMap(IntRangeSpec range) {
+        this(range, 16);
+    }
+
+    public IntRangedMap(IntRangeSpec range, int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.range = range;
+        keys = new int[capacity];
+        values = new PackedInts(range, capacity);
+        mask = capacity - 1;
+    }
+
+    public IntRangeSpec range() {
+        return range;
+    }
+
+    /**
+     * Returns {@code 1}, {@code 2} or {@code 4}, depending on how many values the range has.
+     */
+    public int bytesPerValue() {
+        return values.bytesPerValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns slot index of {@code key}, or a negative value if key is not mapped.
+     * Index is valid only until the map is modified.
+     */
+    public int indexOf(int key) {
+        if (key == FREE) {
+            return hasFreeKey ? keys.length : -1;
+        }
+        int index = IntIntMap.mix(key) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == key) {
+                return index;
+            } else if (current == FREE) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns value at slot returned from {@link #indexOf(int)}.
+     */
+    public int valueAt(int index) {
+        return index == keys.length ? freeKeyValue : values.get(index);
+    }
+
+    /**
+     * Returns value mapped to {@code key}, or {@code missing}, which may be out of range, if key is not mapped.
+     */
+    public int get(int key, int missing) {
+        int index = indexOf(key);
+        return index < 0 ? missing : valueAt(index);
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public void put(int key, int value) {
+        values.check("IntRangedMap.put", value);
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return;
+        }
+        int index = IntIntMap.mix(key) & mask;
+        while (keys[index] != FREE && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == FREE) {
+            keys[index] = key;
+            if (++size > keys.length * LOAD_FACTOR) {
+                values.set(index, value);
+                rehash(keys.length << 1);
+                return;
+            }
+        }
+        values.set(index, value);
+    }
+
+    /**
+     * Removes mapping for {@code key}. Returns {@code true} if it was mapped.
+     */
+    public boolean remove(int key) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        // shift following entries back, so no probe sequence is broken by the hole
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = IntIntMap.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values.set(hole, values.get(next));
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = FREE;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        PackedInts oldValues = values;
+        keys = new int[capacity];
+        values = new PackedInts(range, capacity);
+        mask = capacity - 1;
+        size = hasFreeKey ? 1 : 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import java.util.Arrays;
+
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+import co.infinum.supportannotations.runtime.validation.Violations;
+
+/**
+ * Fixed capacity array of {@code int} values of an {@code @IntRange}, stored as offsets from
+ * the lowest value of the range in the narrowest array they fit in: {@code byte[]} for ranges
+ * of at most 256 values, such as {@code [0, 255]} or {@code [1000, 1200]}, {@code short[]} for
+ * at most 65536 values and {@code int[]} otherwise. Offsets are unsigned and computed with
+ * wrapping {@code int} arithmetic, so they decode with a mask and an add.
+ * <br /><br />
+ * Range is clamped to {@code int} values. Only one of the arrays is allocated, and reads
+ * switch on the width, which never changes, so the branch is predicted for free.
+ */
+final class PackedInts {
+
+    final IntRangeSpec range;
+
+    /**
+     * Lowest value of the range, stored as offset {@code 0}.
+     */
+    final int lowest;
+
+    /**
+     * Highest offset, as unsigned {@code int}.
+     */
+    final long span;
+
+    final int bytesPerValue;
+
+    private byte[] bytes;
+
+    private short[] shorts;
+
+    private int[] ints;
+
+    PackedInts(IntRangeSpec range, int capacity) {
+        if (range == null) {
+            throw new NullPointerException("range == null");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity < 0: " + capacity);
+        }
+        long from = Math.max(range.from, Integer.MIN_VALUE);
+        long to = Math.min(range.to, Integer.MAX_VALUE);
+        if (from > to) {
+            throw new IllegalArgumentException(range + " has no int values");
+        }
+        this.range = range;
+        this.lowest = (int) from;
+        this.span = to - from;
+        if (span <= 0xFF) {
+            bytesPerValue = 1;
+            bytes = new byte[capacity];
+        } else if (span <= 0xFFFF) {
+            bytesPerValue = 2;
+            shorts = new short[capacity];
+        } else {
+            bytesPerValue = 4;
+            ints = new int[capacity];
+        }
+    }
+
+    int capacity() {
+        switch (bytesPerValue) {
+            case 1:
+                return bytes.length;
+            case 2:
+                return shorts.length;
+            default:
+                return ints.length;
+        }
+    }
+
+    int get(int index) {
+        switch (bytesPerValue) {
+            case 1:
+                return (bytes[index] & 0xFF) + lowest;
+            case 2:
+                return (shorts[index] & 0xFFFF) + lowest;
+            default:
+                return ints[index] + lowest;
+        }
+    }
+
+    /**
+     * Stores {@code value}, which must already be {@link #check(String, int) checked}.
+     */
+    void set(int index, int value) {
+        int offset = value - lowest;
+        switch (bytesPerValue) {
+            case 1:
+                bytes[index] = (byte) offset;
+                break;
+            case 2:
+                shorts[index] = (short) offset;
+                break;
+            default:
+                ints[index] = offset;
+                break;
+        }
+    }
+
+    /**
+     * Throws if {@code value} is not in the range, with a single unsigned comparison.
+     */
+    void check(String method, int value) {
+        if (((value - lowest) & 0xFFFFFFFFL) > span) {
+            throw Violations.outOfRange(method, "value", value, range.from, range.to);
+        }
+    }
+
+    void resize(int capacity) {
+        switch (bytesPerValue) {
+            case 1:
+                bytes = Arrays.copyOf(bytes, capacity);
+                break;
+            case 2:
+                shorts = Arrays.copyOf(shorts, capacity);
+                break;
+            default:
+                ints = Arrays.copyOf(ints, capacity);
+                break;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import java.util.Arrays;
+
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+import co.infinum.supportannotations.runtime.validation.Violations;
+
+/**
+ * Store of short strings of a bounded length, such as {@code @Size(10)} or {@code @Size(max = 5)}
+ * strings, packed one after another into a single {@code byte[]} at a fixed stride of the longest
+ * allowed length. A million strings of ten Latin-1 characters take ten megabytes here, instead of
+ * about sixty as {@code String} objects with their own arrays, held by a {@code String[]}.
+ * <br /><br />
+ * Characters are stored as Latin-1, a byte each, until a string with a character above
+ * {@code U+00FF} is added, when the whole store is widened to UTF-16, two bytes each.
+ * Lengths are stored only if strings may differ in length, in as few bytes as the
+ * bounds need. Strings of a length out of bounds throw {@link IllegalArgumentException},
+ * same as a generated {@code @Size} validator would.
+ * <br /><br />
+ * Strings are accessed by index, the one {@link #add(CharSequence)} returns. {@link #get(int)} returns
+ * a view which reads characters from the store, without copying them into a {@code String}, and
+ * {@link #equals(int, CharSequence)} and {@link #hashCode(int)} work on stored bytes directly.
+ * Hash code is the same as {@link String#hashCode()} of the same characters.
+ * This class is not thread safe.
+ */
+public final class PackedStrings {
+
+    private final int minLength;
+
+    private final int maxLength;
+
+    /**
+     * Length of every string, or {@code null} if all have the same length.
+     */
+    private final PackedInts lengths;
+
+    private byte[] data;
+
+    private boolean utf16;
+
+    private int capacity;
+
+    private int size;
+
+    /**
+     * @param minLength shortest allowed string
+     * @param maxLength longest allowed string, at most {@code 65535}
+     */
+    public PackedStrings(int minLength, int maxLength, int initialCapacity) {
+        if (minLength < 0 || minLength > maxLength || maxLength > 0xFFFF) {
+            throw new IllegalArgumentException("length not in [0, " + 0xFFFF + "]: [" + minLength + ", "
+                    + maxLength + "]");
+        }
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity < 0: " + initialCapacity);
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.lengths = minLength == maxLength ? null
+                : new PackedInts(IntRangeSpec.of(minLength, maxLength), initialCapacity);
+        this.data = new byte[initialCapacity * maxLength];
+        this.capacity = initialCapacity;
+    }
+
+    /**
+     * Returns store of strings of {@code @Size(length)}.
+     */
+    public static PackedStrings exactly(int length, int initialCapacity) {
+        return new PackedStrings(length, length, initialCapacity);
+    }
+
+    /**
+     * Returns store of strings of {@code @Size(max = maxLength)}.
+     */
+    public static PackedStrings atMost(int maxLength, int initialCapacity) {
+        return new PackedStrings(0, maxLength, initialCapacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code 1} while every string is Latin-1, or else {@code 2}.
+     */
+    public int bytesPerChar() {
+        return utf16 ? 2 : 1;
+    }
+
+    /**
+     * Adds {@code value} and returns its index.
+     */
+    public int add(CharSequence value) {
+        checkLength("PackedStrings.add", value);
+        if (!utf16 && !isLatin1(value)) {
+            widen();
+        }
+        if (size == capacity) {
+            grow();
+        }
+        write(size, value);
+        return size++;
+    }
+
+    public void set(int index, CharSequence value) {
+        checkIndex(index);
+        checkLength("PackedStrings.set", value);
+        if (!utf16 && !isLatin1(value)) {
+            widen();
+        }
+        write(index, value);
+    }
+
+    public int length(int index) {
+        checkIndex(index);
+        return lengthAt(index);
+    }
+
+    public char charAt(int index, int position) {
+        int length = length(index);
+        if (position < 0 || position >= length) {
+            throw new IndexOutOfBoundsException("position not in [0, " + length + "): " + position);
+        }
+        return charAt(index * maxLength + position);
+    }
+
+    /**
+     * Returns a view of the string at {@code index}, which reads its characters from the store,
+     * so it also sees a string {@link #set(int, CharSequence) set} at the same index later.
+     */
+    public CharSequence get(int index) {
+        checkIndex(index);
+        return new View(index);
+    }
+
+    /**
+     * Returns a copy of the string at {@code index}.
+     */
+    public String getString(int index) {
+        checkIndex(index);
+        int start = index * maxLength;
+        char[] chars = new char[lengthAt(index)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charAt(start + i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns {@code true} if the string at {@code index} has the same characters as {@code other}.
+     */
+    public boolean equals(int index, CharSequence other) {
+        checkIndex(index);
+        int length = lengthAt(index);
+        if (other.length() != length) {
+            return false;
+        }
+        int start = index * maxLength;
+        if (utf16) {
+            for (int i = 0; i < length; i++) {
+                int at = (start + i) << 1;
+                if (other.charAt(i) != (char) ((data[at] & 0xFF) << 8 | data[at + 1] & 0xFF)) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                if (other.charAt(i) != (char) (data[start + i] & 0xFF)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if strings at both indices have the same characters, comparing their bytes.
+     */
+    public boolean equals(int index, int otherIndex) {
+        checkIndex(index);
+        checkIndex(otherIndex);
+        int length = lengthAt(index);
+        if (lengthAt(otherIndex) != length) {
+            return false;
+        }
+        int stride = maxLength * bytesPerChar();
+        int start = index * stride;
+        int otherStart = otherIndex * stride;
+        for (int i = 0, end = length * bytesPerChar(); i < end; i++) {
+            if (data[start + i] != data[otherStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns hash code of the string at {@code index}, same as {@link String#hashCode()} would.
+     */
+    public int hashCode(int index) {
+        checkIndex(index);
+        int length = lengthAt(index);
+        int start = index * maxLength;
+        int hash = 0;
+        if (utf16) {
+            for (int i = 0; i < length; i++) {
+                int at = (start + i) << 1;
+                hash = 31 * hash + ((data[at] & 0xFF) << 8 | data[at + 1] & 0xFF);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + (data[start + i] & 0xFF);
+            }
+        }
+        return hash;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private int lengthAt(int index) {
+        return lengths == null ? maxLength : lengths.get(index);
+    }
+
+    /**
+     * Returns character at {@code position} of the whole store, counted in characters.
+     */
+    private char charAt(int position) {
+        if (utf16) {
+            int at = position << 1;
+            return (char) ((data[at] & 0xFF) << 8 | data[at + 1] & 0xFF);
+        }
+        return (char) (data[position] & 0xFF);
+    }
+
+    private void write(int index, CharSequence value) {
+        int length = value.length();
+        int start = index * maxLength;
+        if (utf16) {
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                int at = (start + i) << 1;
+                data[at] = (byte) (c >>> 8);
+                data[at + 1] = (byte) c;
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                data[start + i] = (byte) value.charAt(i);
+            }
+        }
+        if (lengths != null) {
+            lengths.set(index, length);
+        }
+    }
+
+    private void grow() {
+        capacity = Math.max(16, size + (size >> 1));
+        data = Arrays.copyOf(data, capacity * maxLength * bytesPerChar());
+        if (lengths != null) {
+            lengths.resize(capacity);
+        }
+    }
+
+    /**
+     * Widens every stored character from Latin-1 to UTF-16, which keeps positions of strings
+     * in characters, so only bytes move.
+     */
+    private void widen() {
+        byte[] latin1 = data;
+        byte[] widened = new byte[latin1.length * 2];
+        for (int i = 0, end = size * maxLength; i < end; i++) {
+            widened[(i << 1) + 1] = latin1[i];
+        }
+        data = widened;
+        utf16 = true;
+    }
+
+    private void checkLength(String method, CharSequence value) {
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        int length = value.length();
+        if (length < minLength || length > maxLength) {
+            if (minLength == maxLength) {
+                throw Violations.wrongSize(method, "value", length, maxLength, Long.MIN_VALUE, Long.MAX_VALUE, 1);
+            }
+            throw Violations.wrongSize(method, "value", length, -1, minLength > 0 ? minLength : Long.MIN_VALUE,
+                    maxLength, 1);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index not in [0, " + size + "): " + index);
+        }
+    }
+
+    private static boolean isLatin1(CharSequence value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * String at an index of the store, read without copying.
+     */
+    private final class View implements CharSequence {
+
+        private final int index;
+
+        View(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return lengthAt(index);
+        }
+
+        @Override
+        public char charAt(int position) {
+            return PackedStrings.this.charAt(index, position);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        /**
+         * Views are equal if they have the same characters. A view is never equal
+         * to a {@code String}, since a {@code String} is never equal to it.
+         */
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof View && PackedStrings.this.equals(index, (View) other);
+        }
+
+        @Override
+        public int hashCode() {
+            return PackedStrings.this.hashCode(index);
+        }
+
+        @Override
+        public String toString() {
+            return getString(index);
+        }
+    }
+}
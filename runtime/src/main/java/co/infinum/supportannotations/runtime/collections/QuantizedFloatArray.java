@@ -0,0 +1,90 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import co.infinum.supportannotations.runtime.validation.FloatRangeSpec;
+
+/**
+ * Fixed length array of {@code float} values of a {@code @FloatRange}, stored as 8 or 16 bit
+ * codes of a {@link FloatQuantizer}, so it takes a quarter or a half of a {@code float[]}.
+ * A value read back differs from the one written by at most {@link FloatQuantizer#maxError()},
+ * and values out of range throw {@link IllegalArgumentException}.
+ * <br /><br />
+ * This class is not thread safe.
+ */
+public final class QuantizedFloatArray {
+
+    private final FloatQuantizer quantizer;
+
+    private final byte[] bytes;
+
+    private final short[] shorts;
+
+    private final int length;
+
+    public QuantizedFloatArray(FloatQuantizer quantizer, int length) {
+        if (quantizer == null) {
+            throw new NullPointerException("quantizer == null");
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("length < 0: " + length);
+        }
+        this.quantizer = quantizer;
+        this.length = length;
+        this.bytes = quantizer.bits() == 8 ? new byte[length] : null;
+        this.shorts = quantizer.bits() == 16 ? new short[length] : null;
+    }
+
+    /**
+     * Returns array of {@code length} values of {@code range} with 8 bits per value.
+     */
+    public static QuantizedFloatArray of(FloatRangeSpec range, int length) {
+        return new QuantizedFloatArray(FloatQuantizer.of(range, 8), length);
+    }
+
+    public FloatQuantizer quantizer() {
+        return quantizer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int bytesPerValue() {
+        return quantizer.bits() / 8;
+    }
+
+    public float get(int index) {
+        return quantizer.decode(bytes != null ? bytes[index] & 0xFF : shorts[index] & 0xFFFF);
+    }
+
+    public void set(int index, float value) {
+        int code = quantizer.encode(value);
+        if (bytes != null) {
+            bytes[index] = (byte) code;
+        } else {
+            shorts[index] = (short) code;
+        }
+    }
+
+    /**
+     * Reads {@code length} values from {@code index} into {@code values} from {@code offset}.
+     */
+    public void get(int index, float[] values, int offset, int length) {
+        if (bytes != null) {
+            quantizer.decode(bytes, index, length, values, offset);
+        } else {
+            quantizer.decode(shorts, index, length, values, offset);
+        }
+    }
+
+    /**
+     * Writes {@code values[offset, offset + length)} from {@code index}.
+     * Nothing is written if any value is out of range.
+     */
+    public void set(int index, float[] values, int offset, int length) {
+        if (bytes != null) {
+            quantizer.encode(values, offset, length, bytes, index);
+        } else {
+            quantizer.encode(values, offset, length, shorts, index);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+
+/**
+ * Growable list of {@code int} values of an {@code @IntRange}, stored in as few bytes per value
+ * as the range needs. A million values of {@code @IntRange(from = 0, to = 255)} take a megabyte,
+ * instead of four in an {@code int[]} and about twelve in an {@code ArrayList<Integer>}.
+ * Every value is checked against the range when it is added or set, and a value out of
+ * range throws {@link IllegalArgumentException}, same as a generated validator would.
+ * <br /><br />
+ * This class is not thread safe.
+ */
+public final class RangedIntList {
+
+    private final PackedInts values;
+
+    private int size;
+
+    public RangedIntList(IntRangeSpec range) {
+        this(range, 16);
+    }
+
+    public RangedIntList(IntRangeSpec range, int initialCapacity) {
+        values = new PackedInts(range, initialCapacity);
+    }
+
+    public IntRangeSpec range() {
+        return values.range;
+    }
+
+    /**
+     * Returns {@code 1}, {@code 2} or {@code 4}, depending on how many values the range has.
+     */
+    public int bytesPerValue() {
+        return values.bytesPerValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return values.get(index);
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        values.check("RangedIntList.set", value);
+        values.set(index, value);
+    }
+
+    public void add(int value) {
+        values.check("RangedIntList.add", value);
+        if (size == values.capacity()) {
+            values.resize(Math.max(16, size + (size >> 1)));
+        }
+        values.set(size++, value);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index not in [0, " + size + "): " + index);
+        }
+    }
+}
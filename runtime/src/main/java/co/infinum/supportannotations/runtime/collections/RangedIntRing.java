@@ -0,0 +1,86 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+
+/**
+ * Ring buffer of the last {@code capacity} {@code int} values of an {@code @IntRange}, such as
+ * recent samples of a sensor, stored in as few bytes per value as the range needs, see
+ * {@link RangedIntList}. Once full, every added value overwrites the oldest one.
+ * Values out of range throw {@link IllegalArgumentException}.
+ * <br /><br />
+ * This class is not thread safe.
+ */
+public final class RangedIntRing {
+
+    private final PackedInts values;
+
+    private final int capacity;
+
+    /**
+     * Slot of the oldest value.
+     */
+    private int start;
+
+    private int size;
+
+    public RangedIntRing(IntRangeSpec range, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1: " + capacity);
+        }
+        this.values = new PackedInts(range, capacity);
+        this.capacity = capacity;
+    }
+
+    public IntRangeSpec range() {
+        return values.range;
+    }
+
+    /**
+     * Returns {@code 1}, {@code 2} or {@code 4}, depending on how many values the range has.
+     */
+    public int bytesPerValue() {
+        return values.bytesPerValue;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Returns the {@code index}-th oldest value, so {@code 0} is the oldest and {@code size() - 1} the newest.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index not in [0, " + size + "): " + index);
+        }
+        int slot = start + index;
+        return values.get(slot >= capacity ? slot - capacity : slot);
+    }
+
+    /**
+     * Adds {@code value} as the newest one, overwriting the oldest one if the ring is full.
+     */
+    public void add(int value) {
+        values.check("RangedIntRing.add", value);
+        if (size < capacity) {
+            int slot = start + size++;
+            values.set(slot >= capacity ? slot - capacity : slot, value);
+        } else {
+            values.set(start, value);
+            start = start + 1 == capacity ? 0 : start + 1;
+        }
+    }
+
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+}
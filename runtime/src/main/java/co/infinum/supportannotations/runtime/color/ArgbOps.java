@@ -0,0 +1,288 @@
+package co.infinum.supportannotations.runtime.color;
+
+import java.nio.IntBuffer;
+
+/**
+ * Operations over many packed ARGB {@code @ColorInt} values at once, such as
+ * pixels of a bitmap. Each operation is a tight loop over an {@code int} slice
+ * with integer arithmetic only and no branches per channel, which lets the JIT
+ * unroll and vectorize it, instead of splitting each pixel with
+ * {@code Color.alpha()}, {@code Color.red()} and friends.
+ * <br /><br />
+ * Channels are 8 bit, divisions by 255 are rounded to nearest.
+ */
+public final class ArgbOps {
+
+    /*
+     * Fixed point reciprocals for un-premultiplying, 255 / alpha scaled by 2^16.
+     */
+    private static final int[] UNPREMULTIPLY = new int[256];
+
+    static {
+        for (int alpha = 1; alpha < 256; alpha++) {
+            UNPREMULTIPLY[alpha] = (255 * 65536 + alpha / 2) / alpha;
+        }
+    }
+
+    private ArgbOps() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Multiplies color channels of each pixel by its alpha.
+     */
+    public static void premultiply(int[] pixels, int offset, int length) {
+        checkBounds(pixels.length, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            pixels[i] = premultiply(pixels[i]);
+        }
+    }
+
+    /**
+     * Reverts {@link #premultiply(int[], int, int)}. Fully transparent pixels become transparent black.
+     */
+    public static void unpremultiply(int[] pixels, int offset, int length) {
+        checkBounds(pixels.length, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            pixels[i] = unpremultiply(pixels[i]);
+        }
+    }
+
+    /**
+     * Draws premultiplied {@code src} pixels over premultiplied {@code dst} pixels
+     * (Porter-Duff {@code SRC_OVER}) and stores the result into {@code dst}.
+     */
+    public static void blend(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        checkBounds(src.length, srcOffset, length);
+        checkBounds(dst.length, dstOffset, length);
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = blend(src[srcOffset + i], dst[dstOffset + i]);
+        }
+    }
+
+    /**
+     * Multiplies every channel, alpha included, by the matching channel of {@code tint},
+     * same as {@code PorterDuff.Mode.MULTIPLY} with an opaque tint.
+     */
+    public static void tint(int[] pixels, int offset, int length, int tint) {
+        checkBounds(pixels.length, offset, length);
+        int ta = tint >>> 24;
+        int tr = (tint >> 16) & 0xFF;
+        int tg = (tint >> 8) & 0xFF;
+        int tb = tint & 0xFF;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            pixels[i] = tint(pixels[i], ta, tr, tg, tb);
+        }
+    }
+
+    /**
+     * Writes luma of each pixel into {@code luminance}, in range {@code [0, 255]}.
+     * Uses Rec. 709 weights on gamma encoded channels, which is close enough for
+     * thresholds and contrast checks and much cheaper than linearizing sRGB.
+     */
+    public static void luminance(int[] pixels, int offset, int length, int[] luminance, int luminanceOffset) {
+        checkBounds(pixels.length, offset, length);
+        checkBounds(luminance.length, luminanceOffset, length);
+        for (int i = 0; i < length; i++) {
+            luminance[luminanceOffset + i] = luminance(pixels[offset + i]);
+        }
+    }
+
+    /**
+     * Converts each pixel to hue, saturation and value, three consecutive floats per pixel,
+     * with same ranges as {@code Color.colorToHSV()}: hue in {@code [0, 360)},
+     * saturation and value in {@code [0, 1]}. Alpha is ignored.
+     */
+    public static void toHsv(int[] pixels, int offset, int length, float[] hsv, int hsvOffset) {
+        checkBounds(pixels.length, offset, length);
+        checkBounds(hsv.length, hsvOffset, length * 3);
+        for (int i = 0; i < length; i++) {
+            int color = pixels[offset + i];
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+            int max = Math.max(r, Math.max(g, b));
+            int min = Math.min(r, Math.min(g, b));
+            int delta = max - min;
+
+            float hue;
+            if (delta == 0) {
+                hue = 0f;
+            } else if (max == r) {
+                hue = 60f * (g - b) / delta;
+                if (hue < 0f) {
+                    hue += 360f;
+                }
+            } else if (max == g) {
+                hue = 60f * (b - r) / delta + 120f;
+            } else {
+                hue = 60f * (r - g) / delta + 240f;
+            }
+            int h = hsvOffset + i * 3;
+            hsv[h] = hue;
+            hsv[h + 1] = max == 0 ? 0f : delta / (float) max;
+            hsv[h + 2] = max / 255f;
+        }
+    }
+
+    /**
+     * Reverts {@link #toHsv(int[], int, int, float[], int)}. Color channels of pixels are
+     * replaced, while their alpha is kept.
+     */
+    public static void fromHsv(float[] hsv, int hsvOffset, int[] pixels, int offset, int length) {
+        checkBounds(pixels.length, offset, length);
+        checkBounds(hsv.length, hsvOffset, length * 3);
+        for (int i = 0; i < length; i++) {
+            int h = hsvOffset + i * 3;
+            float hue = hsv[h] / 60f;
+            float saturation = hsv[h + 1];
+            float value = hsv[h + 2] * 255f;
+
+            int sector = (int) hue % 6;
+            float fraction = hue - (int) hue;
+            int v = Math.round(value);
+            int p = Math.round(value * (1f - saturation));
+            int q = Math.round(value * (1f - saturation * fraction));
+            int t = Math.round(value * (1f - saturation * (1f - fraction)));
+
+            int rgb;
+            switch (sector) {
+                case 0:
+                    rgb = (v << 16) | (t << 8) | p;
+                    break;
+                case 1:
+                    rgb = (q << 16) | (v << 8) | p;
+                    break;
+                case 2:
+                    rgb = (p << 16) | (v << 8) | t;
+                    break;
+                case 3:
+                    rgb = (p << 16) | (q << 8) | v;
+                    break;
+                case 4:
+                    rgb = (t << 16) | (p << 8) | v;
+                    break;
+                default:
+                    rgb = (v << 16) | (p << 8) | q;
+                    break;
+            }
+            pixels[offset + i] = (pixels[offset + i] & 0xFF000000) | rgb;
+        }
+    }
+
+    //region buffers
+
+    /**
+     * Same as {@link #premultiply(int[], int, int)} for pixels between
+     * {@code position} and {@code limit} of the buffer. Position is not changed.
+     */
+    public static void premultiply(IntBuffer pixels) {
+        if (pixels.hasArray()) {
+            premultiply(pixels.array(), pixels.arrayOffset() + pixels.position(), pixels.remaining());
+            return;
+        }
+        for (int i = pixels.position(), limit = pixels.limit(); i < limit; i++) {
+            pixels.put(i, premultiply(pixels.get(i)));
+        }
+    }
+
+    /**
+     * Same as {@link #unpremultiply(int[], int, int)} for pixels between
+     * {@code position} and {@code limit} of the buffer. Position is not changed.
+     */
+    public static void unpremultiply(IntBuffer pixels) {
+        if (pixels.hasArray()) {
+            unpremultiply(pixels.array(), pixels.arrayOffset() + pixels.position(), pixels.remaining());
+            return;
+        }
+        for (int i = pixels.position(), limit = pixels.limit(); i < limit; i++) {
+            pixels.put(i, unpremultiply(pixels.get(i)));
+        }
+    }
+
+    /**
+     * Same as {@link #tint(int[], int, int, int)} for pixels between
+     * {@code position} and {@code limit} of the buffer. Position is not changed.
+     */
+    public static void tint(IntBuffer pixels, int tint) {
+        if (pixels.hasArray()) {
+            tint(pixels.array(), pixels.arrayOffset() + pixels.position(), pixels.remaining(), tint);
+            return;
+        }
+        int ta = tint >>> 24;
+        int tr = (tint >> 16) & 0xFF;
+        int tg = (tint >> 8) & 0xFF;
+        int tb = tint & 0xFF;
+        for (int i = pixels.position(), limit = pixels.limit(); i < limit; i++) {
+            pixels.put(i, tint(pixels.get(i), ta, tr, tg, tb));
+        }
+    }
+
+    /**
+     * Draws premultiplied {@code color} over every pixel between {@code position}
+     * and {@code limit} of the buffer. Position is not changed.
+     */
+    public static void blend(int color, IntBuffer pixels) {
+        for (int i = pixels.position(), limit = pixels.limit(); i < limit; i++) {
+            pixels.put(i, blend(color, pixels.get(i)));
+        }
+    }
+    //endregion
+
+    //region single pixel
+
+    static int premultiply(int color) {
+        int a = color >>> 24;
+        int r = div255(((color >> 16) & 0xFF) * a);
+        int g = div255(((color >> 8) & 0xFF) * a);
+        int b = div255((color & 0xFF) * a);
+        return (color & 0xFF000000) | (r << 16) | (g << 8) | b;
+    }
+
+    static int unpremultiply(int color) {
+        int a = color >>> 24;
+        int scale = UNPREMULTIPLY[a];
+        int r = Math.min(255, (((color >> 16) & 0xFF) * scale + 32768) >>> 16);
+        int g = Math.min(255, (((color >> 8) & 0xFF) * scale + 32768) >>> 16);
+        int b = Math.min(255, ((color & 0xFF) * scale + 32768) >>> 16);
+        return (color & 0xFF000000) | (r << 16) | (g << 8) | b;
+    }
+
+    static int blend(int src, int dst) {
+        int inverse = 255 - (src >>> 24);
+        int a = (src >>> 24) + div255((dst >>> 24) * inverse);
+        int r = ((src >> 16) & 0xFF) + div255(((dst >> 16) & 0xFF) * inverse);
+        int g = ((src >> 8) & 0xFF) + div255(((dst >> 8) & 0xFF) * inverse);
+        int b = (src & 0xFF) + div255((dst & 0xFF) * inverse);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    static int luminance(int color) {
+        // 54 + 183 + 19 = 256, so the result never exceeds 255
+        return (((color >> 16) & 0xFF) * 54 + ((color >> 8) & 0xFF) * 183 + (color & 0xFF) * 19) >>> 8;
+    }
+
+    private static int tint(int color, int ta, int tr, int tg, int tb) {
+        int a = div255((color >>> 24) * ta);
+        int r = div255(((color >> 16) & 0xFF) * tr);
+        int g = div255(((color >> 8) & 0xFF) * tg);
+        int b = div255((color & 0xFF) * tb);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Divides {@code value} in {@code [0, 255 * 255]} by 255, rounded to nearest, without dividing.
+     */
+    private static int div255(int value) {
+        value += 128;
+        return (value + (value >>> 8)) >>> 8;
+    }
+    //endregion
+
+    private static void checkBounds(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new ArrayIndexOutOfBoundsException("length=" + arrayLength + ", offset=" + offset
+                    + ", count=" + length);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package co.infinum.supportannotations.runtime.color;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Runs a chain of {@link ArgbTransform}s over raw ARGB files which may be
+ * much larger than the heap. File is a plain sequence of 32 bit pixels, each
+ * stored as {@code A, R, G, B} bytes.
+ * <br /><br />
+ * File is read one window at a time into a single direct buffer, and each window
+ * is split into tiles of {@code tilePixels} pixels. Every transform works directly on
+ * the buffer, so pixels are never copied into heap arrays, and after the window is
+ * written back, the buffer is reused for the next one. Memory use is therefore bounded
+ * by one window, 4 MB by default, whatever the size of
+ * the file. Files are not memory mapped, since every mapping of a window would stay
+ * in the address space until the garbage collector finds it, which a large file can
+ * exhaust on a 32 bit device.
+ * <br /><br />
+ * Buffer is allocated on first use and kept by the processor, so a processor transforms
+ * one file at a time, and calls from other threads wait for it.
+ */
+public final class ArgbTileProcessor {
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private static final long DEFAULT_WINDOW_BYTES = 4L * 1024 * 1024;
+
+    private final int tilePixels;
+
+    private final int windowBytes;
+
+    private final ArgbTransform[] transforms;
+
+    private ByteBuffer window;
+
+    public ArgbTileProcessor(int tilePixels, ArgbTransform... transforms) {
+        this(tilePixels, DEFAULT_WINDOW_BYTES, transforms);
+    }
+
+    /**
+     * Creates processor which holds at most {@code windowBytes} of a file in memory at once.
+     * Window is rounded down to whole tiles, but is never smaller than one tile.
+     */
+    public ArgbTileProcessor(int tilePixels, long windowBytes, ArgbTransform... transforms) {
+        if (tilePixels < 1) {
+            throw new IllegalArgumentException("tilePixels < 1: " + tilePixels);
+        }
+        if (tilePixels > Integer.MAX_VALUE / BYTES_PER_PIXEL) {
+            throw new IllegalArgumentException("tilePixels does not fit a buffer: " + tilePixels);
+        }
+        long tileBytes = (long) tilePixels * BYTES_PER_PIXEL;
+        this.tilePixels = tilePixels;
+        this.windowBytes = (int) (Math.max(1, Math.min(windowBytes, Integer.MAX_VALUE) / tileBytes) * tileBytes);
+        this.transforms = transforms.clone();
+    }
+
+    /**
+     * Transforms pixels of {@code file} and writes them back into the same file.
+     */
+    public synchronized void processInPlace(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = checkSize(channel.size());
+            ByteBuffer buffer = window();
+            for (long offset = 0; offset < size; offset += windowBytes) {
+                read(channel, buffer, offset, (int) Math.min(windowBytes, size - offset));
+                transform(buffer.asIntBuffer());
+                write(channel, buffer, offset);
+            }
+            channel.force(false);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Transforms pixels of {@code input} into {@code output}, which is created
+     * or truncated to the size of {@code input}. Input file is not modified.
+     */
+    public synchronized void process(File input, File output) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(input, "r");
+        try {
+            RandomAccessFile out = new RandomAccessFile(output, "rw");
+            try {
+                FileChannel source = in.getChannel();
+                FileChannel target = out.getChannel();
+                long size = checkSize(source.size());
+                out.setLength(size);
+                ByteBuffer buffer = window();
+                for (long offset = 0; offset < size; offset += windowBytes) {
+                    read(source, buffer, offset, (int) Math.min(windowBytes, size - offset));
+                    transform(buffer.asIntBuffer());
+                    write(target, buffer, offset);
+                }
+                target.force(false);
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private ByteBuffer window() {
+        if (window == null) {
+            window = ByteBuffer.allocateDirect(windowBytes); // big endian, so ints are A, R, G, B
+        }
+        return window;
+    }
+
+    private void transform(IntBuffer window) {
+        int pixels = window.capacity();
+        for (int start = 0; start < pixels; start += tilePixels) {
+            window.clear();
+            window.limit(Math.min(start + tilePixels, pixels));
+            window.position(start);
+            for (ArgbTransform transform : transforms) {
+                transform.apply(window);
+            }
+        }
+    }
+
+    /**
+     * Reads {@code length} bytes at {@code offset} into {@code buffer}, and leaves them between its position and limit.
+     */
+    private static void read(FileChannel channel, ByteBuffer buffer, long offset, int length) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("file ends at " + (offset + buffer.position()) + ", it was truncated meanwhile");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+    }
+
+    private static long checkSize(long size) throws IOException {
+        if (size % BYTES_PER_PIXEL != 0) {
+            throw new IOException("size " + size + " is not a multiple of " + BYTES_PER_PIXEL + " bytes");
+        }
+        return size;
+    }
+}
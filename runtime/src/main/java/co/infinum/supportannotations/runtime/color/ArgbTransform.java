@@ -0,0 +1,15 @@
+package co.infinum.supportannotations.runtime.color;
+
+import java.nio.IntBuffer;
+
+/**
+ * Transforms ARGB pixels in place, between {@code position} and {@code limit}
+ * of the given buffer. Implementations must not change position or limit.
+ * Buffer is usually a view of a direct buffer which holds one window of a file
+ * streamed by {@link ArgbTileProcessor}, so pixels should be read and written
+ * directly instead of being copied into an array.
+ */
+public interface ArgbTransform {
+
+    void apply(IntBuffer pixels);
+}
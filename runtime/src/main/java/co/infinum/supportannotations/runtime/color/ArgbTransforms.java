@@ -0,0 +1,52 @@
+package co.infinum.supportannotations.runtime.color;
+
+import java.nio.IntBuffer;
+
+/**
+ * {@link ArgbTransform} implementations backed by {@link ArgbOps}.
+ */
+public final class ArgbTransforms {
+
+    private ArgbTransforms() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    public static ArgbTransform premultiply() {
+        return new ArgbTransform() {
+            @Override
+            public void apply(IntBuffer pixels) {
+                ArgbOps.premultiply(pixels);
+            }
+        };
+    }
+
+    public static ArgbTransform unpremultiply() {
+        return new ArgbTransform() {
+            @Override
+            public void apply(IntBuffer pixels) {
+                ArgbOps.unpremultiply(pixels);
+            }
+        };
+    }
+
+    public static ArgbTransform tint(final int tint) {
+        return new ArgbTransform() {
+            @Override
+            public void apply(IntBuffer pixels) {
+                ArgbOps.tint(pixels, tint);
+            }
+        };
+    }
+
+    /**
+     * Draws premultiplied {@code color} over premultiplied pixels.
+     */
+    public static ArgbTransform blend(final int color) {
+        return new ArgbTransform() {
+            @Override
+            public void apply(IntBuffer pixels) {
+                ArgbOps.blend(color, pixels);
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package co.infinum.supportannotations.runtime.color;
+
+import java.util.concurrent.ExecutorService;
+
+import co.infinum.supportannotations.runtime.concurrent.ParallelChunks;
+
+/**
+ * Runs {@link ArgbOps} on large pixel arrays split across several threads.
+ * Arrays shorter than {@code threshold} are processed on the calling thread.
+ */
+public final class ParallelArgbOps {
+
+    private final ExecutorService executor;
+
+    private final int parallelism;
+
+    private final int threshold;
+
+    public ParallelArgbOps(ExecutorService executor, int parallelism, int threshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1: " + parallelism);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+    }
+
+    public void premultiply(final int[] pixels) {
+        ParallelChunks.run(executor, 0, pixels.length, parallelismFor(pixels.length), new ParallelChunks.ChunkTask() {
+            @Override
+            public void run(int chunk, int from, int to) {
+                ArgbOps.premultiply(pixels, from, to - from);
+            }
+        });
+    }
+
+    public void unpremultiply(final int[] pixels) {
+        ParallelChunks.run(executor, 0, pixels.length, parallelismFor(pixels.length), new ParallelChunks.ChunkTask() {
+            @Override
+            public void run(int chunk, int from, int to) {
+                ArgbOps.unpremultiply(pixels, from, to - from);
+            }
+        });
+    }
+
+    public void tint(final int[] pixels, final int tint) {
+        ParallelChunks.run(executor, 0, pixels.length, parallelismFor(pixels.length), new ParallelChunks.ChunkTask() {
+            @Override
+            public void run(int chunk, int from, int to) {
+                ArgbOps.tint(pixels, from, to - from, tint);
+            }
+        });
+    }
+
+    /**
+     * Draws premultiplied {@code src} over premultiplied {@code dst}, arrays must be of same length.
+     */
+    public void blend(final int[] src, final int[] dst) {
+        if (src.length != dst.length) {
+            throw new IllegalArgumentException("src.length != dst.length: " + src.length + " != " + dst.length);
+        }
+        ParallelChunks.run(executor, 0, dst.length, parallelismFor(dst.length), new ParallelChunks.ChunkTask() {
+            @Override
+            public void run(int chunk, int from, int to) {
+                ArgbOps.blend(src, from, dst, from, to - from);
+            }
+        });
+    }
+
+    public void luminance(final int[] pixels, final int[] luminance) {
+        ParallelChunks.run(executor, 0, pixels.length, parallelismFor(pixels.length), new ParallelChunks.ChunkTask() {
+            @Override
+            public void run(int chunk, int from, int to) {
+                ArgbOps.luminance(pixels, from, to - from, luminance, from);
+            }
+        });
+    }
+
+    private int parallelismFor(int length) {
+        return length < threshold ? 1 : parallelism;
+    }
+}
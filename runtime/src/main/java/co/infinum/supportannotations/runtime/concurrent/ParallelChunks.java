@@ -0,0 +1,112 @@
+package co.infinum.supportannotations.runtime.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Splits an index range into equal chunks and processes them in parallel on
+ * the given executor. The last chunk runs on the calling thread, which also
+ * waits for the others to finish. It waits even if a chunk fails or it is interrupted,
+ * cancelling chunks which did not start yet, so no chunk is still running once
+ * {@link #run(ExecutorService, int, int, int, ChunkTask)} returns or throws, and callers may
+ * reuse whatever the chunks work on.
+ * <br /><br />
+ * Do not call it from a thread of {@code executor} if the executor has a bounded number of
+ * threads: once every thread of the executor waits for its chunks, chunks queued behind them
+ * never run, and the threads wait forever.
+ * <br /><br />
+ * {@code ForkJoinPool} would be a more natural choice, but it is not available
+ * before Android {@code LOLLIPOP}, so a plain {@link ExecutorService} is used.
+ */
+public final class ParallelChunks {
+
+    private ParallelChunks() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Work done on a single chunk, {@code [from, to)}.
+     */
+    public interface ChunkTask {
+
+        void run(int chunk, int from, int to);
+    }
+
+    /**
+     * Returns number of chunks {@link #run(ExecutorService, int, int, int, ChunkTask)}
+     * splits the range into. Never more chunks than there are elements.
+     */
+    public static int chunkCount(int length, int parallelism) {
+        return Math.max(1, Math.min(length, parallelism));
+    }
+
+    /**
+     * Splits {@code [offset, offset + length)} into {@link #chunkCount(int, int)}
+     * chunks and runs the task for each of them. Returns when every chunk is done.
+     * If a chunk fails, chunks which did not start are skipped, and its failure is
+     * thrown once no other chunk is running.
+     */
+    public static void run(ExecutorService executor, int offset, int length, int parallelism, final ChunkTask task) {
+        final int chunks = chunkCount(length, parallelism);
+        List<Future<?>> futures = new ArrayList<>(chunks - 1);
+        // a chunk starts only if it claims itself first, otherwise a failure claimed it, and it is skipped
+        final AtomicIntegerArray claims = new AtomicIntegerArray(chunks - 1);
+        // released once by every submitted chunk, when it ends or when it is skipped
+        final Semaphore ended = new Semaphore(0);
+        boolean completed = false;
+        try {
+            for (int chunk = 0; chunk < chunks - 1; chunk++) {
+                final int index = chunk;
+                final int from = offset + (int) ((long) length * chunk / chunks);
+                final int to = offset + (int) ((long) length * (chunk + 1) / chunks);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        if (!claims.compareAndSet(index, 0, 1)) {
+                            return null;
+                        }
+                        try {
+                            task.run(index, from, to);
+                            return null;
+                        } finally {
+                            ended.release();
+                        }
+                    }
+                }));
+            }
+            task.run(chunks - 1, offset + (int) ((long) length * (chunks - 1) / chunks), offset + length);
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for chunks", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            if (!completed) {
+                for (int chunk = 0; chunk < futures.size(); chunk++) {
+                    if (claims.compareAndSet(chunk, 0, 1)) {
+                        ended.release();
+                        futures.get(chunk).cancel(false);
+                    }
+                }
+                ended.acquireUninterruptibly(futures.size());
+            }
+        }
+    }
+}
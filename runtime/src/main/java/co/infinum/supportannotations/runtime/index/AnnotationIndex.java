@@ -0,0 +1,372 @@
+package co.infinum.supportannotations.runtime.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.NoSuchElementException;
+
+/**
+ * Support annotations written at build time into a binary index, so they can be looked up
+ * while the app is running. Support annotations are retained only in class files, so
+ * {@code getAnnotations()} does not see them at all, and even for annotations it does see,
+ * reflection is slow and allocates on every call.
+ * <br /><br />
+ * Index is written by {@code ValidatorProcessor} next to compiled classes, as a resource named
+ * after the module, see {@link #resource(String)}, so indexes of modules packaged together
+ * do not overwrite each other. It holds every annotated type, method, constructor and field, as an element with
+ * a key such as {@code co.infinum.supportannotations.Utility#accepts0to255(int)}, see
+ * {@link #methodKey(String, String, String...)}. Every annotation of an element, including
+ * annotations of its parameters, is stored with all of its values, defaults included.
+ * <br /><br />
+ * Keys are found with {@link #find(String)}, through a hash table in the index. The returned
+ * element id is meant to be kept in a constant, so every other query is array indexing
+ * into the buffer and allocates nothing, apart from values returned as strings.
+ * Index is never copied into objects, so it is ready as soon as the file is mapped, or read
+ * into a buffer where it cannot be mapped, such as from an APK.
+ * <br /><br />
+ * Format, in big endian:
+ * <pre>
+ * header      int magic 'SAIX', int version, int strings, int elements, int annotations,
+ *             int values, int hash slots
+ * strings     int offset of every string
+ * elements    int key, int key hash, int first annotation, int annotation count
+ * annotations int type, int target (-1 for the element, parameter index otherwise),
+ *             int first value, int value count
+ * values      int name, int tag, long payload
+ * hash table  int element + 1, or 0 for an empty slot, linear probing by key hash
+ * string data int length, then UTF-16 chars
+ * </pre>
+ * Value tags are {@code 'Z'}, {@code 'J'} for every integral type, {@code 'D'} for both
+ * floating point types with raw bits as payload, {@code 'S'} for strings, enum constants
+ * and classes with string index as payload, and {@code '['} for arrays, with the number
+ * of unnamed values following it as payload.
+ */
+public final class AnnotationIndex {
+
+    public static final int MAGIC = 0x53414958;
+
+    public static final int VERSION = 1;
+
+    /**
+     * Target of annotations on the element itself, rather than on one of its parameters.
+     */
+    public static final int ELEMENT = -1;
+
+    private static final int HEADER_SIZE = 7 * 4;
+
+    private static final int ELEMENT_SIZE = 4 * 4;
+
+    private static final int ANNOTATION_SIZE = 4 * 4;
+
+    private static final int VALUE_SIZE = 4 + 4 + 8;
+
+    private final ByteBuffer buffer;
+
+    private final int stringCount;
+
+    private final int elementCount;
+
+    private final int annotationCount;
+
+    private final int hashSize;
+
+    private final int stringsStart;
+
+    private final int elementsStart;
+
+    private final int annotationsStart;
+
+    private final int valuesStart;
+
+    private final int hashStart;
+
+    private AnnotationIndex(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not an annotation index");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("unsupported annotation index version: " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.stringCount = buffer.getInt(8);
+        this.elementCount = buffer.getInt(12);
+        this.annotationCount = buffer.getInt(16);
+        int valueCount = buffer.getInt(20);
+        this.hashSize = buffer.getInt(24);
+        if (Integer.bitCount(hashSize) != 1) {
+            throw new IllegalArgumentException("hash table size is not a power of two: " + hashSize);
+        }
+        this.stringsStart = HEADER_SIZE;
+        this.elementsStart = stringsStart + stringCount * 4;
+        this.annotationsStart = elementsStart + elementCount * ELEMENT_SIZE;
+        this.valuesStart = annotationsStart + annotationCount * ANNOTATION_SIZE;
+        this.hashStart = valuesStart + valueCount * VALUE_SIZE;
+        if (hashStart + hashSize * 4 > buffer.limit()) {
+            throw new IllegalArgumentException("annotation index is truncated");
+        }
+    }
+
+    /**
+     * Reads index from {@code buffer}, between its position and limit. Buffer is used as it is, not copied.
+     */
+    public static AnnotationIndex wrap(ByteBuffer buffer) {
+        return new AnnotationIndex(buffer.slice());
+    }
+
+    /**
+     * Maps index from {@code file} into memory, so only the parts which are looked up are ever read.
+     */
+    public static AnnotationIndex map(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            // mapping stays valid after the file is closed
+            return wrap(input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length()));
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads index from {@code input}, for indexes packaged where they cannot be mapped, such as a jar or an APK.
+     */
+    public static AnnotationIndex read(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        byte[] chunk = new byte[8192];
+        for (int read; (read = input.read(chunk)) != -1; ) {
+            bytes.write(chunk, 0, read);
+        }
+        return wrap(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * Returns path of the index resource of {@code module}, such as
+     * {@code META-INF/co.infinum.supportannotations/app/annotations.idx}, to load with
+     * {@link ClassLoader#getResourceAsStream(String)}. Module is named with processor option
+     * {@code supportannotations.module}.
+     */
+    public static String resource(String module) {
+        if (module == null) {
+            throw new NullPointerException("module == null");
+        }
+        return "META-INF/co.infinum.supportannotations/" + module + "/annotations.idx";
+    }
+
+    /**
+     * Returns key of a method, such as {@code co.infinum.supportannotations.Utility#accepts0to255(int)}.
+     * Parameter types are erased and qualified, and nested types are separated with {@code $}, as in
+     * {@link Class#getName()}, except for arrays, which are written as {@code int[]}. Constructors are
+     * called {@code <init>}. Keys of types are their binary names, and keys of fields are {@code type#field}.
+     */
+    public static String methodKey(String typeName, String methodName, String... parameterTypes) {
+        StringBuilder key = new StringBuilder(typeName).append('#').append(methodName).append('(');
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameterTypes[i]);
+        }
+        return key.append(')').toString();
+    }
+
+    public int elementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Returns id of the element with {@code key}, or {@code -1} if it has no support annotations.
+     */
+    public int find(String key) {
+        int hash = key.hashCode();
+        int mask = hashSize - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int element = buffer.getInt(hashStart + slot * 4) - 1;
+            if (element < 0) {
+                return -1;
+            }
+            int record = elementsStart + element * ELEMENT_SIZE;
+            if (buffer.getInt(record + 4) == hash && stringEquals(buffer.getInt(record), key)) {
+                return element;
+            }
+        }
+    }
+
+    public String key(int element) {
+        return string(buffer.getInt(elementRecord(element)));
+    }
+
+    /**
+     * Returns number of annotations of {@code element}, including annotations of its parameters.
+     */
+    public int annotationCount(int element) {
+        return buffer.getInt(elementRecord(element) + 12);
+    }
+
+    /**
+     * Returns id of the {@code index}-th annotation of {@code element}.
+     */
+    public int annotation(int element, int index) {
+        if (index < 0 || index >= annotationCount(element)) {
+            throw new IndexOutOfBoundsException("index: " + index + ", annotations: " + annotationCount(element));
+        }
+        return buffer.getInt(elementRecord(element) + 8) + index;
+    }
+
+    /**
+     * Returns id of annotation of {@code type} on {@code target} of {@code element}, or {@code -1} if it has none.
+     *
+     * @param type qualified name of the annotation, such as {@code android.support.annotation.IntRange}
+     * @param target {@link #ELEMENT} or index of a parameter
+     */
+    public int findAnnotation(int element, String type, int target) {
+        int record = elementRecord(element);
+        int first = buffer.getInt(record + 8);
+        int count = buffer.getInt(record + 12);
+        for (int annotation = first; annotation < first + count; annotation++) {
+            int annotationRecord = annotationsStart + annotation * ANNOTATION_SIZE;
+            if (buffer.getInt(annotationRecord + 4) == target && stringEquals(buffer.getInt(annotationRecord), type)) {
+                return annotation;
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasAnnotation(int element, String type, int target) {
+        return findAnnotation(element, type, target) >= 0;
+    }
+
+    public String annotationType(int annotation) {
+        return string(buffer.getInt(annotationRecord(annotation)));
+    }
+
+    public int target(int annotation) {
+        return buffer.getInt(annotationRecord(annotation) + 4);
+    }
+
+    public boolean booleanValue(int annotation, String name) {
+        return payload(annotation, name, 'Z') != 0;
+    }
+
+    /**
+     * Returns value of any integral type, such as {@code from} of {@code @IntRange}.
+     */
+    public long longValue(int annotation, String name) {
+        return payload(annotation, name, 'J');
+    }
+
+    public double doubleValue(int annotation, String name) {
+        return Double.longBitsToDouble(payload(annotation, name, 'D'));
+    }
+
+    /**
+     * Returns value of a string, an enum constant by its name, or a class by its qualified name.
+     */
+    public String stringValue(int annotation, String name) {
+        return string((int) payload(annotation, name, 'S'));
+    }
+
+    /**
+     * Returns every element of an array of strings, enum constants or classes.
+     */
+    public String[] stringValues(int annotation, String name) {
+        int value = value(annotation, name, '[');
+        int count = (int) buffer.getLong(valueRecord(value) + 8);
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            int element = valueRecord(value + 1 + i);
+            if (buffer.getInt(element + 4) != 'S') {
+                throw new IllegalArgumentException(name + " is not an array of strings");
+            }
+            strings[i] = string((int) buffer.getLong(element + 8));
+        }
+        return strings;
+    }
+
+    @Override
+    public String toString() {
+        return "AnnotationIndex{elements=" + elementCount + ", annotations=" + annotationCount
+                + ", strings=" + stringCount + ", bytes=" + buffer.limit() + "}";
+    }
+
+    private long payload(int annotation, String name, char tag) {
+        return buffer.getLong(valueRecord(value(annotation, name, tag)) + 8);
+    }
+
+    private int value(int annotation, String name, char tag) {
+        int record = annotationRecord(annotation);
+        int first = buffer.getInt(record + 8);
+        int end = first + buffer.getInt(record + 12);
+        for (int value = first; value < end; value++) {
+            int valueRecord = valueRecord(value);
+            int valueTag = buffer.getInt(valueRecord + 4);
+            if (stringEquals(buffer.getInt(valueRecord), name)) {
+                if (valueTag != tag) {
+                    throw new IllegalArgumentException(name + " is '" + (char) valueTag + "', not '" + tag + "'");
+                }
+                return value;
+            }
+            if (valueTag == '[') {
+                value += (int) buffer.getLong(valueRecord + 8); // skips array elements
+            }
+        }
+        throw new NoSuchElementException(annotationType(annotation) + " has no value " + name);
+    }
+
+    private int elementRecord(int element) {
+        if (element < 0 || element >= elementCount) {
+            throw new IndexOutOfBoundsException("element: " + element + ", elements: " + elementCount);
+        }
+        return elementsStart + element * ELEMENT_SIZE;
+    }
+
+    private int annotationRecord(int annotation) {
+        if (annotation < 0 || annotation >= annotationCount) {
+            throw new IndexOutOfBoundsException("annotation: " + annotation + ", annotations: " + annotationCount);
+        }
+        return annotationsStart + annotation * ANNOTATION_SIZE;
+    }
+
+    private int valueRecord(int value) {
+        return valuesStart + value * VALUE_SIZE;
+    }
+
+    private boolean stringEquals(int string, String value) {
+        if (string < 0) {
+            return false; // unnamed array element
+        }
+        int offset = buffer.getInt(stringsStart + string * 4);
+        int length = buffer.getInt(offset);
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.getChar(offset + 4 + i * 2) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String string(int string) {
+        if (string < 0 || string >= stringCount) {
+            throw new IndexOutOfBoundsException("string: " + string + ", strings: " + stringCount);
+        }
+        int offset = buffer.getInt(stringsStart + string * 4);
+        char[] chars = new char[buffer.getInt(offset)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar(offset + 4 + i * 2);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Spreads bits of {@code String.hashCode()}, which differ mostly in low bits for similar keys.
+     * Writer uses the same function.
+     */
+    static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
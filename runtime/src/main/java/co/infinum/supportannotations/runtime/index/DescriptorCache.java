@@ -0,0 +1,244 @@
+package co.infinum.supportannotations.runtime.index;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import co.infinum.supportannotations.runtime.validation.FloatRangeSpec;
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+import co.infinum.supportannotations.runtime.validation.SizeSpec;
+
+/**
+ * Caches {@link MethodDescriptor}s of methods, so their support annotations are read
+ * from the {@link AnnotationIndex} once per class, instead of on every call.
+ * <br /><br />
+ * Descriptors of all methods of a class are read on the first lookup of any of them.
+ * Later lookups take no lock and allocate nothing, unless the method is overloaded,
+ * when its parameter types are compared. Classes are found by identity in a copy-on-write
+ * hash table, which is replaced on every newly read class.
+ * <br /><br />
+ * On the JVM, {@code ClassValue} would tie descriptors to the class, but Android does not
+ * have it. Instead, classes are held through weak references, and descriptors hold only
+ * names and primitives, so a cached class can still be unloaded along with its class loader.
+ */
+public final class DescriptorCache {
+
+    private static final String INT_RANGE = "android.support.annotation.IntRange";
+
+    private static final String FLOAT_RANGE = "android.support.annotation.FloatRange";
+
+    private static final String SIZE = "android.support.annotation.Size";
+
+    private static final int MIN_TABLE_SIZE = 16;
+
+    private final AnnotationIndex index;
+
+    private final Object lock = new Object();
+
+    private volatile Entry[] table = new Entry[MIN_TABLE_SIZE];
+
+    public DescriptorCache(AnnotationIndex index) {
+        if (index == null) {
+            throw new NullPointerException("index == null");
+        }
+        this.index = index;
+    }
+
+    /**
+     * Returns descriptor of {@code method}, reading descriptors of its class if it was not read yet.
+     */
+    public MethodDescriptor descriptor(Method method) {
+        ClassDescriptors descriptors = find(table, method.getDeclaringClass());
+        if (descriptors == null) {
+            descriptors = read(method.getDeclaringClass());
+        }
+        return descriptors.descriptor(method);
+    }
+
+    /**
+     * Returns number of classes which are cached and not unloaded.
+     */
+    public int classCount() {
+        int count = 0;
+        for (Entry entry : table) {
+            if (entry != null && entry.get() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static ClassDescriptors find(Entry[] entries, Class<?> type) {
+        int mask = entries.length - 1;
+        for (int slot = AnnotationIndex.mix(System.identityHashCode(type)) & mask; ; slot = (slot + 1) & mask) {
+            Entry entry = entries[slot];
+            if (entry == null) {
+                return null;
+            } else if (entry.get() == type) {
+                return entry.descriptors;
+            }
+        }
+    }
+
+    private ClassDescriptors read(Class<?> type) {
+        synchronized (lock) {
+            Entry[] current = table;
+            ClassDescriptors descriptors = find(current, type);
+            if (descriptors != null) {
+                return descriptors; // read by another thread meanwhile
+            }
+            descriptors = new ClassDescriptors(index, type);
+
+            int live = 1;
+            for (Entry entry : current) {
+                if (entry != null && entry.get() != null) {
+                    live++;
+                }
+            }
+            Entry[] updated = new Entry[Math.max(MIN_TABLE_SIZE, Integer.highestOneBit(live) << 2)];
+            for (Entry entry : current) {
+                if (entry != null && entry.get() != null) {
+                    insert(updated, entry); // entries of unloaded classes are dropped
+                }
+            }
+            insert(updated, new Entry(type, descriptors));
+            table = updated;
+            return descriptors;
+        }
+    }
+
+    private static void insert(Entry[] entries, Entry entry) {
+        int mask = entries.length - 1;
+        int slot = AnnotationIndex.mix(entry.hash) & mask;
+        while (entries[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        entries[slot] = entry;
+    }
+
+    /**
+     * Returns name of {@code type} as written in keys of the index.
+     */
+    static String typeName(Class<?> type) {
+        return type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    private static final class Entry extends WeakReference<Class<?>> {
+
+        final int hash;
+
+        final ClassDescriptors descriptors;
+
+        Entry(Class<?> type, ClassDescriptors descriptors) {
+            super(type);
+            this.hash = System.identityHashCode(type);
+            this.descriptors = descriptors;
+        }
+    }
+
+    /**
+     * Descriptors of every method declared by a class, by method name. Overloads are told apart by
+     * names of their parameter types, as keeping the types would keep the class from being unloaded.
+     */
+    private static final class ClassDescriptors {
+
+        private final Map<String, Overload[]> overloadsByName = new HashMap<>();
+
+        ClassDescriptors(AnnotationIndex index, Class<?> type) {
+            for (Method method : type.getDeclaredMethods()) {
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                String[] parameterNames = new String[parameterTypes.length];
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    parameterNames[i] = typeName(parameterTypes[i]);
+                }
+                Overload overload = new Overload(parameterNames, read(index, type, method.getName(), parameterNames));
+                Overload[] existing = overloadsByName.get(method.getName());
+                if (existing == null) {
+                    overloadsByName.put(method.getName(), new Overload[] { overload });
+                } else {
+                    Overload[] updated = new Overload[existing.length + 1];
+                    System.arraycopy(existing, 0, updated, 0, existing.length);
+                    updated[existing.length] = overload;
+                    overloadsByName.put(method.getName(), updated);
+                }
+            }
+        }
+
+        MethodDescriptor descriptor(Method method) {
+            Overload[] overloads = overloadsByName.get(method.getName());
+            if (overloads == null) {
+                throw new IllegalArgumentException(method + " is not declared by its class");
+            }
+            if (overloads.length == 1) {
+                return overloads[0].descriptor;
+            }
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (Overload overload : overloads) {
+                if (overload.matches(parameterTypes)) {
+                    return overload.descriptor;
+                }
+            }
+            throw new IllegalArgumentException(method + " is not declared by its class");
+        }
+
+        private static MethodDescriptor read(AnnotationIndex index, Class<?> type, String name,
+                String[] parameterNames) {
+            ParameterDescriptor[] parameters = new ParameterDescriptor[parameterNames.length];
+            int element = index.find(AnnotationIndex.methodKey(type.getName(), name, parameterNames));
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = element < 0 ? ParameterDescriptor.NONE : readParameter(index, element, i);
+            }
+            return new MethodDescriptor(name, parameters);
+        }
+
+        private static ParameterDescriptor readParameter(AnnotationIndex index, int element, int parameter) {
+            IntRangeSpec intRange = null;
+            int annotation = index.findAnnotation(element, INT_RANGE, parameter);
+            if (annotation >= 0) {
+                intRange = IntRangeSpec.of(index.longValue(annotation, "from"), index.longValue(annotation, "to"));
+            }
+            FloatRangeSpec floatRange = null;
+            annotation = index.findAnnotation(element, FLOAT_RANGE, parameter);
+            if (annotation >= 0) {
+                floatRange = FloatRangeSpec.of(index.doubleValue(annotation, "from"),
+                        index.booleanValue(annotation, "fromInclusive"), index.doubleValue(annotation, "to"),
+                        index.booleanValue(annotation, "toInclusive"));
+            }
+            SizeSpec size = null;
+            annotation = index.findAnnotation(element, SIZE, parameter);
+            if (annotation >= 0) {
+                size = SizeSpec.of(index.longValue(annotation, "value"), index.longValue(annotation, "min"),
+                        index.longValue(annotation, "max"), index.longValue(annotation, "multiple"));
+            }
+            if (intRange == null && floatRange == null && size == null) {
+                return ParameterDescriptor.NONE;
+            }
+            return new ParameterDescriptor(intRange, floatRange, size);
+        }
+    }
+
+    private static final class Overload {
+
+        final String[] parameterNames;
+
+        final MethodDescriptor descriptor;
+
+        Overload(String[] parameterNames, MethodDescriptor descriptor) {
+            this.parameterNames = parameterNames;
+            this.descriptor = descriptor;
+        }
+
+        boolean matches(Class<?>[] parameterTypes) {
+            if (parameterTypes.length != parameterNames.length) {
+                return false;
+            }
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (!typeName(parameterTypes[i]).equals(parameterNames[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
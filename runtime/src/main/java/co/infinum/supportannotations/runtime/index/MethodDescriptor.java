@@ -0,0 +1,58 @@
+package co.infinum.supportannotations.runtime.index;
+
+/**
+ * Value annotations of the parameters of a single method, see {@link DescriptorCache}.
+ * Descriptor keeps no reference to the method or its class, so caching it does not keep the class loaded.
+ */
+public final class MethodDescriptor {
+
+    private final String name;
+
+    private final ParameterDescriptor[] parameters;
+
+    private final boolean annotated;
+
+    MethodDescriptor(String name, ParameterDescriptor[] parameters) {
+        this.name = name;
+        this.parameters = parameters;
+        boolean anyAnnotated = false;
+        for (ParameterDescriptor parameter : parameters) {
+            anyAnnotated |= parameter.isAnnotated();
+        }
+        this.annotated = anyAnnotated;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int parameterCount() {
+        return parameters.length;
+    }
+
+    /**
+     * Returns descriptor of the {@code index}-th parameter, {@link ParameterDescriptor#NONE} if it has no annotations.
+     */
+    public ParameterDescriptor parameter(int index) {
+        return parameters[index];
+    }
+
+    /**
+     * Returns {@code true} if any parameter has value annotations.
+     */
+    public boolean isAnnotated() {
+        return annotated;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder("MethodDescriptor{").append(name).append('(');
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                description.append(", ");
+            }
+            description.append(parameters[i]);
+        }
+        return description.append(")}").toString();
+    }
+}
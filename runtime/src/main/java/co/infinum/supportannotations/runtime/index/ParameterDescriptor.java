@@ -0,0 +1,59 @@
+package co.infinum.supportannotations.runtime.index;
+
+import co.infinum.supportannotations.runtime.validation.FloatRangeSpec;
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+import co.infinum.supportannotations.runtime.validation.SizeSpec;
+
+/**
+ * Value annotations of a single parameter, read from the {@link AnnotationIndex} once
+ * and kept in final fields. Annotations which the parameter does not have are {@code null}.
+ */
+public final class ParameterDescriptor {
+
+    /**
+     * Descriptor of a parameter without value annotations, shared by all of them.
+     */
+    public static final ParameterDescriptor NONE = new ParameterDescriptor(null, null, null);
+
+    public final IntRangeSpec intRange;
+
+    public final FloatRangeSpec floatRange;
+
+    public final SizeSpec size;
+
+    ParameterDescriptor(IntRangeSpec intRange, FloatRangeSpec floatRange, SizeSpec size) {
+        this.intRange = intRange;
+        this.floatRange = floatRange;
+        this.size = size;
+    }
+
+    public boolean isAnnotated() {
+        return intRange != null || floatRange != null || size != null;
+    }
+
+    /**
+     * Returns {@code true} if {@code size} satisfies {@code @Size}, or if there is none.
+     */
+    public boolean sizeMatches(long size) {
+        return this.size == null || this.size.contains(size);
+    }
+
+    @Override
+    public String toString() {
+        if (!isAnnotated()) {
+            return "ParameterDescriptor{}";
+        }
+        StringBuilder description = new StringBuilder("ParameterDescriptor{");
+        if (intRange != null) {
+            description.append(intRange).append(' ');
+        }
+        if (floatRange != null) {
+            description.append(floatRange).append(' ');
+        }
+        if (size != null) {
+            description.append(size).append(' ');
+        }
+        description.setCharAt(description.length() - 1, '}');
+        return description.toString();
+    }
+}
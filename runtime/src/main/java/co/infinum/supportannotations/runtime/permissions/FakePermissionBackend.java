@@ -0,0 +1,51 @@
+package co.infinum.supportannotations.runtime.permissions;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link PermissionBackend} for tests and benchmarks on the JVM, with permissions
+ * granted and revoked by hand. Counts checks, so tests can tell whether an answer
+ * came from the backend or from a cache. This class is thread safe.
+ */
+public final class FakePermissionBackend implements PermissionBackend {
+
+    private final Set<String> granted = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final AtomicLong checks = new AtomicLong();
+
+    public FakePermissionBackend(String... granted) {
+        Collections.addAll(this.granted, granted);
+    }
+
+    public FakePermissionBackend grant(String permission) {
+        granted.add(permission);
+        return this;
+    }
+
+    public FakePermissionBackend revoke(String permission) {
+        granted.remove(permission);
+        return this;
+    }
+
+    /**
+     * Returns how many times {@link #isGranted(String)} was called.
+     */
+    public long checkCount() {
+        return checks.get();
+    }
+
+    @Override
+    public boolean isGranted(String permission) {
+        checks.incrementAndGet();
+        return granted.contains(permission);
+    }
+
+    @Override
+    public String toString() {
+        return "FakePermissionBackend{granted=" + new HashSet<>(granted) + "}";
+    }
+}
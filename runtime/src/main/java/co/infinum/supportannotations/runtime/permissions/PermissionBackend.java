@@ -0,0 +1,11 @@
+package co.infinum.supportannotations.runtime.permissions;
+
+/**
+ * Checks whether a single permission is granted. On Android, this is
+ * {@code ContextCompat.checkSelfPermission(context, permission) == PERMISSION_GRANTED},
+ * which asks the package manager over IPC on every call.
+ */
+public interface PermissionBackend {
+
+    boolean isGranted(String permission);
+}
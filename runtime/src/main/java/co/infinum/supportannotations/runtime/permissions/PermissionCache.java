@@ -0,0 +1,150 @@
+package co.infinum.supportannotations.runtime.permissions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers permission checks from a snapshot, instead of asking {@link PermissionBackend}
+ * on every call. Snapshot covers every permission of the requirements the cache was
+ * created with and is taken in one batch on the first check after {@link #invalidate()}.
+ * <br /><br />
+ * Snapshot is an immutable array swapped atomically, so checks take no lock and
+ * allocate nothing, from any thread. A permission can only change while the app is
+ * in the background or after the user answers a permission request, so call
+ * {@link #invalidate()} when the app resumes and from {@code onRequestPermissionsResult}.
+ * <br /><br />
+ * Permissions outside of the snapshot are checked with the backend every time.
+ */
+public final class PermissionCache {
+
+    private final PermissionBackend backend;
+
+    private final Map<String, Integer> indices = new HashMap<>();
+
+    private final String[] permissions;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(null));
+
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PermissionCache(PermissionBackend backend, PermissionRequirement... requirements) {
+        if (backend == null) {
+            throw new NullPointerException("backend == null");
+        }
+        this.backend = backend;
+        for (PermissionRequirement requirement : requirements) {
+            for (int i = 0; i < requirement.size(); i++) {
+                if (!indices.containsKey(requirement.permission(i))) {
+                    indices.put(requirement.permission(i), indices.size());
+                }
+            }
+        }
+        this.permissions = new String[indices.size()];
+        for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+            permissions[entry.getValue()] = entry.getKey();
+        }
+    }
+
+    /**
+     * Returns {@code true} if {@code requirement} is satisfied: all of its permissions
+     * are granted, or any one of them for {@code anyOf} requirements.
+     */
+    public boolean isGranted(PermissionRequirement requirement) {
+        boolean[] granted = granted();
+        boolean requiresAll = requirement.requiresAll();
+        for (int i = 0, size = requirement.size(); i < size; i++) {
+            if (isGranted(granted, requirement.permission(i)) != requiresAll) {
+                return !requiresAll;
+            }
+        }
+        return requiresAll;
+    }
+
+    public boolean isGranted(String permission) {
+        return isGranted(granted(), permission);
+    }
+
+    /**
+     * Runs {@code action} only if {@code requirement} is satisfied.
+     *
+     * @return {@code true} if action was run
+     */
+    public boolean runIfGranted(PermissionRequirement requirement, Runnable action) {
+        if (!isGranted(requirement)) {
+            return false;
+        }
+        action.run();
+        return true;
+    }
+
+    /**
+     * Forgets the snapshot, so the next check takes a new one.
+     */
+    public void invalidate() {
+        snapshot.set(new Snapshot(null));
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Takes a new snapshot right away, so the next check does not have to.
+     */
+    public void refresh() {
+        invalidate();
+        granted();
+    }
+
+    /**
+     * Returns how many snapshots were taken, each checking every permission once.
+     */
+    public long refreshCount() {
+        return refreshes.get();
+    }
+
+    public long invalidationCount() {
+        return invalidations.get();
+    }
+
+    private boolean isGranted(boolean[] granted, String permission) {
+        Integer index = indices.get(permission);
+        return index != null ? granted[index] : backend.isGranted(permission);
+    }
+
+    private boolean[] granted() {
+        Snapshot current = snapshot.get();
+        if (current.granted != null) {
+            return current.granted;
+        }
+        boolean[] granted = new boolean[permissions.length];
+        for (int i = 0; i < permissions.length; i++) {
+            granted[i] = backend.isGranted(permissions[i]);
+        }
+        refreshes.incrementAndGet();
+        // invalidation while taking the snapshot replaces the marker, and this snapshot is not kept
+        snapshot.compareAndSet(current, new Snapshot(granted));
+        return granted;
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionCache{permissions=" + permissions.length + ", refreshes=" + refreshes
+                + ", invalidations=" + invalidations + "}";
+    }
+
+    /**
+     * Granted state of every permission, or {@code null} after invalidation. A new
+     * instance is created for every invalidation, so a snapshot taken concurrently
+     * with it can tell it is already stale.
+     */
+    private static final class Snapshot {
+
+        final boolean[] granted;
+
+        Snapshot(boolean[] granted) {
+            this.granted = granted;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package co.infinum.supportannotations.runtime.permissions;
+
+import java.util.Arrays;
+
+/**
+ * Permissions required by a method, as declared with {@code @RequiresPermission}:
+ * a single permission, all of several permissions ({@code allOf}) or any one of
+ * them ({@code anyOf}). Support annotations are not visible at runtime, so
+ * requirements are generated by module {@code processor}, for {@code Utility}
+ * into {@code UtilityPermissions}.
+ */
+public final class PermissionRequirement {
+
+    private final String[] permissions;
+
+    private final boolean requiresAll;
+
+    private PermissionRequirement(String[] permissions, boolean requiresAll) {
+        if (permissions.length == 0) {
+            throw new IllegalArgumentException("permissions are empty");
+        }
+        for (String permission : permissions) {
+            if (permission == null) {
+                throw new NullPointerException("permission == null");
+            }
+        }
+        this.permissions = permissions;
+        this.requiresAll = requiresAll;
+    }
+
+    public static PermissionRequirement of(String permission) {
+        return new PermissionRequirement(new String[] { permission }, true);
+    }
+
+    public static PermissionRequirement allOf(String... permissions) {
+        return new PermissionRequirement(permissions.clone(), true);
+    }
+
+    public static PermissionRequirement anyOf(String... permissions) {
+        return new PermissionRequirement(permissions.clone(), false);
+    }
+
+    public int size() {
+        return permissions.length;
+    }
+
+    public String permission(int index) {
+        return permissions[index];
+    }
+
+    /**
+     * Returns {@code true} if all permissions are required, {@code false} if any one is enough.
+     */
+    public boolean requiresAll() {
+        return requiresAll;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PermissionRequirement)) {
+            return false;
+        }
+        PermissionRequirement that = (PermissionRequirement) o;
+        return requiresAll == that.requiresAll && Arrays.equals(permissions, that.permissions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(permissions) + (requiresAll ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        if (permissions.length == 1) {
+            return permissions[0];
+        }
+        return (requiresAll ? "allOf" : "anyOf") + Arrays.toString(permissions);
+    }
+}
@@ -0,0 +1,71 @@
+package co.infinum.supportannotations.runtime.random;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RandomSource} which gives every thread its own {@link Random}.
+ * A single shared {@link Random} updates its seed with a compare-and-set,
+ * which keeps failing and spinning when many threads use it at once.
+ * Per thread instances are never shared, so there is nothing to contend on.
+ * <br /><br />
+ * {@code ThreadLocalRandom} and {@code SplittableRandom} would do the same,
+ * but they are available only since Android {@code LOLLIPOP} and {@code N}.
+ */
+public final class PerThreadRandomSource implements RandomSource {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final ThreadLocal<Random> random;
+
+    private PerThreadRandomSource(ThreadLocal<Random> random) {
+        this.random = random;
+    }
+
+    /**
+     * Creates a source where every thread gets an unpredictable seed.
+     */
+    public static PerThreadRandomSource unseeded() {
+        return new PerThreadRandomSource(new ThreadLocal<Random>() {
+            @Override
+            protected Random initialValue() {
+                return new Random();
+            }
+        });
+    }
+
+    /**
+     * Creates a repeatable source. Thread which first uses this source gets
+     * a {@link Random} seeded from {@code seed}, second thread gets the next
+     * derived seed and so on. Runs are repeatable as long as threads first
+     * touch the source in the same order, which always holds for a single thread.
+     */
+    public static PerThreadRandomSource seeded(final long seed) {
+        final AtomicLong threads = new AtomicLong();
+        return new PerThreadRandomSource(new ThreadLocal<Random>() {
+            @Override
+            protected Random initialValue() {
+                return new Random(mix(seed + threads.getAndIncrement() * GOLDEN_GAMMA));
+            }
+        });
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.get().nextBoolean();
+    }
+
+    @Override
+    public int nextInt() {
+        return random.get().nextInt();
+    }
+
+    /**
+     * Spreads consecutive seeds apart, same finalizer as used by {@code SplittableRandom}.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
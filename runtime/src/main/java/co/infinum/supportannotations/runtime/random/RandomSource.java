@@ -0,0 +1,12 @@
+package co.infinum.supportannotations.runtime.random;
+
+/**
+ * Source of random values, so callers do not depend on a particular
+ * {@link java.util.Random} instance and tests can make them repeatable.
+ */
+public interface RandomSource {
+
+    boolean nextBoolean();
+
+    int nextInt();
+}
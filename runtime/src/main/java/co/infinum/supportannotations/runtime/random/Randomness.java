@@ -0,0 +1,26 @@
+package co.infinum.supportannotations.runtime.random;
+
+/**
+ * Holds the {@link RandomSource} used by the application. By default,
+ * every thread gets its own unseeded generator. Tests can install
+ * {@link PerThreadRandomSource#seeded(long)} to get repeatable results.
+ */
+public final class Randomness {
+
+    private static volatile RandomSource source = PerThreadRandomSource.unseeded();
+
+    private Randomness() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    public static RandomSource source() {
+        return source;
+    }
+
+    public static void install(RandomSource randomSource) {
+        if (randomSource == null) {
+            throw new NullPointerException("randomSource == null");
+        }
+        source = randomSource;
+    }
+}
@@ -0,0 +1,76 @@
+package co.infinum.supportannotations.runtime.resources;
+
+import co.infinum.supportannotations.runtime.collections.IntIntMap;
+
+/**
+ * Caches colors resolved from {@code @ColorRes} ids into {@code @ColorInt} values.
+ * Resolving a color goes through {@code Resources} and the theme every time, while
+ * a cached color is a single lookup in a primitive map, without any boxing.
+ * <br /><br />
+ * Resolved colors depend on configuration (night mode, for example) and on theme,
+ * so cache must be invalidated with {@link #invalidate()} whenever either changes.
+ * Like {@code Resources}, this class is meant to be used from the main thread and
+ * is not thread safe.
+ */
+public final class ColorCache {
+
+    private final ColorResolver resolver;
+
+    private final IntIntMap colors;
+
+    private long hits;
+
+    private long misses;
+
+    private long invalidations;
+
+    public ColorCache(ColorResolver resolver) {
+        this.resolver = resolver;
+        this.colors = new IntIntMap(32);
+    }
+
+    /**
+     * Returns color value for {@code colorRes}, resolving it only if it is not cached.
+     */
+    public int getColor(int colorRes) {
+        int index = colors.indexOf(colorRes);
+        if (index >= 0) {
+            hits++;
+            return colors.valueAt(index);
+        }
+        misses++;
+        int color = resolver.resolveColor(colorRes);
+        colors.put(colorRes, color);
+        return color;
+    }
+
+    /**
+     * Forgets every resolved color. Call when configuration or theme changes.
+     */
+    public void invalidate() {
+        colors.clear();
+        invalidations++;
+    }
+
+    public int size() {
+        return colors.size();
+    }
+
+    public long hitCount() {
+        return hits;
+    }
+
+    public long missCount() {
+        return misses;
+    }
+
+    public long invalidationCount() {
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        return "ColorCache{size=" + colors.size() + ", hits=" + hits + ", misses=" + misses
+                + ", invalidations=" + invalidations + "}";
+    }
+}
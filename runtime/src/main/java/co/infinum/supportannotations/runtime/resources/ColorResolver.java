@@ -0,0 +1,10 @@
+package co.infinum.supportannotations.runtime.resources;
+
+/**
+ * Resolves a color resource into a color value. On Android, this is
+ * {@code ContextCompat.getColor(context, colorRes)}.
+ */
+public interface ColorResolver {
+
+    int resolveColor(int colorRes);
+}
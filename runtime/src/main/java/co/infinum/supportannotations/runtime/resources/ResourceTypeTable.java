@@ -0,0 +1,123 @@
+package co.infinum.supportannotations.runtime.resources;
+
+import java.util.Arrays;
+
+/**
+ * Maps resource ids to their resource types without calling {@code Resources}.
+ * Every resource id is laid out as {@code 0xPPTTEEEE}: package id in the highest
+ * byte, type id in the next one and entry id in the lower two bytes. Type ids are
+ * assigned by aapt per package, so they are read from {@code R} classes at build
+ * time and put into this table, which is then indexed with package and type of an id.
+ * <br /><br />
+ * Types are bit flags, so a single check can accept several types, as
+ * {@code @DrawableRes} accepts both drawables and mipmaps:
+ * <pre>
+ * table.isOfType(id, ResourceTypeTable.DRAWABLE | ResourceTypeTable.MIPMAP);
+ * </pre>
+ * Ids of packages which were never put into the table, such as shared libraries
+ * whose package id is assigned at runtime, are accepted as any type. Package ids
+ * {@code 0x00} and above {@code 0x7f} never hold resources, so values such as
+ * {@code 0} or resolved colors are rejected.
+ * <br /><br />
+ * Table should be filled before it is published to other threads, usually
+ * in a static initializer of a generated class.
+ */
+public final class ResourceTypeTable {
+
+    //region types
+
+    public static final int ANIM = 1;
+
+    public static final int ANIMATOR = 1 << 1;
+
+    public static final int ARRAY = 1 << 2;
+
+    public static final int ATTR = 1 << 3;
+
+    public static final int BOOL = 1 << 4;
+
+    public static final int COLOR = 1 << 5;
+
+    public static final int DIMEN = 1 << 6;
+
+    public static final int DRAWABLE = 1 << 7;
+
+    public static final int FRACTION = 1 << 8;
+
+    public static final int ID = 1 << 9;
+
+    public static final int INTEGER = 1 << 10;
+
+    public static final int INTERPOLATOR = 1 << 11;
+
+    public static final int LAYOUT = 1 << 12;
+
+    public static final int MENU = 1 << 13;
+
+    public static final int MIPMAP = 1 << 14;
+
+    public static final int PLURALS = 1 << 15;
+
+    public static final int RAW = 1 << 16;
+
+    public static final int STRING = 1 << 17;
+
+    public static final int STYLE = 1 << 18;
+
+    public static final int TRANSITION = 1 << 19;
+
+    public static final int XML = 1 << 20;
+    //endregion
+
+    /**
+     * Highest package id, used by the application itself.
+     */
+    public static final int APP_PACKAGE = 0x7f;
+
+    private static final int[] NO_TYPES = new int[256];
+
+    private static final int[] ANY_TYPE = new int[256];
+
+    static {
+        Arrays.fill(ANY_TYPE, -1);
+    }
+
+    private final int[][] typesByPackage = new int[256][];
+
+    public ResourceTypeTable() {
+        Arrays.fill(typesByPackage, NO_TYPES);
+        for (int packageId = 1; packageId <= APP_PACKAGE; packageId++) {
+            typesByPackage[packageId] = ANY_TYPE;
+        }
+    }
+
+    /**
+     * Records that resources of {@code type} in the package {@code packageId} have
+     * type id {@code typeId}. Once a package has a single type put, ids of any
+     * other type id in that package are rejected.
+     *
+     * @return this table, so calls can be chained
+     */
+    public ResourceTypeTable put(int packageId, int typeId, int type) {
+        if (packageId < 1 || packageId > APP_PACKAGE) {
+            throw new IllegalArgumentException("packageId not in range [1, 0x7f]: " + packageId);
+        }
+        if (typeId < 1 || typeId > 0xFF) {
+            throw new IllegalArgumentException("typeId not in range [1, 0xff]: " + typeId);
+        }
+        int[] types = typesByPackage[packageId];
+        if (types == ANY_TYPE) {
+            types = new int[256];
+            typesByPackage[packageId] = types;
+        }
+        types[typeId] |= type;
+        return this;
+    }
+
+    /**
+     * Returns {@code true} if {@code id} is a resource of one of the given {@code types}.
+     */
+    public boolean isOfType(int id, int types) {
+        return (typesByPackage[id >>> 24][(id >>> 16) & 0xFF] & types) != 0;
+    }
+}
@@ -0,0 +1,212 @@
+package co.infinum.supportannotations.runtime.resources;
+
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.Locale;
+
+import co.infinum.supportannotations.runtime.collections.IntIntMap;
+
+/**
+ * Caches strings resolved from {@code @StringRes} ids, keeping at most {@code maxSize}
+ * of them and evicting the least recently used one when full. Entries live in parallel
+ * arrays linked into a recency list by slot index, and ids are mapped to slots with
+ * an {@link IntIntMap}, so neither lookups nor evictions box or allocate.
+ * <br /><br />
+ * {@link #getString(int, Object...)} formats with a single {@link Formatter} writing
+ * into a reused {@link StringBuilder}, instead of creating both for every call as
+ * {@code getString(id, args)} does. Only the resulting string is allocated.
+ * <br /><br />
+ * Strings are cached for a single configuration at a time. Whenever configuration
+ * changes, call {@link #invalidate(Locale)}, which forgets every string and formats
+ * with the new locale, so a string is never returned for a configuration other than
+ * the one it was resolved for. Like {@code Resources}, this class is meant to be used
+ * from the main thread and is not thread safe.
+ */
+public final class StringCache {
+
+    private static final int NONE = -1;
+
+    private final StringResolver resolver;
+
+    private final IntIntMap slots;
+
+    private final int[] ids;
+
+    private final String[] strings;
+
+    private final int[] newer;
+
+    private final int[] older;
+
+    private int size;
+
+    private int newest = NONE;
+
+    private int oldest = NONE;
+
+    private final StringBuilder builder = new StringBuilder(64);
+
+    private Locale locale;
+
+    private Formatter formatter;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long invalidations;
+
+    public StringCache(StringResolver resolver, int maxSize, Locale locale) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize < 1: " + maxSize);
+        }
+        if (locale == null) {
+            throw new NullPointerException("locale == null");
+        }
+        this.resolver = resolver;
+        this.slots = new IntIntMap(maxSize);
+        this.ids = new int[maxSize];
+        this.strings = new String[maxSize];
+        this.newer = new int[maxSize];
+        this.older = new int[maxSize];
+        this.locale = locale;
+        this.formatter = new Formatter(builder, locale);
+    }
+
+    /**
+     * Returns string for {@code stringRes}, resolving it only if it is not cached.
+     */
+    public String getString(int stringRes) {
+        int index = slots.indexOf(stringRes);
+        if (index >= 0) {
+            hits++;
+            int slot = slots.valueAt(index);
+            moveToNewest(slot);
+            return strings[slot];
+        }
+        misses++;
+        String string = resolver.resolveString(stringRes);
+        put(stringRes, string);
+        return string;
+    }
+
+    /**
+     * Returns string for {@code stringRes} formatted with {@code args}, the same as
+     * {@code String.format(locale, getString(stringRes), args)}.
+     */
+    public String getString(int stringRes, Object... args) {
+        String format = getString(stringRes);
+        builder.setLength(0);
+        formatter.format(format, args);
+        return builder.toString();
+    }
+
+    /**
+     * Forgets every resolved string. Call when theme or resources change without
+     * a configuration change.
+     */
+    public void invalidate() {
+        slots.clear();
+        Arrays.fill(strings, 0, size, null);
+        size = 0;
+        newest = NONE;
+        oldest = NONE;
+        invalidations++;
+    }
+
+    /**
+     * Forgets every resolved string and formats with {@code locale} from now on.
+     * Call when configuration changes.
+     */
+    public void invalidate(Locale locale) {
+        if (locale == null) {
+            throw new NullPointerException("locale == null");
+        }
+        if (!locale.equals(this.locale)) {
+            this.locale = locale;
+            this.formatter = new Formatter(builder, locale);
+        }
+        invalidate();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int maxSize() {
+        return ids.length;
+    }
+
+    public long hitCount() {
+        return hits;
+    }
+
+    public long missCount() {
+        return misses;
+    }
+
+    public long evictionCount() {
+        return evictions;
+    }
+
+    public long invalidationCount() {
+        return invalidations;
+    }
+
+    private void put(int stringRes, String string) {
+        int slot;
+        if (size < ids.length) {
+            slot = size++;
+        } else {
+            slot = oldest;
+            unlink(slot);
+            slots.remove(ids[slot]);
+            evictions++;
+        }
+        ids[slot] = stringRes;
+        strings[slot] = string;
+        slots.put(stringRes, slot);
+        linkNewest(slot);
+    }
+
+    private void moveToNewest(int slot) {
+        if (slot != newest) {
+            unlink(slot);
+            linkNewest(slot);
+        }
+    }
+
+    private void linkNewest(int slot) {
+        older[slot] = newest;
+        newer[slot] = NONE;
+        if (newest != NONE) {
+            newer[newest] = slot;
+        } else {
+            oldest = slot;
+        }
+        newest = slot;
+    }
+
+    private void unlink(int slot) {
+        int newerSlot = newer[slot];
+        int olderSlot = older[slot];
+        if (newerSlot != NONE) {
+            older[newerSlot] = olderSlot;
+        } else {
+            newest = olderSlot;
+        }
+        if (olderSlot != NONE) {
+            newer[olderSlot] = newerSlot;
+        } else {
+            oldest = newerSlot;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StringCache{size=" + size + ", maxSize=" + ids.length + ", hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + ", invalidations=" + invalidations + "}";
+    }
+}
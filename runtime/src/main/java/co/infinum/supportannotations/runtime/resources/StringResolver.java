@@ -0,0 +1,10 @@
+package co.infinum.supportannotations.runtime.resources;
+
+/**
+ * Resolves a string resource into a string. On Android, this is
+ * {@code context.getString(stringRes)}.
+ */
+public interface StringResolver {
+
+    String resolveString(int stringRes);
+}
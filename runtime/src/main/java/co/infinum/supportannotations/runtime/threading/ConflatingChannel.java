@@ -0,0 +1,136 @@
+package co.infinum.supportannotations.runtime.threading;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers values sent from any number of threads to a single {@code @MainThread}
+ * receiver, coalescing values sent between two deliveries. Posting every progress
+ * update, as {@code AsyncTask.publishProgress} does, floods the main looper with
+ * messages which are stale by the time they run. This channel keeps only the
+ * pending value and schedules at most one delivery at a time.
+ * <br /><br />
+ * Pending value is either replaced by every new value ({@link #latestWins(Executor, Receiver)}),
+ * or combined with it ({@link #merging(Executor, Merger, Receiver)}), for example to sum
+ * up byte counts. Deliveries run on {@code executor}. On Android, an executor which posts
+ * a {@code Choreographer} frame callback delivers at most once per frame.
+ * <br /><br />
+ * Sending takes no lock. A value sent while a delivery runs is delivered by the next one.
+ */
+public final class ConflatingChannel<T> {
+
+    private static final Object EMPTY = new Object();
+
+    /**
+     * Receives coalesced values, on the thread of the delivery executor.
+     */
+    public interface Receiver<T> {
+
+        void onReceive(T value);
+    }
+
+    /**
+     * Combines pending value with a newly sent one. Can be called concurrently
+     * and more than once for the same pair, so it must not have side effects.
+     */
+    public interface Merger<T> {
+
+        T merge(T pending, T value);
+    }
+
+    private final Executor executor;
+
+    private final Merger<T> merger;
+
+    private final Receiver<T> receiver;
+
+    private final AtomicReference<Object> pending = new AtomicReference<>(EMPTY);
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final AtomicLong deliveries = new AtomicLong();
+
+    private final Runnable deliver = new Runnable() {
+        @Override
+        public void run() {
+            deliver();
+        }
+    };
+
+    private ConflatingChannel(Executor executor, Merger<T> merger, Receiver<T> receiver) {
+        if (executor == null) {
+            throw new NullPointerException("executor == null");
+        }
+        if (receiver == null) {
+            throw new NullPointerException("receiver == null");
+        }
+        this.executor = executor;
+        this.merger = merger;
+        this.receiver = receiver;
+    }
+
+    /**
+     * Creates channel which delivers only the latest value sent since the previous delivery.
+     */
+    public static <T> ConflatingChannel<T> latestWins(Executor executor, Receiver<T> receiver) {
+        return new ConflatingChannel<>(executor, null, receiver);
+    }
+
+    /**
+     * Creates channel which merges every value sent since the previous delivery into one.
+     */
+    public static <T> ConflatingChannel<T> merging(Executor executor, Merger<T> merger, Receiver<T> receiver) {
+        if (merger == null) {
+            throw new NullPointerException("merger == null");
+        }
+        return new ConflatingChannel<>(executor, merger, receiver);
+    }
+
+    /**
+     * Sends {@code value} from any thread. Schedules a delivery, unless one is already scheduled.
+     */
+    public void send(T value) {
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        if (merger == null) {
+            pending.set(value);
+        } else {
+            while (true) {
+                Object current = pending.get();
+                Object next = current == EMPTY ? value : merger.merge(cast(current), value);
+                if (pending.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+        }
+        if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+            executor.execute(deliver);
+        }
+    }
+
+    /**
+     * Returns how many values were delivered. Every delivery is a single message
+     * on the delivery executor, no matter how many values were sent before it.
+     */
+    public long deliveryCount() {
+        return deliveries.get();
+    }
+
+    private void deliver() {
+        // cleared first, so a value sent after the value is taken schedules another delivery
+        scheduled.set(false);
+        Object value = pending.getAndSet(EMPTY);
+        if (value != EMPTY) {
+            deliveries.incrementAndGet();
+            receiver.onReceive(this.<T>cast(value));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object value) {
+        return (T) value;
+    }
+}
@@ -0,0 +1,24 @@
+package co.infinum.supportannotations.runtime.threading;
+
+/**
+ * Default {@link ThreadOracle} which recognizes threads by their names.
+ * Android names its main thread {@code main} and its binder pool threads
+ * {@code Binder_N} (or {@code Binder:pid_N} on newer versions), so no
+ * Android classes are required to tell them apart.
+ */
+public final class NamedThreadOracle implements ThreadOracle {
+
+    private static final String MAIN_THREAD_NAME = "main";
+
+    private static final String BINDER_THREAD_PREFIX = "Binder";
+
+    @Override
+    public boolean isMainThread() {
+        return MAIN_THREAD_NAME.equals(Thread.currentThread().getName());
+    }
+
+    @Override
+    public boolean isBinderThread() {
+        return Thread.currentThread().getName().startsWith(BINDER_THREAD_PREFIX);
+    }
+}
@@ -0,0 +1,113 @@
+package co.infinum.supportannotations.runtime.threading;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs work one at a time, in submission order, on worker threads of a {@link WorkerDispatcher}.
+ * An object which is touched only from its own lane is confined to it: every access
+ * happens-before the next one, even when they run on different threads, so the object
+ * needs no locks. This is how {@code @WorkerThread} types are meant to be used, with
+ * the generated {@code Confined} class calling every method through the lane.
+ * <br /><br />
+ * Lane owns no thread. While it has work, a single batch of it is queued on the dispatcher,
+ * and the batch queues itself again if more work arrives, so tens of thousands of lanes
+ * share the same few threads. A batch runs at most {@value #BATCH_SIZE} runnables, so a busy
+ * lane does not starve the others.
+ * <br /><br />
+ * Exception thrown by a runnable passed to {@link #execute(Runnable)} goes to the uncaught
+ * exception handler of the worker thread, and the lane carries on with the next runnable.
+ * Work submitted with {@code submit} completes its {@link Future} with the exception instead.
+ */
+public final class SerialLane implements Executor {
+
+    static final int BATCH_SIZE = 64;
+
+    private static final ThreadLocal<SerialLane> CURRENT = new ThreadLocal<>();
+
+    private final WorkerDispatcher dispatcher;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Runnable batch = new Runnable() {
+        @Override
+        public void run() {
+            runBatch();
+        }
+    };
+
+    SerialLane(WorkerDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void execute(Runnable work) {
+        if (work == null) {
+            throw new NullPointerException("work == null");
+        }
+        queue.add(work);
+        schedule();
+    }
+
+    public <T> Future<T> submit(Callable<T> work) {
+        return submit(work, null);
+    }
+
+    /**
+     * Runs {@code work} on this lane and passes its result to {@code callback}, if not {@code null}.
+     * Callback of work submitted from the main thread runs on the main thread, and on
+     * this lane, right after the work, otherwise.
+     */
+    public <T> Future<T> submit(Callable<T> work, WorkerDispatcher.Callback<? super T> callback) {
+        return dispatcher.newLaneTask(this, work, callback);
+    }
+
+    /**
+     * Returns {@code true} if called from work running on this lane.
+     */
+    public boolean isCurrent() {
+        return CURRENT.get() == this;
+    }
+
+    private void schedule() {
+        if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+            dispatcher.schedule(batch);
+        }
+    }
+
+    private void runBatch() {
+        CURRENT.set(this);
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable work = queue.poll();
+                if (work == null) {
+                    break;
+                }
+                try {
+                    work.run();
+                } catch (Throwable e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        } finally {
+            CURRENT.set(null);
+            // cleared first, so work added after the last poll schedules another batch
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SerialLane{queued=" + queue.size() + ", scheduled=" + scheduled + "}";
+    }
+}
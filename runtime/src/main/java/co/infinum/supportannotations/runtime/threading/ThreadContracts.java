@@ -0,0 +1,92 @@
+package co.infinum.supportannotations.runtime.threading;
+
+import co.infinum.supportannotations.runtime.validation.ContractSampler;
+
+/**
+ * Runtime counterpart of {@code @MainThread}, {@code @UiThread}, {@code @WorkerThread}
+ * and {@code @BinderThread} annotations. Tooling checks these annotations only
+ * where it can follow the call, so a call from an {@code AsyncTask} or a callback
+ * slips through. Each check throws {@link IllegalStateException} if the calling
+ * thread breaks the contract, and counts the violation with {@link ContractSampler}.
+ * Checks take the {@link ContractSampler} site of the checked method, usually a constant
+ * of a generated class such as {@code UtilitySampleSites}, and name the method in the
+ * message with the name the site was registered with.
+ * <br /><br />
+ * Checks should be guarded at the call site with a {@code static final boolean},
+ * usually a {@code BuildConfig} field. When the flag is {@code false}, compiler
+ * removes the whole branch and disabled checks cost nothing:
+ * <pre>
+ * if (BuildConfig.ENFORCE_THREAD_CONTRACTS) {
+ *     ThreadContracts.checkMainThread(UtilitySampleSites.ON_MAIN_THREAD);
+ * }
+ * </pre>
+ */
+public final class ThreadContracts {
+
+    private static volatile ThreadOracle oracle = new NamedThreadOracle();
+
+    private ThreadContracts() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Replaces the {@link ThreadOracle} used to recognize threads.
+     * By default, {@link NamedThreadOracle} is used.
+     */
+    public static void install(ThreadOracle threadOracle) {
+        if (threadOracle == null) {
+            throw new NullPointerException("threadOracle == null");
+        }
+        oracle = threadOracle;
+    }
+
+    /**
+     * Returns currently installed {@link ThreadOracle}.
+     */
+    public static ThreadOracle oracle() {
+        return oracle;
+    }
+
+    /**
+     * Runtime check for {@code @MainThread}. Throws if caller is not on the main thread.
+     */
+    public static void checkMainThread(int site) {
+        if (!oracle.isMainThread()) {
+            throw violation(site, "must be called from the main thread");
+        }
+    }
+
+    /**
+     * Runtime check for {@code @UiThread}. Main and UI thread are the same thread
+     * in all but multi window cases, so this check works like {@link #checkMainThread(int)}.
+     */
+    public static void checkUiThread(int site) {
+        if (!oracle.isMainThread()) {
+            throw violation(site, "must be called from the UI thread");
+        }
+    }
+
+    /**
+     * Runtime check for {@code @WorkerThread}. Throws if caller is on the main thread.
+     */
+    public static void checkWorkerThread(int site) {
+        if (oracle.isMainThread()) {
+            throw violation(site, "must not be called from the main thread");
+        }
+    }
+
+    /**
+     * Runtime check for {@code @BinderThread}. Throws if caller is not on a binder thread.
+     */
+    public static void checkBinderThread(int site) {
+        if (!oracle.isBinderThread()) {
+            throw violation(site, "must be called from a binder thread");
+        }
+    }
+
+    private static IllegalStateException violation(int site, String rule) {
+        ContractSampler.violated(site);
+        return new IllegalStateException(ContractSampler.method(site) + " " + rule + ", but was called from "
+                + Thread.currentThread().getName());
+    }
+}
@@ -0,0 +1,22 @@
+package co.infinum.supportannotations.runtime.threading;
+
+/**
+ * Tells {@link ThreadContracts} what kind of thread the caller is on.
+ * Android implementation would ask the {@code Looper}, while tests
+ * on the plain JVM can simply decide which thread plays the main thread.
+ */
+public interface ThreadOracle {
+
+    /**
+     * Returns {@code true} if the current thread is the main thread.
+     * Main and UI thread are treated as the same thread, which is
+     * true for almost every application.
+     */
+    boolean isMainThread();
+
+    /**
+     * Returns {@code true} if the current thread is one of the
+     * binder threads serving incoming IPC calls.
+     */
+    boolean isBinderThread();
+}
@@ -0,0 +1,320 @@
+package co.infinum.supportannotations.runtime.threading;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs work meant for {@code @WorkerThread} methods off the main thread. Work submitted
+ * from the main thread goes to a pool of worker threads, while work submitted from any
+ * other thread is already off the main thread, so it runs inline, without a hop
+ * through the queue.
+ * <br /><br />
+ * Pool has one thread per core, which time out when idle. Queued work runs by
+ * {@code priority}, higher first, and in submission order within the same priority.
+ * Every {@link Future} and {@link Callback} is completed once the work is done.
+ * A callback runs on the thread which submitted the work: through the main thread
+ * executor for work submitted from the main thread, and inline for work which ran inline.
+ * <br /><br />
+ * On Android, main thread executor posts to a {@code Handler} of the main looper. On
+ * the plain JVM, tests can pass an executor which they drain themselves, together
+ * with a {@link ThreadOracle} which picks the thread playing the main thread.
+ * <br /><br />
+ * Objects which are not thread safe can be confined to a {@link SerialLane}, see {@link #newLane()}.
+ */
+public final class WorkerDispatcher {
+
+    public static final int MIN_PRIORITY = -10;
+
+    public static final int NORM_PRIORITY = 0;
+
+    public static final int MAX_PRIORITY = 10;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Receives result of work, on the thread which submitted it.
+     */
+    public interface Callback<T> {
+
+        void onResult(T result);
+
+        void onError(Throwable error);
+    }
+
+    private final ThreadOracle oracle;
+
+    private final Executor mainThread;
+
+    private final ThreadPoolExecutor pool;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong queuedCount = new AtomicLong();
+
+    private final AtomicLong inlineCount = new AtomicLong();
+
+    private final AtomicLong startedCount = new AtomicLong();
+
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates dispatcher with one worker thread per core, which recognizes
+     * the main thread with oracle installed into {@link ThreadContracts}.
+     */
+    public WorkerDispatcher(Executor mainThread) {
+        this(ThreadContracts.oracle(), mainThread, Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorkerDispatcher(ThreadOracle oracle, Executor mainThread, int threads) {
+        if (oracle == null) {
+            throw new NullPointerException("oracle == null");
+        }
+        if (mainThread == null) {
+            throw new NullPointerException("mainThread == null");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads < 1: " + threads);
+        }
+        this.oracle = oracle;
+        this.mainThread = mainThread;
+        this.pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new WorkerThreadFactory());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> Future<T> submit(Callable<T> work) {
+        return submit(NORM_PRIORITY, work, null);
+    }
+
+    public <T> Future<T> submit(int priority, Callable<T> work) {
+        return submit(priority, work, null);
+    }
+
+    public Future<?> submit(int priority, Runnable work) {
+        return submit(priority, new RunnableCallable(work), null);
+    }
+
+    /**
+     * Runs {@code work} off the main thread and passes its result to {@code callback},
+     * if not {@code null}, on the thread which called this method.
+     */
+    public <T> Future<T> submit(int priority, Callable<T> work, Callback<? super T> callback) {
+        if (work == null) {
+            throw new NullPointerException("work == null");
+        }
+        if (!oracle.isMainThread()) {
+            inlineCount.incrementAndGet();
+            Task<T> task = new Task<>(work, callback, false, false, priority, 0);
+            task.run();
+            return task;
+        }
+        Task<T> task = new Task<>(work, callback, true, true, priority, sequence.getAndIncrement());
+        pool.execute(task);
+        queuedCount.incrementAndGet(); // after execute, which rejects work once shut down
+        return task;
+    }
+
+    /**
+     * Creates a lane which runs its work one at a time, in order, on threads of this
+     * dispatcher. Lanes are cheap, so every confined object can have its own.
+     */
+    public SerialLane newLane() {
+        return new SerialLane(this);
+    }
+
+    /**
+     * Creates task of {@code lane}, with callback delivered like for work submitted to this dispatcher.
+     */
+    <T> Future<T> newLaneTask(SerialLane lane, Callable<T> work, Callback<? super T> callback) {
+        if (work == null) {
+            throw new NullPointerException("work == null");
+        }
+        Task<T> task = new Task<>(work, callback, oracle.isMainThread(), false, NORM_PRIORITY, 0);
+        lane.execute(task);
+        return task;
+    }
+
+    /**
+     * Queues a batch of lane work, without the inline shortcut, so the lane never runs on the caller.
+     */
+    void schedule(Runnable batch) {
+        pool.execute(new Task<>(new RunnableCallable(batch), null, false, true, NORM_PRIORITY,
+                sequence.getAndIncrement()));
+    }
+
+    /**
+     * Returns number of queued tasks which did not start yet.
+     */
+    public int queueDepth() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Returns number of tasks submitted from the main thread, and queued.
+     */
+    public long queuedCount() {
+        return queuedCount.get();
+    }
+
+    /**
+     * Returns number of tasks submitted off the main thread, and run inline.
+     */
+    public long inlineCount() {
+        return inlineCount.get();
+    }
+
+    /**
+     * Returns average time queued tasks waited for a worker, in nanoseconds.
+     */
+    public long averageWaitNanos() {
+        long started = startedCount.get();
+        return started == 0 ? 0 : totalWaitNanos.get() / started;
+    }
+
+    /**
+     * Returns the longest time a queued task waited for a worker, in nanoseconds.
+     */
+    public long maxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    /**
+     * Stops accepting work. Queued work still runs.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerDispatcher{threads=" + pool.getMaximumPoolSize() + ", queueDepth=" + queueDepth()
+                + ", queued=" + queuedCount + ", inline=" + inlineCount + ", averageWaitNanos=" + averageWaitNanos()
+                + ", maxWaitNanos=" + maxWaitNanos + "}";
+    }
+
+    private void waited(long nanos) {
+        startedCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        long max = maxWaitNanos.get();
+        while (nanos > max && !maxWaitNanos.compareAndSet(max, nanos)) {
+            max = maxWaitNanos.get();
+        }
+    }
+
+    private final class Task<T> extends FutureTask<T> implements Comparable<Task<?>> {
+
+        private final Callback<? super T> callback;
+
+        private final boolean fromMain;
+
+        private final boolean queued;
+
+        private final int priority;
+
+        private final long sequence;
+
+        private final long queuedAt;
+
+        Task(Callable<T> work, Callback<? super T> callback, boolean fromMain, boolean queued, int priority,
+                long sequence) {
+            super(work);
+            this.callback = callback;
+            this.fromMain = fromMain;
+            this.queued = queued;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.queuedAt = queued ? System.nanoTime() : 0;
+        }
+
+        @Override
+        public void run() {
+            if (queued) {
+                waited(System.nanoTime() - queuedAt);
+            }
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            if (callback == null || isCancelled()) {
+                return;
+            }
+            if (!fromMain) {
+                deliver();
+            } else {
+                mainThread.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        deliver();
+                    }
+                });
+            }
+        }
+
+        private void deliver() {
+            T result;
+            try {
+                result = get();
+            } catch (ExecutionException e) {
+                callback.onError(e.getCause());
+                return;
+            } catch (InterruptedException e) {
+                throw new AssertionError(e); // done, so get() does not block
+            }
+            callback.onResult(result);
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    private static final class RunnableCallable implements Callable<Object> {
+
+        private final Runnable work;
+
+        RunnableCallable(Runnable work) {
+            if (work == null) {
+                throw new NullPointerException("work == null");
+            }
+            this.work = work;
+        }
+
+        @Override
+        public Object call() {
+            work.run();
+            return null;
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package co.infinum.supportannotations.runtime.timing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times {@code @MainThread} and {@code @UiThread} methods against the frame budget. Main
+ * thread draws a frame every 16ms, so a single call which takes longer drops a frame.
+ * Every timed method is a call site, registered once, usually from a generated class
+ * such as {@code UtilityCallSites}. Its durations are recorded into a {@link LatencyHistogram},
+ * and calls over the budget are counted and passed to the installed {@link Listener}.
+ * <br /><br />
+ * Like thread checks, timing should be guarded at the call site with a {@code static final
+ * boolean}, so it costs nothing when disabled:
+ * <pre>
+ * long start = BuildConfig.MEASURE_FRAME_BUDGET ? FrameBudget.start() : 0;
+ * ...
+ * if (BuildConfig.MEASURE_FRAME_BUDGET) {
+ *     FrameBudget.end(UtilityCallSites.ON_MAIN_THREAD, start);
+ * }
+ * </pre>
+ * When enabled, a call costs two clock reads and a histogram increment. Histograms are meant
+ * for the main thread, so calls from other threads, which break the contract anyway, may lose counts.
+ */
+public final class FrameBudget {
+
+    public static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+
+    /**
+     * Notified on the calling thread about every call over the budget.
+     */
+    public interface Listener {
+
+        void onOverBudget(String method, long nanos);
+    }
+
+    private static final Object LOCK = new Object();
+
+    private static volatile Site[] sites = new Site[0];
+
+    private static volatile long budgetNanos = DEFAULT_BUDGET_NANOS;
+
+    private static volatile Listener listener;
+
+    private FrameBudget() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Registers a call site and returns its id, to pass to {@link #end(int, long)}.
+     */
+    public static int register(String method) {
+        if (method == null) {
+            throw new NullPointerException("method == null");
+        }
+        synchronized (LOCK) {
+            Site[] current = sites;
+            Site[] updated = new Site[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = new Site(method);
+            sites = updated;
+            return current.length;
+        }
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the duration of a call to {@code site} which started at {@code start}.
+     */
+    public static void end(int site, long start) {
+        long nanos = System.nanoTime() - start;
+        Site timed = sites[site];
+        timed.histogram.record(nanos);
+        if (nanos > budgetNanos) {
+            timed.overBudget++;
+            Listener current = listener;
+            if (current != null) {
+                current.onOverBudget(timed.method, nanos);
+            }
+        }
+    }
+
+    /**
+     * Sets the longest duration of a call which is not reported, {@link #DEFAULT_BUDGET_NANOS} by default.
+     */
+    public static void setBudget(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("duration < 0: " + duration);
+        }
+        budgetNanos = unit.toNanos(duration);
+    }
+
+    public static long budgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Installs {@code listener} for calls over the budget, or removes it if {@code null}.
+     */
+    public static void setListener(Listener budgetListener) {
+        listener = budgetListener;
+    }
+
+    public static int siteCount() {
+        return sites.length;
+    }
+
+    public static String method(int site) {
+        return sites[site].method;
+    }
+
+    public static LatencyHistogram histogram(int site) {
+        return sites[site].histogram;
+    }
+
+    public static long overBudgetCount(int site) {
+        return sites[site].overBudget;
+    }
+
+    /**
+     * Forgets recorded durations of every call site. Sites stay registered.
+     */
+    public static void reset() {
+        for (Site site : sites) {
+            site.histogram.reset();
+            site.overBudget = 0;
+        }
+    }
+
+    /**
+     * Returns one line per call site which was called, with its slowest sites first.
+     */
+    public static String report() {
+        Site[] current = sites.clone();
+        Arrays.sort(current, new Comparator<Site>() {
+            @Override
+            public int compare(Site first, Site second) {
+                long a = first.histogram.maxNanos();
+                long b = second.histogram.maxNanos();
+                return a > b ? -1 : (a == b ? 0 : 1);
+            }
+        });
+        StringBuilder report = new StringBuilder();
+        for (Site site : current) {
+            if (site.histogram.count() > 0) {
+                report.append(site.method).append(": ").append(site.histogram)
+                        .append(", over budget ").append(site.overBudget).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    private static final class Site {
+
+        final String method;
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        long overBudget;
+
+        Site(String method) {
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package co.infinum.supportannotations.runtime.timing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts durations in log-linear buckets, like an HDR histogram: every power of two is split
+ * into {@value #SUB_BUCKETS} buckets of equal width, so any duration, from a nanosecond to
+ * hundreds of years, lands in one of {@value #BUCKETS} buckets, which is at most 12.5%
+ * wider than its lowest value. Recording is a few shifts and an array increment.
+ * <br /><br />
+ * Histogram has a single writer, usually the main thread, and is not synchronized. It can
+ * be read from other threads, but a read may miss the latest recorded durations.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 3;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[BUCKETS];
+
+    private long count;
+
+    private long totalNanos;
+
+    private long maxNanos;
+
+    /**
+     * Records a duration. Negative durations are recorded as zero.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[index(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long maxNanos() {
+        return maxNanos;
+    }
+
+    public long averageNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Returns duration which {@code percentile} percent of recorded durations do not exceed,
+     * rounded up to the highest value of its bucket, but never above the longest duration.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile not in [0, 100]: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValue(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + count + ", p50=" + micros(valueAtPercentile(50))
+                + "us, p99=" + micros(valueAtPercentile(99)) + "us, max=" + micros(maxNanos) + "us}";
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) | (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return (long) (SUB_BUCKETS | (index & (SUB_BUCKETS - 1))) << shift;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
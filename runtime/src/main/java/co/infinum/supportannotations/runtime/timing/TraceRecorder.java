@@ -0,0 +1,344 @@
+package co.infinum.supportannotations.runtime.timing;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records entry and exit of methods with thread annotations into a timeline, which shows
+ * what every thread was running and when. Timeline is written in the Chrome trace event
+ * format, see {@link #writeChromeTrace(Appendable)}, which {@code chrome://tracing} and
+ * Perfetto open, with one row per thread and the thread annotation as the event category.
+ * Timestamps are in microseconds since the recorder was first used.
+ * <br /><br />
+ * Every thread records into its own ring buffer, preallocated on its first event, so
+ * recording takes no lock and allocates nothing. Once a buffer is full, the oldest events
+ * are overwritten. Buffers of threads which died are kept until their events are written once,
+ * or cleared. At most {@link #setMaxThreads(int) max threads} have a buffer at once, and once
+ * they all do, the oldest buffer of a dead thread is dropped, events unwritten or not, to make room
+ * for a new thread. While every buffered thread is alive, events of new threads are not recorded,
+ * so pools which keep replacing their threads, such as {@code AsyncTask}, cannot grow the recorder.
+ * <br /><br />
+ * Like frame budget timing, recording should be guarded at the call site with a
+ * {@code static final boolean}, so it costs nothing when disabled:
+ * <pre>
+ * if (BuildConfig.RECORD_TRACES) {
+ *     TraceRecorder.enter(UtilityTraceSites.ON_MAIN_THREAD);
+ * }
+ * </pre>
+ */
+public final class TraceRecorder {
+
+    public static final int DEFAULT_BUFFER_CAPACITY = 8192;
+
+    public static final int DEFAULT_MAX_THREADS = 64;
+
+    private static final int EXIT = 1;
+
+    /**
+     * Time the recorder was first used, which timestamps are written relative to, since
+     * {@link System#nanoTime()} has an arbitrary origin and may be negative.
+     */
+    private static final long ORIGIN = System.nanoTime();
+
+    private static final Object LOCK = new Object();
+
+    private static volatile String[] methods = new String[0];
+
+    private static volatile String[] categories = new String[0];
+
+    private static volatile int bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+
+    private static volatile int maxThreads = DEFAULT_MAX_THREADS;
+
+    private static final List<Buffer> BUFFERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Shared by threads which found no room for a buffer of their own. Nobody reads it, so writes may race.
+     */
+    private static final Buffer DISCARDED = new Buffer(null, 1);
+
+    private static final ThreadLocal<Buffer> CURRENT = new ThreadLocal<Buffer>() {
+        @Override
+        protected Buffer initialValue() {
+            synchronized (LOCK) {
+                if (BUFFERS.size() >= maxThreads) {
+                    dropOldestDead(BUFFERS.size() - maxThreads + 1);
+                }
+                if (BUFFERS.size() >= maxThreads) {
+                    return DISCARDED;
+                }
+                Buffer buffer = new Buffer(Thread.currentThread(), bufferCapacity);
+                BUFFERS.add(buffer);
+                return buffer;
+            }
+        }
+    };
+
+    private TraceRecorder() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Registers a traced method and returns its id, to pass to {@link #enter(int)} and {@link #exit(int)}.
+     *
+     * @param category name of the thread annotation, such as {@code MainThread}
+     */
+    public static int register(String method, String category) {
+        if (method == null) {
+            throw new NullPointerException("method == null");
+        }
+        if (category == null) {
+            throw new NullPointerException("category == null");
+        }
+        synchronized (LOCK) {
+            int site = methods.length;
+            String[] updatedCategories = new String[site + 1];
+            System.arraycopy(categories, 0, updatedCategories, 0, site);
+            updatedCategories[site] = category;
+            String[] updatedMethods = new String[site + 1];
+            System.arraycopy(methods, 0, updatedMethods, 0, site);
+            updatedMethods[site] = method;
+            categories = updatedCategories;
+            methods = updatedMethods; // written last, readers read it first
+            return site;
+        }
+    }
+
+    public static void enter(int site) {
+        CURRENT.get().add(System.nanoTime(), site << 1);
+    }
+
+    public static void exit(int site) {
+        CURRENT.get().add(System.nanoTime(), site << 1 | EXIT);
+    }
+
+    /**
+     * Sets the number of events kept per thread, {@link #DEFAULT_BUFFER_CAPACITY} by default,
+     * rounded up to a power of two. Only threads which did not record yet are affected.
+     */
+    public static void setBufferCapacity(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity not in [1, 2^30]: " + capacity);
+        }
+        bufferCapacity = capacity;
+    }
+
+    /**
+     * Sets the most threads which have a buffer at once, {@link #DEFAULT_MAX_THREADS} by default.
+     * Threads which already have a buffer keep it.
+     */
+    public static void setMaxThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads < 1: " + threads);
+        }
+        maxThreads = threads;
+    }
+
+    /**
+     * Forgets events recorded so far, on every thread, and buffers of threads which died.
+     */
+    public static void clear() {
+        for (Buffer buffer : BUFFERS) {
+            buffer.clear();
+        }
+        synchronized (LOCK) {
+            dropOldestDead(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Writes events recorded so far as a Chrome trace event JSON object. Threads keep
+     * recording while events are written, and events they overwrite in the meantime are left out.
+     * Buffers of threads which died are dropped once written.
+     */
+    public static void writeChromeTrace(Appendable out) throws IOException {
+        out.append("{\"traceEvents\":[");
+        boolean first = true;
+        for (Buffer buffer : BUFFERS) {
+            boolean dead = buffer.isDead(); // checked first, so a dead thread recorded nothing after the snapshot
+            if (!first) {
+                out.append(",\n");
+            }
+            first = false;
+            out.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(Long.toString(buffer.tid))
+                    .append(",\"args\":{\"name\":");
+            appendString(out, buffer.threadName);
+            out.append("}}");
+
+            Snapshot snapshot = buffer.snapshot();
+            // read after the snapshot, so they cover every site in it
+            String[] siteMethods = methods;
+            String[] siteCategories = categories;
+            for (int i = 0; i < snapshot.size; i++) {
+                int event = snapshot.events[i];
+                int site = event >>> 1;
+                out.append(",\n{\"name\":");
+                appendString(out, siteMethods[site]);
+                out.append(",\"cat\":");
+                appendString(out, siteCategories[site]);
+                out.append(",\"ph\":\"").append((event & EXIT) == 0 ? 'B' : 'E')
+                        .append("\",\"pid\":1,\"tid\":").append(Long.toString(buffer.tid))
+                        .append(",\"ts\":");
+                appendMicros(out, snapshot.timestamps[i] - ORIGIN);
+                out.append('}');
+            }
+            if (dead) {
+                BUFFERS.remove(buffer);
+            }
+        }
+        out.append("]}\n");
+    }
+
+    /**
+     * Returns the total number of events recorded on every thread which has a buffer, including overwritten ones.
+     */
+    public static long recordedCount() {
+        long recorded = 0;
+        for (Buffer buffer : BUFFERS) {
+            recorded += buffer.written.get();
+        }
+        return recorded;
+    }
+
+    /**
+     * Returns the number of threads which have a buffer, alive or not.
+     */
+    static int bufferCount() {
+        return BUFFERS.size();
+    }
+
+    /**
+     * Drops up to {@code count} buffers of threads which died, oldest first. Called with {@link #LOCK} held.
+     */
+    private static void dropOldestDead(int count) {
+        for (Buffer buffer : BUFFERS) {
+            if (count == 0) {
+                return;
+            }
+            if (buffer.isDead()) {
+                BUFFERS.remove(buffer);
+                count--;
+            }
+        }
+    }
+
+    private static void appendMicros(Appendable out, long nanos) throws IOException {
+        out.append(Long.toString(nanos / 1000)).append('.');
+        String fraction = Long.toString(nanos % 1000 + 1000); // relative to ORIGIN, so never negative
+        out.append(fraction, 1, 4);
+    }
+
+    private static void appendString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < ' ') {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Ring buffer of a single thread. Only the owner thread writes events. It publishes
+     * them by an ordered write of {@code written}, so a reader which reads {@code written}
+     * sees every event before it, unless it was overwritten since.
+     */
+    private static final class Buffer {
+
+        /**
+         * Weak, so a buffer does not keep its thread from being collected.
+         */
+        final WeakReference<Thread> thread;
+
+        final long tid;
+
+        final String threadName;
+
+        final long[] timestamps;
+
+        final int[] events;
+
+        final int mask;
+
+        final AtomicLong written = new AtomicLong();
+
+        volatile long clearedAt;
+
+        Buffer(Thread thread, int capacity) {
+            this.thread = new WeakReference<>(thread);
+            this.tid = thread != null ? thread.getId() : -1;
+            this.threadName = thread != null ? thread.getName() : "";
+            int size = Integer.highestOneBit(capacity);
+            size = size < capacity ? size << 1 : size;
+            this.timestamps = new long[size];
+            this.events = new int[size];
+            this.mask = size - 1;
+        }
+
+        void add(long timestamp, int event) {
+            long position = written.get();
+            int index = (int) position & mask;
+            timestamps[index] = timestamp;
+            events[index] = event;
+            written.lazySet(position + 1);
+        }
+
+        void clear() {
+            clearedAt = written.get();
+        }
+
+        boolean isDead() {
+            Thread owner = thread.get();
+            return owner == null || !owner.isAlive();
+        }
+
+        Snapshot snapshot() {
+            long end = written.get();
+            // the slot after the newest event may be half written, so one event less than fits is kept
+            long start = Math.max(clearedAt, end - events.length + 1);
+            int size = (int) (end - start);
+            Snapshot snapshot = new Snapshot(size);
+            for (int i = 0; i < size; i++) {
+                int index = (int) (start + i) & mask;
+                snapshot.timestamps[i] = timestamps[index];
+                snapshot.events[i] = events[index];
+            }
+            // events the owner overwrote while they were copied are dropped
+            long overwritten = written.get() + 1 - events.length - start;
+            snapshot.dropFirst((int) Math.max(0, Math.min(size, overwritten)));
+            return snapshot;
+        }
+    }
+
+    private static final class Snapshot {
+
+        final long[] timestamps;
+
+        final int[] events;
+
+        int size;
+
+        Snapshot(int size) {
+            this.timestamps = new long[size];
+            this.events = new int[size];
+            this.size = size;
+        }
+
+        void dropFirst(int count) {
+            if (count == 0) {
+                return;
+            }
+            size -= count;
+            System.arraycopy(timestamps, count, timestamps, 0, size);
+            System.arraycopy(events, count, events, 0, size);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Validates whole arrays and buffers against {@code @IntRange} and {@code @FloatRange}
+ * in a single pass, instead of calling a validated method once per element.
+ * <br /><br />
+ * Values are scanned in blocks. Inner loop over a block has no branches and
+ * only accumulates whether anything in the block is out of range, which
+ * lets the JIT unroll and vectorize it. Only a block which contains an
+ * offending value is scanned again to find exact indices.
+ */
+public final class BulkRanges {
+
+    /**
+     * Returned from {@code firstOutOfRange} methods when every value is in range.
+     */
+    public static final int NOT_FOUND = -1;
+
+    private static final int BLOCK = 256;
+
+    private BulkRanges() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    //region int
+
+    public static int firstOutOfRange(int[] values, IntRangeSpec range) {
+        return firstOutOfRange(values, 0, values.length, range);
+    }
+
+    /**
+     * Returns index of the first value in {@code values[offset, offset + length)}
+     * which is out of {@code range}, or {@link #NOT_FOUND}.
+     */
+    public static int firstOutOfRange(int[] values, int offset, int length, IntRangeSpec range) {
+        checkBounds(values.length, offset, length);
+        int lo = lowestInt(range);
+        int hi = highestInt(range);
+        int end = offset + length;
+        for (int start = offset; start < end; start += BLOCK) {
+            int blockEnd = Math.min(start + BLOCK, end);
+            if (outOfRangeInBlock(values, start, blockEnd, lo, hi)) {
+                for (int i = start; i < blockEnd; i++) {
+                    if (values[i] < lo || values[i] > hi) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Writes indices of values in {@code values[offset, offset + length)} which
+     * are out of {@code range} into {@code indices}, as many as it can hold.
+     * Returns total number of offending values, which may be larger than
+     * {@code indices.length}. Pass an empty array to only count them.
+     */
+    public static int outOfRangeIndices(int[] values, int offset, int length, IntRangeSpec range, int[] indices) {
+        checkBounds(values.length, offset, length);
+        int lo = lowestInt(range);
+        int hi = highestInt(range);
+        int count = 0;
+        int end = offset + length;
+        for (int start = offset; start < end; start += BLOCK) {
+            int blockEnd = Math.min(start + BLOCK, end);
+            if (outOfRangeInBlock(values, start, blockEnd, lo, hi)) {
+                for (int i = start; i < blockEnd; i++) {
+                    if (values[i] < lo || values[i] > hi) {
+                        if (count < indices.length) {
+                            indices[count] = i;
+                        }
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Same as {@link #firstOutOfRange(int[], int, int, IntRangeSpec)} for values between
+     * {@code position} and {@code limit} of the buffer. Returned index is absolute
+     * index in the buffer. Buffer position is not changed.
+     */
+    public static int firstOutOfRange(IntBuffer buffer, IntRangeSpec range) {
+        if (buffer.hasArray()) {
+            int base = buffer.arrayOffset();
+            int index = firstOutOfRange(buffer.array(), base + buffer.position(), buffer.remaining(), range);
+            return index == NOT_FOUND ? NOT_FOUND : index - base;
+        }
+        int lo = lowestInt(range);
+        int hi = highestInt(range);
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            int value = buffer.get(i);
+            if (value < lo || value > hi) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Same as {@link #outOfRangeIndices(int[], int, int, IntRangeSpec, int[])} for values
+     * between {@code position} and {@code limit} of the buffer.
+     */
+    public static int outOfRangeIndices(IntBuffer buffer, IntRangeSpec range, int[] indices) {
+        if (buffer.hasArray()) {
+            int base = buffer.arrayOffset();
+            int count = outOfRangeIndices(buffer.array(), base + buffer.position(), buffer.remaining(),
+                    range, indices);
+            for (int i = 0, n = Math.min(count, indices.length); i < n; i++) {
+                indices[i] -= base;
+            }
+            return count;
+        }
+        int lo = lowestInt(range);
+        int hi = highestInt(range);
+        int count = 0;
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            int value = buffer.get(i);
+            if (value < lo || value > hi) {
+                if (count < indices.length) {
+                    indices[count] = i;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean outOfRangeInBlock(int[] values, int start, int end, int lo, int hi) {
+        if (hi < lo || (long) hi - lo > Integer.MAX_VALUE) {
+            // differences below may overflow for such a wide range, compare directly
+            boolean outside = false;
+            for (int i = start; i < end; i++) {
+                outside |= values[i] < lo | values[i] > hi;
+            }
+            return outside;
+        }
+        // for a value in range, both differences are in [0, hi - lo], so the sign bit
+        // is set only if some value is out of range, even when a difference overflows
+        int flags = 0;
+        for (int i = start; i < end; i++) {
+            int value = values[i];
+            flags |= (value - lo) | (hi - value);
+        }
+        return flags < 0;
+    }
+
+    /*
+     * Bounds are clamped to int values. Range without any int value in it
+     * gets lo > hi, so every value is out of that range.
+     */
+    private static int lowestInt(IntRangeSpec range) {
+        return hasIntValues(range) ? (int) Math.max(range.from, Integer.MIN_VALUE) : 1;
+    }
+
+    private static int highestInt(IntRangeSpec range) {
+        return hasIntValues(range) ? (int) Math.min(range.to, Integer.MAX_VALUE) : 0;
+    }
+
+    private static boolean hasIntValues(IntRangeSpec range) {
+        return range.from <= Integer.MAX_VALUE && range.to >= Integer.MIN_VALUE;
+    }
+    //endregion
+
+    //region float
+
+    public static int firstOutOfRange(float[] values, FloatRangeSpec range) {
+        return firstOutOfRange(values, 0, values.length, range);
+    }
+
+    /**
+     * Returns index of the first value in {@code values[offset, offset + length)}
+     * which is out of {@code range}, or {@link #NOT_FOUND}. {@code NaN} is always out of range.
+     */
+    public static int firstOutOfRange(float[] values, int offset, int length, FloatRangeSpec range) {
+        checkBounds(values.length, offset, length);
+        float lo = range.lowestFloat();
+        float hi = range.highestFloat();
+        int end = offset + length;
+        for (int start = offset; start < end; start += BLOCK) {
+            int blockEnd = Math.min(start + BLOCK, end);
+            if (outOfRangeInBlock(values, start, blockEnd, lo, hi)) {
+                for (int i = start; i < blockEnd; i++) {
+                    if (!(values[i] >= lo && values[i] <= hi)) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Float counterpart of {@link #outOfRangeIndices(int[], int, int, IntRangeSpec, int[])}.
+     */
+    public static int outOfRangeIndices(float[] values, int offset, int length, FloatRangeSpec range,
+            int[] indices) {
+        checkBounds(values.length, offset, length);
+        float lo = range.lowestFloat();
+        float hi = range.highestFloat();
+        int count = 0;
+        int end = offset + length;
+        for (int start = offset; start < end; start += BLOCK) {
+            int blockEnd = Math.min(start + BLOCK, end);
+            if (outOfRangeInBlock(values, start, blockEnd, lo, hi)) {
+                for (int i = start; i < blockEnd; i++) {
+                    if (!(values[i] >= lo && values[i] <= hi)) {
+                        if (count < indices.length) {
+                            indices[count] = i;
+                        }
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Same as {@link #firstOutOfRange(float[], int, int, FloatRangeSpec)} for values between
+     * {@code position} and {@code limit} of the buffer. Returned index is absolute
+     * index in the buffer. Buffer position is not changed.
+     */
+    public static int firstOutOfRange(FloatBuffer buffer, FloatRangeSpec range) {
+        if (buffer.hasArray()) {
+            int base = buffer.arrayOffset();
+            int index = firstOutOfRange(buffer.array(), base + buffer.position(), buffer.remaining(), range);
+            return index == NOT_FOUND ? NOT_FOUND : index - base;
+        }
+        float lo = range.lowestFloat();
+        float hi = range.highestFloat();
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            float value = buffer.get(i);
+            if (!(value >= lo && value <= hi)) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Same as {@link #outOfRangeIndices(float[], int, int, FloatRangeSpec, int[])} for values
+     * between {@code position} and {@code limit} of the buffer.
+     */
+    public static int outOfRangeIndices(FloatBuffer buffer, FloatRangeSpec range, int[] indices) {
+        if (buffer.hasArray()) {
+            int base = buffer.arrayOffset();
+            int count = outOfRangeIndices(buffer.array(), base + buffer.position(), buffer.remaining(),
+                    range, indices);
+            for (int i = 0, n = Math.min(count, indices.length); i < n; i++) {
+                indices[i] -= base;
+            }
+            return count;
+        }
+        float lo = range.lowestFloat();
+        float hi = range.highestFloat();
+        int count = 0;
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            float value = buffer.get(i);
+            if (!(value >= lo && value <= hi)) {
+                if (count < indices.length) {
+                    indices[count] = i;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean outOfRangeInBlock(float[] values, int start, int end, float lo, float hi) {
+        boolean outside = false;
+        for (int i = start; i < end; i++) {
+            float value = values[i];
+            outside |= !(value >= lo & value <= hi);
+        }
+        return outside;
+    }
+    //endregion
+
+    private static void checkBounds(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new ArrayIndexOutOfBoundsException("length=" + arrayLength + ", offset=" + offset
+                    + ", count=" + length);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which calls of a checked method are actually checked, so contract checks can stay
+ * enabled on hot paths. Every checked method is a call site, registered once, usually from
+ * a generated class such as {@code UtilitySampleSites}, and the check is guarded with
+ * {@link #sample(int)}:
+ * <pre>
+ * if (BuildConfig.VALIDATE_CONTRACTS &amp;&amp; ContractSampler.sample(UtilitySampleSites.ACCEPTS0TO255)) {
+ *     UtilityValidators.accepts0to255(value);
+ * }
+ * </pre>
+ * Until {@link #setSampling(boolean)} enables sampling, every call is checked. Once enabled,
+ * each site checks one of every N calls, where N, the period of the site, adapts on its own:
+ * a site which had a violation since the last adaptation checks four times as often, down to
+ * every call, while a site without violations sets its period to check about
+ * {@link #setTargetChecksPerSecond(long) target} calls per second. Cold sites are therefore
+ * checked on every call, and only hot ones are sampled. A site first adapts a millisecond after
+ * it is first checked, so a hot site is not checked on every call for long, and then less and
+ * less often, down to every {@value #ADAPT_INTERVAL_MILLIS}ms.
+ * <br /><br />
+ * Calls are counted down in stripes, picked by thread id, each on its own cache line, so threads
+ * do not contend over a shared counter. Stripes are not synchronized, and two threads which
+ * share a stripe may lose some counts, so reported counts are approximate. Calls are counted
+ * when a stripe checks, so up to one period of calls per stripe is not reported yet.
+ * <br /><br />
+ * Checks report violations with {@link #violated(int)}: thread checks before they throw, see
+ * {@code ThreadContracts}, and validators through {@link ViolationReporter}, whether it records
+ * the violation or lets the validator throw.
+ */
+public final class ContractSampler {
+
+    public static final long DEFAULT_TARGET_CHECKS_PER_SECOND = 1000;
+
+    public static final int DEFAULT_MAX_PERIOD = 1024;
+
+    static final long ADAPT_INTERVAL_MILLIS = 100;
+
+    static final long ADAPT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(ADAPT_INTERVAL_MILLIS);
+
+    private static final long FIRST_ADAPT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final int STRIPES = 16;
+
+    /**
+     * Longs per stripe, 64 bytes, so stripes do not share cache lines.
+     */
+    private static final int STRIDE = 8;
+
+    private static final int COUNTDOWN = 0;
+
+    private static final int CHUNK = 1;
+
+    private static final int CALLS = 2;
+
+    private static final int CHECKED = 3;
+
+    private static final int VIOLATIONS = 4;
+
+    /**
+     * Sampled checks between two reads of the clock, to see whether the site should adapt.
+     */
+    private static final int ADAPT_CHECK_MASK = 15;
+
+    private static final Object LOCK = new Object();
+
+    private static volatile Site[] sites = new Site[0];
+
+    private static volatile boolean sampling;
+
+    private static volatile long targetChecksPerSecond = DEFAULT_TARGET_CHECKS_PER_SECOND;
+
+    private static volatile int maxPeriod = DEFAULT_MAX_PERIOD;
+
+    private ContractSampler() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Registers a checked call site and returns its id, to pass to {@link #sample(int)}.
+     *
+     * @param method name of the method, which reports and messages of checks use, such as
+     * {@code Utility.accepts0to255}
+     */
+    public static int register(String method) {
+        if (method == null) {
+            throw new NullPointerException("method == null");
+        }
+        synchronized (LOCK) {
+            Site[] current = sites;
+            Site[] updated = new Site[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = new Site(method);
+            sites = updated;
+            return current.length;
+        }
+    }
+
+    /**
+     * Returns {@code true} if this call of {@code site} should be checked.
+     */
+    public static boolean sample(int site) {
+        return !sampling || sites[site].sample();
+    }
+
+    /**
+     * Enables or disables sampling. While disabled, which is the default, every call is checked
+     * and nothing is counted but violations.
+     */
+    public static void setSampling(boolean enabled) {
+        sampling = enabled;
+    }
+
+    public static boolean isSampling() {
+        return sampling;
+    }
+
+    /**
+     * Counts a violation of the contract of {@code site}.
+     */
+    public static void violated(int site) {
+        sites[site].violated();
+    }
+
+    /**
+     * Sets how many calls per second a site without violations should check,
+     * {@link #DEFAULT_TARGET_CHECKS_PER_SECOND} by default.
+     */
+    public static void setTargetChecksPerSecond(long checksPerSecond) {
+        if (checksPerSecond < 1) {
+            throw new IllegalArgumentException("checksPerSecond < 1: " + checksPerSecond);
+        }
+        targetChecksPerSecond = checksPerSecond;
+    }
+
+    /**
+     * Sets the longest period of a site, so at least one of {@code period} calls is always checked,
+     * {@link #DEFAULT_MAX_PERIOD} by default.
+     */
+    public static void setMaxPeriod(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("period < 1: " + period);
+        }
+        maxPeriod = period;
+    }
+
+    public static int siteCount() {
+        return sites.length;
+    }
+
+    public static String method(int site) {
+        return sites[site].method;
+    }
+
+    /**
+     * Returns N, where one of every N calls of {@code site} is currently checked.
+     */
+    public static int period(int site) {
+        return sites[site].period;
+    }
+
+    public static long callCount(int site) {
+        return sites[site].sum(CALLS);
+    }
+
+    public static long checkedCount(int site) {
+        return sites[site].sum(CHECKED);
+    }
+
+    public static long violationCount(int site) {
+        return sites[site].sum(VIOLATIONS);
+    }
+
+    /**
+     * Returns the share of calls of {@code site} which were checked so far, {@code 1} if it was not called.
+     */
+    public static double effectiveRate(int site) {
+        Site sampled = sites[site];
+        long calls = sampled.sum(CALLS);
+        return calls == 0 ? 1 : (double) sampled.sum(CHECKED) / calls;
+    }
+
+    /**
+     * Forgets counts and periods of every site. Sites stay registered.
+     */
+    public static void reset() {
+        for (Site site : sites) {
+            site.reset();
+        }
+    }
+
+    /**
+     * Returns one line per call site which was called or violated.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        Site[] current = sites;
+        for (int i = 0; i < current.length; i++) {
+            long calls = current[i].sum(CALLS);
+            long violations = current[i].sum(VIOLATIONS);
+            if (calls > 0 || violations > 0) {
+                report.append(current[i].method).append(": checked ").append(current[i].sum(CHECKED))
+                        .append(" of ").append(calls).append(" calls (")
+                        .append(String.format(Locale.ROOT, "%.2f", effectiveRate(i) * 100)).append("%), period ")
+                        .append(current[i].period).append(", violations ").append(violations).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    private static final class Site {
+
+        final String method;
+
+        /**
+         * Stripes after one stride of padding, so the first one does not share a line with the array header.
+         */
+        final long[] cells = new long[(STRIPES + 1) * STRIDE];
+
+        volatile int period = 1;
+
+        volatile long nextAdaptNanos;
+
+        long lastAdaptNanos;
+
+        long adaptIntervalNanos = FIRST_ADAPT_INTERVAL_NANOS;
+
+        long lastCalls;
+
+        long lastViolations;
+
+        Site(String method) {
+            this.method = method;
+        }
+
+        boolean sample() {
+            int stripe = stripe();
+            long[] counts = cells;
+            if (--counts[stripe + COUNTDOWN] > 0) {
+                return false;
+            }
+            int current = period;
+            counts[stripe + CALLS] += Math.max(1, counts[stripe + CHUNK]);
+            counts[stripe + CHUNK] = current;
+            counts[stripe + COUNTDOWN] = current;
+            if ((++counts[stripe + CHECKED] & ADAPT_CHECK_MASK) == 0) {
+                long now = System.nanoTime();
+                if (now - nextAdaptNanos >= 0) {
+                    adapt(now);
+                }
+            }
+            return true;
+        }
+
+        void violated() {
+            cells[stripe() + VIOLATIONS]++;
+        }
+
+        long sum(int slot) {
+            long sum = 0;
+            for (int stripe = 1; stripe <= STRIPES; stripe++) {
+                sum += cells[stripe * STRIDE + slot];
+            }
+            return sum;
+        }
+
+        synchronized void adapt(long now) {
+            if (now - nextAdaptNanos < 0) {
+                return; // adapted by another thread meanwhile
+            }
+            long calls = sum(CALLS);
+            long violations = sum(VIOLATIONS);
+            long elapsed = Math.max(1, now - lastAdaptNanos);
+            int current = period;
+            int next;
+            if (violations > lastViolations) {
+                next = Math.max(1, current / 4);
+            } else if (lastAdaptNanos == 0) {
+                next = current; // first adaptation has no interval to measure calls over
+            } else {
+                double callsPerSecond = (calls - lastCalls) * 1e9 / elapsed;
+                long desired = (long) (callsPerSecond / targetChecksPerSecond);
+                next = (int) Math.max(1, Math.min(desired, maxPeriod));
+            }
+            period = next;
+            lastCalls = calls;
+            lastViolations = violations;
+            lastAdaptNanos = now;
+            nextAdaptNanos = now + adaptIntervalNanos;
+            adaptIntervalNanos = Math.min(adaptIntervalNanos * 2, ADAPT_INTERVAL_NANOS);
+        }
+
+        synchronized void reset() {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = 0;
+            }
+            period = 1;
+            lastCalls = 0;
+            lastViolations = 0;
+            lastAdaptNanos = 0;
+            nextAdaptNanos = 0;
+            adaptIntervalNanos = FIRST_ADAPT_INTERVAL_NANOS;
+        }
+
+        private static int stripe() {
+            return (((int) Thread.currentThread().getId() & (STRIPES - 1)) + 1) * STRIDE;
+        }
+    }
+}
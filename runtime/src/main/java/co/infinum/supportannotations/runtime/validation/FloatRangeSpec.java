@@ -0,0 +1,75 @@
+package co.infinum.supportannotations.runtime.validation;
+
+/**
+ * Runtime description of {@code @FloatRange}. Unlike {@link IntRangeSpec},
+ * each bound can be either inclusive or exclusive.
+ */
+public final class FloatRangeSpec {
+
+    public final double from;
+
+    public final boolean fromInclusive;
+
+    public final double to;
+
+    public final boolean toInclusive;
+
+    private FloatRangeSpec(double from, boolean fromInclusive, double to, boolean toInclusive) {
+        if (!(from <= to)) {
+            throw new IllegalArgumentException("invalid range: " + from + ", " + to);
+        }
+        this.from = from;
+        this.fromInclusive = fromInclusive;
+        this.to = to;
+        this.toInclusive = toInclusive;
+    }
+
+    /**
+     * Describes {@code @FloatRange(from = from, to = to)}, with both bounds inclusive.
+     */
+    public static FloatRangeSpec of(double from, double to) {
+        return new FloatRangeSpec(from, true, to, true);
+    }
+
+    /**
+     * Describes {@code @FloatRange} with every attribute set.
+     */
+    public static FloatRangeSpec of(double from, boolean fromInclusive, double to, boolean toInclusive) {
+        return new FloatRangeSpec(from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Returns {@code true} if value is in range. {@code NaN} is never in range.
+     */
+    public boolean contains(double value) {
+        return (fromInclusive ? value >= from : value > from) && (toInclusive ? value <= to : value < to);
+    }
+
+    /**
+     * Returns the smallest {@code float} in this range.
+     */
+    float lowestFloat() {
+        float bound = (float) from;
+        if (fromInclusive ? bound < from : bound <= from) {
+            bound = Math.nextUp(bound);
+        }
+        return bound;
+    }
+
+    /**
+     * Returns the largest {@code float} in this range.
+     */
+    float highestFloat() {
+        float bound = (float) to;
+        if (toInclusive ? bound > to : bound >= to) {
+            bound = Math.nextAfter(bound, Double.NEGATIVE_INFINITY);
+        }
+        return bound;
+    }
+
+    @Override
+    public String toString() {
+        return "@FloatRange(from = " + from + ", fromInclusive = " + fromInclusive
+                + ", to = " + to + ", toInclusive = " + toInclusive + ")";
+    }
+}
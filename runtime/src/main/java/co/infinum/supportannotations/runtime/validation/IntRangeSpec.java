@@ -0,0 +1,36 @@
+package co.infinum.supportannotations.runtime.validation;
+
+/**
+ * Runtime description of {@code @IntRange}. Bounds are inclusive and default
+ * to {@link Long#MIN_VALUE} and {@link Long#MAX_VALUE}, same as annotation does.
+ */
+public final class IntRangeSpec {
+
+    public final long from;
+
+    public final long to;
+
+    private IntRangeSpec(long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("from > to: " + from + " > " + to);
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Describes {@code @IntRange(from = from, to = to)}.
+     */
+    public static IntRangeSpec of(long from, long to) {
+        return new IntRangeSpec(from, to);
+    }
+
+    public boolean contains(long value) {
+        return value >= from && value <= to;
+    }
+
+    @Override
+    public String toString() {
+        return "@IntRange(from = " + from + ", to = " + to + ")";
+    }
+}
@@ -0,0 +1,126 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import java.util.concurrent.ExecutorService;
+
+import co.infinum.supportannotations.runtime.concurrent.ParallelChunks;
+
+/**
+ * Parallel variant of {@link BulkRanges} for very large arrays. Array is split
+ * into one chunk per thread and each chunk is validated with {@link BulkRanges}.
+ * Arrays shorter than {@code threshold} are validated on the calling thread,
+ * since handing work over to other threads costs more than validating them.
+ */
+public final class ParallelRangeValidator {
+
+    private final ExecutorService executor;
+
+    private final int parallelism;
+
+    private final int threshold;
+
+    public ParallelRangeValidator(ExecutorService executor, int parallelism, int threshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1: " + parallelism);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns index of the first value out of {@code range}, or {@link BulkRanges#NOT_FOUND}.
+     */
+    public int firstOutOfRange(final int[] values, final IntRangeSpec range) {
+        if (values.length < threshold) {
+            return BulkRanges.firstOutOfRange(values, range);
+        }
+        final int[] firsts = new int[ParallelChunks.chunkCount(values.length, parallelism)];
+        ParallelChunks.run(executor, 0, values.length, parallelism, new ParallelChunks.ChunkTask() {
+            @Override
+            public void run(int chunk, int from, int to) {
+                firsts[chunk] = BulkRanges.firstOutOfRange(values, from, to - from, range);
+            }
+        });
+        return first(firsts);
+    }
+
+    /**
+     * Returns index of the first value out of {@code range}, or {@link BulkRanges#NOT_FOUND}.
+     */
+    public int firstOutOfRange(final float[] values, final FloatRangeSpec range) {
+        if (values.length < threshold) {
+            return BulkRanges.firstOutOfRange(values, range);
+        }
+        final int[] firsts = new int[ParallelChunks.chunkCount(values.length, parallelism)];
+        ParallelChunks.run(executor, 0, values.length, parallelism, new ParallelChunks.ChunkTask() {
+            @Override
+            public void run(int chunk, int from, int to) {
+                firsts[chunk] = BulkRanges.firstOutOfRange(values, from, to - from, range);
+            }
+        });
+        return first(firsts);
+    }
+
+    /**
+     * Returns indices of all values out of {@code range}, in ascending order.
+     */
+    public int[] outOfRangeIndices(final int[] values, final IntRangeSpec range) {
+        final int[][] found = new int[ParallelChunks.chunkCount(values.length, parallelism)][];
+        ParallelChunks.run(executor, 0, values.length, values.length < threshold ? 1 : parallelism,
+                new ParallelChunks.ChunkTask() {
+                    @Override
+                    public void run(int chunk, int from, int to) {
+                        int count = BulkRanges.outOfRangeIndices(values, from, to - from, range, new int[0]);
+                        int[] indices = new int[count];
+                        BulkRanges.outOfRangeIndices(values, from, to - from, range, indices);
+                        found[chunk] = indices;
+                    }
+                });
+        return concat(found);
+    }
+
+    /**
+     * Returns indices of all values out of {@code range}, in ascending order.
+     */
+    public int[] outOfRangeIndices(final float[] values, final FloatRangeSpec range) {
+        final int[][] found = new int[ParallelChunks.chunkCount(values.length, parallelism)][];
+        ParallelChunks.run(executor, 0, values.length, values.length < threshold ? 1 : parallelism,
+                new ParallelChunks.ChunkTask() {
+                    @Override
+                    public void run(int chunk, int from, int to) {
+                        int count = BulkRanges.outOfRangeIndices(values, from, to - from, range, new int[0]);
+                        int[] indices = new int[count];
+                        BulkRanges.outOfRangeIndices(values, from, to - from, range, indices);
+                        found[chunk] = indices;
+                    }
+                });
+        return concat(found);
+    }
+
+    private static int first(int[] firsts) {
+        for (int first : firsts) {
+            if (first != BulkRanges.NOT_FOUND) {
+                return first;
+            }
+        }
+        return BulkRanges.NOT_FOUND;
+    }
+
+    private static int[] concat(int[][] parts) {
+        int total = 0;
+        for (int[] part : parts) {
+            if (part != null) {
+                total += part.length;
+            }
+        }
+        int[] all = new int[total];
+        int position = 0;
+        for (int[] part : parts) {
+            if (part != null) {
+                System.arraycopy(part, 0, all, position, part.length);
+                position += part.length;
+            }
+        }
+        return all;
+    }
+}
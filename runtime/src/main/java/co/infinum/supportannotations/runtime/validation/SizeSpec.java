@@ -0,0 +1,70 @@
+package co.infinum.supportannotations.runtime.validation;
+
+/**
+ * Runtime description of {@code @Size}. Attributes default to the same values as annotation
+ * does: exact size to {@code -1}, meaning any, bounds to {@link Long#MIN_VALUE} and
+ * {@link Long#MAX_VALUE}, and multiple to {@code 1}.
+ */
+public final class SizeSpec {
+
+    public final long exact;
+
+    public final long min;
+
+    public final long max;
+
+    public final long multiple;
+
+    private SizeSpec(long exact, long min, long max, long multiple) {
+        if (min > max) {
+            throw new IllegalArgumentException("min > max: " + min + " > " + max);
+        }
+        if (multiple < 1) {
+            throw new IllegalArgumentException("multiple < 1: " + multiple);
+        }
+        this.exact = exact;
+        this.min = min;
+        this.max = max;
+        this.multiple = multiple;
+    }
+
+    /**
+     * Describes {@code @Size(value = exact, min = min, max = max, multiple = multiple)}.
+     */
+    public static SizeSpec of(long exact, long min, long max, long multiple) {
+        return new SizeSpec(exact, min, max, multiple);
+    }
+
+    /**
+     * Describes {@code @Size(size)}.
+     */
+    public static SizeSpec exactly(long size) {
+        return new SizeSpec(size, Long.MIN_VALUE, Long.MAX_VALUE, 1);
+    }
+
+    /**
+     * Describes {@code @Size(min = min, max = max)}.
+     */
+    public static SizeSpec between(long min, long max) {
+        return new SizeSpec(-1, min, max, 1);
+    }
+
+    /**
+     * Returns the largest size which may satisfy this {@code @Size}.
+     */
+    public long largest() {
+        return exact >= 0 ? Math.min(exact, max) : max;
+    }
+
+    public boolean contains(long size) {
+        if (exact >= 0 && size != exact) {
+            return false;
+        }
+        return size >= min && size <= max && size % multiple == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "@Size(value = " + exact + ", min = " + min + ", max = " + max + ", multiple = " + multiple + ")";
+    }
+}
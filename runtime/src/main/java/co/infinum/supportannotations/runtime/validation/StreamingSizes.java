@@ -0,0 +1,133 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Checks {@code @Size} of text before it becomes a {@code String}: of any {@link CharSequence},
+ * of a {@code char[]} slice, and of UTF-8 bytes in a {@link ByteBuffer}. Size of text is its
+ * length in UTF-16 units, same as {@link String#length()} of the decoded text, so a UTF-8 buffer
+ * is validated without decoding it and without allocating anything.
+ * <br /><br />
+ * UTF-16 units of UTF-8 bytes are counted from lead bytes: every byte which is not a continuation
+ * byte starts a character of one unit, and a lead of a four byte sequence starts a surrogate pair of
+ * two. Bytes are counted eight at a time with bit tricks on a {@code long}, and counting stops as soon
+ * as the count exceeds the largest allowed size. Buffers much shorter or longer than the bounds are
+ * decided from their byte count alone, since a UTF-8 byte is at most one unit and three bytes are at least one.
+ * Malformed UTF-8 is not detected, and its count may differ from the length a decoder would produce.
+ */
+public final class StreamingSizes {
+
+    /**
+     * Bytes counted between two checks whether the count exceeded the limit.
+     */
+    private static final int BLOCK = 64;
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private StreamingSizes() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    public static boolean matches(CharSequence value, SizeSpec size) {
+        return size.contains(value.length());
+    }
+
+    public static boolean matches(char[] chars, int offset, int length, SizeSpec size) {
+        checkBounds(chars.length, offset, length);
+        return size.contains(length);
+    }
+
+    /**
+     * Returns {@code true} if UTF-8 text between position and limit of {@code utf8} satisfies {@code size}.
+     * Position of the buffer does not change.
+     */
+    public static boolean matchesUtf8(ByteBuffer utf8, SizeSpec size) {
+        int bytes = utf8.remaining();
+        if (bytes < size.min || (bytes + 2) / 3 > size.largest()) {
+            return false;
+        }
+        return size.contains(utf16Length(utf8, size.largest()));
+    }
+
+    /**
+     * Returns number of UTF-16 units of UTF-8 text between position and limit of {@code utf8},
+     * or, once it exceeds {@code limit}, any number larger than {@code limit}.
+     * Position of the buffer does not change.
+     */
+    public static int utf16Length(ByteBuffer utf8, long limit) {
+        int index = utf8.position();
+        int end = utf8.limit();
+        int units = 0;
+        while (end - index >= BLOCK) {
+            for (int word = index, blockEnd = index + BLOCK; word < blockEnd; word += 8) {
+                units += units(utf8.getLong(word));
+            }
+            index += BLOCK;
+            if (units > limit) {
+                return units;
+            }
+        }
+        for (; index < end; index++) {
+            units += units(utf8.get(index));
+        }
+        return units;
+    }
+
+    /**
+     * Throws if {@code value} does not satisfy {@code size}.
+     */
+    public static void check(String method, String parameter, CharSequence value, SizeSpec size) {
+        if (!matches(value, size)) {
+            throw violation(method, parameter, value.length(), size);
+        }
+    }
+
+    /**
+     * Throws if {@code chars[offset, offset + length)} does not satisfy {@code size}.
+     */
+    public static void check(String method, String parameter, char[] chars, int offset, int length, SizeSpec size) {
+        if (!matches(chars, offset, length, size)) {
+            throw violation(method, parameter, length, size);
+        }
+    }
+
+    /**
+     * Throws if UTF-8 text between position and limit of {@code utf8} does not satisfy {@code size}.
+     * Only when it throws, the whole text is counted, so the message has its exact size.
+     */
+    public static void checkUtf8(String method, String parameter, ByteBuffer utf8, SizeSpec size) {
+        if (!matchesUtf8(utf8, size)) {
+            throw violation(method, parameter, utf16Length(utf8, Long.MAX_VALUE), size);
+        }
+    }
+
+    private static IllegalArgumentException violation(String method, String parameter, int length, SizeSpec size) {
+        return Violations.wrongSize(method, parameter, length, size.exact, size.min, size.max, size.multiple);
+    }
+
+    /**
+     * Returns UTF-16 units started by eight UTF-8 bytes. A byte is a continuation byte if its
+     * top bits are {@code 10}, and a lead of four bytes if they are {@code 11110}. Shifting the
+     * word left by {@code n} moves bit {@code 7 - n} of every byte to its top bit, so top bits
+     * of the masked word mark matching bytes.
+     */
+    private static int units(long word) {
+        long continuation = word & ~(word << 1);
+        long fourByteLead = word & (word << 1) & (word << 2) & (word << 3) & ~(word << 4);
+        return 8 - Long.bitCount(continuation & HIGH_BITS) + Long.bitCount(fourByteLead & HIGH_BITS);
+    }
+
+    private static int units(byte value) {
+        if ((value & 0xC0) == 0x80) {
+            return 0;
+        }
+        return (value & 0xF8) == 0xF0 ? 2 : 1;
+    }
+
+    private static void checkBounds(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length
+                    + ", array length " + arrayLength);
+        }
+    }
+}
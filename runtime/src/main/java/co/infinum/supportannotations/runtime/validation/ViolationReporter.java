@@ -0,0 +1,247 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records contract violations instead of throwing, so a contract which breaks on every call
+ * does not turn every call into an exception with a stack trace. Generated validators ask
+ * the reporter first, with the {@link ContractSampler} id of the checked method, and throw
+ * only if it did not record the violation:
+ * <pre>
+ * if ((value &amp; 0xFFFFFFFFL) &gt; 255L) {
+ *     if (!ViolationReporter.record(UtilitySampleSites.ACCEPTS0TO255, value)) {
+ *         throw Violations.outOfRange("Utility.accepts0to255", "value", value, 0L, 255L);
+ *     }
+ * }
+ * </pre>
+ * Every violation is counted with {@link ContractSampler#violated(int)}, recorded or not.
+ * Until {@link #setReporting(boolean)} enables reporting, nothing is recorded and validators throw
+ * as before. Once enabled, a violation neither throws nor builds a message: it is counted, and its
+ * value and thread are stored as the last violation of its site, in state allocated when the site
+ * first breaks, so repeated violations of a site are deduplicated into a count. The
+ * {@link Listener} hears about a site at most once per {@link #setEmitInterval(long) interval},
+ * with the number of violations it did not hear about since. With {@link #setEscalateFirst(boolean)},
+ * the first violation of every site is not recorded, so the validator throws it with a full stack
+ * trace, and only the violations after it are recorded.
+ * <br /><br />
+ * The last value and thread of a site are written without synchronization, so with
+ * concurrent violations of the same site they may come from different calls.
+ */
+public final class ViolationReporter {
+
+    public static final long DEFAULT_EMIT_INTERVAL_MILLIS = 1000;
+
+    private static final Object LOCK = new Object();
+
+    private static volatile SiteState[] states = new SiteState[0];
+
+    private static volatile boolean reporting;
+
+    private static volatile boolean escalateFirst;
+
+    private static volatile long emitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_EMIT_INTERVAL_MILLIS);
+
+    private static volatile Listener listener;
+
+    private ViolationReporter() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Hears about violations, at most once per interval for each site, on the thread which broke the contract.
+     */
+    public interface Listener {
+
+        /**
+         * @param method name of the method, such as {@code Utility.accepts0to255}
+         * @param value offending value, or size for {@code @Size}
+         * @param suppressed violations of the same site since the last one the listener heard about
+         */
+        void onViolation(String method, String value, String thread, long suppressed);
+    }
+
+    /**
+     * Records a violation of an integral contract, such as {@code @IntRange}, {@code @Size} or a resource type.
+     * Returns {@code false} if the caller should throw instead.
+     *
+     * @param site {@link ContractSampler} id of the checked method
+     */
+    public static boolean record(int site, long value) {
+        ContractSampler.violated(site);
+        return reporting && record(site, value, false);
+    }
+
+    /**
+     * Records a violation of {@code @FloatRange}. Returns {@code false} if the caller should throw instead.
+     *
+     * @param site {@link ContractSampler} id of the checked method
+     */
+    public static boolean record(int site, double value) {
+        ContractSampler.violated(site);
+        return reporting && record(site, Double.doubleToRawLongBits(value), true);
+    }
+
+    /**
+     * Enables or disables reporting. While disabled, which is the default, every violation throws.
+     */
+    public static void setReporting(boolean enabled) {
+        reporting = enabled;
+    }
+
+    public static boolean isReporting() {
+        return reporting;
+    }
+
+    /**
+     * Lets the first violation of every site throw, with a full stack trace, while reporting is enabled.
+     */
+    public static void setEscalateFirst(boolean escalate) {
+        escalateFirst = escalate;
+    }
+
+    /**
+     * Sets the shortest time between two violations of a site the listener hears about,
+     * {@link #DEFAULT_EMIT_INTERVAL_MILLIS} by default. With {@code 0}, it hears about every violation.
+     */
+    public static void setEmitInterval(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("millis < 0: " + millis);
+        }
+        emitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Replaces the listener, or removes it with {@code null}. Without a listener, violations are only counted.
+     */
+    public static void setListener(Listener violationListener) {
+        listener = violationListener;
+    }
+
+    /**
+     * Returns number of violations of {@code site} which were recorded, not thrown.
+     */
+    public static long recordedCount(int site) {
+        SiteState[] current = states;
+        return site < current.length ? current[site].recorded() : 0;
+    }
+
+    /**
+     * Returns the last recorded value of {@code site}, or {@code null} if none was recorded.
+     */
+    public static String lastValue(int site) {
+        SiteState[] current = states;
+        return site < current.length && current[site].recorded() > 0 ? current[site].lastValue() : null;
+    }
+
+    /**
+     * Forgets recorded violations of every site.
+     */
+    public static void reset() {
+        for (SiteState state : states) {
+            state.reset();
+        }
+    }
+
+    /**
+     * Returns one line per call site which has recorded violations.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        SiteState[] current = states;
+        for (int i = 0; i < current.length; i++) {
+            long recorded = current[i].recorded();
+            if (recorded > 0) {
+                report.append(ContractSampler.method(i)).append(": ").append(recorded)
+                        .append(" violations, last ").append(current[i].lastValue())
+                        .append(" on thread ").append(current[i].lastThreadId).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    private static boolean record(int site, long bits, boolean isDouble) {
+        SiteState state = state(site);
+        long violations = state.violations.incrementAndGet();
+        if (violations == 1 && escalateFirst) {
+            state.escalated = true;
+            return false;
+        }
+        state.lastBits = bits;
+        state.lastIsDouble = isDouble;
+        state.lastThreadId = Thread.currentThread().getId();
+
+        Listener current = listener;
+        if (current != null) {
+            long now = System.nanoTime();
+            long next = state.nextEmitNanos.get();
+            if ((next == 0 || now - next >= 0) && state.nextEmitNanos.compareAndSet(next, now + emitIntervalNanos)) {
+                long recorded = state.recorded();
+                long suppressed = recorded - 1 - state.emitted.getAndSet(recorded);
+                current.onViolation(ContractSampler.method(site), isDouble
+                                ? String.valueOf(Double.longBitsToDouble(bits)) : String.valueOf(bits),
+                        Thread.currentThread().getName(), Math.max(0, suppressed));
+            }
+        }
+        return true;
+    }
+
+    private static SiteState state(int site) {
+        SiteState[] current = states;
+        if (site < current.length) {
+            return current[site];
+        }
+        synchronized (LOCK) {
+            current = states;
+            if (site >= current.length) {
+                int count = Math.max(site + 1, ContractSampler.siteCount());
+                SiteState[] updated = new SiteState[count];
+                System.arraycopy(current, 0, updated, 0, current.length);
+                for (int i = current.length; i < count; i++) {
+                    updated[i] = new SiteState();
+                }
+                states = current = updated;
+            }
+            return current[site];
+        }
+    }
+
+    private static final class SiteState {
+
+        /**
+         * Violations, including the first one when it was escalated.
+         */
+        final AtomicLong violations = new AtomicLong();
+
+        /**
+         * Recorded violations as of the last one the listener heard about.
+         */
+        final AtomicLong emitted = new AtomicLong();
+
+        final AtomicLong nextEmitNanos = new AtomicLong();
+
+        volatile boolean escalated;
+
+        volatile long lastBits;
+
+        volatile boolean lastIsDouble;
+
+        volatile long lastThreadId;
+
+        long recorded() {
+            long count = violations.get();
+            return escalated ? count - 1 : count;
+        }
+
+        String lastValue() {
+            return lastIsDouble ? String.valueOf(Double.longBitsToDouble(lastBits)) : String.valueOf(lastBits);
+        }
+
+        void reset() {
+            violations.set(0);
+            escalated = false;
+            emitted.set(0);
+            nextEmitNanos.set(0);
+        }
+    }
+}
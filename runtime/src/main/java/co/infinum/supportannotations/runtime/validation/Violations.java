@@ -0,0 +1,81 @@
+package co.infinum.supportannotations.runtime.validation;
+
+/**
+ * Creates exceptions for broken value constraints, such as {@code @IntRange},
+ * {@code @FloatRange}, {@code @Size} and resource type annotations. Generated validators call these
+ * methods only after a check has already failed, so the message is built
+ * and the exception allocated only on the failure path. Validators call these
+ * methods only if {@link ViolationReporter} did not record the violation instead,
+ * and the reporter has already counted it with {@link ContractSampler} by its site.
+ */
+public final class Violations {
+
+    private Violations() {
+        throw new AssertionError("cannot instantiate");
+    }
+
+    /**
+     * Describes a value which is out of {@code @IntRange(from, to)}.
+     */
+    public static IllegalArgumentException outOfRange(String method, String parameter,
+            long value, long from, long to) {
+        return new IllegalArgumentException(prefix(method, parameter) + value
+                + " is not in range [" + bound(from) + ", " + bound(to) + "]");
+    }
+
+    /**
+     * Describes a value which is out of {@code @FloatRange(from, to)},
+     * including whether each bound is inclusive or not.
+     */
+    public static IllegalArgumentException outOfRange(String method, String parameter,
+            double value, double from, boolean fromInclusive, double to, boolean toInclusive) {
+        return new IllegalArgumentException(prefix(method, parameter) + value
+                + " is not in range " + (fromInclusive ? "[" : "(") + from + ", " + to + (toInclusive ? "]" : ")"));
+    }
+
+    /**
+     * Describes a length or size which does not satisfy {@code @Size}.
+     * Values equal to annotation defaults are left out of the message.
+     */
+    public static IllegalArgumentException wrongSize(String method, String parameter,
+            int size, long exact, long min, long max, long multiple) {
+        StringBuilder constraint = new StringBuilder();
+        if (exact >= 0) {
+            constraint.append(", exactly ").append(exact);
+        }
+        if (min != Long.MIN_VALUE) {
+            constraint.append(", at least ").append(min);
+        }
+        if (max != Long.MAX_VALUE) {
+            constraint.append(", at most ").append(max);
+        }
+        if (multiple != 1) {
+            constraint.append(", multiple of ").append(multiple);
+        }
+        return new IllegalArgumentException(prefix(method, parameter) + "size " + size
+                + " is not" + constraint.substring(1));
+    }
+
+    /**
+     * Describes a resource id which is not of the expected resource type,
+     * such as a color value passed instead of a {@code @ColorRes} id.
+     */
+    public static IllegalArgumentException wrongResourceType(String method, String parameter,
+            int id, String expectedType) {
+        return new IllegalArgumentException(prefix(method, parameter) + "0x" + Integer.toHexString(id)
+                + " is not a resource of type " + expectedType);
+    }
+
+    private static String prefix(String method, String parameter) {
+        return method + "(" + parameter + "): ";
+    }
+
+    private static String bound(long bound) {
+        if (bound == Long.MIN_VALUE) {
+            return "-inf";
+        } else if (bound == Long.MAX_VALUE) {
+            return "inf";
+        }
+        return String.valueOf(bound);
+    }
+}
@@ -0,0 +1,152 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import co.infinum.supportannotations.runtime.validation.FloatRangeSpec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FloatQuantizerTest {
+
+    private static final FloatRangeSpec ZERO_TO_THREE = FloatRangeSpec.of(0, 3);
+
+    private static final FloatRangeSpec MINUS_ONE_TO_ONE_EXCLUSIVE = FloatRangeSpec.of(-1, false, 1, false);
+
+    @Test
+    public void decodesInclusiveBoundsExactly() {
+        FloatQuantizer quantizer = FloatQuantizer.of(ZERO_TO_THREE, 8);
+
+        assertEquals(0, quantizer.encode(0f));
+        assertEquals(255, quantizer.encode(3f));
+        assertEquals(0f, quantizer.decode(0), 0);
+        assertEquals(3f, quantizer.decode(255), 1e-6);
+        assertEquals(3.0 / 255 / 2, quantizer.maxError(), 1e-12);
+    }
+
+    @Test
+    public void keepsExclusiveBoundsOutOfDecodedValues() {
+        FloatQuantizer quantizer = FloatQuantizer.of(MINUS_ONE_TO_ONE_EXCLUSIVE, 8);
+
+        assertEquals(-0.99609375f, quantizer.decode(0), 0);
+        assertEquals(0.99609375f, quantizer.decode(255), 0);
+        assertEquals(0, quantizer.encode(Math.nextUp(-1f)));
+        assertEquals(255, quantizer.encode(Math.nextAfter(1f, 0)));
+    }
+
+    @Test
+    public void keepsExclusiveBoundsOutOfDecodedValuesOfNarrowRange() {
+        FloatRangeSpec range = FloatRangeSpec.of(1000, false, 1001, false);
+        FloatQuantizer quantizer = FloatQuantizer.of(range, 16);
+
+        assertEquals(Math.nextUp(1000f), quantizer.decode(0), 0);
+        assertEquals(Math.nextAfter(1001f, 0), quantizer.decode(65535), 0);
+        short[] codes = new short[65536];
+        for (int code = 0; code < codes.length; code++) {
+            codes[code] = (short) code;
+        }
+        float[] values = new float[codes.length];
+        quantizer.decode(codes, 0, codes.length, values, 0);
+        for (int code = 0; code < codes.length; code++) {
+            assertTrue(code + " -> " + values[code], range.contains(values[code]));
+            assertEquals(quantizer.decode(code), values[code], 0);
+        }
+    }
+
+    @Test
+    public void staysWithinMaxError() {
+        FloatRangeSpec[] ranges = {
+                ZERO_TO_THREE, MINUS_ONE_TO_ONE_EXCLUSIVE, FloatRangeSpec.of(-1000, true, 50, false),
+        };
+        Random random = new Random(7);
+        for (FloatRangeSpec range : ranges) {
+            for (int bits : new int[] { 8, 16 }) {
+                FloatQuantizer quantizer = FloatQuantizer.of(range, bits);
+                double rounding = 4 * Math.ulp((float) Math.max(Math.abs(range.from), Math.abs(range.to)));
+                for (int i = 0; i < 100_000; i++) {
+                    float value = (float) (range.from + random.nextDouble() * (range.to - range.from));
+                    if (!range.contains(value)) {
+                        continue;
+                    }
+                    float decoded = quantizer.decode(quantizer.encode(value));
+
+                    assertTrue(range.contains(decoded));
+                    assertTrue(quantizer + " " + value, Math.abs(decoded - value) <= quantizer.maxError() + rounding);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bulkMatchesSingleValues() {
+        FloatQuantizer quantizer = FloatQuantizer.of(ZERO_TO_THREE, 16);
+        float[] values = new float[1000];
+        Random random = new Random(7);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextFloat() * 3;
+        }
+        short[] codes = new short[values.length + 2];
+        float[] decoded = new float[values.length];
+
+        quantizer.encode(values, 0, values.length, codes, 2);
+        quantizer.decode(codes, 2, values.length, decoded, 0);
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(quantizer.encode(values[i]), codes[i + 2] & 0xFFFF);
+            assertEquals(quantizer.decode(quantizer.encode(values[i])), decoded[i], 0);
+        }
+    }
+
+    @Test
+    public void rejectsValuesOutOfRange() {
+        FloatQuantizer quantizer = FloatQuantizer.of(MINUS_ONE_TO_ONE_EXCLUSIVE, 8);
+        for (float value : new float[] { -1f, 1f, Float.NaN, 7f }) {
+            try {
+                quantizer.encode(value);
+                fail("encoded " + value);
+            } catch (IllegalArgumentException expected) {
+                // value is out of range
+            }
+        }
+
+        byte[] codes = { 42, 42 };
+        try {
+            quantizer.encode(new float[] { 0.5f, 1f }, 0, 2, codes, 0);
+            fail("encoded 1");
+        } catch (IllegalArgumentException e) {
+            assertEquals("FloatQuantizer.encode(values[1]): 1.0 is not in range (-1.0, 1.0)", e.getMessage());
+        }
+        assertEquals(42, codes[0]);
+    }
+
+    @Test
+    public void picksNarrowestCodeForMaxError() {
+        assertEquals(8, FloatQuantizer.withMaxError(ZERO_TO_THREE, 0.01).bits());
+        assertEquals(16, FloatQuantizer.withMaxError(ZERO_TO_THREE, 0.001).bits());
+        try {
+            FloatQuantizer.withMaxError(ZERO_TO_THREE, 1e-6);
+            fail("quantized with error of 1e-6");
+        } catch (IllegalArgumentException expected) {
+            // not even 16 bits are precise enough
+        }
+    }
+
+    @Test
+    public void arrayStoresQuarterOfFloats() {
+        QuantizedFloatArray array = QuantizedFloatArray.of(ZERO_TO_THREE, 4);
+        array.set(0, new float[] { 0f, 1f, 2f, 3f }, 0, 4);
+        array.set(1, 1.5f);
+        float[] values = new float[4];
+        array.get(0, values, 0, 4);
+
+        double maxError = array.quantizer().maxError() + 1e-6;
+        assertEquals(1, array.bytesPerValue());
+        assertEquals(0f, values[0], 0);
+        assertEquals(1.5f, values[1], maxError); // halfway between two codes
+        assertEquals(2f, array.get(2), maxError);
+        assertEquals(3f, values[3], 1e-6);
+    }
+}
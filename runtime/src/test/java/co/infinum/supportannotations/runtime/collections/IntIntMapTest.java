@@ -0,0 +1,54 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntIntMapTest {
+
+    @Test
+    public void behavesLikeHashMap() {
+        IntIntMap map = new IntIntMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(512) - 256; // includes 0, which is the free slot marker
+            int value = random.nextInt();
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -256; key < 256; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            if (expected.containsKey(key)) {
+                assertEquals((int) expected.get(key), map.get(key, -1));
+            }
+        }
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        IntIntMap map = new IntIntMap();
+        map.put(0, 1);
+        map.put(0x7f0b0000, 2);
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(0));
+        assertFalse(map.containsKey(0x7f0b0000));
+        map.put(0x7f0b0000, 3);
+        assertTrue(map.containsKey(0x7f0b0000));
+    }
+}
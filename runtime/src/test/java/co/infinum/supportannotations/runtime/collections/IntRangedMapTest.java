@@ -0,0 +1,59 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class IntRangedMapTest {
+
+    @Test
+    public void behavesLikeHashMap() {
+        IntRangedMap map = new IntRangedMap(IntRangeSpec.of(0, 255), 4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(512) - 256; // includes 0, which is the free slot marker
+            int value = random.nextInt(256);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+
+        assertEquals(1, map.bytesPerValue());
+        assertEquals(expected.size(), map.size());
+        for (int key = -256; key < 256; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            if (expected.containsKey(key)) {
+                assertEquals((int) expected.get(key), map.get(key, -1));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsValueOutOfRange() {
+        IntRangedMap map = new IntRangedMap(IntRangeSpec.of(1, 10));
+        map.put(0x7f0b0000, 10);
+
+        try {
+            map.put(0x7f0b0000, 11);
+            fail("put 11");
+        } catch (IllegalArgumentException expected) {
+            // value is out of range
+        }
+
+        assertEquals(10, map.get(0x7f0b0000, 0));
+        assertFalse(map.containsKey(0x7f0b0001));
+    }
+}
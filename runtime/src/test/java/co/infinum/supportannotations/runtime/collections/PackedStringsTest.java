@@ -0,0 +1,117 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PackedStringsTest {
+
+    @Test
+    public void storesStringsOfExactLength() {
+        PackedStrings strings = PackedStrings.exactly(10, 1);
+        int first = strings.add("0123456789");
+        int second = strings.add(new StringBuilder("abcdefghij"));
+
+        assertEquals(2, strings.size());
+        assertEquals(1, strings.bytesPerChar());
+        assertEquals("0123456789", strings.getString(first));
+        assertEquals("abcdefghij", strings.get(second).toString());
+        assertEquals('c', strings.charAt(second, 2));
+        assertEquals(10, strings.length(second));
+    }
+
+    @Test
+    public void storesStringsOfBoundedLength() {
+        PackedStrings strings = PackedStrings.atMost(5, 0);
+        List<String> expected = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            char[] chars = new char[random.nextInt(6)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            expected.add(new String(chars));
+            strings.add(expected.get(i));
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), strings.getString(i));
+            assertEquals(expected.get(i).hashCode(), strings.hashCode(i));
+            assertTrue(strings.equals(i, expected.get(i)));
+        }
+    }
+
+    @Test
+    public void widensToUtf16KeepingStoredStrings() {
+        PackedStrings strings = PackedStrings.atMost(5, 2);
+        strings.add("caf\u00e9");
+        strings.add("");
+        CharSequence view = strings.get(0);
+
+        strings.add("\u0161ta");
+
+        assertEquals(2, strings.bytesPerChar());
+        assertEquals("caf\u00e9", view.toString());
+        assertEquals("", strings.getString(1));
+        assertEquals("\u0161ta", strings.getString(2));
+        assertEquals("\u0161ta".hashCode(), strings.hashCode(2));
+        assertTrue(strings.equals(2, "\u0161ta"));
+        assertFalse(strings.equals(2, "sta"));
+    }
+
+    @Test
+    public void comparesStoredStrings() {
+        PackedStrings strings = PackedStrings.atMost(5, 4);
+        int abc = strings.add("abc");
+        int ab = strings.add("ab");
+        int otherAbc = strings.add("abc");
+
+        assertTrue(strings.equals(abc, otherAbc));
+        assertFalse(strings.equals(abc, ab));
+        assertFalse(strings.equals(abc, "abd"));
+        assertEquals(strings.get(abc), strings.get(otherAbc));
+        assertEquals(strings.get(abc).hashCode(), strings.get(otherAbc).hashCode());
+        assertNotEquals(strings.get(abc), strings.get(ab));
+        assertNotEquals(strings.get(abc), "abc");
+    }
+
+    @Test
+    public void viewSeesStringSetLater() {
+        PackedStrings strings = PackedStrings.exactly(3, 1);
+        strings.add("abc");
+        CharSequence view = strings.get(0);
+
+        strings.set(0, "xyz");
+
+        assertEquals("xyz", view.toString());
+        assertEquals("y", view.subSequence(1, 2));
+    }
+
+    @Test
+    public void rejectsStringsOfWrongLength() {
+        PackedStrings exact = PackedStrings.exactly(10, 1);
+        try {
+            exact.add("short");
+            fail("added short");
+        } catch (IllegalArgumentException e) {
+            assertEquals("PackedStrings.add(value): size 5 is not exactly 10", e.getMessage());
+        }
+        PackedStrings bounded = PackedStrings.atMost(5, 1);
+        try {
+            bounded.add("too long");
+            fail("added too long");
+        } catch (IllegalArgumentException e) {
+            assertEquals("PackedStrings.add(value): size 8 is not at most 5", e.getMessage());
+        }
+        assertEquals(0, exact.size());
+        assertEquals(0, bounded.size());
+    }
+}
@@ -0,0 +1,97 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import org.junit.Test;
+
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RangedIntListTest {
+
+    @Test
+    public void picksNarrowestWidthForRange() {
+        assertEquals(1, new RangedIntList(IntRangeSpec.of(0, 255)).bytesPerValue());
+        assertEquals(1, new RangedIntList(IntRangeSpec.of(1000, 1255)).bytesPerValue());
+        assertEquals(2, new RangedIntList(IntRangeSpec.of(0, 256)).bytesPerValue());
+        assertEquals(2, new RangedIntList(IntRangeSpec.of(-32768, 32767)).bytesPerValue());
+        assertEquals(4, new RangedIntList(IntRangeSpec.of(0, 65536)).bytesPerValue());
+        assertEquals(4, new RangedIntList(IntRangeSpec.of(Long.MIN_VALUE, Long.MAX_VALUE)).bytesPerValue());
+    }
+
+    @Test
+    public void keepsValuesAtEdgesOfEveryWidth() {
+        long[][] ranges = {
+                { 0, 255 }, { -128, 127 }, { 1000, 1200 },
+                { -40000, 20000 }, { 0, 65535 },
+                { Integer.MIN_VALUE, Integer.MAX_VALUE }, { -1, Integer.MAX_VALUE },
+        };
+        for (long[] bounds : ranges) {
+            RangedIntList list = new RangedIntList(IntRangeSpec.of(bounds[0], bounds[1]), 1);
+            int[] expected = { (int) bounds[0], (int) bounds[1], (int) ((bounds[0] + bounds[1]) / 2),
+                    (int) bounds[0] + 1, (int) bounds[1] - 1 };
+            for (int value : expected) {
+                list.add(value);
+            }
+
+            assertArrayEquals(expected, list.toArray());
+        }
+    }
+
+    @Test
+    public void rejectsValuesOutOfRange() {
+        RangedIntList list = new RangedIntList(IntRangeSpec.of(0, 255));
+        list.add(7);
+
+        for (int value : new int[] { -1, 256, Integer.MIN_VALUE, Integer.MAX_VALUE }) {
+            try {
+                list.add(value);
+                fail("added " + value);
+            } catch (IllegalArgumentException e) {
+                assertEquals("RangedIntList.add(value): " + value + " is not in range [0, 255]", e.getMessage());
+            }
+            try {
+                list.set(0, value);
+                fail("set " + value);
+            } catch (IllegalArgumentException expected) {
+                // value is out of range
+            }
+        }
+        assertEquals(1, list.size());
+        assertEquals(7, list.get(0));
+    }
+
+    @Test
+    public void setReplacesValue() {
+        RangedIntList list = new RangedIntList(IntRangeSpec.of(-1000, 1000));
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+
+        list.set(50, -1000);
+
+        assertEquals(100, list.size());
+        assertEquals(-1000, list.get(50));
+        assertEquals(51, list.get(51));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getPastSizeThrows() {
+        RangedIntList list = new RangedIntList(IntRangeSpec.of(0, 255));
+        list.add(1);
+        list.get(1);
+    }
+
+    @Test
+    public void negativeIndexThrows() {
+        RangedIntList list = new RangedIntList(IntRangeSpec.of(0, 255));
+        list.add(1);
+        try {
+            list.get(-1);
+            fail("get(-1) passed");
+        } catch (IndexOutOfBoundsException expected) {
+            assertEquals("index not in [0, 1): -1", expected.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package co.infinum.supportannotations.runtime.collections;
+
+import org.junit.Test;
+
+import co.infinum.supportannotations.runtime.validation.IntRangeSpec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RangedIntRingTest {
+
+    @Test
+    public void keepsLastValuesOldestFirst() {
+        RangedIntRing ring = new RangedIntRing(IntRangeSpec.of(0, 255), 3);
+        ring.add(1);
+        ring.add(2);
+        assertFalse(ring.isFull());
+
+        ring.add(3);
+        ring.add(4);
+        ring.add(5);
+
+        assertTrue(ring.isFull());
+        assertEquals(3, ring.size());
+        assertEquals(3, ring.get(0));
+        assertEquals(4, ring.get(1));
+        assertEquals(5, ring.get(2));
+    }
+
+    @Test
+    public void rejectsValueOutOfRangeWithoutOverwriting() {
+        RangedIntRing ring = new RangedIntRing(IntRangeSpec.of(-100, 100), 1);
+        ring.add(-100);
+
+        try {
+            ring.add(101);
+            fail("added 101");
+        } catch (IllegalArgumentException expected) {
+            // value is out of range
+        }
+
+        assertEquals(1, ring.size());
+        assertEquals(-100, ring.get(0));
+    }
+
+    @Test
+    public void clearEmptiesRing() {
+        RangedIntRing ring = new RangedIntRing(IntRangeSpec.of(0, 70000), 2);
+        ring.add(70000);
+        ring.add(0);
+        ring.add(1);
+        ring.clear();
+        ring.add(2);
+
+        assertEquals(4, ring.bytesPerValue());
+        assertEquals(1, ring.size());
+        assertEquals(2, ring.get(0));
+    }
+}
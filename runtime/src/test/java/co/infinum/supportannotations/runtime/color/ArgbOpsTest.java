@@ -0,0 +1,75 @@
+package co.infinum.supportannotations.runtime.color;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArgbOpsTest {
+
+    @Test
+    public void premultiplyRoundTripsWithinRounding() {
+        int[] pixels = { 0xFFFF8000, 0x80FF8000, 0x00FFFFFF, 0x01010101 };
+        int[] original = pixels.clone();
+
+        ArgbOps.premultiply(pixels, 0, pixels.length);
+        assertEquals(0xFFFF8000, pixels[0]);
+        assertEquals(0x80804000, pixels[1]);
+        assertEquals(0x00000000, pixels[2]);
+
+        ArgbOps.unpremultiply(pixels, 0, pixels.length);
+        assertEquals(original[0], pixels[0]);
+        assertEquals(original[1], pixels[1]);
+        assertEquals(0x00000000, pixels[2]);
+    }
+
+    @Test
+    public void blendsSourceOverDestination() {
+        int[] src = { 0xFF00FF00, 0x00000000, 0x80800000 };
+        int[] dst = { 0xFFFF0000, 0xFF0000FF, 0xFF0000FF };
+
+        ArgbOps.blend(src, 0, dst, 0, src.length);
+
+        assertArrayEquals(new int[] { 0xFF00FF00, 0xFF0000FF, 0xFF80007F }, dst);
+    }
+
+    @Test
+    public void tintsDirectBuffers() {
+        IntBuffer pixels = ByteBuffer.allocateDirect(8).asIntBuffer();
+        pixels.put(0, 0xFFFFFFFF).put(1, 0x80FF00FF);
+
+        ArgbOps.tint(pixels, 0xFF808080);
+
+        assertEquals(0xFF808080, pixels.get(0));
+        assertEquals(0x80800080, pixels.get(1));
+    }
+
+    @Test
+    public void convertsToHsvAndBack() {
+        int[] pixels = { 0xFFFF0000, 0x8000FF00, 0xFF123456, 0xFFFFFFFF, 0xFF000000 };
+        float[] hsv = new float[pixels.length * 3];
+
+        ArgbOps.toHsv(pixels, 0, pixels.length, hsv, 0);
+        assertEquals(120f, hsv[3], 0f);
+        assertEquals(1f, hsv[4], 0f);
+
+        int[] converted = new int[] { 0xFF000000, 0x80000000, 0xFF000000, 0xFF000000, 0xFF000000 };
+        ArgbOps.fromHsv(hsv, 0, converted, 0, converted.length);
+        assertArrayEquals(pixels, converted);
+    }
+
+    @Test
+    public void luminanceStaysInByteRange() {
+        int[] pixels = { 0xFFFFFFFF, 0xFF000000, 0xFF00FF00 };
+        int[] luminance = new int[3];
+
+        ArgbOps.luminance(pixels, 0, pixels.length, luminance, 0);
+
+        assertArrayEquals(new int[] { 255, 0, 182 }, luminance);
+        assertTrue(luminance[2] > ArgbOps.luminance(0xFFFF0000));
+    }
+}
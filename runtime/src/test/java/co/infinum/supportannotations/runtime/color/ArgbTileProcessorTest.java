@@ -0,0 +1,106 @@
+package co.infinum.supportannotations.runtime.color;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArgbTileProcessorTest {
+
+    private static final int PIXELS = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void transformsEveryPixelAcrossWindowsAndTiles() throws IOException {
+        File input = write(folder.newFile("input.argb"));
+        File output = folder.newFile("output.argb");
+
+        // 64 pixel tiles in 3 tile windows, so the last window and tile are partial
+        new ArgbTileProcessor(64, 64 * 4 * 3, ArgbTransforms.tint(0xFF808080)).process(input, output);
+
+        int[] expected = pixels();
+        ArgbOps.tint(expected, 0, PIXELS, 0xFF808080);
+        assertPixels(expected, output);
+        assertPixels(pixels(), input);
+    }
+
+    @Test
+    public void chainsTransformsInPlace() throws IOException {
+        File file = write(folder.newFile("image.argb"));
+
+        new ArgbTileProcessor(100, ArgbTransforms.premultiply(), ArgbTransforms.blend(0x80000000))
+                .processInPlace(file);
+
+        int[] expected = pixels();
+        ArgbOps.premultiply(expected, 0, PIXELS);
+        for (int i = 0; i < PIXELS; i++) {
+            expected[i] = ArgbOps.blend(0x80000000, expected[i]);
+        }
+        assertPixels(expected, file);
+    }
+
+    @Test
+    public void reusesWindowForEveryFile() throws IOException {
+        ArgbTileProcessor processor = new ArgbTileProcessor(64, 64 * 4 * 3, ArgbTransforms.tint(0xFF808080));
+        File large = write(folder.newFile("large.argb"));
+        File small = folder.newFile("small.argb");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(small));
+        try {
+            out.writeInt(0xFF102030);
+        } finally {
+            out.close();
+        }
+
+        processor.processInPlace(large);
+        processor.processInPlace(small);
+
+        int[] expected = pixels();
+        ArgbOps.tint(expected, 0, PIXELS, 0xFF808080);
+        assertPixels(expected, large);
+        int[] single = { 0xFF102030 };
+        ArgbOps.tint(single, 0, 1, 0xFF808080);
+        assertPixels(single, small);
+    }
+
+    private static int[] pixels() {
+        int[] pixels = new int[PIXELS];
+        for (int i = 0; i < PIXELS; i++) {
+            pixels[i] = i * 0x01020304 | 0x40000000;
+        }
+        return pixels;
+    }
+
+    private static File write(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        try {
+            for (int pixel : pixels()) {
+                out.writeInt(pixel);
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static void assertPixels(int[] expected, File file) throws IOException {
+        assertEquals(expected.length * 4L, file.length());
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals("pixel " + i, expected[i], in.readInt());
+            }
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package co.infinum.supportannotations.runtime.concurrent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelChunksTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void runsEveryIndexOnce() {
+        final AtomicIntegerArray runs = new AtomicIntegerArray(110);
+
+        ParallelChunks.run(executor, 10, 100, 3, new ParallelChunks.ChunkTask() {
+            @Override
+            public void run(int chunk, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    runs.incrementAndGet(i);
+                }
+            }
+        });
+
+        for (int i = 0; i < runs.length(); i++) {
+            assertEquals("index " + i, i < 10 ? 0 : 1, runs.get(i));
+        }
+    }
+
+    @Test
+    public void waitsForRunningChunksAndSkipsQueuedOnesWhenAChunkFails() throws Exception {
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final AtomicBoolean firstEnded = new AtomicBoolean();
+        final AtomicBoolean secondRan = new AtomicBoolean();
+        final IllegalArgumentException failure = new IllegalArgumentException("last chunk failed");
+
+        try {
+            // single thread runs the first chunk, the second is queued behind it, the last runs on this thread
+            ParallelChunks.run(executor, 0, 3, 3, new ParallelChunks.ChunkTask() {
+                @Override
+                public void run(int chunk, int from, int to) {
+                    if (chunk == 0) {
+                        firstStarted.countDown();
+                        sleep(100);
+                        firstEnded.set(true);
+                    } else if (chunk == 1) {
+                        secondRan.set(true);
+                    } else {
+                        await(firstStarted);
+                        throw failure;
+                    }
+                }
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertSame(failure, e);
+        }
+
+        assertTrue(firstEnded.get());
+        assertFalse(secondRan.get());
+    }
+
+    @Test
+    public void waitsForOtherChunksWhenInterrupted() throws Exception {
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final AtomicBoolean firstEnded = new AtomicBoolean();
+
+        try {
+            ParallelChunks.run(executor, 0, 2, 2, new ParallelChunks.ChunkTask() {
+                @Override
+                public void run(int chunk, int from, int to) {
+                    if (chunk == 0) {
+                        firstStarted.countDown();
+                        sleep(100);
+                        firstEnded.set(true);
+                    } else {
+                        await(firstStarted);
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(Thread.interrupted());
+        }
+
+        assertTrue(firstEnded.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
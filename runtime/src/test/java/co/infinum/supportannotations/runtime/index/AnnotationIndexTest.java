@@ -0,0 +1,42 @@
+package co.infinum.supportannotations.runtime.index;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Reading indexes which the processor wrote is tested with the processor, see {@code AnnotationIndexWriterTest}.
+ */
+public class AnnotationIndexTest {
+
+    @Test
+    public void writesKeysLikeTheProcessor() {
+        assertEquals("co.infinum.supportannotations.Utility#accepts0to255(int)",
+                AnnotationIndex.methodKey("co.infinum.supportannotations.Utility", "accepts0to255", "int"));
+        assertEquals("a.B$C#<init>(java.lang.String,int[])",
+                AnnotationIndex.methodKey("a.B$C", "<init>", "java.lang.String", "int[]"));
+        assertEquals("a.B#run()", AnnotationIndex.methodKey("a.B", "run"));
+    }
+
+    @Test
+    public void namesResourceAfterModule() {
+        assertEquals("META-INF/co.infinum.supportannotations/app/annotations.idx", AnnotationIndex.resource("app"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOtherFiles() {
+        AnnotationIndex.wrap(ByteBuffer.wrap(new byte[64]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedIndex() {
+        ByteBuffer header = ByteBuffer.allocate(7 * 4);
+        header.putInt(AnnotationIndex.MAGIC).putInt(AnnotationIndex.VERSION).putInt(0).putInt(1).putInt(0).putInt(0)
+                .putInt(2);
+        header.flip();
+
+        AnnotationIndex.wrap(header);
+    }
+}
@@ -0,0 +1,85 @@
+package co.infinum.supportannotations.runtime.permissions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PermissionCacheTest {
+
+    private static final String CAMERA = "android.permission.CAMERA";
+
+    private static final String STORAGE = "android.permission.WRITE_EXTERNAL_STORAGE";
+
+    private static final String LOCATION = "android.permission.ACCESS_FINE_LOCATION";
+
+    private static final PermissionRequirement CAMERA_ONLY = PermissionRequirement.of(CAMERA);
+
+    private static final PermissionRequirement CAMERA_AND_STORAGE = PermissionRequirement.allOf(CAMERA, STORAGE);
+
+    private static final PermissionRequirement CAMERA_OR_STORAGE = PermissionRequirement.anyOf(CAMERA, STORAGE);
+
+    private FakePermissionBackend backend;
+
+    private PermissionCache cache;
+
+    @Before
+    public void setUp() {
+        backend = new FakePermissionBackend(STORAGE);
+        cache = new PermissionCache(backend, CAMERA_ONLY, CAMERA_AND_STORAGE, CAMERA_OR_STORAGE);
+    }
+
+    @Test
+    public void snapshotsEveryPermissionOnce() {
+        assertFalse(cache.isGranted(CAMERA_ONLY));
+        assertFalse(cache.isGranted(CAMERA_AND_STORAGE));
+        assertTrue(cache.isGranted(CAMERA_OR_STORAGE));
+        assertTrue(cache.isGranted(STORAGE));
+
+        assertEquals(2, backend.checkCount());
+        assertEquals(1, cache.refreshCount());
+    }
+
+    @Test
+    public void keepsSnapshotUntilInvalidated() {
+        assertFalse(cache.isGranted(CAMERA_AND_STORAGE));
+
+        backend.grant(CAMERA);
+        assertFalse(cache.isGranted(CAMERA_AND_STORAGE));
+
+        cache.invalidate();
+        assertTrue(cache.isGranted(CAMERA_AND_STORAGE));
+        assertEquals(4, backend.checkCount());
+        assertEquals(1, cache.invalidationCount());
+    }
+
+    @Test
+    public void checksUnknownPermissionsWithBackend() {
+        cache.refresh();
+        long checks = backend.checkCount();
+
+        assertFalse(cache.isGranted(LOCATION));
+        backend.grant(LOCATION);
+        assertTrue(cache.isGranted(PermissionRequirement.of(LOCATION)));
+        assertEquals(checks + 2, backend.checkCount());
+    }
+
+    @Test
+    public void runsActionOnlyWhenGranted() {
+        final AtomicInteger runs = new AtomicInteger();
+        Runnable action = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+
+        assertFalse(cache.runIfGranted(CAMERA_ONLY, action));
+        assertTrue(cache.runIfGranted(CAMERA_OR_STORAGE, action));
+        assertEquals(1, runs.get());
+    }
+}
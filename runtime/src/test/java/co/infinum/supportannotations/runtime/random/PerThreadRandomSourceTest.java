@@ -0,0 +1,40 @@
+package co.infinum.supportannotations.runtime.random;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class PerThreadRandomSourceTest {
+
+    @Test
+    public void seededSourcesRepeatValues() {
+        RandomSource first = PerThreadRandomSource.seeded(42);
+        RandomSource second = PerThreadRandomSource.seeded(42);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextInt(), second.nextInt());
+            assertEquals(first.nextBoolean(), second.nextBoolean());
+        }
+    }
+
+    @Test
+    public void threadsOfSeededSourceGetDifferentValues() throws InterruptedException {
+        final RandomSource source = PerThreadRandomSource.seeded(42);
+        final AtomicInteger other = new AtomicInteger();
+        int mine = source.nextInt();
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                other.set(source.nextInt());
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertNotEquals(mine, other.get());
+    }
+}
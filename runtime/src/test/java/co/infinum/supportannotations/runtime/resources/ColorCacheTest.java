@@ -0,0 +1,58 @@
+package co.infinum.supportannotations.runtime.resources;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ColorCacheTest {
+
+    private static final int COLOR_PRIMARY = 0x7f0b0000;
+
+    private FakeColorResolver resolver;
+
+    private ColorCache cache;
+
+    @Before
+    public void setUp() {
+        resolver = new FakeColorResolver();
+        cache = new ColorCache(resolver);
+    }
+
+    @Test
+    public void resolvesEachColorOnce() {
+        resolver.color = 0xFF3F51B5;
+
+        assertEquals(0xFF3F51B5, cache.getColor(COLOR_PRIMARY));
+        assertEquals(0xFF3F51B5, cache.getColor(COLOR_PRIMARY));
+        assertEquals(1, resolver.calls);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void resolvesAgainAfterInvalidation() {
+        resolver.color = 0xFFFFFFFF;
+        cache.getColor(COLOR_PRIMARY);
+
+        resolver.color = 0xFF000000; // night mode
+        cache.invalidate();
+
+        assertEquals(0xFF000000, cache.getColor(COLOR_PRIMARY));
+        assertEquals(2, resolver.calls);
+        assertEquals(1, cache.invalidationCount());
+    }
+
+    private static class FakeColorResolver implements ColorResolver {
+
+        int color;
+
+        int calls;
+
+        @Override
+        public int resolveColor(int colorRes) {
+            calls++;
+            return color;
+        }
+    }
+}
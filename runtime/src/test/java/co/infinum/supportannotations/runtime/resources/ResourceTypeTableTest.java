@@ -0,0 +1,57 @@
+package co.infinum.supportannotations.runtime.resources;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceTypeTableTest {
+
+    private static final int APP_STRING = 0x7f060000;
+
+    private static final int APP_ID = 0x7f0c0050;
+
+    private static final int APP_MIPMAP = 0x7f030001;
+
+    private static final int FRAMEWORK_STRING = 0x0104000a;
+
+    private final ResourceTypeTable table = new ResourceTypeTable()
+            .put(0x7f, 0x03, ResourceTypeTable.MIPMAP)
+            .put(0x7f, 0x06, ResourceTypeTable.STRING)
+            .put(0x7f, 0x0c, ResourceTypeTable.ID)
+            .put(0x01, 0x04, ResourceTypeTable.STRING);
+
+    @Test
+    public void acceptsIdsOfExpectedType() {
+        assertTrue(table.isOfType(APP_STRING, ResourceTypeTable.STRING));
+        assertTrue(table.isOfType(APP_ID, ResourceTypeTable.ID));
+        assertTrue(table.isOfType(FRAMEWORK_STRING, ResourceTypeTable.STRING));
+        assertTrue(table.isOfType(APP_MIPMAP, ResourceTypeTable.DRAWABLE | ResourceTypeTable.MIPMAP));
+    }
+
+    @Test
+    public void rejectsIdsOfOtherType() {
+        assertFalse(table.isOfType(APP_ID, ResourceTypeTable.STRING));
+        assertFalse(table.isOfType(APP_STRING, ResourceTypeTable.DRAWABLE | ResourceTypeTable.MIPMAP));
+        assertFalse(table.isOfType(0x7f0d0000, ResourceTypeTable.STRING)); // type id not in R
+    }
+
+    @Test
+    public void rejectsValuesWhichAreNotResourceIds() {
+        assertFalse(table.isOfType(0, ResourceTypeTable.STRING));
+        assertFalse(table.isOfType(125000, ResourceTypeTable.STRING));
+        assertFalse(table.isOfType(0xFFFF0000, ResourceTypeTable.COLOR)); // Color.RED
+        assertFalse(table.isOfType(-1, -1));
+    }
+
+    @Test
+    public void acceptsAnyTypeInUnknownPackages() {
+        assertTrue(table.isOfType(0x02030001, ResourceTypeTable.STRING));
+        assertTrue(new ResourceTypeTable().isOfType(APP_ID, ResourceTypeTable.COLOR));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPackageWhichCannotHoldResources() {
+        table.put(0x80, 0x01, ResourceTypeTable.STRING);
+    }
+}
@@ -0,0 +1,92 @@
+package co.infinum.supportannotations.runtime.resources;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringCacheTest {
+
+    private static final int APP_NAME = 0x7f060000;
+
+    private static final int GREETING = 0x7f060001;
+
+    private static final int PRICE = 0x7f060002;
+
+    private FakeStringResolver resolver;
+
+    private StringCache cache;
+
+    @Before
+    public void setUp() {
+        resolver = new FakeStringResolver();
+        cache = new StringCache(resolver, 2, Locale.US);
+    }
+
+    @Test
+    public void resolvesEachStringOnce() {
+        assertEquals("string 0x7f060000", cache.getString(APP_NAME));
+        assertEquals("string 0x7f060000", cache.getString(APP_NAME));
+        assertEquals(1, resolver.calls);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedString() {
+        cache.getString(APP_NAME);
+        cache.getString(GREETING);
+        cache.getString(APP_NAME); // greeting is now the least recently used
+        cache.getString(PRICE);
+
+        assertEquals(1, cache.evictionCount());
+        assertEquals(2, cache.size());
+        cache.getString(APP_NAME);
+        assertEquals(3, resolver.calls);
+        cache.getString(GREETING);
+        assertEquals(4, resolver.calls);
+    }
+
+    @Test
+    public void formatsWithLocale() {
+        resolver.format = "%s costs %,.2f";
+
+        assertEquals("Coffee costs 1,234.50", cache.getString(PRICE, "Coffee", 1234.5));
+        assertEquals("Tea costs 2.00", cache.getString(PRICE, "Tea", 2.0));
+        assertEquals(1, resolver.calls);
+
+        cache.invalidate(Locale.GERMANY);
+        assertEquals("Tea costs 1.234,50", cache.getString(PRICE, "Tea", 1234.5));
+        assertEquals(2, resolver.calls);
+        assertEquals(1, cache.invalidationCount());
+    }
+
+    @Test
+    public void resolvesAgainAfterInvalidation() {
+        cache.getString(APP_NAME);
+        cache.getString(GREETING);
+        cache.invalidate();
+
+        assertEquals(0, cache.size());
+        cache.getString(GREETING);
+        cache.getString(APP_NAME);
+        cache.getString(PRICE);
+        assertEquals(5, resolver.calls);
+        assertEquals(1, cache.evictionCount());
+    }
+
+    private static class FakeStringResolver implements StringResolver {
+
+        String format;
+
+        int calls;
+
+        @Override
+        public String resolveString(int stringRes) {
+            calls++;
+            return format != null ? format : "string 0x" + Integer.toHexString(stringRes);
+        }
+    }
+}
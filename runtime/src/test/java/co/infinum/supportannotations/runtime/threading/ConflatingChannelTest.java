@@ -0,0 +1,151 @@
+package co.infinum.supportannotations.runtime.threading;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConflatingChannelTest {
+
+    private final FakeFrames frames = new FakeFrames();
+
+    private final List<Integer> received = new ArrayList<>();
+
+    private final ConflatingChannel.Receiver<Integer> receiver = new ConflatingChannel.Receiver<Integer>() {
+        @Override
+        public void onReceive(Integer value) {
+            received.add(value);
+        }
+    };
+
+    @Test
+    public void deliversLatestValueOncePerFrame() {
+        ConflatingChannel<Integer> channel = ConflatingChannel.latestWins(frames, receiver);
+        for (int i = 1; i <= 100; i++) {
+            channel.send(i);
+        }
+        assertEquals(1, frames.pending());
+
+        frames.run();
+        assertEquals(1, channel.deliveryCount());
+        assertEquals(100, (int) received.get(0));
+    }
+
+    @Test
+    public void mergesValuesSentBetweenFrames() {
+        ConflatingChannel<Integer> channel = ConflatingChannel.merging(frames, new Sum(), receiver);
+        for (int i = 1; i <= 100; i++) {
+            channel.send(i);
+        }
+        frames.run();
+        channel.send(7);
+        frames.run();
+
+        assertEquals(2, channel.deliveryCount());
+        assertEquals(5050, (int) received.get(0));
+        assertEquals(7, (int) received.get(1));
+    }
+
+    @Test
+    public void valueSentDuringDeliveryIsDeliveredNextFrame() {
+        final List<ConflatingChannel<Integer>> channel = new ArrayList<>();
+        channel.add(ConflatingChannel.latestWins(frames, new ConflatingChannel.Receiver<Integer>() {
+            @Override
+            public void onReceive(Integer value) {
+                received.add(value);
+                if (value == 1) {
+                    channel.get(0).send(2);
+                }
+            }
+        }));
+        channel.get(0).send(1);
+        frames.run();
+        assertEquals(1, frames.pending());
+
+        frames.run();
+        assertEquals(2, (int) received.get(1));
+    }
+
+    @Test
+    public void doesNotDeliverWithoutNewValue() {
+        ConflatingChannel<Integer> channel = ConflatingChannel.latestWins(frames, receiver);
+        channel.send(1);
+        frames.run();
+        frames.run();
+
+        assertEquals(0, frames.pending());
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    public void mergesEveryValueFromConcurrentProducers() throws InterruptedException {
+        final int producers = 4;
+        final int values = 10000;
+        final ConflatingChannel<Integer> channel = ConflatingChannel.merging(frames, new Sum(), receiver);
+        final CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < values; i++) {
+                        channel.send(1);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        while (done.getCount() > 0) {
+            frames.run();
+        }
+        frames.run();
+
+        int sum = 0;
+        for (int value : received) {
+            sum += value;
+        }
+        assertEquals(producers * values, sum);
+        assertEquals(channel.deliveryCount(), received.size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullValue() {
+        ConflatingChannel.latestWins(frames, receiver).send(null);
+    }
+
+    private static final class Sum implements ConflatingChannel.Merger<Integer> {
+
+        @Override
+        public Integer merge(Integer pending, Integer value) {
+            return pending + value;
+        }
+    }
+
+    /**
+     * Queues deliveries until the test runs a frame.
+     */
+    private static final class FakeFrames implements Executor {
+
+        private final Queue<Runnable> callbacks = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void execute(Runnable runnable) {
+            callbacks.add(runnable);
+        }
+
+        int pending() {
+            return callbacks.size();
+        }
+
+        void run() {
+            for (int i = callbacks.size(); i > 0; i--) {
+                callbacks.poll().run();
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package co.infinum.supportannotations.runtime.threading;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SerialLaneTest {
+
+    private static final Executor NO_MAIN_THREAD = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            throw new AssertionError("nothing is submitted from the main thread");
+        }
+    };
+
+    private WorkerDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        ThreadOracle oracle = new ThreadOracle() {
+            @Override
+            public boolean isMainThread() {
+                return false;
+            }
+
+            @Override
+            public boolean isBinderThread() {
+                return false;
+            }
+        };
+        dispatcher = new WorkerDispatcher(oracle, NO_MAIN_THREAD, 4);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void runsWorkOfEveryLaneOneAtATimeInOrder() throws Exception {
+        int lanes = 1000;
+        int increments = 100;
+        Counter[] counters = new Counter[lanes];
+        SerialLane[] serialLanes = new SerialLane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            counters[i] = new Counter();
+            serialLanes[i] = dispatcher.newLane();
+        }
+        for (int n = 0; n < increments; n++) {
+            for (int i = 0; i < lanes; i++) {
+                serialLanes[i].execute(counters[i].incrementTo(n + 1));
+            }
+        }
+        for (int i = 0; i < lanes; i++) {
+            serialLanes[i].submit(new Nothing()).get(5, TimeUnit.SECONDS);
+            assertEquals(increments, counters[i].value);
+            assertFalse(counters[i].failed.get());
+        }
+    }
+
+    @Test
+    public void knowsWhenWorkRunsOnIt() throws Exception {
+        final SerialLane lane = dispatcher.newLane();
+        SerialLane other = dispatcher.newLane();
+        assertFalse(lane.isCurrent());
+
+        assertTrue(lane.submit(new IsCurrent(lane)).get(5, TimeUnit.SECONDS));
+        assertFalse(other.submit(new IsCurrent(lane)).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void carriesOnAfterFailedWork() throws Exception {
+        SerialLane lane = dispatcher.newLane();
+        Future<Void> failed = lane.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                throw new IllegalStateException("failed");
+            }
+        });
+        Future<Void> next = lane.submit(new Nothing());
+
+        next.get(5, TimeUnit.SECONDS);
+        try {
+            failed.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void deliversCallbackOffMainThreadOnTheLane() throws Exception {
+        final SerialLane lane = dispatcher.newLane();
+        final AtomicBoolean onLane = new AtomicBoolean();
+        lane.submit(new Nothing(), new WorkerDispatcher.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+                onLane.set(lane.isCurrent());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                throw new AssertionError(error);
+            }
+        });
+        lane.submit(new Nothing()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(onLane.get());
+    }
+
+    /**
+     * Not thread safe on purpose: lost or reordered increments fail the test.
+     */
+    private static final class Counter {
+
+        final AtomicBoolean failed = new AtomicBoolean();
+
+        final AtomicInteger running = new AtomicInteger();
+
+        int value;
+
+        Runnable incrementTo(final int expected) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    if (running.incrementAndGet() != 1 || ++value != expected) {
+                        failed.set(true);
+                    }
+                    running.decrementAndGet();
+                }
+            };
+        }
+    }
+
+    private static final class Nothing implements Callable<Void> {
+
+        @Override
+        public Void call() {
+            return null;
+        }
+    }
+
+    private static final class IsCurrent implements Callable<Boolean> {
+
+        private final SerialLane lane;
+
+        IsCurrent(SerialLane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Boolean call() {
+            return lane.isCurrent();
+        }
+    }
+}
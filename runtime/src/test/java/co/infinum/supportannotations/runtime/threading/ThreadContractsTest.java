@@ -0,0 +1,93 @@
+package co.infinum.supportannotations.runtime.threading;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import co.infinum.supportannotations.runtime.validation.ContractSampler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ThreadContractsTest {
+
+    private static final int SITE = ContractSampler.register("ThreadContractsTest.check");
+
+    private FakeThreadOracle oracle;
+
+    @Before
+    public void setUp() {
+        oracle = new FakeThreadOracle();
+        ThreadContracts.install(oracle);
+    }
+
+    @After
+    public void tearDown() {
+        ThreadContracts.install(new NamedThreadOracle());
+    }
+
+    @Test
+    public void mainThreadContractsPassOnMainThread() {
+        oracle.main = true;
+        ThreadContracts.checkMainThread(SITE);
+        ThreadContracts.checkUiThread(SITE);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void workerThreadContractFailsOnMainThread() {
+        oracle.main = true;
+        ThreadContracts.checkWorkerThread(SITE);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void uiThreadContractFailsOnWorkerThread() {
+        oracle.main = false;
+        ThreadContracts.checkUiThread(SITE);
+    }
+
+    @Test
+    public void binderThreadContractPassesOnlyOnBinderThread() {
+        oracle.binder = true;
+        ThreadContracts.checkBinderThread(SITE);
+
+        oracle.binder = false;
+        try {
+            ThreadContracts.checkBinderThread(SITE);
+            fail("binder contract not enforced");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void violationNamesRegisteredMethodAndIsCounted() {
+        oracle.main = false;
+        long violations = ContractSampler.violationCount(SITE);
+        try {
+            ThreadContracts.checkMainThread(SITE);
+            fail("main thread contract not enforced");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage(),
+                    expected.getMessage().startsWith("ThreadContractsTest.check must be called from the main thread"));
+        }
+        assertEquals(violations + 1, ContractSampler.violationCount(SITE));
+    }
+
+    private static class FakeThreadOracle implements ThreadOracle {
+
+        boolean main;
+
+        boolean binder;
+
+        @Override
+        public boolean isMainThread() {
+            return main;
+        }
+
+        @Override
+        public boolean isBinderThread() {
+            return binder;
+        }
+    }
+}
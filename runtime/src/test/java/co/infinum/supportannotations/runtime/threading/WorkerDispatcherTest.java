@@ -0,0 +1,203 @@
+package co.infinum.supportannotations.runtime.threading;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WorkerDispatcherTest {
+
+    private final Thread mainThread = Thread.currentThread();
+
+    private final FakeMainThread mainExecutor = new FakeMainThread();
+
+    private WorkerDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        ThreadOracle oracle = new ThreadOracle() {
+            @Override
+            public boolean isMainThread() {
+                return Thread.currentThread() == mainThread;
+            }
+
+            @Override
+            public boolean isBinderThread() {
+                return false;
+            }
+        };
+        dispatcher = new WorkerDispatcher(oracle, mainExecutor, 1);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void movesWorkOffMainThread() throws Exception {
+        Future<Thread> future = dispatcher.submit(new CurrentThread());
+
+        assertNotSame(mainThread, future.get(5, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.queuedCount());
+    }
+
+    @Test
+    public void countsOnlyQueuedWork() throws Exception {
+        dispatcher.shutdown();
+        try {
+            dispatcher.submit(new CurrentThread());
+            fail("work submitted after shutdown");
+        } catch (RejectedExecutionException expected) {
+            // not queued
+        }
+
+        assertEquals(0, dispatcher.queuedCount());
+    }
+
+    @Test
+    public void runsWorkInlineOffMainThread() throws Exception {
+        final AtomicReference<Future<Thread>> inner = new AtomicReference<>();
+        Future<Thread> outer = dispatcher.submit(new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                inner.set(dispatcher.submit(new CurrentThread()));
+                return Thread.currentThread();
+            }
+        });
+
+        Thread worker = outer.get(5, TimeUnit.SECONDS);
+        assertTrue(inner.get().isDone());
+        assertSame(worker, inner.get().get());
+        assertEquals(1, dispatcher.inlineCount());
+    }
+
+    @Test
+    public void deliversCallbackOnMainThread() throws Exception {
+        final List<Thread> deliveredOn = new ArrayList<>();
+        Future<Thread> future = dispatcher.submit(WorkerDispatcher.NORM_PRIORITY, new CurrentThread(),
+                new WorkerDispatcher.Callback<Thread>() {
+                    @Override
+                    public void onResult(Thread result) {
+                        deliveredOn.add(Thread.currentThread());
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        throw new AssertionError(error);
+                    }
+                });
+        future.get(5, TimeUnit.SECONDS);
+        mainExecutor.awaitPosted();
+
+        assertTrue(deliveredOn.isEmpty());
+        mainExecutor.drain();
+        assertEquals(Collections.singletonList(mainThread), deliveredOn);
+    }
+
+    @Test
+    public void runsQueuedWorkByPriority() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.submit(WorkerDispatcher.NORM_PRIORITY, new Runnable() {
+            @Override
+            public void run() {
+                await(release); // keeps the only worker busy until everything is queued
+            }
+        });
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        dispatcher.submit(WorkerDispatcher.MIN_PRIORITY, new Append(order, "low"));
+        dispatcher.submit(WorkerDispatcher.NORM_PRIORITY, new Append(order, "normal 1"));
+        dispatcher.submit(WorkerDispatcher.MAX_PRIORITY, new Append(order, "high"));
+        Future<?> last = dispatcher.submit(WorkerDispatcher.NORM_PRIORITY, new Append(order, "normal 2"));
+
+        assertEquals(4, dispatcher.queueDepth());
+        release.countDown();
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertTrue(last.isDone());
+        assertEquals(Arrays.asList("high", "normal 1", "normal 2", "low"), order);
+        assertTrue(dispatcher.maxWaitNanos() >= dispatcher.averageWaitNanos());
+        assertTrue(dispatcher.averageWaitNanos() > 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class CurrentThread implements Callable<Thread> {
+
+        @Override
+        public Thread call() {
+            return Thread.currentThread();
+        }
+    }
+
+    private static class Append implements Runnable {
+
+        private final List<String> order;
+
+        private final String name;
+
+        Append(List<String> order, String name) {
+            this.order = order;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            order.add(name);
+        }
+    }
+
+    /**
+     * Collects posted runnables, so a test decides when the main thread runs them.
+     */
+    private static class FakeMainThread implements Executor {
+
+        private final Queue<Runnable> posted = new ConcurrentLinkedQueue<>();
+
+        private final CountDownLatch firstPost = new CountDownLatch(1);
+
+        @Override
+        public void execute(Runnable runnable) {
+            posted.add(runnable);
+            firstPost.countDown();
+        }
+
+        void awaitPosted() throws InterruptedException {
+            firstPost.await(5, TimeUnit.SECONDS);
+        }
+
+        void drain() {
+            Runnable runnable;
+            while ((runnable = posted.poll()) != null) {
+                runnable.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package co.infinum.supportannotations.runtime.timing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameBudgetTest {
+
+    private final List<String> overBudget = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        FrameBudget.setListener(null);
+        FrameBudget.setBudget(FrameBudget.DEFAULT_BUDGET_NANOS, TimeUnit.NANOSECONDS);
+        FrameBudget.reset();
+    }
+
+    @Test
+    public void recordsEveryCall() {
+        int site = FrameBudget.register("FrameBudgetTest.recordsEveryCall");
+        for (int i = 0; i < 10; i++) {
+            FrameBudget.end(site, FrameBudget.start());
+        }
+
+        assertEquals("FrameBudgetTest.recordsEveryCall", FrameBudget.method(site));
+        assertEquals(10, FrameBudget.histogram(site).count());
+        assertEquals(0, FrameBudget.overBudgetCount(site));
+    }
+
+    @Test
+    public void reportsCallsOverBudgetWithMethodName() {
+        int site = FrameBudget.register("FrameBudgetTest.slow");
+        FrameBudget.setBudget(1, TimeUnit.MILLISECONDS);
+        FrameBudget.setListener(new FrameBudget.Listener() {
+            @Override
+            public void onOverBudget(String method, long nanos) {
+                overBudget.add(method);
+                assertTrue(nanos > TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        });
+
+        FrameBudget.end(site, FrameBudget.start());
+        FrameBudget.end(site, FrameBudget.start() - TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertEquals(1, FrameBudget.overBudgetCount(site));
+        assertEquals(1, overBudget.size());
+        assertEquals("FrameBudgetTest.slow", overBudget.get(0));
+        assertTrue(FrameBudget.report().contains("FrameBudgetTest.slow: LatencyHistogram{count=2"));
+    }
+}
@@ -0,0 +1,58 @@
+package co.infinum.supportannotations.runtime.timing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueWithoutGaps() {
+        assertEquals(0, LatencyHistogram.lowestValue(0));
+        for (int i = 1; i < LatencyHistogram.BUCKETS; i++) {
+            assertEquals(LatencyHistogram.highestValue(i - 1) + 1, LatencyHistogram.lowestValue(i));
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.lowestValue(i)));
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.highestValue(i)));
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    public void bucketsAreWithinEighthOfTheirValue() {
+        for (int i = LatencyHistogram.SUB_BUCKETS; i < LatencyHistogram.BUCKETS; i++) {
+            long lowest = LatencyHistogram.lowestValue(i);
+            long width = LatencyHistogram.highestValue(i) - lowest + 1;
+            assertTrue(width <= lowest / 8);
+        }
+    }
+
+    @Test
+    public void reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500500, histogram.averageNanos());
+        assertEquals(1000000, histogram.maxNanos());
+        assertEquals(1000000, histogram.valueAtPercentile(100));
+        long median = histogram.valueAtPercentile(50);
+        assertTrue(median >= 500000 && median <= 500000 * 9 / 8);
+        long p99 = histogram.valueAtPercentile(99);
+        assertTrue(p99 >= 990000 && p99 <= 1000000);
+    }
+
+    @Test
+    public void resets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5);
+        histogram.record(-1);
+        histogram.reset();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.maxNanos());
+        assertEquals(0, histogram.valueAtPercentile(50));
+    }
+}
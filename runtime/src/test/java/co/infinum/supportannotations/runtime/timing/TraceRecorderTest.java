@@ -0,0 +1,150 @@
+package co.infinum.supportannotations.runtime.timing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceRecorderTest {
+
+    private static final int MAIN = TraceRecorder.register("TraceRecorderTest.main", "MainThread");
+
+    private static final int WORKER = TraceRecorder.register("TraceRecorderTest.\"worker\"", "WorkerThread");
+
+    @After
+    public void tearDown() {
+        TraceRecorder.setMaxThreads(TraceRecorder.DEFAULT_MAX_THREADS);
+        TraceRecorder.setBufferCapacity(TraceRecorder.DEFAULT_BUFFER_CAPACITY);
+        TraceRecorder.clear();
+    }
+
+    @Test
+    public void writesEventsOfEveryThreadAsChromeTrace() throws Exception {
+        TraceRecorder.enter(MAIN);
+        TraceRecorder.exit(MAIN);
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                TraceRecorder.enter(WORKER);
+                TraceRecorder.exit(WORKER);
+            }
+        }, "trace-worker");
+        worker.start();
+        worker.join();
+
+        String trace = trace();
+        assertTrue(trace.startsWith("{\"traceEvents\":["));
+        assertTrue(trace.contains("{\"name\":\"TraceRecorderTest.main\",\"cat\":\"MainThread\",\"ph\":\"B\",\"pid\":1,"
+                + "\"tid\":" + Thread.currentThread().getId() + ",\"ts\":"));
+        assertTrue(trace.contains("\"name\":\"TraceRecorderTest.main\",\"cat\":\"MainThread\",\"ph\":\"E\""));
+        assertTrue(trace.contains("\"name\":\"TraceRecorderTest.\\\"worker\\\"\",\"cat\":\"WorkerThread\",\"ph\":\"B\""));
+        assertTrue(trace.contains("\"tid\":" + worker.getId() + ",\"args\":{\"name\":\"trace-worker\"}"));
+    }
+
+    @Test
+    public void writesTimestampsSinceFirstUse() throws Exception {
+        TraceRecorder.enter(MAIN);
+
+        Matcher timestamp = Pattern.compile("\"ts\":(-?\\d+)\\.(\\d{3})}").matcher(trace());
+        assertTrue(timestamp.find());
+        long micros = Long.parseLong(timestamp.group(1));
+        assertTrue(String.valueOf(micros), micros >= 0);
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        assertTrue(String.valueOf(micros), micros <= TimeUnit.MILLISECONDS.toMicros(uptime));
+        assertFalse(timestamp.find());
+    }
+
+    @Test
+    public void keepsOnlyNewestEventsOnceFull() throws Exception {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < TraceRecorder.DEFAULT_BUFFER_CAPACITY; i++) {
+                    TraceRecorder.enter(MAIN);
+                }
+                TraceRecorder.exit(WORKER);
+            }
+        }, "trace-full");
+        thread.start();
+        thread.join();
+
+        String trace = trace();
+        int events = trace.split("\"ph\":\"B\",\"pid\":1,\"tid\":" + thread.getId() + ",").length - 1;
+        assertEquals(TraceRecorder.DEFAULT_BUFFER_CAPACITY - 2, events); // one slot is kept free for writing
+        assertTrue(trace.contains("\"ph\":\"E\",\"pid\":1,\"tid\":" + thread.getId() + ","));
+    }
+
+    @Test
+    public void forgetsClearedEvents() throws Exception {
+        TraceRecorder.enter(MAIN);
+        TraceRecorder.clear();
+
+        assertFalse(trace().contains("\"tid\":" + Thread.currentThread().getId() + ",\"ts\":"));
+    }
+
+    @Test
+    public void dropsBufferOfDeadThreadOnceWritten() throws Exception {
+        Thread thread = record("trace-dead", 1);
+
+        assertTrue(trace().contains("\"tid\":" + thread.getId() + ",\"args\""));
+        assertFalse(trace().contains("\"tid\":" + thread.getId() + ",\"args\""));
+    }
+
+    @Test
+    public void keepsBuffersBoundedWhileThreadsComeAndGo() throws Exception {
+        TraceRecorder.setBufferCapacity(16);
+        TraceRecorder.setMaxThreads(8);
+
+        for (int i = 0; i < 1000; i++) {
+            record("trace-pool-" + i, 1);
+            assertTrue(TraceRecorder.bufferCount() <= 8);
+        }
+
+        // oldest dead threads made room for new ones
+        String trace = trace();
+        assertTrue(trace.contains("\"name\":\"trace-pool-999\""));
+        assertFalse(trace.contains("\"name\":\"trace-pool-0\""));
+    }
+
+    @Test
+    public void recordsNothingOnNewThreadsWhileEveryBufferedThreadIsAlive() throws Exception {
+        TraceRecorder.clear();
+        TraceRecorder.enter(MAIN); // the test thread has a buffer
+        TraceRecorder.setMaxThreads(TraceRecorder.bufferCount());
+
+        Thread thread = record("trace-no-room", 1);
+
+        assertFalse(trace().contains("\"tid\":" + thread.getId() + ","));
+    }
+
+    /**
+     * Records {@code events} on a new thread named {@code name} and returns it once it died.
+     */
+    private static Thread record(String name, final int events) throws InterruptedException {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < events; i++) {
+                    TraceRecorder.enter(WORKER);
+                }
+            }
+        }, name);
+        thread.start();
+        thread.join();
+        return thread;
+    }
+
+    private static String trace() throws IOException {
+        StringBuilder trace = new StringBuilder();
+        TraceRecorder.writeChromeTrace(trace);
+        return trace.toString();
+    }
+}
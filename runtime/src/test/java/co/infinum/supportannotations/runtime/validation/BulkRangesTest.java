@@ -0,0 +1,86 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BulkRangesTest {
+
+    private static final IntRangeSpec BYTE_RANGE = IntRangeSpec.of(0, 255);
+
+    private static final FloatRangeSpec EXCLUSIVE_RANGE = FloatRangeSpec.of(-1, false, 1, false);
+
+    @Test
+    public void findsIntValuesOutOfRange() {
+        int[] values = new int[1000];
+        values[300] = 256;
+        values[700] = Integer.MIN_VALUE;
+        values[999] = -1;
+
+        assertEquals(300, BulkRanges.firstOutOfRange(values, BYTE_RANGE));
+        assertEquals(700, BulkRanges.firstOutOfRange(values, 301, 699, BYTE_RANGE));
+
+        int[] indices = new int[2];
+        assertEquals(3, BulkRanges.outOfRangeIndices(values, 0, values.length, BYTE_RANGE, indices));
+        assertArrayEquals(new int[] { 300, 700 }, indices);
+    }
+
+    @Test
+    public void handlesRangesWiderThanInt() {
+        int[] values = { Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE };
+
+        assertEquals(BulkRanges.NOT_FOUND, BulkRanges.firstOutOfRange(values,
+                IntRangeSpec.of(Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals(3, BulkRanges.firstOutOfRange(values, IntRangeSpec.of(Integer.MIN_VALUE, 0)));
+        assertEquals(0, BulkRanges.firstOutOfRange(values, IntRangeSpec.of(1L << 40, 1L << 41)));
+    }
+
+    @Test
+    public void respectsExclusiveFloatBounds() {
+        float[] values = { 0f, -0.99f, 1f, Float.NaN, -1f, 0.5f };
+
+        assertEquals(2, BulkRanges.firstOutOfRange(values, EXCLUSIVE_RANGE));
+        assertEquals(3, BulkRanges.outOfRangeIndices(values, 0, values.length, EXCLUSIVE_RANGE, new int[0]));
+        assertEquals(BulkRanges.NOT_FOUND, BulkRanges.firstOutOfRange(new float[] { 0f, 3f }, FloatRangeSpec.of(0, 3)));
+    }
+
+    @Test
+    public void validatesBufferSlicesWithAbsoluteIndices() {
+        IntBuffer heap = IntBuffer.wrap(new int[] { 500, 1, 2, 300, 4 });
+        heap.position(1);
+        assertEquals(2, BulkRanges.firstOutOfRange(heap.slice(), BYTE_RANGE));
+        assertEquals(3, BulkRanges.firstOutOfRange(heap, BYTE_RANGE));
+        assertEquals(1, heap.position());
+
+        FloatBuffer direct = ByteBuffer.allocateDirect(4 * 4).asFloatBuffer();
+        direct.put(new float[] { 2f, 0f, 0.5f, 1f }).flip();
+        direct.position(1);
+        int[] indices = new int[4];
+        assertEquals(1, BulkRanges.outOfRangeIndices(direct, EXCLUSIVE_RANGE, indices));
+        assertEquals(3, indices[0]);
+    }
+
+    @Test
+    public void parallelValidatorMatchesSequentialOne() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ParallelRangeValidator validator = new ParallelRangeValidator(executor, 4, 16);
+            int[] values = new int[10_001];
+            values[2_500] = 256;
+            values[7_777] = -5;
+
+            assertEquals(2_500, validator.firstOutOfRange(values, BYTE_RANGE));
+            assertArrayEquals(new int[] { 2_500, 7_777 }, validator.outOfRangeIndices(values, BYTE_RANGE));
+            assertEquals(BulkRanges.NOT_FOUND, validator.firstOutOfRange(new float[100], EXCLUSIVE_RANGE));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
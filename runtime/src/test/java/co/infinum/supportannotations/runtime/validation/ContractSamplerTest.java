@@ -0,0 +1,135 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContractSamplerTest {
+
+    @After
+    public void tearDown() {
+        ContractSampler.setSampling(false);
+        ContractSampler.setTargetChecksPerSecond(ContractSampler.DEFAULT_TARGET_CHECKS_PER_SECOND);
+        ContractSampler.setMaxPeriod(ContractSampler.DEFAULT_MAX_PERIOD);
+        ContractSampler.reset();
+    }
+
+    @Test
+    public void checksEveryCallUntilSamplingIsEnabled() {
+        int site = ContractSampler.register("ContractSamplerTest.disabled");
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ContractSampler.sample(site));
+        }
+
+        assertEquals(0, ContractSampler.callCount(site));
+        assertEquals(1, ContractSampler.period(site));
+    }
+
+    @Test
+    public void checksFewerCallsOfHotSite() {
+        int site = ContractSampler.register("ContractSamplerTest.hot");
+        ContractSampler.setSampling(true);
+
+        long checked = callFor(site, 4 * ContractSampler.ADAPT_INTERVAL_NANOS);
+
+        assertTrue(ContractSampler.period(site) > 1);
+        assertTrue(ContractSampler.effectiveRate(site) < 1);
+        assertEquals(checked, ContractSampler.checkedCount(site));
+        assertTrue(ContractSampler.callCount(site) > checked);
+    }
+
+    @Test
+    public void keepsCheckingEveryCallOfSiteUnderTarget() {
+        int site = ContractSampler.register("ContractSamplerTest.underTarget");
+        ContractSampler.setTargetChecksPerSecond(Long.MAX_VALUE);
+        ContractSampler.setSampling(true);
+
+        callFor(site, 3 * ContractSampler.ADAPT_INTERVAL_NANOS);
+
+        assertEquals(1, ContractSampler.period(site));
+        assertEquals(1, ContractSampler.effectiveRate(site), 0);
+    }
+
+    @Test
+    public void neverExceedsMaxPeriod() {
+        int site = ContractSampler.register("ContractSamplerTest.maxPeriod");
+        ContractSampler.setMaxPeriod(8);
+        ContractSampler.setSampling(true);
+
+        callFor(site, 6 * ContractSampler.ADAPT_INTERVAL_NANOS);
+
+        assertTrue(ContractSampler.period(site) <= 8);
+    }
+
+    @Test
+    public void checksMoreOftenAfterViolation() {
+        int site = ContractSampler.register("ContractSamplerTest.violated");
+        ContractSampler.setSampling(true);
+        callFor(site, 6 * ContractSampler.ADAPT_INTERVAL_NANOS);
+        int period = ContractSampler.period(site);
+        assertTrue(period >= 4);
+
+        assertFalse(ViolationReporter.record(site, 256));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ContractSampler.period(site) == period && System.nanoTime() < deadline) {
+            ContractSampler.sample(site);
+        }
+
+        assertEquals(period / 4, ContractSampler.period(site));
+        assertEquals(1, ContractSampler.violationCount(site));
+        assertTrue(ContractSampler.report().contains("ContractSamplerTest.violated: checked "));
+    }
+
+    @Test
+    public void countsViolationsThrownAndRecorded() {
+        int site = ContractSampler.register("ContractSamplerTest.counted");
+
+        assertFalse(ViolationReporter.record(site, 3));
+        ViolationReporter.setReporting(true);
+        try {
+            assertTrue(ViolationReporter.record(site, 3.5));
+        } finally {
+            ViolationReporter.setReporting(false);
+            ViolationReporter.reset();
+        }
+
+        assertEquals(2, ContractSampler.violationCount(site));
+    }
+
+    @Test
+    public void reportsRatesWithDotInEveryLocale() {
+        int site = ContractSampler.register("ContractSamplerTest.locale");
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            ContractSampler.setSampling(true);
+            ContractSampler.sample(site);
+
+            assertTrue(ContractSampler.report().contains("ContractSamplerTest.locale: checked 1 of 1 calls (100.00%)"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    /**
+     * Calls {@code site} for {@code nanos} and returns number of calls which were checked.
+     */
+    private static long callFor(int site, long nanos) {
+        long checked = 0;
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 1000; i++) {
+                if (ContractSampler.sample(site)) {
+                    checked++;
+                }
+            }
+        }
+        return checked;
+    }
+}
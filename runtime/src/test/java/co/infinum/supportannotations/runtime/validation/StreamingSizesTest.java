@@ -0,0 +1,114 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StreamingSizesTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final SizeSpec AT_LEAST_1 = SizeSpec.between(1, Long.MAX_VALUE);
+
+    private static final SizeSpec MULTIPLE_OF_2 = SizeSpec.of(-1, Long.MIN_VALUE, Long.MAX_VALUE, 2);
+
+    private static final SizeSpec COMBO = SizeSpec.of(-1, 6, 12, 3);
+
+    /**
+     * One, two, three and four byte characters, the last one a surrogate pair.
+     */
+    private static final String[] CHARACTERS = { "a", "\u00e9", "\u20ac", "\ud83d\ude00" };
+
+    @Test
+    public void countsUtf16UnitsOfUtf8() {
+        Random random = new Random(7);
+        for (int length = 0; length < 300; length++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                text.append(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+            }
+            String string = text.toString();
+
+            assertEquals(string.length(), StreamingSizes.utf16Length(heap(string), Long.MAX_VALUE));
+            assertEquals(string.length(), StreamingSizes.utf16Length(direct(string), Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void countsOnlyRemainingBytesWithoutMovingPosition() {
+        ByteBuffer buffer = heap("xx\u20ac\u20acyy");
+        buffer.position(2);
+        buffer.limit(buffer.limit() - 1);
+
+        assertEquals(3, StreamingSizes.utf16Length(buffer, Long.MAX_VALUE));
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void stopsCountingOnceLimitIsExceeded() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            text.append('a');
+        }
+
+        int counted = StreamingSizes.utf16Length(heap(text.toString()), 100);
+
+        assertTrue(counted > 100);
+        assertTrue(counted < 10_000);
+    }
+
+    @Test
+    public void matchesSameAsDecodedString() {
+        String[] texts = { "", "a", "ab", "abcdef", "\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac",
+                "\ud83d\ude00\ud83d\ude00\ud83d\ude00", "abcdefghijkl", "abcdefghijklm" };
+        for (String text : texts) {
+            for (SizeSpec size : new SizeSpec[] { AT_LEAST_1, MULTIPLE_OF_2, COMBO, SizeSpec.exactly(10) }) {
+                boolean expected = size.contains(text.length());
+
+                assertEquals(text + " " + size, expected, StreamingSizes.matchesUtf8(heap(text), size));
+                assertEquals(expected, StreamingSizes.matches(new StringBuilder(text), size));
+                assertEquals(expected, StreamingSizes.matches(("x" + text).toCharArray(), 1, text.length(), size));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsBuffersOutOfBoundsByByteCount() {
+        assertFalse(StreamingSizes.matchesUtf8(heap("abcd"), SizeSpec.between(5, 10)));
+        assertFalse(StreamingSizes.matchesUtf8(heap("\u20ac\u20ac\u20ac\u20ac"), SizeSpec.between(0, 3)));
+        assertTrue(StreamingSizes.matchesUtf8(heap("\u20ac\u20ac\u20ac\u20ac"), SizeSpec.between(0, 4)));
+    }
+
+    @Test
+    public void reportsExactSizeOfViolation() {
+        try {
+            ByteBuffer sevenEuros = heap("\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac");
+            StreamingSizes.checkUtf8("Utility.sizeCombo", "text", sevenEuros, COMBO);
+            fail("7 characters passed");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Utility.sizeCombo(text): size 7 is not at least 6, at most 12, multiple of 3",
+                    e.getMessage());
+        }
+        StreamingSizes.check("Utility.sizeAtLeast1", "text", "a", AT_LEAST_1);
+        StreamingSizes.check("Utility.sizeMultipleOf2", "text", new char[4], 1, 2, MULTIPLE_OF_2);
+    }
+
+    private static ByteBuffer heap(String text) {
+        return ByteBuffer.wrap(text.getBytes(UTF_8));
+    }
+
+    private static ByteBuffer direct(String text) {
+        byte[] bytes = text.getBytes(UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+}
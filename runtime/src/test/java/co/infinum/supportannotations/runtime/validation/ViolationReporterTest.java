@@ -0,0 +1,106 @@
+package co.infinum.supportannotations.runtime.validation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ViolationReporterTest {
+
+    private final List<String> heard = new ArrayList<>();
+
+    private final ViolationReporter.Listener listener = new ViolationReporter.Listener() {
+        @Override
+        public void onViolation(String method, String value, String thread, long suppressed) {
+            heard.add(method + " " + value + " " + suppressed);
+        }
+    };
+
+    @After
+    public void tearDown() {
+        ViolationReporter.setReporting(false);
+        ViolationReporter.setEscalateFirst(false);
+        ViolationReporter.setEmitInterval(ViolationReporter.DEFAULT_EMIT_INTERVAL_MILLIS);
+        ViolationReporter.setListener(null);
+        ViolationReporter.reset();
+        ContractSampler.reset();
+    }
+
+    @Test
+    public void recordsNothingUntilReportingIsEnabled() {
+        int site = ContractSampler.register("ViolationReporterTest.disabled");
+
+        assertFalse(ViolationReporter.record(site, 256));
+        assertEquals(0, ViolationReporter.recordedCount(site));
+        assertNull(ViolationReporter.lastValue(site));
+    }
+
+    @Test
+    public void deduplicatesViolationsOfSite() {
+        int site = ContractSampler.register("ViolationReporterTest.storm");
+        ViolationReporter.setListener(listener);
+        ViolationReporter.setReporting(true);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ViolationReporter.record(site, 256 + i));
+        }
+
+        assertEquals(1000, ViolationReporter.recordedCount(site));
+        assertEquals(1000, ContractSampler.violationCount(site));
+        assertEquals("1255", ViolationReporter.lastValue(site));
+        assertEquals(1, heard.size());
+        assertEquals("ViolationReporterTest.storm 256 0", heard.get(0));
+        assertTrue(ViolationReporter.report().contains("ViolationReporterTest.storm: 1000 violations, last 1255"));
+    }
+
+    @Test
+    public void tellsListenerHowManyViolationsItMissed() throws InterruptedException {
+        int site = ContractSampler.register("ViolationReporterTest.suppressed");
+        ViolationReporter.setEmitInterval(100); // long enough for the loop, even on a loaded machine
+        ViolationReporter.setListener(listener);
+        ViolationReporter.setReporting(true);
+
+        ViolationReporter.record(site, 1.5);
+        for (int i = 0; i < 10; i++) {
+            ViolationReporter.record(site, 2.5);
+        }
+        Thread.sleep(150);
+        ViolationReporter.record(site, 3.5);
+
+        assertEquals(2, heard.size());
+        assertEquals("ViolationReporterTest.suppressed 1.5 0", heard.get(0));
+        assertEquals("ViolationReporterTest.suppressed 3.5 10", heard.get(1));
+    }
+
+    @Test
+    public void letsFirstViolationThrowWhenEscalating() {
+        int site = ContractSampler.register("ViolationReporterTest.escalated");
+        ViolationReporter.setEscalateFirst(true);
+        ViolationReporter.setReporting(true);
+
+        assertFalse(ViolationReporter.record(site, 256));
+        assertTrue(ViolationReporter.record(site, 257));
+        assertTrue(ViolationReporter.record(site, 258));
+
+        assertEquals(2, ViolationReporter.recordedCount(site));
+        assertEquals("258", ViolationReporter.lastValue(site));
+    }
+
+    @Test
+    public void forgetsViolationsOnReset() {
+        int site = ContractSampler.register("ViolationReporterTest.reset");
+        ViolationReporter.setReporting(true);
+        ViolationReporter.record(site, 256);
+
+        ViolationReporter.reset();
+
+        assertEquals(0, ViolationReporter.recordedCount(site));
+        assertEquals("", ViolationReporter.report());
+    }
+}